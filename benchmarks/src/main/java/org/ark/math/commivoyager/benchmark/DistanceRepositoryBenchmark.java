@@ -0,0 +1,94 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.repository.impl.InMemoryDistanceRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single get/save calls against a repository that already holds a full matrix of the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DistanceRepositoryBenchmark
+{
+	@Param({"10", "100", "1000", "3000"})
+	private int cities;
+
+	private InMemoryDistanceRepository repository;
+	private CityPair[] cityPairs;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		final List<City> cityList = Instances.cities(cities);
+		repository = new InMemoryDistanceRepository();
+		cityPairs = new CityPair[cities * cities];
+		int index = 0;
+		for (final City city1 : cityList)
+		{
+			for (final City city2 : cityList)
+			{
+				cityPairs[index] = new CityPair(city1, city2, null);
+				repository.saveCostBetween(cityPairs[index], (double) index);
+				index++;
+			}
+		}
+	}
+
+	@Benchmark
+	public Double getCostBetween()
+	{
+		return repository.getCostBetweeen(nextCityPair());
+	}
+
+	@Benchmark
+	public double getCost()
+	{
+		final CityPair cityPair = nextCityPair();
+		return repository.getCost(cityPair.getCity1(), cityPair.getCity2());
+	}
+
+	@Benchmark
+	public void saveCostBetween()
+	{
+		repository.saveCostBetween(nextCityPair(), 42.0);
+	}
+
+	private CityPair nextCityPair()
+	{
+		final CityPair cityPair = cityPairs[next];
+		next = next + 1 == cityPairs.length ? 0 : next + 1;
+		return cityPair;
+	}
+}
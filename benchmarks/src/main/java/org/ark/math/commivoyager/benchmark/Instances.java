@@ -0,0 +1,130 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+
+/**
+ * Seeded benchmark instances: uniformly random costs or euclidean distances between points grouped in clusters.
+ */
+public final class Instances
+{
+	public static final long SEED = 20160101L;
+
+	public enum Kind
+	{
+		RANDOM,
+		CLUSTERED
+	}
+
+	private static final int PLANE_SIZE = 10000;
+
+	private Instances()
+	{
+	}
+
+	public static List<City> cities(final int size)
+	{
+		final List<City> cities = new ArrayList<>(size);
+		for (int id = 1; id <= size; id++)
+		{
+			cities.add(new City(id, "city" + id));
+		}
+		return cities;
+	}
+
+	public static DenseCostMatrix matrix(final int size, final Kind kind, final boolean symmetrical)
+	{
+		final Random rnd = new Random(SEED);
+		final DenseCostMatrix matrix = new DenseCostMatrix(cities(size));
+		if (Kind.RANDOM.equals(kind))
+		{
+			for (int row = 0; row < size; row++)
+			{
+				for (int column = 0; column < size; column++)
+				{
+					if (row != column)
+					{
+						matrix.setCost(row, column, 1 + rnd.nextInt(PLANE_SIZE));
+					}
+				}
+			}
+		}
+		else
+		{
+			final double[] x = new double[size];
+			final double[] y = new double[size];
+			final int clusters = Math.max(1, (int) Math.sqrt(size) / 2);
+			final double[] centerX = new double[clusters];
+			final double[] centerY = new double[clusters];
+			for (int cluster = 0; cluster < clusters; cluster++)
+			{
+				centerX[cluster] = rnd.nextDouble() * PLANE_SIZE;
+				centerY[cluster] = rnd.nextDouble() * PLANE_SIZE;
+			}
+			final double spread = PLANE_SIZE / (4.0 * clusters);
+			for (int city = 0; city < size; city++)
+			{
+				final int cluster = rnd.nextInt(clusters);
+				x[city] = centerX[cluster] + rnd.nextGaussian() * spread;
+				y[city] = centerY[cluster] + rnd.nextGaussian() * spread;
+			}
+			for (int row = 0; row < size; row++)
+			{
+				for (int column = 0; column < size; column++)
+				{
+					if (row != column)
+					{
+						matrix.setCost(row, column, Math.round(Math.hypot(x[row] - x[column], y[row] - y[column])));
+					}
+				}
+			}
+		}
+		if (symmetrical)
+		{
+			for (int row = 0; row < size; row++)
+			{
+				for (int column = row + 1; column < size; column++)
+				{
+					matrix.setCost(column, row, matrix.getCost(row, column));
+				}
+			}
+		}
+		return matrix;
+	}
+
+	public static Set<CityPair> cityPairs(final CostMatrix matrix)
+	{
+		final int size = matrix.size();
+		final Set<CityPair> cityPairs = new HashSet<>(size * size * 2);
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = 0; column < size; column++)
+			{
+				if (row != column)
+				{
+					cityPairs.add(new CityPair(matrix.getCity(row), matrix.getCity(column), matrix.getCost(row, column)));
+				}
+			}
+		}
+		return cityPairs;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.benchmark;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.ark.math.commivoyager.algorithm.OptimizationStrategy;
+import org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End to end {@link OptimizationStrategy#optimize} including the CityPair front end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OptimizationStrategyBenchmark
+{
+	@Param({"10", "100", "500", "1000"})
+	private int cities;
+
+	@Param({"RANDOM", "CLUSTERED"})
+	private Instances.Kind kind;
+
+	@Param({"DISTANCE", "DISTANCE_SYMMETRICAL"})
+	private OptimizeBy optimizeBy;
+
+	private OptimizationStrategy optimizationStrategy;
+	private Set<CityPair> seedRoute;
+	private City startCity;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		optimizationStrategy = new OptimizationStrategy();
+		seedRoute = Instances.cityPairs(Instances.matrix(cities, kind, false));
+		startCity = new City(1, "city1");
+	}
+
+	@Benchmark
+	public List<City> optimize()
+	{
+		return optimizationStrategy.optimize(seedRoute, startCity, optimizeBy);
+	}
+}
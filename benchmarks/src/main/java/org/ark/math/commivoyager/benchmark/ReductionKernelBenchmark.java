@@ -0,0 +1,113 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ark.math.commivoyager.algorithm.ReductionKernels;
+import org.ark.math.commivoyager.algorithm.ReductionMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full-matrix reduction passes with the scalar and the preferred (Vector API on java 17) kernels, single threaded so
+ * that the score is the throughput of one core; cells per second are the score times cities^2.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "--add-modules", "jdk.incubator.vector" })
+public class ReductionKernelBenchmark
+{
+	public enum Kernels
+	{
+		SCALAR,
+		PREFERRED
+	}
+
+	/**
+	 * A 10000 city matrix takes 800 MB per copy, so the unreduced and the reduced source live in separate states and
+	 * only the one a benchmark needs is built.
+	 */
+	@State(Scope.Thread)
+	public static class MatrixState
+	{
+		@Param({"1000", "4000", "10000"})
+		private int cities;
+
+		@Param({"SCALAR", "PREFERRED"})
+		private Kernels kernels;
+
+		private ReductionMatrix source;
+		protected ReductionMatrix matrix;
+
+		@Setup(Level.Trial)
+		public void setUpTrial()
+		{
+			source = new ReductionMatrix(Instances.matrix(cities, Instances.Kind.RANDOM, false),
+					kernels == Kernels.SCALAR ? ReductionKernels.scalar() : ReductionKernels.preferred());
+			prepare(source);
+		}
+
+		@Setup(Level.Invocation)
+		public void setUpInvocation()
+		{
+			// drop the previous copy first, two of them do not fit next to the source at 10000 cities
+			matrix = null;
+			matrix = source.copy();
+		}
+
+		protected void prepare(final ReductionMatrix source)
+		{
+		}
+	}
+
+	public static class ReducedMatrixState extends MatrixState
+	{
+		@Override
+		protected void prepare(final ReductionMatrix source)
+		{
+			source.reduce();
+		}
+	}
+
+	@Benchmark
+	public long reduceRows(final MatrixState state)
+	{
+		return state.matrix.reduceRows();
+	}
+
+	@Benchmark
+	public long reduceColumns(final MatrixState state)
+	{
+		return state.matrix.reduceColumns();
+	}
+
+	@Benchmark
+	public int selectBranchingCell(final ReducedMatrixState state)
+	{
+		return state.matrix.selectBranchingCell();
+	}
+}
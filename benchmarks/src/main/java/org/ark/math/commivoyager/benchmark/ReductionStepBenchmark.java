@@ -0,0 +1,98 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ark.math.commivoyager.algorithm.ReductionMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single reduction steps on a fresh copy of the matrix; the copy itself is made outside of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReductionStepBenchmark
+{
+	@Param({"10", "100", "1000", "4000"})
+	private int cities;
+
+	@Param({"RANDOM", "CLUSTERED"})
+	private Instances.Kind kind;
+
+	private ReductionMatrix source;
+	private ReductionMatrix reducedSource;
+	private ReductionMatrix matrix;
+	private ReductionMatrix reducedMatrix;
+
+	@Setup(Level.Trial)
+	public void setUpTrial()
+	{
+		source = new ReductionMatrix(Instances.matrix(cities, kind, false));
+		reducedSource = source.copy();
+		reducedSource.reduce();
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpInvocation()
+	{
+		matrix = source.copy();
+		reducedMatrix = reducedSource.copy();
+	}
+
+	@Benchmark
+	public long reduceRows()
+	{
+		return matrix.reduceRows();
+	}
+
+	@Benchmark
+	public long reduceColumns()
+	{
+		return matrix.reduceColumns();
+	}
+
+	@Benchmark
+	public long reduce()
+	{
+		return matrix.reduce();
+	}
+
+	@Benchmark
+	public int selectBranchingCell()
+	{
+		return reducedMatrix.selectBranchingCell();
+	}
+
+	@Benchmark
+	public ReductionMatrix include()
+	{
+		final int cell = reducedMatrix.selectBranchingCell();
+		reducedMatrix.include(cell / cities, cell % cities);
+		return reducedMatrix;
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.ark.math.commivoyager.algorithm.BranchAndBoundSolver;
+import org.ark.math.commivoyager.algorithm.HeldKarpSolver;
+import org.ark.math.commivoyager.algorithm.ParallelBranchAndBoundSolver;
+import org.ark.math.commivoyager.algorithm.ReductionEngine;
+import org.ark.math.commivoyager.algorithm.SearchResult;
+import org.ark.math.commivoyager.algorithm.heuristic.IslandSolver;
+import org.ark.math.commivoyager.algorithm.heuristic.LinKernighanSolver;
+import org.ark.math.commivoyager.algorithm.heuristic.LocalSearchSolver;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solvers on a prebuilt cost matrix. The branch and bound benchmarks share one state so the sequential and parallel
+ * numbers for the same instance can be read as a speedup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RouteSolverBenchmark
+{
+	@State(Scope.Benchmark)
+	public static class ReductionState
+	{
+		@Param({"10", "100", "1000", "4000"})
+		private int cities;
+
+		@Param({"RANDOM", "CLUSTERED"})
+		private Instances.Kind kind;
+
+		private final ReductionEngine reductionEngine = new ReductionEngine();
+		private DenseCostMatrix costMatrix;
+
+		@Setup(Level.Trial)
+		public void setUp()
+		{
+			costMatrix = Instances.matrix(cities, kind, false);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class BranchAndBoundState
+	{
+		@Param({"10", "20", "30"})
+		private int cities;
+
+		@Param({"RANDOM", "CLUSTERED"})
+		private Instances.Kind kind;
+
+		@Param({"1", "2", "4", "8"})
+		private int parallelism;
+
+		private final BranchAndBoundSolver branchAndBoundSolver = new BranchAndBoundSolver();
+		private final ParallelBranchAndBoundSolver parallelBranchAndBoundSolver = new ParallelBranchAndBoundSolver();
+		private DenseCostMatrix costMatrix;
+
+		@Setup(Level.Trial)
+		public void setUp()
+		{
+			costMatrix = Instances.matrix(cities, kind, false);
+			parallelBranchAndBoundSolver.setParallelism(parallelism);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown()
+		{
+			parallelBranchAndBoundSolver.shutdown();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class HeldKarpState
+	{
+		@Param({"12", "16", "20"})
+		private int cities;
+
+		@Param({"1", "4"})
+		private int parallelism;
+
+		private final HeldKarpSolver heldKarpSolver = new HeldKarpSolver();
+		private ForkJoinPool forkJoinPool;
+		private DenseCostMatrix costMatrix;
+
+		@Setup(Level.Trial)
+		public void setUp()
+		{
+			costMatrix = Instances.matrix(cities, Instances.Kind.RANDOM, false);
+			forkJoinPool = new ForkJoinPool(parallelism);
+			heldKarpSolver.setForkJoinPool(forkJoinPool);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown()
+		{
+			forkJoinPool.shutdown();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class LocalSearchState
+	{
+		@Param({"1000", "5000"})
+		private int cities;
+
+		@Param({"RANDOM", "CLUSTERED"})
+		private Instances.Kind kind;
+
+		@Param({"NEAREST_NEIGHBOUR", "GREEDY_EDGE"})
+		private LocalSearchSolver.Construction construction;
+
+		private final LocalSearchSolver localSearchSolver = new LocalSearchSolver();
+		private DenseCostMatrix costMatrix;
+
+		@Setup(Level.Trial)
+		public void setUp()
+		{
+			costMatrix = Instances.matrix(cities, kind, false);
+			localSearchSolver.setConstruction(construction);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class LinKernighanState
+	{
+		@Param({"1000", "10000"})
+		private int cities;
+
+		@Param({"RANDOM", "CLUSTERED"})
+		private Instances.Kind kind;
+
+		private final LinKernighanSolver linKernighanSolver = new LinKernighanSolver();
+		private DenseCostMatrix costMatrix;
+
+		@Setup(Level.Trial)
+		public void setUp()
+		{
+			costMatrix = Instances.matrix(cities, kind, true);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class IslandState
+	{
+		@Param({"2000"})
+		private int cities;
+
+		@Param({"ANNEALING", "GENETIC"})
+		private IslandSolver.Method method;
+
+		@Param({"1", "2", "4", "8"})
+		private int islands;
+
+		private final IslandSolver islandSolver = new IslandSolver();
+		private DenseCostMatrix costMatrix;
+
+		@Setup(Level.Trial)
+		public void setUp()
+		{
+			costMatrix = Instances.matrix(cities, Instances.Kind.RANDOM, false);
+			islandSolver.setMethod(method);
+			islandSolver.setIslands(islands);
+			islandSolver.setSeed(1);
+		}
+	}
+
+	@Benchmark
+	public int[] reductionEngine(final ReductionState state)
+	{
+		return state.reductionEngine.solve(state.costMatrix);
+	}
+
+	@Benchmark
+	public SearchResult branchAndBound(final BranchAndBoundState state)
+	{
+		return state.branchAndBoundSolver.search(state.costMatrix);
+	}
+
+	@Benchmark
+	public SearchResult parallelBranchAndBound(final BranchAndBoundState state)
+	{
+		return state.parallelBranchAndBoundSolver.search(state.costMatrix);
+	}
+
+	@Benchmark
+	public int[] heldKarp(final HeldKarpState state)
+	{
+		return state.heldKarpSolver.solve(state.costMatrix);
+	}
+
+	@Benchmark
+	public int[] localSearch(final LocalSearchState state)
+	{
+		return state.localSearchSolver.solve(state.costMatrix);
+	}
+
+	@Benchmark
+	public int[] linKernighan(final LinKernighanState state)
+	{
+		return state.linKernighanSolver.solve(state.costMatrix);
+	}
+
+	@Benchmark
+	public int[] islands(final IslandState state)
+	{
+		return state.islandSolver.solve(state.costMatrix);
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
+
+/**
+ * Best route an anytime or bounded solve found, with the lower bound it was proven against.
+ * <p>
+ * When the route was solved over a {@link org.ark.math.commivoyager.algorithm.matrix.QuantizedCostMatrix}, cost and
+ * lower bound are counted in its scale units; {@link #getScale()} and {@link #getMaxError()} carry what is needed to
+ * read them as original costs, see {@link #getOriginalCost()} and {@link #getOriginalLowerBound()}.
+ */
+public class AnytimeRoute
+{
+	private final List<City> route;
+	private final SearchResult searchResult;
+	private final double scale;
+	private final double maxError;
+
+	public AnytimeRoute(final List<City> route, final SearchResult searchResult)
+	{
+		this(route, searchResult, 1, 0);
+	}
+
+	/**
+	 * @param scale original cost of one unit of {@link #getCost()}
+	 * @param maxError largest error of a single quantized cost, see
+	 *           {@link org.ark.math.commivoyager.algorithm.matrix.QuantizedCostMatrix#getMaxError()}
+	 */
+	public AnytimeRoute(final List<City> route, final SearchResult searchResult, final double scale, final double maxError)
+	{
+		this.route = route;
+		this.searchResult = searchResult;
+		this.scale = scale;
+		this.maxError = maxError;
+	}
+
+	public List<City> getRoute()
+	{
+		return route;
+	}
+
+	public long getCost()
+	{
+		return searchResult.getCost();
+	}
+
+	public long getLowerBound()
+	{
+		return searchResult.getLowerBound();
+	}
+
+	/**
+	 * @see SearchResult#getGap()
+	 */
+	public double getGap()
+	{
+		return searchResult.getGap();
+	}
+
+	public boolean isOptimal()
+	{
+		return searchResult.isOptimal();
+	}
+
+	public SearchResult getSearchResult()
+	{
+		return searchResult;
+	}
+
+	/**
+	 * @return 1 unless the route was solved over quantized costs
+	 */
+	public double getScale()
+	{
+		return scale;
+	}
+
+	/**
+	 * @return 0 unless the route was solved over quantized costs
+	 */
+	public double getMaxError()
+	{
+		return maxError;
+	}
+
+	/**
+	 * @return the cost converted back to original costs; the original cost of the route is off by at most
+	 *         {@link #getErrorBound()}
+	 */
+	public double getOriginalCost()
+	{
+		return getCost() * scale;
+	}
+
+	/**
+	 * @return the lower bound converted back to original costs, lowered by {@link #getErrorBound()} so it still holds
+	 *         for the optimum over the original costs
+	 */
+	public double getOriginalLowerBound()
+	{
+		return Math.max(0, getLowerBound() * scale - getErrorBound());
+	}
+
+	/**
+	 * @return largest difference between the quantized and the original cost of any tour over these cities
+	 */
+	public double getErrorBound()
+	{
+		return maxError * route.size();
+	}
+}
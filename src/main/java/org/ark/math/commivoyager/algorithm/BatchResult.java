@@ -0,0 +1,56 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.ark.math.commivoyager.algorithm.BatchSolver.RouteResult;
+
+/**
+ * Results of one {@link BatchSolver} run in input order, with the wall clock time of the whole batch.
+ */
+public class BatchResult
+{
+	private final List<RouteResult> results;
+	private final long elapsedNanos;
+
+	public BatchResult(final List<RouteResult> results, final long elapsedNanos)
+	{
+		this.results = Collections.unmodifiableList(results);
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public List<RouteResult> getResults()
+	{
+		return results;
+	}
+
+	public long getElapsedNanos()
+	{
+		return elapsedNanos;
+	}
+
+	public int getFailedCount()
+	{
+		return (int) results.stream().filter(r -> !r.isSuccessful()).count();
+	}
+
+	/**
+	 * @return solved problems per second of wall clock time
+	 */
+	public double getThroughput()
+	{
+		return elapsedNanos == 0 ? 0 : results.size() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+}
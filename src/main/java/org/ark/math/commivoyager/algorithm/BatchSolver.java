@@ -0,0 +1,262 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Solves many independent routes concurrently through one {@link OptimizationStrategy}. At most
+ * {@code maxInFlight} problems are queued or running at any time; submitting further problems blocks the caller until
+ * one completes, so a large batch never piles up in the executor queue.
+ * <p>
+ * The default executor is a fixed pool with one thread per core, which suits the CPU-bound solvers; any other executor
+ * (e.g. virtual threads on a newer JVM) can be passed in.
+ */
+public class BatchSolver implements AutoCloseable
+{
+	private final OptimizationStrategy optimizationStrategy;
+	private final ExecutorService executorService;
+	private final boolean ownsExecutorService;
+	private final int maxInFlight;
+
+	public BatchSolver(final OptimizationStrategy optimizationStrategy)
+	{
+		this(optimizationStrategy, Runtime.getRuntime().availableProcessors());
+	}
+
+	public BatchSolver(final OptimizationStrategy optimizationStrategy, final int threads)
+	{
+		this(optimizationStrategy, Executors.newFixedThreadPool(checkThreads(threads), new SolverThreadFactory()), threads * 2, true);
+	}
+
+	/**
+	 * @param executorService executor to solve on, left running by {@link #close()}
+	 * @param maxInFlight maximum number of problems submitted and not yet completed
+	 */
+	public BatchSolver(final OptimizationStrategy optimizationStrategy, final ExecutorService executorService, final int maxInFlight)
+	{
+		this(optimizationStrategy, executorService, maxInFlight, false);
+	}
+
+	private BatchSolver(final OptimizationStrategy optimizationStrategy, final ExecutorService executorService,
+			final int maxInFlight, final boolean ownsExecutorService)
+	{
+		Preconditions.checkNotNull(optimizationStrategy, "Optimization strategy must be provided");
+		Preconditions.checkNotNull(executorService, "Executor service must be provided");
+		Preconditions.checkArgument(maxInFlight > 0, "Max in flight must be positive");
+		this.optimizationStrategy = optimizationStrategy;
+		this.executorService = executorService;
+		this.maxInFlight = maxInFlight;
+		this.ownsExecutorService = ownsExecutorService;
+	}
+
+	private static int checkThreads(final int threads)
+	{
+		Preconditions.checkArgument(threads > 0, "Thread count must be positive");
+		return threads;
+	}
+
+	/**
+	 * @return one result per problem in input order; failed problems carry their exception instead of a route
+	 */
+	public BatchResult solveAll(final Collection<RouteProblem> problems) throws InterruptedException
+	{
+		return solveAll(problems, result -> {});
+	}
+
+	/**
+	 * @param onCompleted called with each result as soon as it is solved, in completion order and from the solving
+	 *           thread
+	 */
+	public BatchResult solveAll(final Collection<RouteProblem> problems, final Consumer<RouteResult> onCompleted)
+			throws InterruptedException
+	{
+		Preconditions.checkNotNull(problems, "Problems must be provided");
+		Preconditions.checkNotNull(onCompleted, "Completion callback must be provided");
+		final long startTime = System.nanoTime();
+		final Semaphore permits = new Semaphore(maxInFlight);
+		final List<CompletableFuture<RouteResult>> futures = new ArrayList<>(problems.size());
+		for (final RouteProblem problem : problems)
+		{
+			permits.acquire();
+			final CompletableFuture<RouteResult> future;
+			try
+			{
+				future = CompletableFuture.supplyAsync(() -> solve(problem), executorService);
+			}
+			catch (final RejectedExecutionException e)
+			{
+				permits.release();
+				throw e;
+			}
+			futures.add(future.whenComplete((result, error) -> {
+				permits.release();
+				if (result != null)
+				{
+					onCompleted.accept(result);
+				}
+			}));
+		}
+		final List<RouteResult> results = new ArrayList<>(futures.size());
+		for (final CompletableFuture<RouteResult> future : futures)
+		{
+			results.add(future.join());
+		}
+		return new BatchResult(results, System.nanoTime() - startTime);
+	}
+
+	private RouteResult solve(final RouteProblem problem)
+	{
+		final long startTime = System.nanoTime();
+		try
+		{
+			return new RouteResult(problem, problem.solve(optimizationStrategy), null, System.nanoTime() - startTime);
+		}
+		catch (final RuntimeException e)
+		{
+			return new RouteResult(problem, null, e, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Shuts down the executor if it was created by this solver.
+	 */
+	@Override
+	public void close()
+	{
+		if (ownsExecutorService)
+		{
+			executorService.shutdown();
+		}
+	}
+
+	/**
+	 * One route to optimize, either from city pairs or from cities whose costs come from the cost repository.
+	 */
+	public static final class RouteProblem
+	{
+		private final Set<CityPair> cityPairs;
+		private final List<City> cities;
+		private final City startCity;
+		private final OptimizeBy optimizeBy;
+
+		private RouteProblem(final Set<CityPair> cityPairs, final List<City> cities, final City startCity, final OptimizeBy optimizeBy)
+		{
+			this.cityPairs = cityPairs;
+			this.cities = cities;
+			this.startCity = startCity;
+			this.optimizeBy = optimizeBy;
+		}
+
+		public static RouteProblem ofCityPairs(final Set<CityPair> cityPairs, final City startCity, final OptimizeBy optimizeBy)
+		{
+			return new RouteProblem(cityPairs, null, startCity, optimizeBy);
+		}
+
+		public static RouteProblem ofCities(final List<City> cities, final City startCity, final OptimizeBy optimizeBy)
+		{
+			return new RouteProblem(null, cities, startCity, optimizeBy);
+		}
+
+		private List<City> solve(final OptimizationStrategy optimizationStrategy)
+		{
+			return cities != null ? optimizationStrategy.optimize(cities, startCity, optimizeBy)
+					: optimizationStrategy.optimize(cityPairs, startCity, optimizeBy);
+		}
+
+		public City getStartCity()
+		{
+			return startCity;
+		}
+
+		public OptimizeBy getOptimizeBy()
+		{
+			return optimizeBy;
+		}
+	}
+
+	public static final class RouteResult
+	{
+		private final RouteProblem problem;
+		private final List<City> route;
+		private final RuntimeException error;
+		private final long elapsedNanos;
+
+		private RouteResult(final RouteProblem problem, final List<City> route, final RuntimeException error, final long elapsedNanos)
+		{
+			this.problem = problem;
+			this.route = route;
+			this.error = error;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public RouteProblem getProblem()
+		{
+			return problem;
+		}
+
+		/**
+		 * @return the optimized route, null if solving failed
+		 */
+		public List<City> getRoute()
+		{
+			return route;
+		}
+
+		public RuntimeException getError()
+		{
+			return error;
+		}
+
+		public boolean isSuccessful()
+		{
+			return error == null;
+		}
+
+		public long getElapsedNanos()
+		{
+			return elapsedNanos;
+		}
+	}
+
+	private static final class SolverThreadFactory implements ThreadFactory
+	{
+		private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+		private final int poolNumber = POOL_NUMBER.incrementAndGet();
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable)
+		{
+			final Thread thread = new Thread(runnable, "route-solver-" + poolNumber + "-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
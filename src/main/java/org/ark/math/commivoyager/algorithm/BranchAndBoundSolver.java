@@ -0,0 +1,170 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import java.util.PriorityQueue;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Little's branch and bound: a best-first frontier of subproblems ordered by their reduced lower bound, branching on
+ * include/exclude of the zero cell with the highest penalty. The incumbent is seeded with the {@link ReductionEngine}
+ * tour; nodes whose bound is at or above the incumbent are pruned.
+ */
+public class BranchAndBoundSolver implements RouteSolver
+{
+	public static final long DEFAULT_NODE_LIMIT = 1000000;
+
+	private long nodeLimit = DEFAULT_NODE_LIMIT;
+	private SolverListener solverListener = SolverListener.NONE;
+
+	@Override
+	public int[] solve(final CostMatrix costMatrix)
+	{
+		return search(costMatrix).getSuccessors();
+	}
+
+	/**
+	 * @return best tour found; it is proven optimal unless the node limit was hit first
+	 */
+	public SearchResult search(final CostMatrix costMatrix)
+	{
+		return search(costMatrix, new SearchControl());
+	}
+
+	/**
+	 * @return best tour found; it is proven optimal unless the node limit was hit, the search was stopped or the
+	 *         incumbent reached the target gap of the control first
+	 */
+	public SearchResult search(final CostMatrix costMatrix, final SearchControl searchControl)
+	{
+		final long startTime = System.nanoTime();
+		if (costMatrix.size() < 2)
+		{
+			return new SearchResult(new ReductionEngine().solve(costMatrix), 0, 0, 0, 0, 0, System.nanoTime() - startTime);
+		}
+		final SearchTree searchTree = new SearchTree(costMatrix, solverListener);
+		final SequentialSink sink = new SequentialSink(searchControl);
+		searchTree.seedIncumbent(sink, searchControl.getInitialTour());
+
+		sink.push(searchTree.root());
+		long expandedNodes = 0;
+		while (!sink.frontier.isEmpty() && expandedNodes < nodeLimit && !searchControl.isStopped())
+		{
+			final SearchNode node = sink.frontier.poll();
+			if (node.lowerBound >= sink.bestCost)
+			{
+				// best first: everything left on the frontier is bounded at least as high
+				searchTree.pruned(node.lowerBound, sink);
+				for (final SearchNode remainingNode : sink.frontier)
+				{
+					searchTree.pruned(remainingNode.lowerBound, sink);
+				}
+				sink.frontier.clear();
+				break;
+			}
+			if (searchControl.isGoodEnough(sink.bestCost, node.lowerBound))
+			{
+				sink.frontier.add(node);
+				break;
+			}
+			if (searchTree.expand(node, sink))
+			{
+				expandedNodes++;
+			}
+		}
+
+		if (sink.bestTour == null)
+		{
+			throw new InconsistentRouteException("The route matrix does not contain a closed tour");
+		}
+		final long searchBound = sink.frontier.isEmpty() ? sink.bestCost : sink.frontier.peek().lowerBound;
+		final long lowerBound = Math.min(sink.bestCost, Math.max(searchBound, searchControl.getLowerBound()));
+		final long elapsedNanos = System.nanoTime() - startTime;
+		solverListener.onSolved(costMatrix.size(), elapsedNanos);
+		return new SearchResult(sink.bestTour, sink.bestCost, lowerBound, sink.createdNodes, expandedNodes, sink.prunedNodes,
+				elapsedNanos);
+	}
+
+	public void setNodeLimit(final long nodeLimit)
+	{
+		Preconditions.checkArgument(nodeLimit > 0, "Node limit must be positive");
+		this.nodeLimit = nodeLimit;
+	}
+
+	@Override
+	public void setSolverListener(final SolverListener solverListener)
+	{
+		Preconditions.checkNotNull(solverListener, "Solver listener must be provided, use SolverListener.NONE to disable");
+		this.solverListener = solverListener;
+	}
+
+	private static class SequentialSink implements SearchTree.Sink
+	{
+		private final SearchControl searchControl;
+		private final PriorityQueue<SearchNode> frontier = new PriorityQueue<>();
+		private int[] bestTour;
+		private long bestCost = INFINITY;
+		private long createdNodes;
+		private long prunedNodes;
+		private long sequence;
+
+		private SequentialSink(final SearchControl searchControl)
+		{
+			this.searchControl = searchControl;
+		}
+
+		@Override
+		public long getIncumbentCost()
+		{
+			return bestCost;
+		}
+
+		@Override
+		public boolean offerTour(final int[] successors, final long cost)
+		{
+			if (cost < bestCost)
+			{
+				bestTour = successors;
+				bestCost = cost;
+				searchControl.incumbentImproved(successors, cost);
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void push(final SearchNode node)
+		{
+			createdNodes++;
+			frontier.add(node);
+		}
+
+		@Override
+		public void pruned()
+		{
+			prunedNodes++;
+		}
+
+		@Override
+		public long nextSequence()
+		{
+			return ++sequence;
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Held-Karp dynamic programming over subsets: exact, with a fixed O(2^n n^2) time and O(2^n n) memory regardless of
+ * the cost structure. City 0 is the start; {@code costs[subset * m + last]} is the cheapest path from city 0 through
+ * the subset ending in {@code last}, with m = n - 1 and the subset as a bitmask over cities 1..n-1.
+ * <p>
+ * Path costs are kept in an {@code int[]} and predecessors in a {@code byte[]}, 5 bytes per entry: about 2.5 MB for 16
+ * cities and 220 MB for 22. Matrices whose tours do not fit into an int are handed to {@link BranchAndBoundSolver}.
+ */
+public class HeldKarpSolver implements RouteSolver
+{
+	public static final int MAX_CITIES = 24;
+
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+	private static final byte START = -1;
+	// below this many cities a layer is too small to be worth splitting across workers
+	private static final int PARALLEL_THRESHOLD = 13;
+
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+	private SolverListener solverListener = SolverListener.NONE;
+
+	@Override
+	public int[] solve(final CostMatrix costMatrix)
+	{
+		final int size = costMatrix.size();
+		Preconditions.checkArgument(size <= MAX_CITIES, "Held-Karp is limited to %s cities, got %s", MAX_CITIES, size);
+		final long startTime = System.nanoTime();
+		final int[] edgeCosts = toIntCosts(costMatrix);
+		if (edgeCosts == null)
+		{
+			final BranchAndBoundSolver branchAndBoundSolver = new BranchAndBoundSolver();
+			branchAndBoundSolver.setSolverListener(solverListener);
+			return branchAndBoundSolver.solve(costMatrix);
+		}
+		final int[] successors = size < 2 ? new int[size] : new Table(size, edgeCosts).solve();
+		solverListener.onSolved(size, System.nanoTime() - startTime);
+		return successors;
+	}
+
+	/**
+	 * @return costs narrowed to int with {@link #UNREACHABLE} for missing edges, or null if a tour could overflow
+	 */
+	private static int[] toIntCosts(final CostMatrix costMatrix)
+	{
+		final int size = costMatrix.size();
+		final int[] edgeCosts = new int[size * size];
+		long maximumTour = 0;
+		for (int row = 0; row < size; row++)
+		{
+			long rowMaximum = 0;
+			for (int column = 0; column < size; column++)
+			{
+				final long cost = costMatrix.getCost(row, column);
+				if (cost == INFINITY || row == column)
+				{
+					edgeCosts[row * size + column] = UNREACHABLE;
+				}
+				else if (cost >= UNREACHABLE)
+				{
+					return null;
+				}
+				else
+				{
+					edgeCosts[row * size + column] = (int) cost;
+					rowMaximum = Math.max(rowMaximum, cost);
+				}
+			}
+			maximumTour += rowMaximum;
+		}
+		return maximumTour < UNREACHABLE ? edgeCosts : null;
+	}
+
+	/**
+	 * Layers of equally sized subsets are filled on this pool once the instance is large enough.
+	 */
+	public void setForkJoinPool(final ForkJoinPool forkJoinPool)
+	{
+		Preconditions.checkNotNull(forkJoinPool, "Fork join pool must be provided");
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	@Override
+	public void setSolverListener(final SolverListener solverListener)
+	{
+		Preconditions.checkNotNull(solverListener, "Solver listener must be provided, use SolverListener.NONE to disable");
+		this.solverListener = solverListener;
+	}
+
+	private final class Table
+	{
+		private final int size;
+		private final int m;
+		private final int[] edgeCosts;
+		private final int[] pathCosts;
+		private final byte[] predecessors;
+
+		private Table(final int size, final int[] edgeCosts)
+		{
+			this.size = size;
+			this.m = size - 1;
+			this.edgeCosts = edgeCosts;
+			this.pathCosts = new int[(1 << m) * m];
+			this.predecessors = new byte[(1 << m) * m];
+		}
+
+		private int[] solve()
+		{
+			if (size >= PARALLEL_THRESHOLD && forkJoinPool.getParallelism() > 1)
+			{
+				fillByLayers();
+			}
+			else
+			{
+				// numeric order visits every subset after all of its subsets
+				for (int subset = 1; subset < 1 << m; subset++)
+				{
+					fill(subset);
+				}
+			}
+			return reconstruct();
+		}
+
+		// a subset only depends on the layer below it, so each layer is filled in parallel
+		private void fillByLayers()
+		{
+			final int[] layerStart = new int[m + 2];
+			for (int subset = 1; subset < 1 << m; subset++)
+			{
+				layerStart[Integer.bitCount(subset) + 1]++;
+			}
+			for (int layer = 1; layer <= m + 1; layer++)
+			{
+				layerStart[layer] += layerStart[layer - 1];
+			}
+			final int[] subsets = new int[1 << m];
+			final int[] next = layerStart.clone();
+			for (int subset = 1; subset < 1 << m; subset++)
+			{
+				subsets[next[Integer.bitCount(subset)]++] = subset;
+			}
+			for (int layer = 1; layer <= m; layer++)
+			{
+				final int from = layerStart[layer];
+				final int to = layerStart[layer + 1];
+				forkJoinPool.submit(() -> IntStream.range(from, to).parallel().forEach(index -> fill(subsets[index]))).join();
+			}
+		}
+
+		private void fill(final int subset)
+		{
+			for (int last = 0; last < m; last++)
+			{
+				final int lastBit = 1 << last;
+				if ((subset & lastBit) == 0)
+				{
+					continue;
+				}
+				final int entry = subset * m + last;
+				final int previousSubset = subset ^ lastBit;
+				if (previousSubset == 0)
+				{
+					pathCosts[entry] = edgeCosts[last + 1];
+					predecessors[entry] = START;
+					continue;
+				}
+				long best = UNREACHABLE;
+				byte bestPrevious = START;
+				for (int remaining = previousSubset; remaining != 0; remaining &= remaining - 1)
+				{
+					final int previous = Integer.numberOfTrailingZeros(remaining);
+					final int pathCost = pathCosts[previousSubset * m + previous];
+					final int edgeCost = edgeCosts[(previous + 1) * size + last + 1];
+					if (pathCost != UNREACHABLE && edgeCost != UNREACHABLE && (long) pathCost + edgeCost < best)
+					{
+						best = (long) pathCost + edgeCost;
+						bestPrevious = (byte) previous;
+					}
+				}
+				pathCosts[entry] = (int) best;
+				predecessors[entry] = bestPrevious;
+			}
+		}
+
+		private int[] reconstruct()
+		{
+			final int full = (1 << m) - 1;
+			long best = UNREACHABLE;
+			int last = -1;
+			for (int city = 0; city < m; city++)
+			{
+				final int pathCost = pathCosts[full * m + city];
+				final int edgeCost = edgeCosts[(city + 1) * size];
+				if (pathCost != UNREACHABLE && edgeCost != UNREACHABLE && (long) pathCost + edgeCost < best)
+				{
+					best = (long) pathCost + edgeCost;
+					last = city;
+				}
+			}
+			if (last < 0)
+			{
+				throw new InconsistentRouteException("The route matrix does not contain a closed tour");
+			}
+			final int[] successors = new int[size];
+			successors[last + 1] = 0;
+			for (int subset = full; subset != 0;)
+			{
+				final int previous = predecessors[subset * m + last];
+				successors[previous + 1] = last + 1;
+				subset ^= 1 << last;
+				last = previous;
+			}
+			return successors;
+		}
+	}
+}
@@ -0,0 +1,313 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.repository.CostRepository;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps a solved route up to date while cities are added and cancelled, without solving it again. An insertion goes to
+ * the cheapest position (one row and one column read from the repository, O(n)), followed by 2-opt and Or-opt repair
+ * limited to a small window around the new city; a removal just joins its neighbours. Missing costs count as infinite.
+ * <p>
+ * The first city of the route stays first. Not thread-safe.
+ */
+public class IncrementalTour
+{
+	public static final int DEFAULT_REPAIR_WINDOW = 6;
+
+	private static final int MAX_REPAIR_PASSES = 8;
+	private static final double EPSILON = 1e-9;
+
+	private final CostRepository costRepository;
+	private final List<City> cities;
+	// edgeCosts[i] is the cost from cities[i] to the city after it
+	private double[] edgeCosts;
+	private double cost;
+	private int repairWindow = DEFAULT_REPAIR_WINDOW;
+
+	/**
+	 * @param route a closed route in visiting order, as returned by {@link OptimizationStrategy#optimize}
+	 */
+	public IncrementalTour(final CostRepository costRepository, final List<City> route)
+	{
+		Preconditions.checkNotNull(costRepository, "Cost repository must be provided");
+		Preconditions.checkNotNull(route, "Route must be provided");
+		Preconditions.checkArgument(route.stream().distinct().count() == route.size(), "The route must not visit a city twice");
+		this.costRepository = costRepository;
+		this.cities = new ArrayList<>(route);
+		this.edgeCosts = new double[Math.max(16, route.size() * 2)];
+		for (int position = 0; position < cities.size(); position++)
+		{
+			edgeCosts[position] = cost(cities.get(position), cities.get(next(position)));
+			cost += edgeCosts[position];
+		}
+	}
+
+	/**
+	 * Inserts the city at its cheapest position and repairs the route around it.
+	 *
+	 * @return change of the route cost
+	 */
+	public double insert(final City city)
+	{
+		Preconditions.checkNotNull(city, "City must be provided");
+		Preconditions.checkArgument(!cities.contains(city), "City %s is already on the route", city.getId());
+		final int size = cities.size();
+		if (size == 0)
+		{
+			cities.add(city);
+			edgeCosts[0] = 0;
+			return 0;
+		}
+		final double[] costsTo = new double[size];
+		final double[] costsFrom = new double[size];
+		costRepository.getColumn(cities, city, costsTo);
+		costRepository.getRow(city, cities, costsFrom);
+
+		int bestPosition = -1;
+		double bestDelta = Double.POSITIVE_INFINITY;
+		for (int position = 0; position < size; position++)
+		{
+			final double delta = infiniteIfMissing(costsTo[position]) + infiniteIfMissing(costsFrom[next(position)])
+					- edgeCosts[position];
+			if (delta < bestDelta)
+			{
+				bestDelta = delta;
+				bestPosition = position;
+			}
+		}
+		if (bestPosition < 0)
+		{
+			throw new InconsistentRouteException("City " + city.getId() + " cannot be connected to the route");
+		}
+		ensureCapacity(size + 1);
+		System.arraycopy(edgeCosts, bestPosition + 1, edgeCosts, bestPosition + 2, size - bestPosition - 1);
+		edgeCosts[bestPosition] = infiniteIfMissing(costsTo[bestPosition]);
+		edgeCosts[bestPosition + 1] = infiniteIfMissing(costsFrom[next(bestPosition)]);
+		cities.add(bestPosition + 1, city);
+		cost += bestDelta;
+		return bestDelta + repair(bestPosition + 1);
+	}
+
+	/**
+	 * Removes the city and connects its neighbours directly.
+	 *
+	 * @return change of the route cost
+	 */
+	public double remove(final City city)
+	{
+		final int position = cities.indexOf(city);
+		Preconditions.checkArgument(position >= 0, "City %s is not on the route", city == null ? null : city.getId());
+		final int size = cities.size();
+		final int previous = previous(position);
+		final double joined = size <= 2 ? 0 : cost(cities.get(previous), cities.get(next(position)));
+		final double delta = size <= 2 ? -cost : joined - edgeCosts[previous] - edgeCosts[position];
+		cities.remove(position);
+		System.arraycopy(edgeCosts, position + 1, edgeCosts, position, size - position - 1);
+		if (size > 2)
+		{
+			edgeCosts[position == 0 ? size - 2 : position - 1] = joined;
+		}
+		else
+		{
+			edgeCosts[0] = 0;
+		}
+		cost += delta;
+		return delta;
+	}
+
+	/**
+	 * @return the route in visiting order, starting with the same city as the route it was created from
+	 */
+	public List<City> getRoute()
+	{
+		return Collections.unmodifiableList(new ArrayList<>(cities));
+	}
+
+	public double getCost()
+	{
+		return cost;
+	}
+
+	public int size()
+	{
+		return cities.size();
+	}
+
+	/**
+	 * Number of cities on each side of an inserted city that repair may reorder; 0 disables repair.
+	 */
+	public void setRepairWindow(final int repairWindow)
+	{
+		Preconditions.checkArgument(repairWindow >= 0, "Repair window must not be negative");
+		this.repairWindow = repairWindow;
+	}
+
+	/**
+	 * Improves the path around the given position with its two ends fixed, on a small matrix read in one bulk call.
+	 *
+	 * @return change of the route cost
+	 */
+	private double repair(final int position)
+	{
+		final int size = cities.size();
+		final int from = Math.max(0, position - repairWindow - 1);
+		// the path may end in the first city again, which closes the route
+		final int end = Math.min(size, position + repairWindow + 1);
+		final int length = end - from + 1;
+		if (repairWindow == 0 || length < 4)
+		{
+			return 0;
+		}
+		final List<City> window = new ArrayList<>(cities.subList(from, Math.min(end + 1, size)));
+		if (end == size)
+		{
+			window.add(cities.get(0));
+		}
+		// with the whole route in the window the first city is on both ends of the path
+		final boolean wraps = end == size && from == 0;
+		final int matrixSize = wraps ? length - 1 : length;
+		final double[] windowCosts = costRepository.getCostMatrix(window.subList(0, matrixSize));
+		final int[] path = new int[length];
+		for (int index = 0; index < length; index++)
+		{
+			path[index] = index < matrixSize ? index : 0;
+		}
+		final double initialCost = pathCost(path, windowCosts, matrixSize);
+		double bestCost = initialCost;
+		final int[] candidate = new int[length];
+		boolean improved = true;
+		for (int pass = 0; improved && pass < MAX_REPAIR_PASSES; pass++)
+		{
+			improved = false;
+			for (int first = 1; first < length - 1; first++)
+			{
+				for (int last = first + 1; last < length - 1; last++)
+				{
+					// 2-opt: reverse path[first..last]
+					System.arraycopy(path, 0, candidate, 0, length);
+					for (int left = first, right = last; left < right; left++, right--)
+					{
+						candidate[left] = path[right];
+						candidate[right] = path[left];
+					}
+					final double reversedCost = pathCost(candidate, windowCosts, matrixSize);
+					if (reversedCost < bestCost - EPSILON)
+					{
+						System.arraycopy(candidate, 0, path, 0, length);
+						bestCost = reversedCost;
+						improved = true;
+					}
+				}
+				for (int target = 1; target < length - 1; target++)
+				{
+					// Or-opt: move path[first] to position target
+					if (target == first)
+					{
+						continue;
+					}
+					moveCity(path, candidate, first, target);
+					final double movedCost = pathCost(candidate, windowCosts, matrixSize);
+					if (movedCost < bestCost - EPSILON)
+					{
+						System.arraycopy(candidate, 0, path, 0, length);
+						bestCost = movedCost;
+						improved = true;
+					}
+				}
+			}
+		}
+		if (bestCost >= initialCost)
+		{
+			return 0;
+		}
+		for (int index = 1; index < length - 1; index++)
+		{
+			cities.set(from + index, window.get(path[index]));
+		}
+		for (int index = 0; index < length - 1; index++)
+		{
+			edgeCosts[from + index] = infiniteIfMissing(windowCosts[path[index] * matrixSize + path[index + 1]]);
+		}
+		final double delta = bestCost - initialCost;
+		cost += delta;
+		return delta;
+	}
+
+	private static void moveCity(final int[] path, final int[] candidate, final int from, final int to)
+	{
+		System.arraycopy(path, 0, candidate, 0, path.length);
+		if (from < to)
+		{
+			System.arraycopy(path, from + 1, candidate, from, to - from);
+		}
+		else
+		{
+			System.arraycopy(path, to, candidate, to + 1, from - to);
+		}
+		candidate[to] = path[from];
+	}
+
+	private static double pathCost(final int[] path, final double[] costs, final int size)
+	{
+		double cost = 0;
+		for (int index = 0; index + 1 < path.length; index++)
+		{
+			cost += infiniteIfMissing(costs[path[index] * size + path[index + 1]]);
+		}
+		return cost;
+	}
+
+	private double cost(final City from, final City to)
+	{
+		if (from.equals(to))
+		{
+			return 0;
+		}
+		final Double cost = costRepository.getCostBetweeen(new CityPair(from, to, null));
+		return cost == null ? Double.POSITIVE_INFINITY : infiniteIfMissing(cost);
+	}
+
+	private static double infiniteIfMissing(final double cost)
+	{
+		return Double.isNaN(cost) ? Double.POSITIVE_INFINITY : cost;
+	}
+
+	private void ensureCapacity(final int size)
+	{
+		if (edgeCosts.length < size)
+		{
+			final double[] grown = new double[size * 2];
+			System.arraycopy(edgeCosts, 0, grown, 0, edgeCosts.length);
+			edgeCosts = grown;
+		}
+	}
+
+	private int next(final int position)
+	{
+		return position + 1 == cities.size() ? 0 : position + 1;
+	}
+
+	private int previous(final int position)
+	{
+		return position == 0 ? cities.size() - 1 : position - 1;
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import java.util.Arrays;
+
+import org.ark.math.commivoyager.algorithm.heuristic.TourConstruction;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Held-Karp lower bound: the cheapest 1-tree (a spanning tree over all cities but the first, plus the first city's two
+ * cheapest edges) under node penalties that are tuned by subgradient optimization towards degree two everywhere.
+ * Every tour is a 1-tree, so the bound holds for any penalties; it is usually within 1% of the optimum on
+ * geometric instances, well above the row/column reduction sum.
+ * <p>
+ * Edges are weighted with min(c(i, j), c(j, i)), which keeps the bound valid for asymmetric matrices, if weaker. Each
+ * iteration is a dense O(n^2) Prim run.
+ */
+public class OneTreeBound
+{
+	public static final int DEFAULT_ITERATIONS = 100;
+	// iterations without improvement before the step size is halved
+	private static final int PATIENCE = 10;
+	// cities added to the tree between two stop checks, each addition is an O(n) scan
+	private static final int STOP_CHECK_INTERVAL = 64;
+
+	private final CostMatrix costMatrix;
+	private final int size;
+	private final boolean symmetric;
+	private int iterations = DEFAULT_ITERATIONS;
+	private long upperBound = INFINITY;
+	private SearchControl searchControl;
+
+	public OneTreeBound(final CostMatrix costMatrix)
+	{
+		Preconditions.checkNotNull(costMatrix, "Cost matrix must be provided");
+		this.costMatrix = costMatrix;
+		this.size = costMatrix.size();
+		this.symmetric = costMatrix.isSymmetric();
+	}
+
+	/**
+	 * @return lower bound on the cost of every tour, {@link CostMatrix#INFINITY} if the finite edges do not even span
+	 *         all cities; once the search control stops, the best bound so far (0 before the first 1-tree)
+	 */
+	public long compute()
+	{
+		if (size < 3)
+		{
+			return size < 2 ? 0 : ReductionMatrix.saturatedAdd(costMatrix.getCost(0, 1), costMatrix.getCost(1, 0));
+		}
+		final double upper = upperBound < INFINITY ? upperBound : nearestNeighbourCost();
+		final double[] penalties = new double[size];
+		final int[] degrees = new int[size];
+		double best = Double.NEGATIVE_INFINITY;
+		double stepScale = 2;
+		int sinceImprovement = 0;
+		for (int iteration = 0; iteration < iterations; iteration++)
+		{
+			final double value = oneTree(penalties, degrees);
+			if (Double.isNaN(value))
+			{
+				break;
+			}
+			if (value == Double.POSITIVE_INFINITY)
+			{
+				return INFINITY;
+			}
+			if (value > best)
+			{
+				best = value;
+				sinceImprovement = 0;
+			}
+			else if (++sinceImprovement >= PATIENCE)
+			{
+				stepScale /= 2;
+				sinceImprovement = 0;
+			}
+			long norm = 0;
+			for (int city = 0; city < size; city++)
+			{
+				norm += (degrees[city] - 2) * (degrees[city] - 2);
+			}
+			if (norm == 0 || value >= upper)
+			{
+				// the 1-tree is a tour or the bound already meets the upper bound, neither can improve further
+				break;
+			}
+			// Polyak step towards the upper bound, or a few percent above the current value without one
+			final double target = upper < Double.POSITIVE_INFINITY ? upper : value + Math.abs(value) * 0.05 + 1;
+			final double step = stepScale * (target - value) / norm;
+			for (int city = 0; city < size; city++)
+			{
+				penalties[city] += step * (degrees[city] - 2);
+			}
+		}
+		// costs are integral, so is the optimum; the tolerance absorbs rounding in the penalty sums
+		return Math.max(0, (long) Math.ceil(best - 1e-9 * Math.max(1, Math.abs(best))));
+	}
+
+	public void setIterations(final int iterations)
+	{
+		Preconditions.checkArgument(iterations > 0, "Iteration count must be positive");
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Cost of a known tour; steers the subgradient steps and ends them once the bound reaches it. Without one the cost
+	 * of a nearest neighbour tour is used.
+	 */
+	public void setUpperBound(final long upperBound)
+	{
+		Preconditions.checkArgument(upperBound >= 0, "Upper bound must not be negative");
+		this.upperBound = upperBound;
+	}
+
+	/**
+	 * Stops the subgradient iterations once the control is stopped, checked within every Prim run. Any penalties give a
+	 * valid bound, so the best one found until then is returned.
+	 */
+	public void setSearchControl(final SearchControl searchControl)
+	{
+		this.searchControl = searchControl;
+	}
+
+	/**
+	 * Prim over all cities but 0 plus the two cheapest edges of city 0, with penalised weights.
+	 *
+	 * @return penalised 1-tree cost minus twice the penalty sum, positive infinity if there is no finite 1-tree, NaN if
+	 *         the search control stopped the run
+	 */
+	private double oneTree(final double[] penalties, final int[] degrees)
+	{
+		Arrays.fill(degrees, 0);
+		final double[] keys = new double[size];
+		final int[] parents = new int[size];
+		final boolean[] inTree = new boolean[size];
+		Arrays.fill(keys, Double.POSITIVE_INFINITY);
+		keys[1] = 0;
+		parents[1] = -1;
+		double total = 0;
+		for (int added = 1; added < size; added++)
+		{
+			if (searchControl != null && added % STOP_CHECK_INTERVAL == 0 && searchControl.isStopped())
+			{
+				return Double.NaN;
+			}
+			int next = -1;
+			for (int city = 1; city < size; city++)
+			{
+				if (!inTree[city] && (next < 0 || keys[city] < keys[next]))
+				{
+					next = city;
+				}
+			}
+			if (keys[next] == Double.POSITIVE_INFINITY)
+			{
+				return Double.POSITIVE_INFINITY;
+			}
+			inTree[next] = true;
+			total += keys[next];
+			if (parents[next] >= 0)
+			{
+				degrees[next]++;
+				degrees[parents[next]]++;
+			}
+			for (int city = 1; city < size; city++)
+			{
+				if (!inTree[city])
+				{
+					final double weight = weight(next, city, penalties);
+					if (weight < keys[city])
+					{
+						keys[city] = weight;
+						parents[city] = next;
+					}
+				}
+			}
+		}
+		double first = Double.POSITIVE_INFINITY;
+		double second = Double.POSITIVE_INFINITY;
+		int firstCity = -1;
+		int secondCity = -1;
+		for (int city = 1; city < size; city++)
+		{
+			final double weight = weight(0, city, penalties);
+			if (weight < first)
+			{
+				second = first;
+				secondCity = firstCity;
+				first = weight;
+				firstCity = city;
+			}
+			else if (weight < second)
+			{
+				second = weight;
+				secondCity = city;
+			}
+		}
+		if (second == Double.POSITIVE_INFINITY)
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		degrees[0] = 2;
+		degrees[firstCity]++;
+		degrees[secondCity]++;
+		total += first + second;
+		double penaltySum = 0;
+		for (final double penalty : penalties)
+		{
+			penaltySum += penalty;
+		}
+		return total - 2 * penaltySum;
+	}
+
+	private double weight(final int from, final int to, final double[] penalties)
+	{
+		final long cost = symmetric ? costMatrix.getCost(from, to) : Math.min(costMatrix.getCost(from, to), costMatrix.getCost(to, from));
+		return cost == INFINITY ? Double.POSITIVE_INFINITY : cost + penalties[from] + penalties[to];
+	}
+
+	private double nearestNeighbourCost()
+	{
+		final long cost = Tour.fromOrder(TourConstruction.nearestNeighbour(costMatrix)).getCost(costMatrix);
+		return cost == INFINITY ? Double.POSITIVE_INFINITY : cost;
+	}
+}
@@ -18,24 +18,54 @@ import static java.util.stream.Collectors.toSet;
 import static org.ark.math.commivoyager.model.CityPair.EstimatedCostComparator;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.ark.math.commivoyager.algorithm.heuristic.LocalSearchSolver;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.MetricCostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.PackedSymmetricCostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.QuantizedCostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
 import org.ark.math.commivoyager.model.City;
 import org.ark.math.commivoyager.model.CityPair;
 import org.ark.math.commivoyager.repository.CostRepository;
+import org.ark.math.commivoyager.repository.impl.MetricCostRepository;
 import org.springframework.beans.factory.annotation.Required;
 
 import com.google.common.base.Preconditions;
 
+/**
+ * Safe to call concurrently once configured: every solve builds its own cost matrix and never writes to the given
+ * {@link CityPair} instances, and the solvers keep their working state per call. The setters are meant for wiring and
+ * are not synchronized.
+ */
 public class OptimizationStrategy
 {
+	public static final int DEFAULT_EXACT_SOLVER_THRESHOLD = 16;
+
 	private CostRepository costRepository;
+	private RouteSolver routeSolver = new ReductionEngine();
+	private RouteSolver exactRouteSolver = new HeldKarpSolver();
+	private int exactSolverThreshold = DEFAULT_EXACT_SOLVER_THRESHOLD;
+	private SolverListener solverListener = SolverListener.NONE;
+	private Executor asyncExecutor = ForkJoinPool.commonPool();
+	private double targetGap;
+	private QuantizedCostMatrix.Width quantizationWidth;
+	private double quantizationScale;
 	
 	public enum OptimizeBy 
 	{
@@ -47,32 +77,229 @@ public class OptimizationStrategy
 	{
 		Preconditions.checkArgument(CollectionUtils.isNotEmpty(seedRoute), "The source route (CityPair collection) must not be null or empty");
 				
-		final Set<CityPair> normalizedRoute = normalizeRoute(seedRoute, optimizeBy);
-		Set<CityPair> routeToOptimize = normalizedRoute.stream().filter(p -> !p.isRouteOptimized()).collect(toSet());
-		final Set<CityPair> optimizedRoute = new HashSet<>();
-		while(!routeToOptimize.isEmpty())
+		final CostMatrix costMatrix = OptimizeBy.DISTANCE_SYMMETRICAL.equals(optimizeBy) ? PackedSymmetricCostMatrix.of(seedRoute)
+				: DenseCostMatrix.of(seedRoute, false);
+		return getFinalRoute(costMatrix, selectRouteSolver(costMatrix.size()).solve(costMatrix), startCity);
+	}
+
+	/**
+	 * Loads the costs between the given cities from the cost repository in one pass and optimizes the route over them.
+	 */
+	public List<City> optimize(final List<City> cities, final City startCity, final OptimizeBy optimizeBy)
+	{
+		Preconditions.checkArgument(CollectionUtils.isNotEmpty(cities), "The cities to route must not be null or empty");
+
+		final CostMatrix costMatrix = toCostMatrix(cities, optimizeBy);
+		return getFinalRoute(costMatrix, selectRouteSolver(costMatrix.size()).solve(costMatrix), startCity);
+	}
+
+	/**
+	 * Same route as {@link #optimize(List, City, OptimizeBy)}, returned together with a lower bound on the optimum: the
+	 * stronger of the {@link OneTreeBound} and the row/column reduction of the cost matrix. Routes solved by the exact
+	 * solver carry a gap of 0.
+	 */
+	public AnytimeRoute optimizeBounded(final List<City> cities, final City startCity, final OptimizeBy optimizeBy)
+	{
+		Preconditions.checkArgument(CollectionUtils.isNotEmpty(cities), "The cities to route must not be null or empty");
+
+		final long startTime = System.nanoTime();
+		final CostMatrix costMatrix = toCostMatrix(cities, optimizeBy);
+		final int[] successors = selectRouteSolver(costMatrix.size()).solve(costMatrix);
+		final long cost = costMatrix.getTourCost(successors);
+		final long lowerBound = costMatrix.size() <= exactSolverThreshold ? cost : Math.min(cost, lowerBound(costMatrix, cost));
+		return toAnytimeRoute(costMatrix, getFinalRoute(costMatrix, successors, startCity),
+				new SearchResult(successors, cost, lowerBound, 0, 0, 0, System.nanoTime() - startTime));
+	}
+
+	/**
+	 * Anytime variant of {@link #optimize(List, City, OptimizeBy)}: starts from a local search tour and improves it by
+	 * branch and bound until the tour is proven optimal or the timeout, counted from this call, runs out. The future then
+	 * completes with the best route found and its lower bound. Cancelling the future stops the search at the next node.
+	 *
+	 * @param onImprovedRoute receives every improved route as soon as it is found, from the solving thread
+	 */
+	public CompletableFuture<AnytimeRoute> optimizeAsync(final List<City> cities, final City startCity, final OptimizeBy optimizeBy,
+			final long timeout, final TimeUnit unit, final Consumer<List<City>> onImprovedRoute)
+	{
+		Preconditions.checkArgument(CollectionUtils.isNotEmpty(cities), "The cities to route must not be null or empty");
+		Preconditions.checkNotNull(onImprovedRoute, "Route callback must be provided");
+
+		final SearchControl searchControl = new SearchControl();
+		searchControl.setTimeout(timeout, unit);
+		final CompletableFuture<AnytimeRoute> future = CompletableFuture
+				.supplyAsync(() -> optimizeAnytime(cities, startCity, optimizeBy, searchControl, onImprovedRoute), asyncExecutor);
+		future.whenComplete((route, error) -> {
+			if (error instanceof CancellationException)
+			{
+				searchControl.cancel();
+			}
+		});
+		return future;
+	}
+
+	protected AnytimeRoute optimizeAnytime(final List<City> cities, final City startCity, final OptimizeBy optimizeBy,
+			final SearchControl searchControl, final Consumer<List<City>> onImprovedRoute)
+	{
+		final long startTime = System.nanoTime();
+		final CostMatrix costMatrix = toCostMatrix(cities, optimizeBy);
+		if (costMatrix.size() <= exactSolverThreshold)
+		{
+			final int[] successors = exactRouteSolver.solve(costMatrix);
+			final long cost = costMatrix.getTourCost(successors);
+			final List<City> route = getFinalRoute(costMatrix, successors, startCity);
+			onImprovedRoute.accept(route);
+			return toAnytimeRoute(costMatrix, route, new SearchResult(successors, cost, cost, 0, 0, 0, System.nanoTime() - startTime));
+		}
+		final LocalSearchSolver localSearchSolver = new LocalSearchSolver();
+		final long remainingNanos = searchControl.getRemainingNanos();
+		if (remainingNanos < Long.MAX_VALUE)
 		{
-			cleanEstimatedCosts(routeToOptimize);
-			optimizedRoute.add(applyBranchesAndBoundariesAlgorithm(routeToOptimize));
+			// a tour is needed whatever the budget, so the construction runs even once the time is up
+			localSearchSolver.setTimeLimitMillis(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos)));
 		}
-		return getFinalRoute(optimizedRoute, startCity);
+		final int[] initialTour = localSearchSolver.solve(costMatrix);
+		if (searchControl.isStopped())
+		{
+			return bestSoFar(costMatrix, initialTour, startCity, searchControl, onImprovedRoute, startTime);
+		}
+		searchControl.setLowerBound(lowerBound(costMatrix, costMatrix.getTourCost(initialTour), searchControl));
+		if (searchControl.isStopped())
+		{
+			return bestSoFar(costMatrix, initialTour, startCity, searchControl, onImprovedRoute, startTime);
+		}
+		searchControl.setIncumbentListener((successors, cost) -> onImprovedRoute.accept(getFinalRoute(costMatrix, successors, startCity)));
+		searchControl.setInitialTour(initialTour);
+		searchControl.setTargetGap(targetGap);
+
+		final BranchAndBoundSolver branchAndBoundSolver = new BranchAndBoundSolver();
+		branchAndBoundSolver.setSolverListener(solverListener);
+		final SearchResult searchResult = branchAndBoundSolver.search(costMatrix, searchControl);
+		return toAnytimeRoute(costMatrix, getFinalRoute(costMatrix, searchResult.getSuccessors(), startCity), searchResult);
 	}
-	
+
+	/**
+	 * Result of a search stopped before branch and bound started: the local search tour with the bound proven so far.
+	 */
+	private AnytimeRoute bestSoFar(final CostMatrix costMatrix, final int[] successors, final City startCity,
+			final SearchControl searchControl, final Consumer<List<City>> onImprovedRoute, final long startTime)
+	{
+		final long cost = costMatrix.getTourCost(successors);
+		final List<City> route = getFinalRoute(costMatrix, successors, startCity);
+		onImprovedRoute.accept(route);
+		return toAnytimeRoute(costMatrix, route, new SearchResult(successors, cost, Math.min(cost, searchControl.getLowerBound()), 0,
+				0, 0, System.nanoTime() - startTime));
+	}
+
+	/**
+	 * Attaches the scale and error of a quantized matrix, so callers can read the result as original costs.
+	 */
+	private static AnytimeRoute toAnytimeRoute(final CostMatrix costMatrix, final List<City> route, final SearchResult searchResult)
+	{
+		if (costMatrix instanceof QuantizedCostMatrix)
+		{
+			final QuantizedCostMatrix quantizedCostMatrix = (QuantizedCostMatrix) costMatrix;
+			return new AnytimeRoute(route, searchResult, quantizedCostMatrix.getScale(), quantizedCostMatrix.getMaxError());
+		}
+		return new AnytimeRoute(route, searchResult);
+	}
+
+	protected long lowerBound(final CostMatrix costMatrix, final long upperBound)
+	{
+		return lowerBound(costMatrix, upperBound, null);
+	}
+
+	/**
+	 * @param searchControl cuts the 1-tree iterations short once stopped, null to run them all
+	 */
+	protected long lowerBound(final CostMatrix costMatrix, final long upperBound, final SearchControl searchControl)
+	{
+		final OneTreeBound oneTreeBound = new OneTreeBound(costMatrix);
+		oneTreeBound.setSearchControl(searchControl);
+		if (upperBound < CostMatrix.INFINITY)
+		{
+			oneTreeBound.setUpperBound(upperBound);
+		}
+		final long oneTree = oneTreeBound.compute();
+		if (searchControl != null && searchControl.isStopped())
+		{
+			return oneTree;
+		}
+		return Math.max(oneTree, new ReductionMatrix(costMatrix).reduce());
+	}
+
+	/**
+	 * Loads the costs between the cities in one pass; the symmetrical mode reads only the upper triangle, row by row,
+	 * unless the costs are quantized. Costs of a {@link MetricCostRepository} are computed on demand instead when every city has a
+	 * position.
+	 */
+	protected CostMatrix toCostMatrix(final List<City> cities, final OptimizeBy optimizeBy)
+	{
+		if (costRepository instanceof MetricCostRepository)
+		{
+			final MetricCostRepository metricCostRepository = (MetricCostRepository) costRepository;
+			final List<City> located = metricCostRepository.withCoordinates(cities);
+			if (nonNull(located))
+			{
+				final MetricCostMatrix costMatrix = new MetricCostMatrix(located, metricCostRepository.getMetric());
+				return nonNull(quantizationWidth) ? QuantizedCostMatrix.ofDistances(costMatrix, quantizationWidth, quantizationScale)
+						: costMatrix;
+			}
+		}
+		if (nonNull(quantizationWidth))
+		{
+			return QuantizedCostMatrix.of(cities, costRepository.getCostMatrix(cities), quantizationWidth, quantizationScale,
+					OptimizeBy.DISTANCE_SYMMETRICAL.equals(optimizeBy));
+		}
+		return OptimizeBy.DISTANCE_SYMMETRICAL.equals(optimizeBy) ? PackedSymmetricCostMatrix.of(cities, costRepository)
+				: DenseCostMatrix.of(cities, costRepository.getCostMatrix(cities), false);
+	}
+
+	/**
+	 * Wraps a route returned by {@code optimize} so that cities can be added and cancelled without solving it again.
+	 */
+	public IncrementalTour toIncrementalTour(final List<City> route)
+	{
+		return new IncrementalTour(costRepository, route);
+	}
+
+	/**
+	 * @return the exact solver for routes of up to {@link #setExactSolverThreshold(int)} cities, the configured route
+	 *         solver otherwise
+	 */
+	protected RouteSolver selectRouteSolver(final int cities)
+	{
+		return cities <= exactSolverThreshold ? exactRouteSolver : routeSolver;
+	}
+
+	/**
+	 * @throws org.ark.math.commivoyager.InconsistentRouteException if the successors do not form one closed tour
+	 */
+	protected List<City> getFinalRoute(final CostMatrix costMatrix, final int[] successors, final City startCity)
+	{
+		return Tour.fromSuccessors(successors).toRoute(costMatrix, startCity);
+	}
+
+	/**
+	 * Follows the pairs from the start city until the route closes or breaks off; the pairs are indexed once, so this is
+	 * linear in the number of pairs.
+	 */
 	protected List<City> getFinalRoute(final Set<CityPair> route, final City startCity)
 	{
-	 	final Optional<CityPair> startCityPair = route.stream().filter(p -> p.getCity1().equals(startCity)).findFirst();
-		final List<City> finalRoute = new ArrayList<>(); 
-		if(startCityPair.isPresent())
+		final Map<City, City> successors = new HashMap<>(route.size() * 2);
+		for (final CityPair cityPair : route)
 		{
-			final CityPair cityPair = startCityPair.get();
-			route.remove(cityPair);
-			finalRoute.add(cityPair.getCity1());
-			final List<City> routeTail = getFinalRoute(route, cityPair.getCity2());
-			if(!routeTail.isEmpty())
+			successors.putIfAbsent(cityPair.getCity1(), cityPair.getCity2());
+		}
+		final List<City> finalRoute = new ArrayList<>();
+		final Set<City> visited = new HashSet<>();
+		for (City city = startCity; city != null && visited.add(city); city = successors.get(city))
+		{
+			if (!successors.containsKey(city))
 			{
-				finalRoute.addAll(routeTail);
+				break;
 			}
-		}	
+			finalRoute.add(city);
+		}
 		return finalRoute;
 	}
 
@@ -87,41 +314,35 @@ public class OptimizationStrategy
 		return reduceRoutingMatrix(seedRoute);
 	}
 	
-	private void cleanEstimatedCosts(final Set<CityPair> seedRoute)
-	{
-		seedRoute.stream().forEach(p -> p.setEstimatedZeroCellCost(null));		
-	}
-
 	protected Set<CityPair> normalizeRoute(final Set<CityPair> seedRoute, final OptimizeBy optimizeBy)
 	{
-		System.out.println("Before normalization:");
-		dumpCityPairs(seedRoute);
 		if(OptimizeBy.DISTANCE_SYMMETRICAL.equals(optimizeBy))
 		{
 			symmetrizeRouteMatrix(seedRoute);
 		}
-		System.out.println("After normalization:");
-		dumpCityPairs(seedRoute);
 		return seedRoute.stream().filter(p -> !p.isDiagonal()).collect(toSet());
 	}
 	
+	/**
+	 * The pair leaving the lower city id wins and its mirror replaces the opposite direction. Winners are picked with a
+	 * single lookup per pair instead of sorting the whole set.
+	 */
 	protected void symmetrizeRouteMatrix(final Set<CityPair> seedRoute)
 	{
-		final List<CityPair> orderedCityPairs = seedRoute.stream().sorted(new CityPair.CityPairComparator()).collect(toList());
-		final Set<CityPair> processedEntries = new HashSet<>(); 
-		for(final CityPair cityPair: orderedCityPairs)
+		final List<CityPair> mirroredCityPairs = new ArrayList<>(seedRoute.size() / 2 + 1);
+		for (final CityPair cityPair : seedRoute)
 		{
-			if(!processedEntries.contains(cityPair))
+			final CityPair mirroredCityPair = new CityPair(cityPair.getCity2(), cityPair.getCity1(), cityPair.getCost());
+			if (cityPair.getCity1().getId().compareTo(cityPair.getCity2().getId()) < 0 || !seedRoute.contains(mirroredCityPair))
 			{
-				final CityPair probeCityPair = new CityPair(cityPair.getCity2(), cityPair.getCity1(), null);
-				probeCityPair.setCost(cityPair.getCost());
-				seedRoute.remove(probeCityPair);
-				seedRoute.add(probeCityPair);
-				
-				processedEntries.add(cityPair);
-				processedEntries.add(probeCityPair);
+				mirroredCityPairs.add(mirroredCityPair);
 			}
-		}		
+		}
+		for (final CityPair mirroredCityPair : mirroredCityPairs)
+		{
+			seedRoute.remove(mirroredCityPair);
+			seedRoute.add(mirroredCityPair);
+		}
 	}
 	
 	// step1: find minimum in every row
@@ -181,10 +402,8 @@ public class OptimizationStrategy
 			{
 				seedRoute.remove(returnRoute.get());
 			}
-			dumpCityPairs(seedRoute);
 			seedRoute.removeAll(seedRoute.stream().filter(p -> p.getCity1().equals(cityPair.getCity1()) || p.getCity2().equals(cityPair.getCity2())).collect(toSet()));
 		}
-		dumpCityPairs(seedRoute);
 		return maxEstimatedCostCell.get();
 	}
 	
@@ -262,11 +481,71 @@ public class OptimizationStrategy
 		this.costRepository = costRepository;
 	}
 
+	public void setRouteSolver(final RouteSolver routeSolver)
+	{
+		this.routeSolver = routeSolver;
+		routeSolver.setSolverListener(solverListener);
+	}
+
+	/**
+	 * Executor for {@link #optimizeAsync}, the common fork join pool by default.
+	 */
+	public void setAsyncExecutor(final Executor asyncExecutor)
+	{
+		Preconditions.checkNotNull(asyncExecutor, "Async executor must be provided");
+		this.asyncExecutor = asyncExecutor;
+	}
 
-	private void dumpCityPairs(final Set<CityPair> cityPairs)
+	/**
+	 * Lets {@link #optimizeAsync} return as soon as its route is proven within this share of the optimum, see
+	 * {@link SearchResult#getGap()}; 0 (the default) searches on until the route is optimal or the time runs out.
+	 */
+	public void setTargetGap(final double targetGap)
 	{
-		System.out.println("Matrix dump:");
-		cityPairs.stream().forEach(p -> System.out.print("(" + p.getCity1().getId() + ", " + p.getCity2().getId() + ") = " + p.getCost()+ " (" + p.getEstimatedZeroCellCost() + ")   "));
-		System.out.println("\n\n");
+		Preconditions.checkArgument(targetGap >= 0 && targetGap < 1, "Target gap must be in [0, 1)");
+		this.targetGap = targetGap;
 	}
+
+	/**
+	 * Solves routes loaded from the cost repository over costs quantized to the given width, see
+	 * {@link QuantizedCostMatrix}: costs and bounds of an {@link AnytimeRoute} are then counted in scale units, and
+	 * the route carries the scale and error to convert them back.
+	 * A null width (the default) keeps full {@code long} costs.
+	 */
+	public void setQuantization(final QuantizedCostMatrix.Width width, final double scale)
+	{
+		Preconditions.checkArgument(width == null || scale > 0, "Scale must be positive");
+		this.quantizationWidth = width;
+		this.quantizationScale = scale;
+	}
+
+	public void setExactRouteSolver(final RouteSolver exactRouteSolver)
+	{
+		Preconditions.checkNotNull(exactRouteSolver, "Exact route solver must be provided");
+		this.exactRouteSolver = exactRouteSolver;
+		exactRouteSolver.setSolverListener(solverListener);
+	}
+
+	/**
+	 * Routes with at most this many cities are solved exactly by the exact route solver ({@link HeldKarpSolver} by
+	 * default, whose memory doubles with every city); 0 always uses the configured route solver.
+	 */
+	public void setExactSolverThreshold(final int exactSolverThreshold)
+	{
+		Preconditions.checkArgument(exactSolverThreshold >= 0 && exactSolverThreshold <= HeldKarpSolver.MAX_CITIES,
+				"Exact solver threshold must be between 0 and %s", HeldKarpSolver.MAX_CITIES);
+		this.exactSolverThreshold = exactSolverThreshold;
+	}
+
+	/**
+	 * Tracing and metrics hook (see {@link org.ark.math.commivoyager.algorithm.monitoring.SolverMetrics}), handed over to the configured route solver.
+	 */
+	public void setSolverListener(final SolverListener solverListener)
+	{
+		Preconditions.checkNotNull(solverListener, "Solver listener must be provided, use SolverListener.NONE to disable");
+		this.solverListener = solverListener;
+		routeSolver.setSolverListener(solverListener);
+		exactRouteSolver.setSolverListener(solverListener);
+	}
+
 }
@@ -0,0 +1,256 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Branch and bound spread over a {@link ForkJoinPool}. Every task dives depth first into the cheaper child and forks
+ * the other one, so idle workers steal the shallowest open subtrees. All workers prune against one incumbent that is
+ * only ever replaced through compare-and-set.
+ * <p>
+ * The cost of the returned tour is deterministic when the search runs to completion (it is the optimum); which of
+ * several equally cheap tours is returned depends on scheduling.
+ */
+public class ParallelBranchAndBoundSolver implements RouteSolver
+{
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+	private boolean ownsForkJoinPool;
+	private long nodeLimit = BranchAndBoundSolver.DEFAULT_NODE_LIMIT;
+	private SolverListener solverListener = SolverListener.NONE;
+
+	@Override
+	public int[] solve(final CostMatrix costMatrix)
+	{
+		return search(costMatrix).getSuccessors();
+	}
+
+	public SearchResult search(final CostMatrix costMatrix)
+	{
+		return search(costMatrix, new SearchControl());
+	}
+
+	/**
+	 * Every worker checks the control before each expansion; stopped subtrees count towards the lower bound like those
+	 * left by the node limit. Workers only see the lower bound of the control, not the bounds of each other's subtrees,
+	 * when they check the target gap.
+	 */
+	public SearchResult search(final CostMatrix costMatrix, final SearchControl searchControl)
+	{
+		final long startTime = System.nanoTime();
+		if (costMatrix.size() < 2)
+		{
+			return new SearchResult(new ReductionEngine().solve(costMatrix), 0, 0, 0, 0, 0, System.nanoTime() - startTime);
+		}
+		final Search search = new Search(new SearchTree(costMatrix, solverListener), searchControl);
+		search.searchTree.seedIncumbent(search.new TaskSink(), searchControl.getInitialTour());
+		forkJoinPool.invoke(search.new SubtreeTask(null, search.searchTree.root()));
+
+		final Incumbent incumbent = search.incumbent.get();
+		if (incumbent.successors == null)
+		{
+			throw new InconsistentRouteException("The route matrix does not contain a closed tour");
+		}
+		final long lowerBound = Math.min(incumbent.cost, Math.max(search.abandonedBound.get(), searchControl.getLowerBound()));
+		final long elapsedNanos = System.nanoTime() - startTime;
+		solverListener.onSolved(costMatrix.size(), elapsedNanos);
+		return new SearchResult(incumbent.successors, incumbent.cost, lowerBound, search.createdNodes.sum(),
+				search.expandedNodes.get(), search.prunedNodes.sum(), elapsedNanos);
+	}
+
+	/**
+	 * Runs the search on a dedicated pool with the given number of workers instead of the common pool.
+	 */
+	public void setParallelism(final int parallelism)
+	{
+		Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive");
+		shutdown();
+		this.forkJoinPool = new ForkJoinPool(parallelism);
+		this.ownsForkJoinPool = true;
+	}
+
+	public void setForkJoinPool(final ForkJoinPool forkJoinPool)
+	{
+		Preconditions.checkNotNull(forkJoinPool, "Fork join pool must be provided");
+		shutdown();
+		this.forkJoinPool = forkJoinPool;
+		this.ownsForkJoinPool = false;
+	}
+
+	public void setNodeLimit(final long nodeLimit)
+	{
+		Preconditions.checkArgument(nodeLimit > 0, "Node limit must be positive");
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * The listener is called concurrently from all workers.
+	 */
+	@Override
+	public void setSolverListener(final SolverListener solverListener)
+	{
+		Preconditions.checkNotNull(solverListener, "Solver listener must be provided, use SolverListener.NONE to disable");
+		this.solverListener = solverListener;
+	}
+
+	/**
+	 * Releases the pool created by {@link #setParallelism(int)}; a pool passed in from outside is left alone.
+	 */
+	public void shutdown()
+	{
+		if (ownsForkJoinPool)
+		{
+			forkJoinPool.shutdown();
+			ownsForkJoinPool = false;
+		}
+	}
+
+	private static final class Incumbent
+	{
+		private final int[] successors;
+		private final long cost;
+
+		private Incumbent(final int[] successors, final long cost)
+		{
+			this.successors = successors;
+			this.cost = cost;
+		}
+	}
+
+	private final class Search
+	{
+		private final SearchTree searchTree;
+		private final SearchControl searchControl;
+		private final AtomicReference<Incumbent> incumbent = new AtomicReference<>(new Incumbent(null, INFINITY));
+		private final AtomicLong expandedNodes = new AtomicLong();
+		// lowest bound among nodes left unexplored because the node limit was hit or the search was stopped
+		private final AtomicLong abandonedBound = new AtomicLong(INFINITY);
+		private final LongAdder createdNodes = new LongAdder();
+		private final LongAdder prunedNodes = new LongAdder();
+
+		private Search(final SearchTree searchTree, final SearchControl searchControl)
+		{
+			this.searchTree = searchTree;
+			this.searchControl = searchControl;
+		}
+
+		private final class TaskSink implements SearchTree.Sink
+		{
+			private final List<SearchNode> children = new ArrayList<>(2);
+
+			@Override
+			public long getIncumbentCost()
+			{
+				return incumbent.get().cost;
+			}
+
+			@Override
+			public boolean offerTour(final int[] successors, final long cost)
+			{
+				final Incumbent candidate = new Incumbent(successors, cost);
+				Incumbent current = incumbent.get();
+				while (cost < current.cost)
+				{
+					if (incumbent.compareAndSet(current, candidate))
+					{
+						searchControl.incumbentImproved(successors, cost);
+						return true;
+					}
+					current = incumbent.get();
+				}
+				return false;
+			}
+
+			@Override
+			public void push(final SearchNode node)
+			{
+				createdNodes.increment();
+				children.add(node);
+			}
+
+			@Override
+			public void pruned()
+			{
+				prunedNodes.increment();
+			}
+
+			@Override
+			public long nextSequence()
+			{
+				return 0;
+			}
+		}
+
+		private final class SubtreeTask extends CountedCompleter<Void>
+		{
+			private static final long serialVersionUID = 1L;
+
+			private final SearchNode node;
+
+			private SubtreeTask(final CountedCompleter<?> parent, final SearchNode node)
+			{
+				super(parent);
+				this.node = node;
+			}
+
+			@Override
+			public void compute()
+			{
+				final TaskSink sink = new TaskSink();
+				SearchNode current = node;
+				while (current != null)
+				{
+					if (current.lowerBound >= sink.getIncumbentCost())
+					{
+						searchTree.pruned(current.lowerBound, sink);
+						break;
+					}
+					if (expandedNodes.get() >= nodeLimit || searchControl.isStopped()
+							|| searchControl.isGoodEnough(sink.getIncumbentCost(), 0))
+					{
+						final long bound = current.lowerBound;
+						abandonedBound.accumulateAndGet(bound, Math::min);
+						break;
+					}
+					sink.children.clear();
+					if (searchTree.expand(current, sink))
+					{
+						expandedNodes.incrementAndGet();
+					}
+					Collections.sort(sink.children);
+					current = sink.children.isEmpty() ? null : sink.children.get(0);
+					for (int child = 1; child < sink.children.size(); child++)
+					{
+						addToPendingCount(1);
+						new SubtreeTask(this, sink.children.get(child)).fork();
+					}
+				}
+				tryComplete();
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Single path of Little's algorithm: reduce, take the zero cell with the highest penalty, repeat. Each step is O(n^2).
+ */
+public class ReductionEngine implements RouteSolver
+{
+	private SolverListener solverListener = SolverListener.NONE;
+
+	@Override
+	public int[] solve(final CostMatrix costMatrix)
+	{
+		final SolverListener listener = solverListener;
+		final boolean tracing = listener != SolverListener.NONE;
+		final long solveStartTime = tracing ? System.nanoTime() : 0L;
+
+		final ReductionMatrix matrix = new ReductionMatrix(costMatrix);
+		final int size = matrix.size();
+		while (!matrix.isComplete())
+		{
+			final long startTime = tracing ? System.nanoTime() : 0L;
+			final long reduction = matrix.reduce();
+			if (tracing)
+			{
+				listener.onReduction(matrix.getOpenCities(), reduction, matrix.getLowerBound(), System.nanoTime() - startTime);
+			}
+			if (reduction == INFINITY)
+			{
+				throw new InconsistentRouteException("The route matrix does not contain a closed tour");
+			}
+			final int cell = matrix.selectBranchingCell();
+			matrix.include(cell / size, cell % size);
+			if (tracing)
+			{
+				listener.onEdgeFixed(cell / size, cell % size);
+			}
+		}
+		if (tracing)
+		{
+			listener.onSolved(size, System.nanoTime() - solveStartTime);
+		}
+		return matrix.getSuccessors();
+	}
+
+	@Override
+	public void setSolverListener(final SolverListener solverListener)
+	{
+		Preconditions.checkNotNull(solverListener, "Solver listener must be provided, use SolverListener.NONE to disable");
+		this.solverListener = solverListener;
+	}
+}
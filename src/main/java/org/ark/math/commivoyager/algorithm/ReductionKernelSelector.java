@@ -0,0 +1,25 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+/**
+ * Java 8 version of the kernel selection: always scalar. The Java 17 version under {@code META-INF/versions/17} picks
+ * the Vector API kernels when the incubator module is present.
+ */
+final class ReductionKernelSelector
+{
+	static final ReductionKernels PREFERRED = ScalarReductionKernels.INSTANCE;
+
+	private ReductionKernelSelector()
+	{
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+/**
+ * Data-parallel passes of {@link ReductionMatrix} over a row-major {@code long[]}. Every pass treats
+ * {@link org.ark.math.commivoyager.algorithm.matrix.CostMatrix#INFINITY} as a blanked cell that is never changed.
+ * <p>
+ * The jar is multi-release: on Java 17+ with {@code --add-modules jdk.incubator.vector} {@link #preferred()} returns
+ * kernels written with the Vector API, everywhere else the scalar loops. Setting the system property
+ * {@value #SCALAR_PROPERTY} to {@code true} forces the scalar loops.
+ */
+public abstract class ReductionKernels
+{
+	public static final String SCALAR_PROPERTY = "commivoyager.kernels.scalar";
+
+	public static ReductionKernels scalar()
+	{
+		return ScalarReductionKernels.INSTANCE;
+	}
+
+	public static ReductionKernels preferred()
+	{
+		return ReductionKernelSelector.PREFERRED;
+	}
+
+	/**
+	 * @return smallest cell in [from, to), {@link org.ark.math.commivoyager.algorithm.matrix.CostMatrix#INFINITY} for
+	 *         an empty range
+	 */
+	public abstract long minimum(long[] cells, int from, int to);
+
+	/**
+	 * Subtracts the amount from every finite cell in [from, to).
+	 */
+	public abstract void subtract(long[] cells, int from, int to, long amount);
+
+	/**
+	 * Lowers {@code minimums[column]} to the cell of that column in the row starting at offset, for all columns at once.
+	 */
+	public abstract void columnMinimums(long[] cells, int offset, long[] minimums);
+
+	/**
+	 * Subtracts {@code amounts[column]} from every finite cell of the row starting at offset.
+	 */
+	public abstract void subtractColumns(long[] cells, int offset, long[] amounts);
+
+	/**
+	 * Folds one row into the two smallest values of the row itself and of every column, as needed for the penalties of
+	 * {@link ReductionMatrix#selectBranchingCell()}. Of several equal minimums the first column (row) is recorded.
+	 */
+	public abstract void twoSmallest(long[] cells, int row, int size, long[] rowFirst, long[] rowSecond, long[] rowFirstColumn,
+			long[] columnFirst, long[] columnSecond, long[] columnFirstRow);
+
+	/**
+	 * @return index of the first zero cell in [from, to) or -1
+	 */
+	public abstract int indexOfZero(long[] cells, int from, int to);
+}
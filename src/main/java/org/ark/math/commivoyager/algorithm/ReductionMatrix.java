@@ -0,0 +1,349 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import java.util.Arrays;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Working copy of a cost matrix for Little's reduction algorithm. Rows and columns are reduced in place with array
+ * sweeps, see {@link ReductionKernels}; fixed rows and columns are blanked out with {@link CostMatrix#INFINITY} instead
+ * of being removed.
+ */
+public class ReductionMatrix
+{
+	private final ReductionKernels kernels;
+	private final int size;
+	private final long[] cells;
+	private final boolean[] rowFixed;
+	private final boolean[] columnFixed;
+	// chainStart is indexed by the last city of a chain of fixed edges, chainEnd by the first one
+	private final int[] chainStart;
+	private final int[] chainEnd;
+	private final int[] successors;
+	private int remaining;
+	private long lowerBound;
+
+	public ReductionMatrix(final CostMatrix costMatrix)
+	{
+		this(costMatrix, ReductionKernels.preferred());
+	}
+
+	public ReductionMatrix(final CostMatrix costMatrix, final ReductionKernels kernels)
+	{
+		Preconditions.checkNotNull(kernels, "Reduction kernels must be provided");
+		this.kernels = kernels;
+		this.size = costMatrix.size();
+		this.cells = costMatrix.copyCosts();
+		this.rowFixed = new boolean[size];
+		this.columnFixed = new boolean[size];
+		this.chainStart = new int[size];
+		this.chainEnd = new int[size];
+		this.successors = new int[size];
+		for (int city = 0; city < size; city++)
+		{
+			chainStart[city] = city;
+			chainEnd[city] = city;
+			successors[city] = city;
+		}
+		this.remaining = size < 2 ? 0 : size;
+	}
+
+	private ReductionMatrix(final ReductionMatrix source)
+	{
+		this.kernels = source.kernels;
+		this.size = source.size;
+		this.cells = source.cells.clone();
+		this.rowFixed = source.rowFixed.clone();
+		this.columnFixed = source.columnFixed.clone();
+		this.chainStart = source.chainStart.clone();
+		this.chainEnd = source.chainEnd.clone();
+		this.successors = source.successors.clone();
+		this.remaining = source.remaining;
+		this.lowerBound = source.lowerBound;
+	}
+
+	public ReductionMatrix copy()
+	{
+		return new ReductionMatrix(this);
+	}
+
+	/**
+	 * Reduces rows and then columns so that every open row and column contains a zero.
+	 *
+	 * @return total reduction added to the lower bound or {@link CostMatrix#INFINITY} if an open row or column has no
+	 *         finite entry left
+	 */
+	public long reduce()
+	{
+		final long rowReduction = reduceRows();
+		if (rowReduction == INFINITY)
+		{
+			return INFINITY;
+		}
+		final long columnReduction = reduceColumns();
+		if (columnReduction == INFINITY)
+		{
+			return INFINITY;
+		}
+		return rowReduction + columnReduction;
+	}
+
+	// step1 + step2: find minimum in every row and subtract it from the row
+	public long reduceRows()
+	{
+		long reduction = 0;
+		for (int row = 0; row < size; row++)
+		{
+			if (rowFixed[row])
+			{
+				continue;
+			}
+			final long minimum = rowMinimum(row, -1);
+			if (minimum == INFINITY)
+			{
+				lowerBound = INFINITY;
+				return INFINITY;
+			}
+			if (minimum > 0)
+			{
+				reduceRow(row, minimum);
+				reduction += minimum;
+			}
+		}
+		addToLowerBound(reduction);
+		return reduction;
+	}
+
+	// step3 + step4: find minimum in every column and subtract it from the column; both passes sweep row by row over
+	// all columns at once instead of striding down each column
+	public long reduceColumns()
+	{
+		final long[] minimums = new long[size];
+		Arrays.fill(minimums, INFINITY);
+		for (int row = 0; row < size; row++)
+		{
+			if (!rowFixed[row])
+			{
+				kernels.columnMinimums(cells, row * size, minimums);
+			}
+		}
+		long reduction = 0;
+		for (int column = 0; column < size; column++)
+		{
+			if (columnFixed[column])
+			{
+				minimums[column] = 0;
+			}
+			else if (minimums[column] == INFINITY)
+			{
+				lowerBound = INFINITY;
+				return INFINITY;
+			}
+			reduction += minimums[column];
+		}
+		if (reduction > 0)
+		{
+			for (int row = 0; row < size; row++)
+			{
+				if (!rowFixed[row])
+				{
+					kernels.subtractColumns(cells, row * size, minimums);
+				}
+			}
+		}
+		addToLowerBound(reduction);
+		return reduction;
+	}
+
+	public long rowMinimum(final int row, final int excludedColumn)
+	{
+		final int offset = row * size;
+		if (excludedColumn < 0 || excludedColumn >= size)
+		{
+			return kernels.minimum(cells, offset, offset + size);
+		}
+		return Math.min(kernels.minimum(cells, offset, offset + excludedColumn),
+				kernels.minimum(cells, offset + excludedColumn + 1, offset + size));
+	}
+
+	public long columnMinimum(final int column, final int excludedRow)
+	{
+		long minimum = INFINITY;
+		for (int row = 0, cell = column; row < size; row++, cell += size)
+		{
+			final long cost = cells[cell];
+			if (cost < minimum && row != excludedRow)
+			{
+				minimum = cost;
+			}
+		}
+		return minimum;
+	}
+
+	public void reduceRow(final int row, final long amount)
+	{
+		final int offset = row * size;
+		kernels.subtract(cells, offset, offset + size, amount);
+	}
+
+	public void reduceColumn(final int column, final long amount)
+	{
+		for (int cell = column; cell < cells.length; cell += size)
+		{
+			if (cells[cell] != INFINITY)
+			{
+				cells[cell] -= amount;
+			}
+		}
+	}
+
+	/**
+	 * Estimated cost of not taking a zero cell: min(row) + min(column) with the cell itself excluded.
+	 */
+	public long getPenalty(final int row, final int column)
+	{
+		return saturatedAdd(rowMinimum(row, column), columnMinimum(column, row));
+	}
+
+	/**
+	 * step5 + step6: picks the zero cell with the highest penalty. The two smallest values of every row and column are
+	 * collected in one sweep, so the penalty of each zero cell is looked up in O(1) instead of rescanning its row and
+	 * column.
+	 *
+	 * @return row-major index of the selected cell or -1 if there is no open zero cell
+	 */
+	public int selectBranchingCell()
+	{
+		final long[] rowFirst = new long[size];
+		final long[] rowSecond = new long[size];
+		final long[] rowFirstColumn = new long[size];
+		final long[] columnFirst = new long[size];
+		final long[] columnSecond = new long[size];
+		final long[] columnFirstRow = new long[size];
+		Arrays.fill(rowFirst, INFINITY);
+		Arrays.fill(rowSecond, INFINITY);
+		Arrays.fill(columnFirst, INFINITY);
+		Arrays.fill(columnSecond, INFINITY);
+
+		for (int row = 0; row < size; row++)
+		{
+			kernels.twoSmallest(cells, row, size, rowFirst, rowSecond, rowFirstColumn, columnFirst, columnSecond, columnFirstRow);
+		}
+
+		int selectedCell = -1;
+		long maximumPenalty = -1;
+		for (int row = 0; row < size; row++)
+		{
+			final int rowEnd = (row + 1) * size;
+			for (int cell = kernels.indexOfZero(cells, row * size, rowEnd); cell >= 0; cell = kernels.indexOfZero(cells, cell + 1, rowEnd))
+			{
+				final int column = cell - row * size;
+				final long rowPenalty = rowFirstColumn[row] == column ? rowSecond[row] : rowFirst[row];
+				final long columnPenalty = columnFirstRow[column] == row ? columnSecond[column] : columnFirst[column];
+				final long penalty = saturatedAdd(rowPenalty, columnPenalty);
+				if (penalty > maximumPenalty)
+				{
+					maximumPenalty = penalty;
+					selectedCell = cell;
+				}
+			}
+		}
+		return selectedCell;
+	}
+
+	/**
+	 * Fixes the edge row -> column, removes its row and column and forbids the edge which would close the resulting
+	 * chain into a subtour.
+	 */
+	public void include(final int row, final int column)
+	{
+		successors[row] = column;
+		rowFixed[row] = true;
+		columnFixed[column] = true;
+		Arrays.fill(cells, row * size, (row + 1) * size, INFINITY);
+		for (int cell = column; cell < cells.length; cell += size)
+		{
+			cells[cell] = INFINITY;
+		}
+
+		final int start = chainStart[row];
+		final int end = chainEnd[column];
+		chainEnd[start] = end;
+		chainStart[end] = start;
+		remaining--;
+		if (remaining > 1)
+		{
+			cells[end * size + start] = INFINITY;
+		}
+	}
+
+	public void exclude(final int row, final int column)
+	{
+		cells[row * size + column] = INFINITY;
+	}
+
+	public long getCell(final int row, final int column)
+	{
+		return cells[row * size + column];
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @return number of rows not fixed yet
+	 */
+	public int getOpenCities()
+	{
+		return remaining;
+	}
+
+	public boolean isComplete()
+	{
+		return remaining == 0;
+	}
+
+	public long getLowerBound()
+	{
+		return lowerBound;
+	}
+
+	/**
+	 * @return successor of every city; only meaningful once {@link #isComplete()}
+	 */
+	public int[] getSuccessors()
+	{
+		return successors.clone();
+	}
+
+	private void addToLowerBound(final long amount)
+	{
+		lowerBound = saturatedAdd(lowerBound, amount);
+	}
+
+	static long saturatedAdd(final long first, final long second)
+	{
+		if (first == INFINITY || second == INFINITY || first > INFINITY - second)
+		{
+			return INFINITY;
+		}
+		return first + second;
+	}
+}
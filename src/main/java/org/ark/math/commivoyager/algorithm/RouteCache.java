@@ -0,0 +1,164 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy;
+import org.ark.math.commivoyager.model.City;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Caches solved tours in front of {@link OptimizationStrategy#optimize(List, City, OptimizeBy)}. Entries are keyed by
+ * the sorted city ids, the optimization mode and the version of the cost matrix the caller solved against; the start
+ * city is not part of the key: tours are solved from the first city of the list and rotated to start wherever the
+ * caller asks, so a start city outside the list yields an empty route without affecting the cached tour. Concurrent requests for the
+ * same key are coalesced: one thread solves, the others wait for its result.
+ * <p>
+ * The cache is bounded by the total number of cities over all cached tours and evicts least recently used entries
+ * first.
+ */
+public class RouteCache
+{
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 1000000;
+
+	private final OptimizationStrategy optimizationStrategy;
+	private final Cache<RouteFingerprint, List<City>> cache;
+
+	public RouteCache(final OptimizationStrategy optimizationStrategy)
+	{
+		this(optimizationStrategy, DEFAULT_MAXIMUM_WEIGHT);
+	}
+
+	/**
+	 * @param maximumWeight upper bound on the sum of the sizes of all cached tours
+	 */
+	public RouteCache(final OptimizationStrategy optimizationStrategy, final long maximumWeight)
+	{
+		Preconditions.checkNotNull(optimizationStrategy, "Optimization strategy must be provided");
+		Preconditions.checkArgument(maximumWeight > 0, "Maximum weight must be positive");
+
+		this.optimizationStrategy = optimizationStrategy;
+		this.cache = CacheBuilder.newBuilder().maximumWeight(maximumWeight)
+				.weigher((final RouteFingerprint key, final List<City> route) -> Math.max(1, route.size())).recordStats().build();
+	}
+
+	/**
+	 * @param costMatrixVersion version of the costs between the cities; bump it whenever a cost changes
+	 */
+	public List<City> optimize(final List<City> cities, final City startCity, final OptimizeBy optimizeBy,
+			final long costMatrixVersion)
+	{
+		Preconditions.checkArgument(CollectionUtils.isNotEmpty(cities), "The cities to route must not be null or empty");
+
+		final RouteFingerprint fingerprint = new RouteFingerprint(cities, optimizeBy, costMatrixVersion);
+		final List<City> cachedRoute;
+		try
+		{
+			cachedRoute = cache.get(fingerprint, () -> solve(cities, optimizeBy));
+		}
+		catch (final ExecutionException | UncheckedExecutionException e)
+		{
+			Throwables.propagateIfPossible(e.getCause());
+			throw new IllegalStateException("Route could not be optimized", e.getCause());
+		}
+		return rotate(cachedRoute, startCity);
+	}
+
+	private List<City> solve(final List<City> cities, final OptimizeBy optimizeBy)
+	{
+		final List<City> route = optimizationStrategy.optimize(cities, cities.get(0), optimizeBy);
+		// a failed load is not cached, so a short route is retried instead of being served for every start city
+		Preconditions.checkState(route.size() == cities.size(), "Route covers %s of %s cities", route.size(), cities.size());
+		return Collections.unmodifiableList(new ArrayList<>(route));
+	}
+
+	protected List<City> rotate(final List<City> route, final City startCity)
+	{
+		final int start = route.indexOf(startCity);
+		if (start <= 0)
+		{
+			return start == 0 ? route : Collections.<City> emptyList();
+		}
+		final List<City> rotatedRoute = new ArrayList<>(route.size());
+		rotatedRoute.addAll(route.subList(start, route.size()));
+		rotatedRoute.addAll(route.subList(0, start));
+		return Collections.unmodifiableList(rotatedRoute);
+	}
+
+	public CacheStats getStats()
+	{
+		return cache.stats();
+	}
+
+	public long size()
+	{
+		return cache.size();
+	}
+
+	public void invalidateAll()
+	{
+		cache.invalidateAll();
+	}
+
+	static final class RouteFingerprint
+	{
+		private final int[] cityIds;
+		private final OptimizeBy optimizeBy;
+		private final long costMatrixVersion;
+		private final int hashCode;
+
+		RouteFingerprint(final List<City> cities, final OptimizeBy optimizeBy, final long costMatrixVersion)
+		{
+			this.cityIds = cities.stream().mapToInt(City::getId).sorted().toArray();
+			this.optimizeBy = optimizeBy;
+			this.costMatrixVersion = costMatrixVersion;
+			this.hashCode = 31 * (31 * Arrays.hashCode(cityIds) + (optimizeBy == null ? 0 : optimizeBy.hashCode()))
+					+ Long.hashCode(costMatrixVersion);
+		}
+
+		@Override
+		public boolean equals(final Object o)
+		{
+			if (this == o)
+			{
+				return true;
+			}
+			if (!(o instanceof RouteFingerprint))
+			{
+				return false;
+			}
+
+			final RouteFingerprint fingerprint = (RouteFingerprint) o;
+
+			return hashCode == fingerprint.hashCode && costMatrixVersion == fingerprint.costMatrixVersion
+					&& optimizeBy == fingerprint.optimizeBy && Arrays.equals(cityIds, fingerprint.cityIds);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hashCode;
+		}
+	}
+}
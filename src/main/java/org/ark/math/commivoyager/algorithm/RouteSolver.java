@@ -0,0 +1,30 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+public interface RouteSolver
+{
+	/**
+	 * @return successor array of a closed tour: {@code successors[city]} is the position of the city visited next
+	 */
+	int[] solve(CostMatrix costMatrix);
+
+	/**
+	 * Solvers without events of their own ignore the listener.
+	 */
+	default void setSolverListener(final SolverListener solverListener)
+	{
+	}
+}
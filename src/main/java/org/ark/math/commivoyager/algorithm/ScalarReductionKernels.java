@@ -0,0 +1,124 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+/**
+ * Plain loops, also the fallback when the Vector API is not available.
+ */
+final class ScalarReductionKernels extends ReductionKernels
+{
+	static final ScalarReductionKernels INSTANCE = new ScalarReductionKernels();
+
+	private ScalarReductionKernels()
+	{
+	}
+
+	@Override
+	public long minimum(final long[] cells, final int from, final int to)
+	{
+		long minimum = INFINITY;
+		for (int cell = from; cell < to; cell++)
+		{
+			if (cells[cell] < minimum)
+			{
+				minimum = cells[cell];
+			}
+		}
+		return minimum;
+	}
+
+	@Override
+	public void subtract(final long[] cells, final int from, final int to, final long amount)
+	{
+		for (int cell = from; cell < to; cell++)
+		{
+			if (cells[cell] != INFINITY)
+			{
+				cells[cell] -= amount;
+			}
+		}
+	}
+
+	@Override
+	public void columnMinimums(final long[] cells, final int offset, final long[] minimums)
+	{
+		for (int column = 0; column < minimums.length; column++)
+		{
+			final long cost = cells[offset + column];
+			if (cost < minimums[column])
+			{
+				minimums[column] = cost;
+			}
+		}
+	}
+
+	@Override
+	public void subtractColumns(final long[] cells, final int offset, final long[] amounts)
+	{
+		for (int column = 0; column < amounts.length; column++)
+		{
+			if (cells[offset + column] != INFINITY)
+			{
+				cells[offset + column] -= amounts[column];
+			}
+		}
+	}
+
+	@Override
+	public void twoSmallest(final long[] cells, final int row, final int size, final long[] rowFirst, final long[] rowSecond,
+			final long[] rowFirstColumn, final long[] columnFirst, final long[] columnSecond, final long[] columnFirstRow)
+	{
+		for (int column = 0, cell = row * size; column < size; column++, cell++)
+		{
+			final long cost = cells[cell];
+			if (cost == INFINITY)
+			{
+				continue;
+			}
+			if (cost < rowFirst[row])
+			{
+				rowSecond[row] = rowFirst[row];
+				rowFirst[row] = cost;
+				rowFirstColumn[row] = column;
+			}
+			else if (cost < rowSecond[row])
+			{
+				rowSecond[row] = cost;
+			}
+			if (cost < columnFirst[column])
+			{
+				columnSecond[column] = columnFirst[column];
+				columnFirst[column] = cost;
+				columnFirstRow[column] = row;
+			}
+			else if (cost < columnSecond[column])
+			{
+				columnSecond[column] = cost;
+			}
+		}
+	}
+
+	@Override
+	public int indexOfZero(final long[] cells, final int from, final int to)
+	{
+		for (int cell = from; cell < to; cell++)
+		{
+			if (cells[cell] == 0)
+			{
+				return cell;
+			}
+		}
+		return -1;
+	}
+}
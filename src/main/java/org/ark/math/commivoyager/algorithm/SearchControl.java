@@ -0,0 +1,151 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Cooperative control of a running tree search: a time budget, cancellation from any thread, an optional start tour
+ * and a callback for every improved incumbent. Stop requests are honoured between node expansions, after which the
+ * search returns the best tour found so far.
+ * <p>
+ * A lower bound proven elsewhere, such as the {@link OneTreeBound}, together with a target gap ends the search as soon
+ * as the incumbent is good enough; with the default gap of 0 it ends the search once the bound proves the incumbent
+ * optimal.
+ */
+public class SearchControl
+{
+	public interface IncumbentListener
+	{
+		/**
+		 * Called whenever the search finds a cheaper tour; from the worker threads for a parallel search.
+		 *
+		 * @param successors copy of the new incumbent, see {@link RouteSolver#solve}
+		 */
+		void onIncumbent(int[] successors, long cost);
+	}
+
+	private static final IncumbentListener NO_LISTENER = (successors, cost) -> {};
+
+	private volatile boolean cancelled;
+	private boolean timed;
+	private long deadline;
+	private int[] initialTour;
+	private long lowerBound;
+	private double targetGap;
+	private IncumbentListener incumbentListener = NO_LISTENER;
+
+	/**
+	 * Stops the search once the timeout has elapsed, counted from this call.
+	 */
+	public void setTimeout(final long timeout, final TimeUnit unit)
+	{
+		Preconditions.checkArgument(timeout >= 0, "Timeout must not be negative");
+		this.deadline = System.nanoTime() + unit.toNanos(timeout);
+		this.timed = true;
+	}
+
+	/**
+	 * Starts the search from this incumbent instead of the {@link ReductionEngine} tour, which is too slow to compute on
+	 * large instances and usually worse than a local search tour.
+	 */
+	public void setInitialTour(final int[] initialTour)
+	{
+		this.initialTour = initialTour;
+	}
+
+	/**
+	 * Lower bound on the cost of every tour, proven outside the search; it also raises the bound the search reports.
+	 */
+	public void setLowerBound(final long lowerBound)
+	{
+		Preconditions.checkArgument(lowerBound >= 0, "Lower bound must not be negative");
+		this.lowerBound = lowerBound;
+	}
+
+	/**
+	 * Stops the search once the incumbent is proven within this share of its cost, see {@link SearchResult#getGap()}.
+	 */
+	public void setTargetGap(final double targetGap)
+	{
+		Preconditions.checkArgument(targetGap >= 0 && targetGap < 1, "Target gap must be in [0, 1)");
+		this.targetGap = targetGap;
+	}
+
+	public void setIncumbentListener(final IncumbentListener incumbentListener)
+	{
+		Preconditions.checkNotNull(incumbentListener, "Incumbent listener must be provided");
+		this.incumbentListener = incumbentListener;
+	}
+
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	public boolean isStopped()
+	{
+		return cancelled || timed && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * @return nanoseconds left until the timeout, {@link Long#MAX_VALUE} without one and 0 once stopped
+	 */
+	public long getRemainingNanos()
+	{
+		if (cancelled)
+		{
+			return 0;
+		}
+		return timed ? Math.max(0, deadline - System.nanoTime()) : Long.MAX_VALUE;
+	}
+
+	long getLowerBound()
+	{
+		return lowerBound;
+	}
+
+	/**
+	 * @param searchBound lower bound established by the search itself, 0 if it has none
+	 */
+	boolean isGoodEnough(final long cost, final long searchBound)
+	{
+		if (cost == INFINITY)
+		{
+			return false;
+		}
+		final long bound = Math.max(lowerBound, searchBound);
+		return cost - bound <= targetGap * cost;
+	}
+
+	int[] getInitialTour()
+	{
+		return initialTour;
+	}
+
+	void incumbentImproved(final int[] successors, final long cost)
+	{
+		if (incumbentListener != NO_LISTENER)
+		{
+			incumbentListener.onIncumbent(successors.clone(), cost);
+		}
+	}
+}
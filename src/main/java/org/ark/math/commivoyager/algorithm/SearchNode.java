@@ -0,0 +1,72 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+/**
+ * Branch-and-bound subproblem stored as a delta against its parent: a single included or excluded edge. The reduced
+ * matrix of a node is rebuilt on demand by replaying the decisions on the path to the root.
+ */
+final class SearchNode implements Comparable<SearchNode>
+{
+	final SearchNode parent;
+	final int row;
+	final int column;
+	final boolean included;
+	final int depth;
+	// original cost of all edges included on the path to the root
+	final long includedCost;
+	final long lowerBound;
+	final long sequence;
+
+	private SearchNode(final SearchNode parent, final int row, final int column, final boolean included,
+			final long includedCost, final long lowerBound, final long sequence)
+	{
+		this.parent = parent;
+		this.row = row;
+		this.column = column;
+		this.included = included;
+		this.depth = parent == null ? 0 : parent.depth + 1;
+		this.includedCost = includedCost;
+		this.lowerBound = lowerBound;
+		this.sequence = sequence;
+	}
+
+	static SearchNode root(final long lowerBound)
+	{
+		return new SearchNode(null, -1, -1, false, 0, lowerBound, 0);
+	}
+
+	SearchNode include(final int row, final int column, final long edgeCost, final long lowerBound, final long sequence)
+	{
+		return new SearchNode(this, row, column, true, includedCost + edgeCost, lowerBound, sequence);
+	}
+
+	SearchNode exclude(final int row, final int column, final long lowerBound, final long sequence)
+	{
+		return new SearchNode(this, row, column, false, includedCost, lowerBound, sequence);
+	}
+
+	// best bound first; on ties prefer deeper nodes to reach complete tours sooner
+	@Override
+	public int compareTo(final SearchNode other)
+	{
+		if (lowerBound != other.lowerBound)
+		{
+			return lowerBound < other.lowerBound ? -1 : 1;
+		}
+		if (depth != other.depth)
+		{
+			return depth > other.depth ? -1 : 1;
+		}
+		return Long.compare(sequence, other.sequence);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+/**
+ * Outcome of a tree search: the best tour found, the bound it was proven against and how many nodes it took.
+ */
+public class SearchResult
+{
+	private final int[] successors;
+	private final long cost;
+	private final long lowerBound;
+	private final long createdNodes;
+	private final long expandedNodes;
+	private final long prunedNodes;
+	private final long elapsedNanos;
+
+	public SearchResult(final int[] successors, final long cost, final long lowerBound, final long createdNodes,
+			final long expandedNodes, final long prunedNodes, final long elapsedNanos)
+	{
+		this.successors = successors;
+		this.cost = cost;
+		this.lowerBound = lowerBound;
+		this.createdNodes = createdNodes;
+		this.expandedNodes = expandedNodes;
+		this.prunedNodes = prunedNodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public int[] getSuccessors()
+	{
+		return successors;
+	}
+
+	public long getCost()
+	{
+		return cost;
+	}
+
+	public long getLowerBound()
+	{
+		return lowerBound;
+	}
+
+	public long getCreatedNodes()
+	{
+		return createdNodes;
+	}
+
+	public long getExpandedNodes()
+	{
+		return expandedNodes;
+	}
+
+	public long getPrunedNodes()
+	{
+		return prunedNodes;
+	}
+
+	/**
+	 * @return wall clock time of the search, to compare solver configurations on the same instance
+	 */
+	public long getElapsedNanos()
+	{
+		return elapsedNanos;
+	}
+
+	public boolean isOptimal()
+	{
+		return lowerBound >= cost;
+	}
+
+	/**
+	 * @return how far the tour may be above the optimum, relative to its cost: 0.05 means proven within 5%
+	 */
+	public double getGap()
+	{
+		if (isOptimal() || cost <= 0)
+		{
+			return 0;
+		}
+		return (double) (cost - lowerBound) / cost;
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.ReductionMatrix.saturatedAdd;
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+/**
+ * Include/exclude branching of Little's algorithm over {@link SearchNode}s, shared by the sequential and the parallel
+ * branch-and-bound solvers.
+ */
+final class SearchTree
+{
+	interface Sink
+	{
+		long getIncumbentCost();
+
+		/**
+		 * @return true if the tour became the new incumbent
+		 */
+		boolean offerTour(int[] successors, long cost);
+
+		void push(SearchNode node);
+
+		void pruned();
+
+		long nextSequence();
+	}
+
+	private final CostMatrix costMatrix;
+	private final SolverListener solverListener;
+	private final boolean tracing;
+
+	SearchTree(final CostMatrix costMatrix, final SolverListener solverListener)
+	{
+		this.costMatrix = costMatrix;
+		this.solverListener = solverListener;
+		this.tracing = solverListener != SolverListener.NONE;
+	}
+
+	SearchNode root()
+	{
+		final ReductionMatrix matrix = new ReductionMatrix(costMatrix);
+		reduce(matrix);
+		return SearchNode.root(matrix.getLowerBound());
+	}
+
+	// the incumbent starts from the given tour or else from the single path of the reduction engine
+	void seedIncumbent(final Sink sink, final int[] initialTour)
+	{
+		if (initialTour != null)
+		{
+			offerTour(initialTour.clone(), tourCost(initialTour), sink);
+			return;
+		}
+		try
+		{
+			final int[] successors = new ReductionEngine().solve(costMatrix);
+			offerTour(successors, tourCost(successors), sink);
+		}
+		catch (final InconsistentRouteException e)
+		{
+			// the greedy path can dead-end on sparse matrices, the tree search may still find a tour
+		}
+	}
+
+	ReductionMatrix rebuild(final SearchNode node)
+	{
+		final SearchNode[] path = new SearchNode[node.depth];
+		for (SearchNode current = node; current.parent != null; current = current.parent)
+		{
+			path[current.depth - 1] = current;
+		}
+		final ReductionMatrix matrix = new ReductionMatrix(costMatrix);
+		for (final SearchNode decision : path)
+		{
+			if (decision.included)
+			{
+				matrix.include(decision.row, decision.column);
+			}
+			else
+			{
+				matrix.exclude(decision.row, decision.column);
+			}
+		}
+		reduce(matrix);
+		return matrix;
+	}
+
+	private void reduce(final ReductionMatrix matrix)
+	{
+		final long startTime = tracing ? System.nanoTime() : 0L;
+		final long reduction = matrix.reduce();
+		if (tracing)
+		{
+			solverListener.onReduction(matrix.getOpenCities(), reduction, matrix.getLowerBound(), System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Branches on the zero cell with the highest penalty. Children whose bound reaches the incumbent are dropped, a
+	 * child that closes the tour is offered as a tour instead of being pushed.
+	 *
+	 * @return false if the node itself was pruned
+	 */
+	boolean expand(final SearchNode node, final Sink sink)
+	{
+		final ReductionMatrix matrix = rebuild(node);
+		final long matrixBound = saturatedAdd(node.includedCost, matrix.getLowerBound());
+		final long nodeBound = Math.max(node.lowerBound, matrixBound);
+		if (nodeBound >= sink.getIncumbentCost())
+		{
+			pruned(nodeBound, sink);
+			return false;
+		}
+		if (tracing)
+		{
+			solverListener.onNodeExpanded(node.depth, nodeBound);
+		}
+		if (matrix.isComplete())
+		{
+			offerTour(matrix.getSuccessors(), node.includedCost, sink);
+			return true;
+		}
+
+		final int size = matrix.size();
+		final int cell = matrix.selectBranchingCell();
+		final int row = cell / size;
+		final int column = cell % size;
+		final long penalty = matrix.getPenalty(row, column);
+
+		final ReductionMatrix included = matrix.copy();
+		included.include(row, column);
+		if (included.isComplete())
+		{
+			final int[] successors = included.getSuccessors();
+			offerTour(successors, tourCost(successors), sink);
+		}
+		else
+		{
+			reduce(included);
+			final long includeBound = Math.max(nodeBound, saturatedAdd(node.includedCost, included.getLowerBound()));
+			offer(node.include(row, column, costMatrix.getCost(row, column), includeBound, sink.nextSequence()), sink);
+		}
+
+		final long excludeBound = penalty == INFINITY ? INFINITY : Math.max(nodeBound, saturatedAdd(matrixBound, penalty));
+		offer(node.exclude(row, column, excludeBound, sink.nextSequence()), sink);
+		return true;
+	}
+
+	private void offer(final SearchNode child, final Sink sink)
+	{
+		if (child.lowerBound >= sink.getIncumbentCost())
+		{
+			pruned(child.lowerBound, sink);
+		}
+		else
+		{
+			sink.push(child);
+		}
+	}
+
+	void pruned(final long lowerBound, final Sink sink)
+	{
+		sink.pruned();
+		if (tracing)
+		{
+			solverListener.onNodePruned(lowerBound);
+		}
+	}
+
+	private void offerTour(final int[] successors, final long cost, final Sink sink)
+	{
+		if (sink.offerTour(successors, cost) && tracing)
+		{
+			solverListener.onBoundImproved(cost);
+		}
+	}
+
+	long tourCost(final int[] successors)
+	{
+		return costMatrix.getTourCost(successors);
+	}
+}
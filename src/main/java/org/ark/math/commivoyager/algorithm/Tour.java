@@ -0,0 +1,214 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.model.City;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Closed tour over matrix positions, kept as visiting order plus the position of every city. Successor, predecessor
+ * and between queries are O(1), reversing a path costs its length; building the tour or a route from it is O(n) and
+ * iterative.
+ */
+public class Tour
+{
+	private final int[] order;
+	private final int[] positions;
+
+	private Tour(final int[] order)
+	{
+		this.order = order;
+		this.positions = new int[order.length];
+		for (int position = 0; position < order.length; position++)
+		{
+			positions[order[position]] = position;
+		}
+	}
+
+	/**
+	 * @param order every city exactly once, in visiting order; copied
+	 */
+	public static Tour fromOrder(final int[] order)
+	{
+		Preconditions.checkNotNull(order, "Order must be provided");
+		final boolean[] seen = new boolean[order.length];
+		for (final int city : order)
+		{
+			Preconditions.checkArgument(city >= 0 && city < order.length && !seen[city], "Order must visit every city once");
+			seen[city] = true;
+		}
+		return new Tour(order.clone());
+	}
+
+	/**
+	 * @param successors successor array as returned by {@link RouteSolver#solve(CostMatrix)}
+	 * @throws InconsistentRouteException if the successors split into several subtours
+	 */
+	public static Tour fromSuccessors(final int[] successors)
+	{
+		final int subtours = countSubtours(successors);
+		if (subtours > 1)
+		{
+			throw new InconsistentRouteException("The successors form " + subtours + " subtours instead of one closed tour");
+		}
+		final int[] order = new int[successors.length];
+		for (int position = 0, city = 0; position < successors.length; position++, city = successors[city])
+		{
+			order[position] = city;
+		}
+		return new Tour(order);
+	}
+
+	/**
+	 * @return number of cycles the successor array splits into, 1 for a closed tour
+	 */
+	public static int countSubtours(final int[] successors)
+	{
+		Preconditions.checkNotNull(successors, "Successors must be provided");
+		final int size = successors.length;
+		final boolean[] visited = new boolean[size];
+		final boolean[] reached = new boolean[size];
+		for (final int successor : successors)
+		{
+			Preconditions.checkArgument(successor >= 0 && successor < size && !reached[successor],
+					"Successors must be a permutation of the cities");
+			reached[successor] = true;
+		}
+		int subtours = 0;
+		for (int start = 0; start < size; start++)
+		{
+			if (!visited[start])
+			{
+				subtours++;
+				for (int city = start; !visited[city]; city = successors[city])
+				{
+					visited[city] = true;
+				}
+			}
+		}
+		return subtours;
+	}
+
+	public int size()
+	{
+		return order.length;
+	}
+
+	public int next(final int city)
+	{
+		final int position = positions[city] + 1;
+		return order[position == order.length ? 0 : position];
+	}
+
+	public int previous(final int city)
+	{
+		final int position = positions[city];
+		return order[position == 0 ? order.length - 1 : position - 1];
+	}
+
+	public int position(final int city)
+	{
+		return positions[city];
+	}
+
+	public int cityAt(final int position)
+	{
+		return order[position];
+	}
+
+	/**
+	 * @return whether b lies on the path from a forward to c, both ends included
+	 */
+	public boolean between(final int a, final int b, final int c)
+	{
+		final int fromA = positions[b] - positions[a];
+		final int length = positions[c] - positions[a];
+		return (fromA < 0 ? fromA + order.length : fromA) <= (length < 0 ? length + order.length : length);
+	}
+
+	/**
+	 * Reverses the path from city from forward to city to, after which to comes first and from last; reversing the path
+	 * from to to from undoes it.
+	 */
+	public void reverse(final int from, final int to)
+	{
+		final int size = order.length;
+		int left = positions[from];
+		int right = positions[to];
+		final int length = (right - left + size) % size + 1;
+		for (int swap = 0; swap < length / 2; swap++)
+		{
+			final int city = order[left];
+			order[left] = order[right];
+			order[right] = city;
+			positions[order[left]] = left;
+			positions[city] = right;
+			left = left + 1 == size ? 0 : left + 1;
+			right = right == 0 ? size - 1 : right - 1;
+		}
+	}
+
+	/**
+	 * @return copy of the visiting order
+	 */
+	public int[] getOrder()
+	{
+		return order.clone();
+	}
+
+	public int[] toSuccessors()
+	{
+		final int[] successors = new int[order.length];
+		for (int position = 0; position < order.length; position++)
+		{
+			successors[order[position]] = order[position + 1 == order.length ? 0 : position + 1];
+		}
+		return successors;
+	}
+
+	/**
+	 * @return sum of the tour's edges, {@link CostMatrix#INFINITY} if one of them is missing
+	 */
+	public long getCost(final CostMatrix costMatrix)
+	{
+		return costMatrix.getTourCost(toSuccessors());
+	}
+
+	/**
+	 * @return the cities in visiting order beginning at the start city, empty if the start city is not on the matrix
+	 */
+	public List<City> toRoute(final CostMatrix costMatrix, final City startCity)
+	{
+		final int startIndex = costMatrix.indexOf(startCity);
+		if (startIndex < 0)
+		{
+			return new ArrayList<>();
+		}
+		final List<City> route = new ArrayList<>(order.length);
+		final int startPosition = positions[startIndex];
+		for (int position = startPosition; position < order.length; position++)
+		{
+			route.add(costMatrix.getCity(order[position]));
+		}
+		for (int position = 0; position < startPosition; position++)
+		{
+			route.add(costMatrix.getCity(order[position]));
+		}
+		return route;
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import java.util.SplittableRandom;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+
+/**
+ * Simulated annealing over a doubly linked tour. The only move is Or-opt without reversal: a segment of up to
+ * {@link #MAX_SEGMENT_LENGTH} cities is cut out and reinserted next to a candidate neighbour of one of its ends, which is
+ * priced from six edges and therefore exact on asymmetric matrices.
+ * <p>
+ * The temperature falls geometrically over the whole run, so it only depends on the move count and seeded runs
+ * repeat exactly.
+ */
+class AnnealingIsland extends Island
+{
+	static final int MAX_SEGMENT_LENGTH = 8;
+	// start and end temperature as a share of the mean edge cost of the start tour
+	private static final double START_TEMPERATURE = 0.05;
+	private static final double END_TEMPERATURE = 0.00005;
+	// share of moves that insert next to a random city instead of a candidate
+	private static final double RANDOM_MOVES = 0.05;
+
+	private final int[] successors;
+	private final int[] predecessors;
+	private final int[] segment = new int[MAX_SEGMENT_LENGTH];
+	private final int maxSegmentLength;
+	private final double cooling;
+	private double temperature;
+	private long currentCost;
+	private int[] bestOrder;
+	private long bestCost;
+
+	/**
+	 * @param totalMoves moves planned for the whole run, spreads the cooling schedule over it
+	 */
+	AnnealingIsland(final CostMatrix costMatrix, final CandidateLists candidateLists, final SplittableRandom random,
+			final int[] startOrder, final long totalMoves)
+	{
+		super(costMatrix, candidateLists, random);
+		this.successors = new int[size];
+		this.predecessors = new int[size];
+		this.maxSegmentLength = Math.min(MAX_SEGMENT_LENGTH, size - 3);
+		this.bestOrder = startOrder.clone();
+		this.bestCost = tourCost(startOrder);
+		load(startOrder, bestCost);
+		final double meanEdge = (double) bestCost / size;
+		this.temperature = meanEdge * START_TEMPERATURE;
+		this.cooling = Math.pow(END_TEMPERATURE / START_TEMPERATURE, 1.0 / Math.max(1, totalMoves));
+	}
+
+	@Override
+	void evolve(final int iterations)
+	{
+		for (int move = 0; move < iterations; move++)
+		{
+			tryMove();
+			temperature *= cooling;
+		}
+		if (currentCost < bestCost)
+		{
+			bestOrder = toOrder();
+			bestCost = currentCost;
+		}
+	}
+
+	@Override
+	void migrate(final int[] order, final long cost)
+	{
+		if (cost < currentCost)
+		{
+			load(order, cost);
+		}
+		if (cost < bestCost)
+		{
+			bestOrder = order;
+			bestCost = cost;
+		}
+	}
+
+	@Override
+	int[] getBestOrder()
+	{
+		return bestOrder;
+	}
+
+	@Override
+	long getBestCost()
+	{
+		return bestCost;
+	}
+
+	private void tryMove()
+	{
+		final int length = 1 + random.nextInt(maxSegmentLength);
+		final int first = random.nextInt(size);
+		int last = first;
+		segment[0] = first;
+		for (int k = 1; k < length; k++)
+		{
+			last = successors[last];
+			segment[k] = last;
+		}
+		final int before = predecessors[first];
+		final int after = successors[last];
+
+		// insert between target and its successor, either pulling first behind a neighbour or last in front of one
+		final int target;
+		if (random.nextDouble() < RANDOM_MOVES)
+		{
+			target = random.nextInt(size);
+		}
+		else if (random.nextBoolean())
+		{
+			target = candidateLists.get(first, random.nextInt(candidateLists.getCount()));
+		}
+		else
+		{
+			target = predecessors[candidateLists.get(last, random.nextInt(candidateLists.getCount()))];
+		}
+		if (target == before || contains(target, length))
+		{
+			return;
+		}
+		final int targetNext = successors[target];
+		final long delta = cost(before, after) + cost(target, first) + cost(last, targetNext) - cost(before, first)
+				- cost(last, after) - cost(target, targetNext);
+		if (delta > 0 && random.nextDouble() >= Math.exp(-delta / temperature))
+		{
+			return;
+		}
+		successors[before] = after;
+		predecessors[after] = before;
+		successors[target] = first;
+		predecessors[first] = target;
+		successors[last] = targetNext;
+		predecessors[targetNext] = last;
+		currentCost += delta;
+	}
+
+	private boolean contains(final int city, final int length)
+	{
+		for (int k = 0; k < length; k++)
+		{
+			if (segment[k] == city)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void load(final int[] order, final long cost)
+	{
+		for (int position = 0; position < size; position++)
+		{
+			final int city = order[position];
+			final int next = order[position + 1 == size ? 0 : position + 1];
+			successors[city] = next;
+			predecessors[next] = city;
+		}
+		currentCost = cost;
+	}
+
+	private int[] toOrder()
+	{
+		final int[] order = new int[size];
+		for (int position = 0, city = bestOrder[0]; position < size; position++, city = successors[city])
+		{
+			order[position] = city;
+		}
+		return order;
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.repository.CostRepository;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The k most promising successors of every city, nearest first, in one flat {@code int[]}. Local search only looks at
+ * these instead of all n cities.
+ */
+public class CandidateLists
+{
+	private final int size;
+	private final int count;
+	private final int[] candidates;
+
+	public CandidateLists(final int size, final int count, final int[] candidates)
+	{
+		Preconditions.checkArgument(count >= 0 && candidates.length == size * count, "Candidate array must hold %s entries per city", count);
+		this.size = size;
+		this.count = count;
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Spatial candidates when every city of the matrix has coordinates, the cheapest edges of the matrix otherwise.
+	 */
+	public static CandidateLists of(final CostMatrix costMatrix, final int k)
+	{
+		final List<City> cities = new ArrayList<>(costMatrix.size());
+		for (int city = 0; city < costMatrix.size(); city++)
+		{
+			if (costMatrix.getCity(city).getCoordinates() == null)
+			{
+				return fromMatrix(costMatrix, k);
+			}
+			cities.add(costMatrix.getCity(city));
+		}
+		return fromCities(cities, k);
+	}
+
+	/**
+	 * The k geometrically nearest cities of every city from a {@link KdTree}, O(n log n + n k log n) spread over all
+	 * cores. Nearest by distance is a good candidate order for road costs as well.
+	 */
+	public static CandidateLists fromCities(final List<City> cities, final int k)
+	{
+		final int size = cities.size();
+		final int count = Math.max(0, Math.min(k, size - 1));
+		return new CandidateLists(size, count, KdTree.of(cities).nearest(count));
+	}
+
+	/**
+	 * Picks the k cheapest outgoing edges of every city straight from the matrix, O(n^2 log k).
+	 */
+	public static CandidateLists fromMatrix(final CostMatrix costMatrix, final int k)
+	{
+		final int size = costMatrix.size();
+		final int count = Math.max(0, Math.min(k, size - 1));
+		final int[] candidates = new int[size * count];
+		final int[] heap = new int[count];
+		final long[] heapCosts = new long[count];
+		for (int city = 0; city < size; city++)
+		{
+			int heapSize = 0;
+			for (int other = 0; other < size; other++)
+			{
+				if (other == city)
+				{
+					continue;
+				}
+				final long cost = costMatrix.getCost(city, other);
+				if (heapSize < count)
+				{
+					heap[heapSize] = other;
+					heapCosts[heapSize] = cost;
+					siftUp(heap, heapCosts, heapSize++);
+				}
+				else if (count > 0 && cost < heapCosts[0])
+				{
+					heap[0] = other;
+					heapCosts[0] = cost;
+					siftDown(heap, heapCosts, heapSize);
+				}
+			}
+			// draining the max-heap from the back leaves the nearest candidate first
+			for (int rank = heapSize - 1; rank >= 0; rank--)
+			{
+				candidates[city * count + rank] = heap[0];
+				heap[0] = heap[rank];
+				heapCosts[0] = heapCosts[rank];
+				siftDown(heap, heapCosts, rank);
+			}
+		}
+		return new CandidateLists(size, count, candidates);
+	}
+
+	private static void siftUp(final int[] heap, final long[] costs, final int index)
+	{
+		int child = index;
+		while (child > 0)
+		{
+			final int parent = (child - 1) >>> 1;
+			if (costs[parent] >= costs[child])
+			{
+				return;
+			}
+			swap(heap, costs, parent, child);
+			child = parent;
+		}
+	}
+
+	private static void siftDown(final int[] heap, final long[] costs, final int heapSize)
+	{
+		int parent = 0;
+		while (true)
+		{
+			final int left = 2 * parent + 1;
+			if (left >= heapSize)
+			{
+				return;
+			}
+			final int right = left + 1;
+			final int largest = right < heapSize && costs[right] > costs[left] ? right : left;
+			if (costs[parent] >= costs[largest])
+			{
+				return;
+			}
+			swap(heap, costs, parent, largest);
+			parent = largest;
+		}
+	}
+
+	private static void swap(final int[] heap, final long[] costs, final int first, final int second)
+	{
+		final int city = heap[first];
+		heap[first] = heap[second];
+		heap[second] = city;
+		final long cost = costs[first];
+		costs[first] = costs[second];
+		costs[second] = cost;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @return number of candidates per city
+	 */
+	public int getCount()
+	{
+		return count;
+	}
+
+	public int get(final int city, final int rank)
+	{
+		return candidates[city * count + rank];
+	}
+
+	/**
+	 * Copies only the costs from every city to its candidates from one repository into another, e.g. from a
+	 * {@link org.ark.math.commivoyager.repository.impl.MetricCostRepository} into a stored sparse matrix of n * k
+	 * instead of n^2 entries.
+	 *
+	 * @param cities the cities these lists were built for, in the same order
+	 */
+	public void saveCosts(final List<City> cities, final CostRepository source, final CostRepository target)
+	{
+		Preconditions.checkArgument(cities.size() == size, "Candidate lists were built for %s cities", size);
+		final List<City> neighbours = new ArrayList<>(count);
+		final double[] costs = new double[count];
+		for (int city = 0; city < size; city++)
+		{
+			neighbours.clear();
+			for (int rank = 0; rank < count; rank++)
+			{
+				neighbours.add(cities.get(get(city, rank)));
+			}
+			source.getRow(cities.get(city), neighbours, costs);
+			target.saveRow(cities.get(city), neighbours, costs);
+		}
+	}
+}
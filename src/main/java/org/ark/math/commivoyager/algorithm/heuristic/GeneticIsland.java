@@ -0,0 +1,254 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import java.util.SplittableRandom;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+
+/**
+ * Steady-state memetic algorithm: two parents picked by binary tournament are recombined with directed edge
+ * recombination, the child is polished by {@link LocalSearch} and replaces the worst member if it is better and not
+ * already present. Directed recombination only follows successor edges, so it keeps the travel direction of the
+ * parents on asymmetric matrices.
+ */
+class GeneticIsland extends Island
+{
+	private static final int KICK_SEGMENT_LENGTH = 30;
+
+	private final LocalSearch localSearch;
+	// run start and time limit of the solver, 0 for no limit
+	private final long startTime;
+	private final long timeLimitNanos;
+	private final int[][] population;
+	private final long[] costs;
+	// scratch state for recombination, reused for every child
+	private final int[] firstSuccessors;
+	private final int[] secondSuccessors;
+	private final boolean[] visited;
+	private final int[] unvisited;
+	private final int[] unvisitedIndex;
+	private int best;
+
+	GeneticIsland(final CostMatrix costMatrix, final CandidateLists candidateLists, final SplittableRandom random,
+			final int[] startOrder, final int populationSize, final long startTime, final long timeLimitNanos)
+	{
+		super(costMatrix, candidateLists, random);
+		this.startTime = startTime;
+		this.timeLimitNanos = timeLimitNanos;
+		this.localSearch = new LocalSearch(costMatrix, candidateLists);
+		this.population = new int[populationSize][];
+		this.costs = new long[populationSize];
+		this.firstSuccessors = new int[size];
+		this.secondSuccessors = new int[size];
+		this.visited = new boolean[size];
+		this.unvisited = new int[size];
+		this.unvisitedIndex = new int[size];
+
+		population[0] = startOrder.clone();
+		costs[0] = tourCost(population[0]);
+		for (int member = 1; member < populationSize; member++)
+		{
+			final int[] order = doubleBridge(startOrder.clone());
+			localSearch.improve(order, IslandSolver.remainingNanos(startTime, timeLimitNanos));
+			population[member] = order;
+			costs[member] = tourCost(order);
+		}
+		updateBest();
+	}
+
+	@Override
+	void evolve(final int iterations)
+	{
+		for (int offspring = 0; offspring < iterations && !isTimeUp(); offspring++)
+		{
+			final int first = tournament();
+			int second = tournament();
+			if (second == first)
+			{
+				second = (first + 1 + random.nextInt(population.length - 1)) % population.length;
+			}
+			final int[] child = recombine(population[first], population[second]);
+			localSearch.improve(child, IslandSolver.remainingNanos(startTime, timeLimitNanos));
+			accept(child, tourCost(child));
+		}
+	}
+
+	private boolean isTimeUp()
+	{
+		return timeLimitNanos > 0 && System.nanoTime() - startTime >= timeLimitNanos;
+	}
+
+	@Override
+	void migrate(final int[] order, final long cost)
+	{
+		accept(order, cost);
+	}
+
+	@Override
+	int[] getBestOrder()
+	{
+		return population[best];
+	}
+
+	@Override
+	long getBestCost()
+	{
+		return costs[best];
+	}
+
+	private void accept(final int[] order, final long cost)
+	{
+		int worst = 0;
+		for (int member = 0; member < population.length; member++)
+		{
+			// equal cost is taken as a duplicate, which keeps the population from collapsing onto one tour
+			if (costs[member] == cost)
+			{
+				return;
+			}
+			if (costs[member] > costs[worst])
+			{
+				worst = member;
+			}
+		}
+		if (cost < costs[worst])
+		{
+			population[worst] = order;
+			costs[worst] = cost;
+			updateBest();
+		}
+	}
+
+	private void updateBest()
+	{
+		for (int member = 0; member < population.length; member++)
+		{
+			if (costs[member] < costs[best])
+			{
+				best = member;
+			}
+		}
+	}
+
+	private int tournament()
+	{
+		final int first = random.nextInt(population.length);
+		final int second = random.nextInt(population.length);
+		return costs[first] <= costs[second] ? first : second;
+	}
+
+	/**
+	 * Builds a child from the successor edges of both parents. The next city is a common successor if there is one,
+	 * otherwise the unvisited successor with fewer onward options left, then the cheaper one; dead ends continue at the
+	 * nearest unvisited city, looked up in the candidate list first.
+	 */
+	private int[] recombine(final int[] first, final int[] second)
+	{
+		for (int position = 0; position < size; position++)
+		{
+			firstSuccessors[first[position]] = first[position + 1 == size ? 0 : position + 1];
+			secondSuccessors[second[position]] = second[position + 1 == size ? 0 : position + 1];
+			visited[position] = false;
+			unvisited[position] = position;
+			unvisitedIndex[position] = position;
+		}
+		int remaining = size;
+		final int[] child = new int[size];
+		int city = random.nextInt(size);
+		for (int position = 0; position < size; position++)
+		{
+			child[position] = city;
+			visited[city] = true;
+			final int index = unvisitedIndex[city];
+			final int moved = unvisited[--remaining];
+			unvisited[index] = moved;
+			unvisitedIndex[moved] = index;
+			if (remaining == 0)
+			{
+				break;
+			}
+			city = nextCity(city, remaining);
+		}
+		return child;
+	}
+
+	private int nextCity(final int city, final int remaining)
+	{
+		final int firstNext = firstSuccessors[city];
+		final int secondNext = secondSuccessors[city];
+		final boolean firstOpen = !visited[firstNext];
+		final boolean secondOpen = !visited[secondNext];
+		if (firstOpen && secondOpen)
+		{
+			if (firstNext == secondNext)
+			{
+				return firstNext;
+			}
+			final int firstOptions = options(firstNext);
+			final int secondOptions = options(secondNext);
+			if (firstOptions != secondOptions)
+			{
+				return firstOptions < secondOptions ? firstNext : secondNext;
+			}
+			return cost(city, firstNext) <= cost(city, secondNext) ? firstNext : secondNext;
+		}
+		if (firstOpen || secondOpen)
+		{
+			return firstOpen ? firstNext : secondNext;
+		}
+		for (int rank = 0; rank < candidateLists.getCount(); rank++)
+		{
+			final int candidate = candidateLists.get(city, rank);
+			if (!visited[candidate])
+			{
+				return candidate;
+			}
+		}
+		int nearest = unvisited[0];
+		for (int index = 1; index < remaining; index++)
+		{
+			if (cost(city, unvisited[index]) < cost(city, nearest))
+			{
+				nearest = unvisited[index];
+			}
+		}
+		return nearest;
+	}
+
+	private int options(final int city)
+	{
+		return (visited[firstSuccessors[city]] ? 0 : 1) + (visited[secondSuccessors[city]] ? 0 : 1);
+	}
+
+	/**
+	 * Cuts the tour into four parts A B C D and reconnects them as A C B D, a jump 2-opt and Or-opt cannot undo. B and
+	 * C are kept short so the kick stays local and the local search can repair the damage around it.
+	 */
+	private int[] doubleBridge(final int[] order)
+	{
+		if (size < 8)
+		{
+			return order;
+		}
+		final int segment = Math.min(KICK_SEGMENT_LENGTH, (size - 2) / 2);
+		final int firstCut = 1 + random.nextInt(size - 2 * segment - 1);
+		final int secondCut = firstCut + 1 + random.nextInt(segment);
+		final int thirdCut = secondCut + 1 + random.nextInt(segment);
+		final int[] kicked = new int[size];
+		System.arraycopy(order, 0, kicked, 0, firstCut);
+		System.arraycopy(order, secondCut, kicked, firstCut, thirdCut - secondCut);
+		System.arraycopy(order, firstCut, kicked, firstCut + thirdCut - secondCut, secondCut - firstCut);
+		System.arraycopy(order, thirdCut, kicked, thirdCut, size - thirdCut);
+		return kicked;
+	}
+}
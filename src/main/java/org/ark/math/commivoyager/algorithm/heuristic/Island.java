@@ -0,0 +1,72 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import java.util.SplittableRandom;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+
+/**
+ * One population of an {@link IslandSolver}, owned by a single thread. Migrants are only handed over between epochs,
+ * while all islands wait at the barrier, so an island needs no locking of its own.
+ */
+abstract class Island
+{
+	protected final CostMatrix costMatrix;
+	protected final CandidateLists candidateLists;
+	protected final SplittableRandom random;
+	protected final int size;
+	private final long maximumCost;
+
+	Island(final CostMatrix costMatrix, final CandidateLists candidateLists, final SplittableRandom random)
+	{
+		this.costMatrix = costMatrix;
+		this.candidateLists = candidateLists;
+		this.random = random;
+		this.size = costMatrix.size();
+		// keeps sums of a few missing edges from overflowing, the same way LocalSearch clamps them
+		this.maximumCost = Long.MAX_VALUE / (4L * (size + 1));
+	}
+
+	/**
+	 * Runs one epoch: the given number of annealing moves or offspring.
+	 */
+	abstract void evolve(int iterations);
+
+	/**
+	 * Offers the best tour of a neighbouring island; the order is a private copy the island may keep.
+	 */
+	abstract void migrate(int[] order, long cost);
+
+	/**
+	 * @return best tour found so far as visiting order; not modified afterwards
+	 */
+	abstract int[] getBestOrder();
+
+	abstract long getBestCost();
+
+	protected long cost(final int from, final int to)
+	{
+		final long cost = costMatrix.getCost(from, to);
+		return cost > maximumCost ? maximumCost : cost;
+	}
+
+	protected long tourCost(final int[] order)
+	{
+		long cost = 0;
+		for (int position = 0; position < order.length; position++)
+		{
+			cost += cost(order[position], order[position + 1 == order.length ? 0 : position + 1]);
+		}
+		return cost;
+	}
+}
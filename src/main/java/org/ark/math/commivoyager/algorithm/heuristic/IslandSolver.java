@@ -0,0 +1,340 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.ark.math.commivoyager.algorithm.OneTreeBound;
+import org.ark.math.commivoyager.algorithm.RouteSolver;
+import org.ark.math.commivoyager.algorithm.SearchControl;
+import org.ark.math.commivoyager.algorithm.Tour;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+/**
+ * Island model for large asymmetric instances: every island evolves its own tours on its own thread and random
+ * stream, started from the {@link LocalSearch} optimum of a greedy tour. After every epoch the islands meet at a
+ * barrier, where each one receives a copy of the best tour of its left neighbour on a ring; that hand-over is the only
+ * synchronisation.
+ * <p>
+ * Islands run simulated annealing or a memetic genetic algorithm with edge recombination, see {@link Method}. A run
+ * bounded by epochs only is reproducible: the same seed, island count and settings give the same tour on any machine,
+ * whatever the thread scheduling. A time limit ends the run at the next barrier and cuts the local searches short,
+ * which makes the result depend on the machine, as does a target gap against the {@link OneTreeBound}.
+ */
+public class IslandSolver implements RouteSolver
+{
+	public static final int DEFAULT_EPOCHS = 20;
+	public static final int DEFAULT_POPULATION_SIZE = 12;
+	// annealing moves per city and epoch, offspring per epoch for the genetic islands
+	private static final int ANNEALING_MOVES_PER_CITY = 50;
+	private static final int GENETIC_OFFSPRING = 25;
+
+	public enum Method
+	{
+		ANNEALING,
+		GENETIC
+	}
+
+	private Method method = Method.ANNEALING;
+	private int islands = Runtime.getRuntime().availableProcessors();
+	private long seed;
+	private int epochs = DEFAULT_EPOCHS;
+	private int migrationInterval;
+	private int populationSize = DEFAULT_POPULATION_SIZE;
+	private int candidates = LocalSearchSolver.DEFAULT_CANDIDATES;
+	private long timeLimitNanos;
+	private double targetGap;
+	private SolverListener solverListener = SolverListener.NONE;
+
+	@Override
+	public int[] solve(final CostMatrix costMatrix)
+	{
+		final long startTime = System.nanoTime();
+		final int[] order = solveOrder(costMatrix);
+		final int[] successors = Tour.fromOrder(order).toSuccessors();
+		solverListener.onSolved(costMatrix.size(), System.nanoTime() - startTime);
+		return successors;
+	}
+
+	/**
+	 * @return the best tour of all islands as visiting order
+	 */
+	public int[] solveOrder(final CostMatrix costMatrix)
+	{
+		final long startTime = System.nanoTime();
+		final CandidateLists candidateLists = CandidateLists.of(costMatrix, candidates);
+		final int[] startOrder = TourConstruction.greedyEdge(costMatrix, candidateLists);
+		final long startCost = new LocalSearch(costMatrix, candidateLists).improve(startOrder, remainingNanos(startTime, timeLimitNanos));
+		solverListener.onBoundImproved(startCost);
+		long lowerBound = 0;
+		if (targetGap > 0)
+		{
+			final OneTreeBound oneTreeBound = new OneTreeBound(costMatrix);
+			oneTreeBound.setUpperBound(startCost);
+			if (timeLimitNanos > 0)
+			{
+				final SearchControl searchControl = new SearchControl();
+				searchControl.setTimeout(remainingNanos(startTime, timeLimitNanos), TimeUnit.NANOSECONDS);
+				oneTreeBound.setSearchControl(searchControl);
+			}
+			lowerBound = oneTreeBound.compute();
+		}
+		if (costMatrix.size() < 5 || isGoodEnough(startCost, lowerBound))
+		{
+			return startOrder;
+		}
+
+		final int interval = migrationInterval > 0 ? migrationInterval
+				: method == Method.ANNEALING ? ANNEALING_MOVES_PER_CITY * costMatrix.size() : GENETIC_OFFSPRING;
+		final SplittableRandom random = new SplittableRandom(seed);
+		final Island[] population = new Island[islands];
+		for (int island = 0; island < islands; island++)
+		{
+			population[island] = method == Method.ANNEALING
+					? new AnnealingIsland(costMatrix, candidateLists, random.split(), startOrder, (long) interval * epochs)
+					: new GeneticIsland(costMatrix, candidateLists, random.split(), startOrder, populationSize, startTime, timeLimitNanos);
+		}
+		final Archipelago archipelago = new Archipelago(population, startCost, lowerBound, startTime);
+		archipelago.run(interval);
+		return archipelago.bestOrder;
+	}
+
+	public void setMethod(final Method method)
+	{
+		Preconditions.checkNotNull(method, "Method must be provided");
+		this.method = method;
+	}
+
+	/**
+	 * Number of islands, each on its own thread; defaults to the number of available processors.
+	 */
+	public void setIslands(final int islands)
+	{
+		Preconditions.checkArgument(islands > 0, "Island count must be positive");
+		this.islands = islands;
+	}
+
+	public void setSeed(final long seed)
+	{
+		this.seed = seed;
+	}
+
+	public void setEpochs(final int epochs)
+	{
+		Preconditions.checkArgument(epochs > 0, "Epoch count must be positive");
+		this.epochs = epochs;
+	}
+
+	/**
+	 * Annealing moves or offspring per island between two migrations; 0 (the default) picks 50 moves per city for
+	 * annealing and 25 offspring for the genetic islands.
+	 */
+	public void setMigrationInterval(final int migrationInterval)
+	{
+		Preconditions.checkArgument(migrationInterval >= 0, "Migration interval must not be negative");
+		this.migrationInterval = migrationInterval;
+	}
+
+	/**
+	 * Tours kept per genetic island.
+	 */
+	public void setPopulationSize(final int populationSize)
+	{
+		Preconditions.checkArgument(populationSize > 1, "Population must hold at least two tours");
+		this.populationSize = populationSize;
+	}
+
+	public void setCandidates(final int candidates)
+	{
+		Preconditions.checkArgument(candidates > 0, "Candidate count must be positive");
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Ends the run at the first migration after the given time; 0 (the default) runs all epochs.
+	 */
+	public void setTimeLimitMillis(final long timeLimitMillis)
+	{
+		Preconditions.checkArgument(timeLimitMillis >= 0, "Time limit must not be negative");
+		this.timeLimitNanos = timeLimitMillis * 1000000L;
+	}
+
+	/**
+	 * Ends the run at the first migration where the best tour is proven within this share of the optimum by the
+	 * {@link OneTreeBound}, computed once up front in O(n^2) per subgradient iteration; 0 (the default) disables it.
+	 */
+	public void setTargetGap(final double targetGap)
+	{
+		Preconditions.checkArgument(targetGap >= 0 && targetGap < 1, "Target gap must be in [0, 1)");
+		this.targetGap = targetGap;
+	}
+
+	/**
+	 * The listener is called from the island threads, one at a time at each migration.
+	 */
+	@Override
+	public void setSolverListener(final SolverListener solverListener)
+	{
+		Preconditions.checkNotNull(solverListener, "Solver listener must be provided, use SolverListener.NONE to disable");
+		this.solverListener = solverListener;
+	}
+
+	/**
+	 * @return time left for a {@link LocalSearch#improve(int[], long)} call, 0 without a time limit and at least 1 once
+	 *         the limit has passed, so that the call stops at its first clock check
+	 */
+	static long remainingNanos(final long startTime, final long timeLimitNanos)
+	{
+		return timeLimitNanos == 0 ? 0 : Math.max(1, timeLimitNanos - (System.nanoTime() - startTime));
+	}
+
+	private boolean isGoodEnough(final long cost, final long lowerBound)
+	{
+		return targetGap > 0 && cost - lowerBound <= targetGap * cost;
+	}
+
+	private final class Archipelago
+	{
+		private final Island[] population;
+		private final long lowerBound;
+		private final long startTime;
+		private final Phaser barrier;
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+		private int[] bestOrder;
+		private long bestCost;
+		private int epoch;
+		private volatile boolean stopped;
+
+		private Archipelago(final Island[] population, final long startCost, final long lowerBound, final long startTime)
+		{
+			this.population = population;
+			this.lowerBound = lowerBound;
+			this.startTime = startTime;
+			this.bestOrder = population[0].getBestOrder();
+			this.bestCost = startCost;
+			this.barrier = new Phaser(population.length)
+			{
+				@Override
+				protected boolean onAdvance(final int phase, final int registeredParties)
+				{
+					// a failed island leaves its tours half evolved, so nothing migrates after a failure
+					if (failure.get() == null && registeredParties == population.length)
+					{
+						migrate();
+					}
+					return stopped || registeredParties < population.length;
+				}
+			};
+		}
+
+		private void run(final int interval)
+		{
+			final Thread[] threads = new Thread[population.length];
+			for (int island = 0; island < population.length; island++)
+			{
+				final Island current = population[island];
+				threads[island] = new Thread(() -> evolve(current, interval), "island-" + island);
+				threads[island].setDaemon(true);
+				threads[island].start();
+			}
+			try
+			{
+				for (final Thread thread : threads)
+				{
+					thread.join();
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				stopped = true;
+				barrier.forceTermination();
+				for (final Thread thread : threads)
+				{
+					thread.interrupt();
+				}
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while the islands were evolving", e);
+			}
+			if (failure.get() != null)
+			{
+				Throwables.propagateIfPossible(failure.get());
+				throw new IllegalStateException("Island failed", failure.get());
+			}
+		}
+
+		/**
+		 * Leaving the phaser in every case, an island that fails or returns early still lets the others pass the
+		 * migration; once an island has left, the phaser terminates and no island waits at it again.
+		 */
+		private void evolve(final Island island, final int interval)
+		{
+			try
+			{
+				while (!stopped && !barrier.isTerminated())
+				{
+					island.evolve(interval);
+					barrier.arriveAndAwaitAdvance();
+				}
+			}
+			catch (final RuntimeException | Error e)
+			{
+				failure.compareAndSet(null, e);
+				stopped = true;
+			}
+			finally
+			{
+				barrier.arriveAndDeregister();
+			}
+		}
+
+		/**
+		 * Phaser action, runs on the last island thread to arrive while all others wait.
+		 */
+		private void migrate()
+		{
+			final int[][] migrants = new int[population.length][];
+			final long[] migrantCosts = new long[population.length];
+			for (int island = 0; island < population.length; island++)
+			{
+				migrants[island] = population[island].getBestOrder();
+				migrantCosts[island] = population[island].getBestCost();
+				if (migrantCosts[island] < bestCost)
+				{
+					bestOrder = migrants[island];
+					bestCost = migrantCosts[island];
+					solverListener.onBoundImproved(bestCost);
+				}
+			}
+			for (int island = 0; island < population.length; island++)
+			{
+				final int neighbour = island == 0 ? population.length - 1 : island - 1;
+				if (neighbour != island)
+				{
+					population[island].migrate(migrants[neighbour].clone(), migrantCosts[neighbour]);
+				}
+			}
+			epoch++;
+			if (epoch >= epochs || timeLimitNanos > 0 && System.nanoTime() - startTime >= timeLimitNanos
+					|| isGoodEnough(bestCost, lowerBound))
+			{
+				stopped = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,346 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.Coordinates;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Static k-d tree over city coordinates for k-nearest-neighbour queries. Planar cities are indexed in 2d; geographic
+ * ones as points on the unit sphere in 3d, where straight line order equals great circle order and the antimeridian
+ * needs no special case.
+ * <p>
+ * The tree is implicit: the median of every index range is the node, its halves are the subtrees.
+ */
+public final class KdTree
+{
+	private final int size;
+	private final int dimensions;
+	// point coordinates, dimensions per city in city order
+	private final double[] points;
+	// cities in tree order and the split axis of the node stored at each position
+	private final int[] order;
+	private final byte[] axes;
+
+	private KdTree(final int size, final int dimensions, final double[] points)
+	{
+		this.size = size;
+		this.dimensions = dimensions;
+		this.points = points;
+		this.order = new int[size];
+		this.axes = new byte[size];
+		for (int city = 0; city < size; city++)
+		{
+			order[city] = city;
+		}
+		build(0, size);
+	}
+
+	/**
+	 * @param cities cities that all have planar or all have geographic coordinates
+	 */
+	public static KdTree of(final List<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		final int size = cities.size();
+		final boolean geographic = size > 0 && coordinatesOf(cities.get(0)).isGeographic();
+		final int dimensions = geographic ? 3 : 2;
+		final double[] points = new double[size * dimensions];
+		for (int city = 0; city < size; city++)
+		{
+			final Coordinates coordinates = coordinatesOf(cities.get(city));
+			Preconditions.checkArgument(coordinates.isGeographic() == geographic, "Cities mix planar and geographic coordinates");
+			if (geographic)
+			{
+				final double latitude = Math.toRadians(coordinates.getLatitude());
+				final double longitude = Math.toRadians(coordinates.getLongitude());
+				points[city * 3] = Math.cos(latitude) * Math.cos(longitude);
+				points[city * 3 + 1] = Math.cos(latitude) * Math.sin(longitude);
+				points[city * 3 + 2] = Math.sin(latitude);
+			}
+			else
+			{
+				points[city * 2] = coordinates.getX();
+				points[city * 2 + 1] = coordinates.getY();
+			}
+		}
+		return new KdTree(size, dimensions, points);
+	}
+
+	private static Coordinates coordinatesOf(final City city)
+	{
+		Preconditions.checkArgument(city.getCoordinates() != null, "City %s has no coordinates", city.getId());
+		return city.getCoordinates();
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Finds the k nearest other cities of every city, queried in parallel.
+	 *
+	 * @return {@code min(k, size - 1)} candidates per city, nearest first, in one flat array
+	 */
+	public int[] nearest(final int k)
+	{
+		Preconditions.checkArgument(k >= 0, "Neighbour count must not be negative");
+		final int count = Math.max(0, Math.min(k, size - 1));
+		final int[] neighbours = new int[size * count];
+		if (count > 0)
+		{
+			IntStream.range(0, size).parallel().forEach(city -> new Query(city, count).run(neighbours));
+		}
+		return neighbours;
+	}
+
+	private void build(final int from, final int to)
+	{
+		int low = from;
+		int high = to;
+		// recurses into the smaller half only and loops on the other, bounding the stack depth
+		while (high - low > 1)
+		{
+			final int median = (low + high) >>> 1;
+			final int axis = widestAxis(low, high);
+			select(low, high, median, axis);
+			axes[median] = (byte) axis;
+			if (median - low < high - median - 1)
+			{
+				build(low, median);
+				low = median + 1;
+			}
+			else
+			{
+				build(median + 1, high);
+				high = median;
+			}
+		}
+	}
+
+	private int widestAxis(final int from, final int to)
+	{
+		int widest = 0;
+		double widestSpread = -1;
+		for (int axis = 0; axis < dimensions; axis++)
+		{
+			double minimum = Double.POSITIVE_INFINITY;
+			double maximum = Double.NEGATIVE_INFINITY;
+			for (int index = from; index < to; index++)
+			{
+				final double value = points[order[index] * dimensions + axis];
+				minimum = Math.min(minimum, value);
+				maximum = Math.max(maximum, value);
+			}
+			if (maximum - minimum > widestSpread)
+			{
+				widestSpread = maximum - minimum;
+				widest = axis;
+			}
+		}
+		return widest;
+	}
+
+	// quickselect: puts the element of rank target at its place, smaller ones before and larger ones after it
+	private void select(final int from, final int to, final int target, final int axis)
+	{
+		int low = from;
+		int high = to - 1;
+		while (high > low)
+		{
+			final double pivot = value((low + high) >>> 1, axis);
+			int left = low;
+			int right = high;
+			while (left <= right)
+			{
+				while (value(left, axis) < pivot)
+				{
+					left++;
+				}
+				while (value(right, axis) > pivot)
+				{
+					right--;
+				}
+				if (left <= right)
+				{
+					final int city = order[left];
+					order[left++] = order[right];
+					order[right--] = city;
+				}
+			}
+			if (target <= right)
+			{
+				high = right;
+			}
+			else if (target >= left)
+			{
+				low = left;
+			}
+			else
+			{
+				return;
+			}
+		}
+	}
+
+	private double value(final int index, final int axis)
+	{
+		return points[order[index] * dimensions + axis];
+	}
+
+	private double distanceSquared(final int first, final int second)
+	{
+		double distance = 0;
+		for (int axis = 0; axis < dimensions; axis++)
+		{
+			final double delta = points[first * dimensions + axis] - points[second * dimensions + axis];
+			distance += delta * delta;
+		}
+		return distance;
+	}
+
+	/**
+	 * One k-nearest search with a bounded max-heap of the best candidates so far.
+	 */
+	private final class Query
+	{
+		private final int city;
+		private final int count;
+		private final int[] heap;
+		private final double[] heapDistances;
+		private int heapSize;
+
+		private Query(final int city, final int count)
+		{
+			this.city = city;
+			this.count = count;
+			this.heap = new int[count];
+			this.heapDistances = new double[count];
+		}
+
+		private void run(final int[] neighbours)
+		{
+			search(0, size);
+			for (int rank = heapSize - 1; rank >= 0; rank--)
+			{
+				neighbours[city * count + rank] = heap[0];
+				heap[0] = heap[rank];
+				heapDistances[0] = heapDistances[rank];
+				siftDown(rank);
+			}
+		}
+
+		private void search(final int from, final int to)
+		{
+			if (to <= from)
+			{
+				return;
+			}
+			final int median = (from + to) >>> 1;
+			final int node = order[median];
+			if (node != city)
+			{
+				offer(node, distanceSquared(city, node));
+			}
+			if (to - from == 1)
+			{
+				return;
+			}
+			final int axis = axes[median];
+			final double delta = points[city * dimensions + axis] - points[node * dimensions + axis];
+			if (delta < 0)
+			{
+				search(from, median);
+				if (heapSize < count || delta * delta < heapDistances[0])
+				{
+					search(median + 1, to);
+				}
+			}
+			else
+			{
+				search(median + 1, to);
+				if (heapSize < count || delta * delta < heapDistances[0])
+				{
+					search(from, median);
+				}
+			}
+		}
+
+		private void offer(final int candidate, final double distance)
+		{
+			if (heapSize < count)
+			{
+				heap[heapSize] = candidate;
+				heapDistances[heapSize] = distance;
+				siftUp(heapSize++);
+			}
+			else if (distance < heapDistances[0])
+			{
+				heap[0] = candidate;
+				heapDistances[0] = distance;
+				siftDown(heapSize);
+			}
+		}
+
+		private void siftUp(final int index)
+		{
+			int child = index;
+			while (child > 0)
+			{
+				final int parent = (child - 1) >>> 1;
+				if (heapDistances[parent] >= heapDistances[child])
+				{
+					return;
+				}
+				swap(parent, child);
+				child = parent;
+			}
+		}
+
+		private void siftDown(final int limit)
+		{
+			int parent = 0;
+			while (true)
+			{
+				final int left = 2 * parent + 1;
+				if (left >= limit)
+				{
+					return;
+				}
+				final int right = left + 1;
+				final int largest = right < limit && heapDistances[right] > heapDistances[left] ? right : left;
+				if (heapDistances[parent] >= heapDistances[largest])
+				{
+					return;
+				}
+				swap(parent, largest);
+				parent = largest;
+			}
+		}
+
+		private void swap(final int first, final int second)
+		{
+			final int candidate = heap[first];
+			heap[first] = heap[second];
+			heap[second] = candidate;
+			final double distance = heapDistances[first];
+			heapDistances[first] = heapDistances[second];
+			heapDistances[second] = distance;
+		}
+	}
+}
@@ -0,0 +1,268 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import org.ark.math.commivoyager.algorithm.Tour;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+
+/**
+ * Lin-Kernighan style variable-depth search for symmetric matrices, built from chained 2-opt moves.
+ * <p>
+ * From a base city t1 with tour neighbour t2 the edge (t1, t2) is broken and the chain grows one step at a time: the
+ * open end is joined to a candidate c and the edge from c back towards t1 is broken, which a single reversal realises.
+ * Every step must keep the running gain positive; the chain goes up to {@code maxDepth} steps and the prefix with the
+ * best closing gain is kept. The first two levels back off to the next best candidates when a chain closes without
+ * gain. Chains run on a {@link Tour}, each reversal flips the shorter side.
+ */
+public class LinKernighan
+{
+	private static final int CLOCK_CHECK_INTERVAL = 16;
+	// candidates tried per chain level, the last entry applies to all deeper levels
+	private static final int[] BREADTH = { 5, 3, 1 };
+
+	private final CostMatrix costMatrix;
+	private final CandidateLists candidateLists;
+	private final int size;
+	private final int maxDepth;
+	private final long maximumCost;
+	private final int[] queue;
+	private final boolean[] queued;
+	// cities joined to the chain in the current attempt, marked with the attempt number
+	private final int[] joined;
+	// reversals of the current chain as (first city, last city) of the reversed path, for undoing the tail
+	private final int[] reversals;
+	private final int[][] levelCandidates;
+	private final long[][] levelGains;
+	private Tour tour;
+	private int attempt;
+	private int chainBase;
+	private long bestGain;
+	private int bestDepth;
+	private int appliedDepth;
+	private int queueHead;
+	private int queueSize;
+	private long moves;
+
+	public LinKernighan(final CostMatrix costMatrix, final CandidateLists candidateLists, final int maxDepth)
+	{
+		this.costMatrix = costMatrix;
+		this.candidateLists = candidateLists;
+		this.size = costMatrix.size();
+		this.maxDepth = maxDepth;
+		this.maximumCost = Long.MAX_VALUE / (4L * (size + 1));
+		this.queue = new int[size];
+		this.queued = new boolean[size];
+		this.joined = new int[size];
+		this.reversals = new int[2 * maxDepth];
+		this.levelCandidates = new int[BREADTH.length][];
+		this.levelGains = new long[BREADTH.length][];
+		for (int level = 0; level < BREADTH.length; level++)
+		{
+			levelCandidates[level] = new int[BREADTH[level]];
+			levelGains[level] = new long[BREADTH[level]];
+		}
+	}
+
+	/**
+	 * Improves the tour in place until no base city yields an improving chain or the time limit is hit.
+	 *
+	 * @param order visiting order of all cities, rewritten with the improved tour
+	 * @param timeLimitNanos 0 for no limit
+	 * @return cost of the improved tour
+	 */
+	public long improve(final int[] order, final long timeLimitNanos)
+	{
+		this.tour = Tour.fromOrder(order);
+		if (size >= 5)
+		{
+			final long startTime = System.nanoTime();
+			for (int position = 0; position < size; position++)
+			{
+				push(order[position]);
+			}
+			int polls = 0;
+			while (queueSize > 0)
+			{
+				if (timeLimitNanos > 0 && ++polls % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - startTime >= timeLimitNanos)
+				{
+					break;
+				}
+				final int city = poll();
+				if (improveFrom(city, true) || improveFrom(city, false))
+				{
+					moves++;
+					push(city);
+				}
+			}
+		}
+		System.arraycopy(tour.getOrder(), 0, order, 0, size);
+		long cost = 0;
+		for (final int city : order)
+		{
+			cost += cost(city, tour.next(city));
+		}
+		return cost;
+	}
+
+	/**
+	 * @return number of improving chains applied so far
+	 */
+	public long getMoves()
+	{
+		return moves;
+	}
+
+	/**
+	 * Grows chains from the base city, breaking the edge to its successor (or predecessor) first.
+	 */
+	private boolean improveFrom(final int base, final boolean successorSide)
+	{
+		attempt++;
+		chainBase = base;
+		bestGain = 0;
+		bestDepth = 0;
+		appliedDepth = 0;
+		final int last = successorSide ? tour.next(base) : tour.previous(base);
+		joined[base] = attempt;
+		joined[last] = attempt;
+		if (!extend(0, cost(base, last), last))
+		{
+			return false;
+		}
+		for (int step = appliedDepth - 1; step >= bestDepth; step--)
+		{
+			tour.reverse(reversals[2 * step], reversals[2 * step + 1]);
+		}
+		for (int step = 0; step < bestDepth; step++)
+		{
+			final int first = reversals[2 * step];
+			final int end = reversals[2 * step + 1];
+			push(tour.previous(first));
+			push(first);
+			push(end);
+			push(tour.next(end));
+		}
+		return true;
+	}
+
+	/**
+	 * Tries the best few candidates for the open end, best gain after breaking the candidate's edge towards the base
+	 * first. The first levels back off to the next candidate when a chain fails, deeper levels only follow the best one.
+	 *
+	 * @return true with the chain left applied up to {@link #appliedDepth} once a closing gain above zero was seen,
+	 *         false with all reversals of this level undone
+	 */
+	private boolean extend(final int depth, final long gain, final int last)
+	{
+		final boolean forward = tour.next(chainBase) == last;
+		final int[] candidates = levelCandidates[Math.min(depth, BREADTH.length - 1)];
+		final long[] stepGains = levelGains[Math.min(depth, BREADTH.length - 1)];
+		final int breadth = BREADTH[Math.min(depth, BREADTH.length - 1)];
+		int found = 0;
+		for (int rank = 0; rank < candidateLists.getCount(); rank++)
+		{
+			final int candidate = candidateLists.get(last, rank);
+			final long joinCost = cost(last, candidate);
+			if (gain - joinCost <= 0)
+			{
+				break;
+			}
+			if (joined[candidate] == attempt || (forward ? tour.previous(candidate) : tour.next(candidate)) == last)
+			{
+				continue;
+			}
+			final long stepGain = cost(candidate, forward ? tour.previous(candidate) : tour.next(candidate)) - joinCost;
+			// insertion into the short list of the best candidates of this level
+			int slot = Math.min(found, breadth - 1);
+			if (found == breadth && stepGain <= stepGains[slot])
+			{
+				continue;
+			}
+			while (slot > 0 && stepGains[slot - 1] < stepGain)
+			{
+				stepGains[slot] = stepGains[slot - 1];
+				candidates[slot] = candidates[slot - 1];
+				slot--;
+			}
+			stepGains[slot] = stepGain;
+			candidates[slot] = candidate;
+			found = Math.min(found + 1, breadth);
+		}
+		// levels past the breadth table share one slot, which is read before the next level overwrites it
+		for (int choice = 0; choice < found; choice++)
+		{
+			final int candidate = candidates[choice];
+			final long stepGain = stepGains[choice];
+			final int broken = forward ? tour.previous(candidate) : tour.next(candidate);
+			reverse(forward ? last : broken, forward ? broken : last, depth);
+			appliedDepth = depth + 1;
+			joined[candidate] = attempt;
+			final long nextGain = gain + stepGain;
+			final long closedGain = nextGain - cost(broken, chainBase);
+			if (closedGain > bestGain)
+			{
+				bestGain = closedGain;
+				bestDepth = depth + 1;
+			}
+			if (depth + 1 < maxDepth && extend(depth + 1, nextGain, broken) || bestGain > 0)
+			{
+				return true;
+			}
+			joined[candidate] = 0;
+			tour.reverse(reversals[2 * depth], reversals[2 * depth + 1]);
+			appliedDepth = depth;
+		}
+		return false;
+	}
+
+	/**
+	 * Reverses the path from city from forward to city to, or the rest of the tour if that is shorter; both give the same
+	 * cycle on a symmetric matrix.
+	 */
+	private void reverse(final int from, final int to, final int step)
+	{
+		int first = from;
+		int last = to;
+		if (2 * ((tour.position(to) - tour.position(from) + size) % size + 1) > size)
+		{
+			first = tour.next(to);
+			last = tour.previous(from);
+		}
+		tour.reverse(first, last);
+		reversals[2 * step] = last;
+		reversals[2 * step + 1] = first;
+	}
+
+	private long cost(final int from, final int to)
+	{
+		final long cost = costMatrix.getCost(from, to);
+		return cost > maximumCost ? maximumCost : cost;
+	}
+
+	private void push(final int city)
+	{
+		if (!queued[city])
+		{
+			queued[city] = true;
+			queue[(queueHead + queueSize++) % size] = city;
+		}
+	}
+
+	private int poll()
+	{
+		final int city = queue[queueHead];
+		queueHead = (queueHead + 1) % size;
+		queueSize--;
+		queued[city] = false;
+		return city;
+	}
+}
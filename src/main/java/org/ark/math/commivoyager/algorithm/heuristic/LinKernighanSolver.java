@@ -0,0 +1,114 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import org.ark.math.commivoyager.algorithm.RouteSolver;
+import org.ark.math.commivoyager.algorithm.Tour;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Variable-depth mode for large symmetric instances: a greedy start tour improved with {@link LinKernighan} chains
+ * over the candidate lists. Reaches tours a few percent above optimal where {@link LocalSearchSolver} stops at its
+ * 2-opt/Or-opt local optimum.
+ * <p>
+ * Chained reversals are only priced correctly on symmetric costs, so asymmetric matrices are handed to
+ * {@link LocalSearch} instead.
+ */
+public class LinKernighanSolver implements RouteSolver
+{
+	public static final int DEFAULT_CANDIDATES = 8;
+	public static final int DEFAULT_MAX_DEPTH = 50;
+
+	private int candidates = DEFAULT_CANDIDATES;
+	private int maxDepth = DEFAULT_MAX_DEPTH;
+	private long timeLimitNanos;
+	private SolverListener solverListener = SolverListener.NONE;
+
+	@Override
+	public int[] solve(final CostMatrix costMatrix)
+	{
+		final long startTime = System.nanoTime();
+		final int[] order = solveOrder(costMatrix);
+		final int[] successors = Tour.fromOrder(order).toSuccessors();
+		solverListener.onSolved(costMatrix.size(), System.nanoTime() - startTime);
+		return successors;
+	}
+
+	/**
+	 * @return the improved tour as visiting order
+	 */
+	public int[] solveOrder(final CostMatrix costMatrix)
+	{
+		final CandidateLists candidateLists = CandidateLists.of(costMatrix, candidates);
+		final int[] order = TourConstruction.greedyEdge(costMatrix, candidateLists);
+		final long cost = isSymmetric(costMatrix) ? new LinKernighan(costMatrix, candidateLists, maxDepth).improve(order, timeLimitNanos)
+				: new LocalSearch(costMatrix, candidateLists).improve(order, timeLimitNanos);
+		solverListener.onBoundImproved(cost);
+		return order;
+	}
+
+	/**
+	 * Number of nearest neighbours tried to extend a chain; 5 to 10 is the usual range.
+	 */
+	public void setCandidates(final int candidates)
+	{
+		Preconditions.checkArgument(candidates > 0, "Candidate count must be positive");
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Longest chain of reversals tried from one base city.
+	 */
+	public void setMaxDepth(final int maxDepth)
+	{
+		Preconditions.checkArgument(maxDepth > 0, "Maximum depth must be positive");
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Stops improving after the given time and returns the best tour so far; 0 (the default) runs to a local optimum.
+	 */
+	public void setTimeLimitMillis(final long timeLimitMillis)
+	{
+		Preconditions.checkArgument(timeLimitMillis >= 0, "Time limit must not be negative");
+		this.timeLimitNanos = timeLimitMillis * 1000000L;
+	}
+
+	@Override
+	public void setSolverListener(final SolverListener solverListener)
+	{
+		Preconditions.checkNotNull(solverListener, "Solver listener must be provided, use SolverListener.NONE to disable");
+		this.solverListener = solverListener;
+	}
+
+	private static boolean isSymmetric(final CostMatrix costMatrix)
+	{
+		if (costMatrix.isSymmetric())
+		{
+			return true;
+		}
+		for (int row = 0; row < costMatrix.size(); row++)
+		{
+			for (int column = row + 1; column < costMatrix.size(); column++)
+			{
+				if (costMatrix.getCost(row, column) != costMatrix.getCost(column, row))
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,291 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+
+/**
+ * First-improvement 2-opt and Or-opt over candidate lists with don't-look bits.
+ * <p>
+ * Asymmetric matrices are handled exactly: prefix sums of the tour cost in both directions give the cost of a reversed
+ * segment in O(1), so every move is evaluated in constant time and only applying a move costs O(n). Missing edges are
+ * treated as a very large finite cost, which local search then tries to get rid of.
+ */
+public class LocalSearch
+{
+	private static final int MAX_SEGMENT_LENGTH = 3;
+	private static final int CLOCK_CHECK_INTERVAL = 64;
+
+	private final CostMatrix costMatrix;
+	private final CandidateLists candidateLists;
+	private final int size;
+	private final long maximumCost;
+	private final int[] positions;
+	// forward[k] is the cost of the path from position 0 to position k, backward[k] the same path walked in reverse
+	private final long[] forward;
+	private final long[] backward;
+	private final int[] queue;
+	private final boolean[] queued;
+	private final int[] buffer;
+	private int[] order;
+	private int queueHead;
+	private int queueSize;
+	private long moves;
+
+	public LocalSearch(final CostMatrix costMatrix, final CandidateLists candidateLists)
+	{
+		this.costMatrix = costMatrix;
+		this.candidateLists = candidateLists;
+		this.size = costMatrix.size();
+		this.maximumCost = Long.MAX_VALUE / (4L * (size + 1));
+		this.positions = new int[size];
+		this.forward = new long[size + 1];
+		this.backward = new long[size + 1];
+		this.queue = new int[size];
+		this.queued = new boolean[size];
+		this.buffer = new int[size];
+	}
+
+	/**
+	 * Improves the tour in place until no 2-opt or Or-opt move over the candidate lists helps or the time limit is hit.
+	 *
+	 * @param order visiting order of all cities, rewritten with the improved tour
+	 * @param timeLimitNanos 0 for no limit
+	 * @return cost of the improved tour
+	 */
+	public long improve(final int[] order, final long timeLimitNanos)
+	{
+		this.order = order;
+		refresh(0);
+		if (size < 4)
+		{
+			return forward[size];
+		}
+		final long startTime = System.nanoTime();
+		for (int position = 0; position < size; position++)
+		{
+			push(order[position]);
+		}
+		int polls = 0;
+		while (queueSize > 0)
+		{
+			if (timeLimitNanos > 0 && ++polls % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - startTime >= timeLimitNanos)
+			{
+				break;
+			}
+			final int city = poll();
+			if (improveCity(city))
+			{
+				moves++;
+				push(city);
+			}
+		}
+		return forward[size];
+	}
+
+	/**
+	 * @return number of improving moves applied so far
+	 */
+	public long getMoves()
+	{
+		return moves;
+	}
+
+	// tries every move that creates an edge from the city to one of its candidates
+	private boolean improveCity(final int city)
+	{
+		final int position = positions[city];
+		final long successorCost = cost(city, order[next(position)]);
+		for (int rank = 0; rank < candidateLists.getCount(); rank++)
+		{
+			final int candidate = candidateLists.get(city, rank);
+			if (cost(city, candidate) >= successorCost)
+			{
+				break;
+			}
+			final int candidatePosition = positions[candidate];
+			if (tryTwoOpt(position, candidatePosition) || tryTwoOpt(previous(position), previous(candidatePosition)))
+			{
+				return true;
+			}
+			for (int length = 1; length <= MAX_SEGMENT_LENGTH && length <= size - 2; length++)
+			{
+				final int insertAfter = previous(candidatePosition);
+				if (tryOrOpt(wrap(position - length + 1), length, insertAfter, false)
+						|| tryOrOpt(position, length, insertAfter, true))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces the edges leaving the cities at positions i and j by i -> j and next(i) -> next(j), reversing the path in
+	 * between.
+	 */
+	private boolean tryTwoOpt(final int i, final int j)
+	{
+		final int first = next(i);
+		if (i == j || first == j)
+		{
+			return false;
+		}
+		final int from = order[i];
+		final int to = order[j];
+		final int fromNext = order[first];
+		final int toNext = order[next(j)];
+		final long removed = cost(from, fromNext) + cost(to, toNext) + forwardPath(first, j);
+		final long added = cost(from, to) + cost(fromNext, toNext) + backwardPath(first, j);
+		if (added >= removed)
+		{
+			return false;
+		}
+		final int length = wrap(j - first) + 1;
+		for (int k = 0; k < length / 2; k++)
+		{
+			final int left = wrap(first + k);
+			final int right = wrap(j - k);
+			final int city = order[left];
+			order[left] = order[right];
+			order[right] = city;
+		}
+		// the edge into the reversed path changed as well, so the sums are refreshed from its tail
+		refresh(0 < first && first <= j ? i : 0);
+		push(from);
+		push(to);
+		push(fromNext);
+		push(toNext);
+		return true;
+	}
+
+	/**
+	 * Moves the segment of the given length starting at position start between the city at position insertAfter and its
+	 * successor, optionally reversed.
+	 */
+	private boolean tryOrOpt(final int start, final int length, final int insertAfter, final boolean reversed)
+	{
+		final int end = wrap(start + length - 1);
+		final int before = previous(start);
+		if (insertAfter == before || wrap(insertAfter - start) < length)
+		{
+			return false;
+		}
+		final int segmentFirst = order[start];
+		final int segmentLast = order[end];
+		final int previousCity = order[before];
+		final int nextCity = order[next(end)];
+		final int left = order[insertAfter];
+		final int right = order[next(insertAfter)];
+		final long removed = cost(previousCity, segmentFirst) + cost(segmentLast, nextCity) + cost(left, right);
+		final long added;
+		if (reversed)
+		{
+			added = cost(previousCity, nextCity) + cost(left, segmentLast) + cost(segmentFirst, right)
+					+ backwardPath(start, end) - forwardPath(start, end);
+		}
+		else
+		{
+			added = cost(previousCity, nextCity) + cost(left, segmentFirst) + cost(segmentLast, right);
+		}
+		if (added >= removed)
+		{
+			return false;
+		}
+		// rebuilt starting right after the segment, which rotates the tour but keeps the cycle
+		int target = 0;
+		for (int position = next(end); position != start; position = next(position))
+		{
+			buffer[target++] = order[position];
+			if (position == insertAfter)
+			{
+				for (int k = 0; k < length; k++)
+				{
+					buffer[target++] = order[reversed ? wrap(end - k) : wrap(start + k)];
+				}
+			}
+		}
+		System.arraycopy(buffer, 0, order, 0, size);
+		refresh(0);
+		push(previousCity);
+		push(nextCity);
+		push(segmentFirst);
+		push(segmentLast);
+		push(left);
+		push(right);
+		return true;
+	}
+
+	// cost of walking from position u forward to position v
+	private long forwardPath(final int u, final int v)
+	{
+		return u <= v ? forward[v] - forward[u] : forward[size] - forward[u] + forward[v];
+	}
+
+	// cost of walking from position v back to position u
+	private long backwardPath(final int u, final int v)
+	{
+		return u <= v ? backward[v] - backward[u] : backward[size] - backward[u] + backward[v];
+	}
+
+	private void refresh(final int from)
+	{
+		for (int position = from; position < size; position++)
+		{
+			final int city = order[position];
+			final int nextCity = order[position + 1 == size ? 0 : position + 1];
+			positions[city] = position;
+			forward[position + 1] = forward[position] + cost(city, nextCity);
+			backward[position + 1] = backward[position] + cost(nextCity, city);
+		}
+	}
+
+	private long cost(final int from, final int to)
+	{
+		final long cost = costMatrix.getCost(from, to);
+		return cost > maximumCost ? maximumCost : cost;
+	}
+
+	private int next(final int position)
+	{
+		return position + 1 == size ? 0 : position + 1;
+	}
+
+	private int previous(final int position)
+	{
+		return position == 0 ? size - 1 : position - 1;
+	}
+
+	private int wrap(final int position)
+	{
+		return position < 0 ? position + size : position >= size ? position - size : position;
+	}
+
+	private void push(final int city)
+	{
+		if (!queued[city])
+		{
+			queued[city] = true;
+			queue[(queueHead + queueSize++) % size] = city;
+		}
+	}
+
+	private int poll()
+	{
+		final int city = queue[queueHead];
+		queueHead = (queueHead + 1) % size;
+		queueSize--;
+		queued[city] = false;
+		return city;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import org.ark.math.commivoyager.algorithm.RouteSolver;
+import org.ark.math.commivoyager.algorithm.Tour;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.monitoring.SolverListener;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Fast near-optimal mode for instances far beyond exact search: builds a start tour and improves it with 2-opt and
+ * Or-opt until no move over the candidate lists helps. Works on asymmetric and symmetric matrices alike.
+ * <p>
+ * When every city has coordinates the candidates come from a {@link KdTree} instead of the O(n^2) matrix scan.
+ */
+public class LocalSearchSolver implements RouteSolver
+{
+	public static final int DEFAULT_CANDIDATES = 10;
+
+	public enum Construction
+	{
+		NEAREST_NEIGHBOUR,
+		GREEDY_EDGE
+	}
+
+	private Construction construction = Construction.GREEDY_EDGE;
+	private int candidates = DEFAULT_CANDIDATES;
+	private long timeLimitNanos;
+	private SolverListener solverListener = SolverListener.NONE;
+
+	@Override
+	public int[] solve(final CostMatrix costMatrix)
+	{
+		final long startTime = System.nanoTime();
+		final int[] order = solveOrder(costMatrix);
+		final int[] successors = Tour.fromOrder(order).toSuccessors();
+		solverListener.onSolved(costMatrix.size(), System.nanoTime() - startTime);
+		return successors;
+	}
+
+	/**
+	 * @return the improved tour as visiting order
+	 */
+	public int[] solveOrder(final CostMatrix costMatrix)
+	{
+		final CandidateLists candidateLists = CandidateLists.of(costMatrix, candidates);
+		final int[] order = construction == Construction.GREEDY_EDGE ? TourConstruction.greedyEdge(costMatrix, candidateLists)
+				: TourConstruction.nearestNeighbour(costMatrix);
+		final long cost = new LocalSearch(costMatrix, candidateLists).improve(order, timeLimitNanos);
+		solverListener.onBoundImproved(cost);
+		return order;
+	}
+
+	public void setConstruction(final Construction construction)
+	{
+		Preconditions.checkNotNull(construction, "Construction must be provided");
+		this.construction = construction;
+	}
+
+	/**
+	 * Number of nearest successors scanned per city; more candidates find better tours at a linear cost.
+	 */
+	public void setCandidates(final int candidates)
+	{
+		Preconditions.checkArgument(candidates > 0, "Candidate count must be positive");
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Stops improving after the given time and returns the best tour so far; 0 (the default) runs to a local optimum.
+	 */
+	public void setTimeLimitMillis(final long timeLimitMillis)
+	{
+		Preconditions.checkArgument(timeLimitMillis >= 0, "Time limit must not be negative");
+		this.timeLimitNanos = timeLimitMillis * 1000000L;
+	}
+
+	@Override
+	public void setSolverListener(final SolverListener solverListener)
+	{
+		Preconditions.checkNotNull(solverListener, "Solver listener must be provided, use SolverListener.NONE to disable");
+		this.solverListener = solverListener;
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import java.util.Arrays;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+
+/**
+ * Start tours for local search, returned as visiting order. Missing edges are only used when nothing else is left, so
+ * an incomplete matrix still yields a closed tour.
+ */
+public final class TourConstruction
+{
+	private TourConstruction()
+	{
+	}
+
+	/**
+	 * Always moves to the cheapest unvisited city, starting at city 0. O(n^2).
+	 */
+	public static int[] nearestNeighbour(final CostMatrix costMatrix)
+	{
+		final int size = costMatrix.size();
+		final int[] order = new int[size];
+		if (size == 0)
+		{
+			return order;
+		}
+		// unvisited cities are kept compactly in the tail of the array
+		final int[] unvisited = new int[size];
+		for (int city = 0; city < size; city++)
+		{
+			unvisited[city] = city;
+		}
+		int remaining = size - 1;
+		unvisited[0] = unvisited[remaining];
+		for (int position = 1; position < size; position++)
+		{
+			final int current = order[position - 1];
+			int nearest = 0;
+			long nearestCost = Long.MAX_VALUE;
+			for (int index = 0; index < remaining; index++)
+			{
+				final long cost = costMatrix.getCost(current, unvisited[index]);
+				if (cost < nearestCost || cost == nearestCost && unvisited[index] < unvisited[nearest])
+				{
+					nearestCost = cost;
+					nearest = index;
+				}
+			}
+			order[position] = unvisited[nearest];
+			unvisited[nearest] = unvisited[--remaining];
+		}
+		return order;
+	}
+
+	/**
+	 * Greedy matching over the candidate edges: takes the cheapest edges first as long as no city gets two successors or
+	 * predecessors and no subtour is closed, then links the remaining fragments nearest end first. O(nk log nk + f n)
+	 * for f fragments.
+	 */
+	public static int[] greedyEdge(final CostMatrix costMatrix, final CandidateLists candidateLists)
+	{
+		final int size = costMatrix.size();
+		if (size < 3)
+		{
+			return nearestNeighbour(costMatrix);
+		}
+		final int count = candidateLists.getCount();
+		final long[] edgeCosts = new long[size * count];
+		for (int city = 0, edge = 0; city < size; city++)
+		{
+			for (int rank = 0; rank < count; rank++, edge++)
+			{
+				edgeCosts[edge] = costMatrix.getCost(city, candidateLists.get(city, rank));
+			}
+		}
+		final int indexBits = 32 - Integer.numberOfLeadingZeros(edgeCosts.length);
+		final long indexMask = (1L << indexBits) - 1;
+		final long[] sortKeys = sortKeys(edgeCosts, indexBits);
+
+		final int[] successors = new int[size];
+		final int[] predecessors = new int[size];
+		Arrays.fill(successors, -1);
+		Arrays.fill(predecessors, -1);
+		// chainStart is indexed by the last city of a fragment, chainEnd by the first one
+		final int[] chainStart = new int[size];
+		final int[] chainEnd = new int[size];
+		for (int city = 0; city < size; city++)
+		{
+			chainStart[city] = city;
+			chainEnd[city] = city;
+		}
+		int fixedEdges = 0;
+		for (final long sortKey : sortKeys)
+		{
+			final int edge = (int) (sortKey & indexMask);
+			if (edgeCosts[edge] == CostMatrix.INFINITY || fixedEdges == size - 1)
+			{
+				break;
+			}
+			final int from = edge / count;
+			final int to = candidateLists.get(from, edge % count);
+			if (successors[from] < 0 && predecessors[to] < 0 && chainEnd[to] != from)
+			{
+				successors[from] = to;
+				predecessors[to] = from;
+				final int start = chainStart[from];
+				final int end = chainEnd[to];
+				chainEnd[start] = end;
+				chainStart[end] = start;
+				fixedEdges++;
+			}
+		}
+		return linkFragments(costMatrix, successors, predecessors);
+	}
+
+	/**
+	 * Sorted keys holding the cost in the high bits and the edge in the low ones, so the edges come out by cost and ties
+	 * by edge, without boxing an index per edge. Costs too large to share a {@code long} with the edge are replaced by
+	 * their rank among the distinct costs, which sorts the same.
+	 */
+	private static long[] sortKeys(final long[] edgeCosts, final int indexBits)
+	{
+		final long maxKeyCost = (1L << (63 - indexBits)) - 1;
+		long maxCost = 0;
+		for (final long cost : edgeCosts)
+		{
+			if (cost != CostMatrix.INFINITY)
+			{
+				maxCost = Math.max(maxCost, cost);
+			}
+		}
+		long[] keyCosts = edgeCosts;
+		if (maxCost >= maxKeyCost)
+		{
+			final long[] distinctCosts = edgeCosts.clone();
+			Arrays.sort(distinctCosts);
+			int distinctCount = 0;
+			for (final long cost : distinctCosts)
+			{
+				if (distinctCount == 0 || cost != distinctCosts[distinctCount - 1])
+				{
+					distinctCosts[distinctCount++] = cost;
+				}
+			}
+			keyCosts = new long[edgeCosts.length];
+			for (int edge = 0; edge < edgeCosts.length; edge++)
+			{
+				keyCosts[edge] = Arrays.binarySearch(distinctCosts, 0, distinctCount, edgeCosts[edge]);
+			}
+		}
+		final long[] keys = new long[edgeCosts.length];
+		for (int edge = 0; edge < edgeCosts.length; edge++)
+		{
+			// infinite edges sort last, above every finite cost
+			keys[edge] = Math.min(keyCosts[edge], maxKeyCost) << indexBits | edge;
+		}
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	private static int[] linkFragments(final CostMatrix costMatrix, final int[] successors, final int[] predecessors)
+	{
+		final int size = successors.length;
+		final boolean[] visited = new boolean[size];
+		final int[] order = new int[size];
+		int position = 0;
+		int start = 0;
+		while (predecessors[start] >= 0)
+		{
+			start = predecessors[start];
+		}
+		while (true)
+		{
+			for (int city = start; city >= 0; city = successors[city])
+			{
+				order[position++] = city;
+				visited[city] = true;
+			}
+			if (position == size)
+			{
+				return order;
+			}
+			final int end = order[position - 1];
+			start = -1;
+			long nearestCost = Long.MAX_VALUE;
+			for (int city = 0; city < size; city++)
+			{
+				if (!visited[city] && predecessors[city] < 0)
+				{
+					final long cost = costMatrix.getCost(end, city);
+					if (start < 0 || cost < nearestCost)
+					{
+						nearestCost = cost;
+						start = city;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.matrix;
+
+import org.ark.math.commivoyager.model.City;
+
+/**
+ * Read-only square cost matrix addressed by dense city positions (0..size-1).
+ * Missing and diagonal entries are reported as {@link #INFINITY}.
+ */
+public interface CostMatrix
+{
+	long INFINITY = Long.MAX_VALUE;
+
+	int size();
+
+	long getCost(int row, int column);
+
+	City getCity(int index);
+
+	/**
+	 * @return dense position of the city or -1 if the city is not part of the matrix
+	 */
+	int indexOf(City city);
+
+	/**
+	 * @return whether getCost(i, j) == getCost(j, i) is guaranteed by the layout, without scanning the matrix
+	 */
+	default boolean isSymmetric()
+	{
+		return false;
+	}
+
+	/**
+	 * @return row-major copy of all costs, safe to be modified in place
+	 */
+	default long[] copyCosts()
+	{
+		final int size = size();
+		final long[] cells = new long[size * size];
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = 0; column < size; column++)
+			{
+				cells[row * size + column] = getCost(row, column);
+			}
+		}
+		return cells;
+	}
+
+	/**
+	 * @param successors closed tour, see {@link org.ark.math.commivoyager.algorithm.RouteSolver#solve(CostMatrix)}
+	 * @return sum of the tour's edges, {@link #INFINITY} if one of them is missing
+	 */
+	default long getTourCost(final int[] successors)
+	{
+		long cost = 0;
+		for (int city = 0; city < successors.length; city++)
+		{
+			final long edgeCost = getCost(city, successors[city]);
+			if (edgeCost == INFINITY || cost > INFINITY - edgeCost)
+			{
+				return INFINITY;
+			}
+			cost += edgeCost;
+		}
+		return cost;
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.matrix;
+
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Row-major {@code long[]} cost matrix. Cities are ordered by id so the same city set always maps to the same positions.
+ */
+public class DenseCostMatrix implements CostMatrix
+{
+	private final City[] cities;
+	private final Map<City, Integer> cityIndex;
+	private final long[] costs;
+
+	public DenseCostMatrix(final List<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+
+		final int size = cities.size();
+		this.cities = cities.toArray(new City[size]);
+		this.cityIndex = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++)
+		{
+			Preconditions.checkArgument(cityIndex.put(this.cities[i], i) == null, "Duplicate city on the route: %s", this.cities[i].getId());
+		}
+		this.costs = new long[size * size];
+		Arrays.fill(costs, INFINITY);
+	}
+
+	public static DenseCostMatrix of(final Set<CityPair> cityPairs, final boolean symmetrical)
+	{
+		final List<City> cities = cityPairs.stream().flatMap(p -> Stream.of(p.getCity1(), p.getCity2())).distinct()
+				.sorted(Comparator.comparing(City::getId)).collect(toList());
+		final DenseCostMatrix matrix = new DenseCostMatrix(cities);
+		for (final CityPair cityPair : cityPairs)
+		{
+			if (!cityPair.isDiagonal() && nonNull(cityPair.getCost()))
+			{
+				matrix.setCost(matrix.indexOf(cityPair.getCity1()), matrix.indexOf(cityPair.getCity2()), cityPair.getCost());
+			}
+		}
+		if (symmetrical)
+		{
+			matrix.symmetrize();
+		}
+		return matrix;
+	}
+
+	/**
+	 * @param costs row-major costs in list order as returned by
+	 *           {@link org.ark.math.commivoyager.repository.CostRepository#getCostMatrix(List)}, NaN for a missing cost
+	 */
+	public static DenseCostMatrix of(final List<City> cities, final double[] costs, final boolean symmetrical)
+	{
+		final DenseCostMatrix matrix = new DenseCostMatrix(cities);
+		final int size = cities.size();
+		Preconditions.checkArgument(costs.length >= size * size, "Cost array must hold a full matrix for the given cities");
+		for (int cell = 0; cell < size * size; cell++)
+		{
+			if (!Double.isNaN(costs[cell]))
+			{
+				matrix.setCost(cell / size, cell % size, Math.round(costs[cell]));
+			}
+		}
+		if (symmetrical)
+		{
+			matrix.symmetrize();
+		}
+		return matrix;
+	}
+
+	// the entry from the lower position (lower city id for CityPair input) wins, the same way symmetrizeRouteMatrix resolves conflicts
+	private void symmetrize()
+	{
+		final int size = size();
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = row + 1; column < size; column++)
+			{
+				final long upper = costs[row * size + column];
+				if (upper != INFINITY)
+				{
+					costs[column * size + row] = upper;
+				}
+				else
+				{
+					costs[row * size + column] = costs[column * size + row];
+				}
+			}
+		}
+	}
+
+	@Override
+	public int size()
+	{
+		return cities.length;
+	}
+
+	@Override
+	public long getCost(final int row, final int column)
+	{
+		return costs[row * cities.length + column];
+	}
+
+	public void setCost(final int row, final int column, final long cost)
+	{
+		Preconditions.checkArgument(cost >= 0, "Cost must not be negative");
+		costs[row * cities.length + column] = row == column ? INFINITY : cost;
+	}
+
+	@Override
+	public City getCity(final int index)
+	{
+		return cities[index];
+	}
+
+	@Override
+	public int indexOf(final City city)
+	{
+		final Integer index = cityIndex.get(city);
+		return nonNull(index) ? index : -1;
+	}
+
+	/**
+	 * @return copy of the row-major cost array, safe to be reduced in place
+	 */
+	@Override
+	public long[] copyCosts()
+	{
+		return costs.clone();
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.matrix;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.ark.math.commivoyager.repository.impl.MetricCostRepository;
+import org.ark.math.commivoyager.repository.impl.MetricCostRepository.Metric;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Costs computed from city coordinates on every lookup, rounded like the loaded matrices: O(n) memory instead of
+ * O(n^2), at the price of a square root (or a haversine) per cost. Solvers that work on candidate lists and single
+ * lookups, such as {@link org.ark.math.commivoyager.algorithm.heuristic.LocalSearchSolver}, route geometric instances of
+ * any size this way; the cities carry their coordinates, so the candidates come from a k-d tree.
+ */
+public class MetricCostMatrix implements CostMatrix
+{
+	private final City[] cities;
+	private final Map<City, Integer> cityIndex;
+	private final Metric metric;
+	// longitude and latitude in radians for the haversine metric
+	private final double[] x;
+	private final double[] y;
+	private final double[] cosLatitude;
+
+	/**
+	 * @param cities cities that all have coordinates, see {@link MetricCostRepository#withCoordinates(List)}
+	 */
+	public MetricCostMatrix(final List<City> cities, final Metric metric)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		Preconditions.checkNotNull(metric, "Metric must be provided");
+
+		final int size = cities.size();
+		this.cities = cities.toArray(new City[size]);
+		this.cityIndex = new HashMap<>(size * 2);
+		this.metric = metric;
+		this.x = new double[size];
+		this.y = new double[size];
+		this.cosLatitude = metric == Metric.HAVERSINE ? new double[size] : null;
+		for (int i = 0; i < size; i++)
+		{
+			Preconditions.checkArgument(cityIndex.put(this.cities[i], i) == null, "Duplicate city on the route: %s", this.cities[i].getId());
+			final Coordinates coordinates = this.cities[i].getCoordinates();
+			Preconditions.checkArgument(coordinates != null, "City %s has no coordinates", this.cities[i].getId());
+			if (metric == Metric.HAVERSINE)
+			{
+				x[i] = Math.toRadians(coordinates.getLongitude());
+				y[i] = Math.toRadians(coordinates.getLatitude());
+				cosLatitude[i] = Math.cos(y[i]);
+			}
+			else
+			{
+				x[i] = coordinates.getX();
+				y[i] = coordinates.getY();
+			}
+		}
+	}
+
+	@Override
+	public int size()
+	{
+		return cities.length;
+	}
+
+	@Override
+	public long getCost(final int row, final int column)
+	{
+		return row == column ? INFINITY : Math.round(getDistance(row, column));
+	}
+
+	/**
+	 * @return exact distance, before rounding
+	 */
+	public double getDistance(final int row, final int column)
+	{
+		if (metric == Metric.EUCLIDEAN)
+		{
+			return Math.hypot(x[row] - x[column], y[row] - y[column]);
+		}
+		return MetricCostRepository.haversine(y[row], x[row], cosLatitude[row], y[column], x[column], cosLatitude[column]);
+	}
+
+	@Override
+	public City getCity(final int index)
+	{
+		return cities[index];
+	}
+
+	@Override
+	public int indexOf(final City city)
+	{
+		final Integer index = cityIndex.get(city);
+		return index != null ? index : -1;
+	}
+
+	@Override
+	public boolean isSymmetric()
+	{
+		return true;
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.matrix;
+
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.repository.CostRepository;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Symmetric cost matrix that stores only the upper triangle, row by row, in one {@code long[]} of n(n-1)/2 entries:
+ * half the memory of {@link DenseCostMatrix}. Conflicting directions are resolved while loading, the same way
+ * {@link DenseCostMatrix} symmetrizes: the entry from the lower position wins.
+ */
+public class PackedSymmetricCostMatrix implements CostMatrix
+{
+	// copyCosts expands to a dense array indexed by int, which caps the size at 46340 cities
+	public static final int MAX_CITIES = 46340;
+
+	private final City[] cities;
+	private final Map<City, Integer> cityIndex;
+	// rowOffsets[row] + column is the cell of (row, column) for row < column
+	private final int[] rowOffsets;
+	private final long[] costs;
+
+	public PackedSymmetricCostMatrix(final List<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		Preconditions.checkArgument(cities.size() <= MAX_CITIES, "Packed matrix holds at most %s cities", MAX_CITIES);
+
+		final int size = cities.size();
+		this.cities = cities.toArray(new City[size]);
+		this.cityIndex = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++)
+		{
+			Preconditions.checkArgument(cityIndex.put(this.cities[i], i) == null, "Duplicate city on the route: %s", this.cities[i].getId());
+		}
+		this.rowOffsets = new int[size];
+		for (int row = 0; row < size; row++)
+		{
+			rowOffsets[row] = (int) ((long) row * size - (long) row * (row + 1) / 2 - row - 1);
+		}
+		this.costs = new long[(int) ((long) size * (size - 1) / 2)];
+		Arrays.fill(costs, INFINITY);
+	}
+
+	public static PackedSymmetricCostMatrix of(final Set<CityPair> cityPairs)
+	{
+		final List<City> cities = cityPairs.stream().flatMap(p -> Stream.of(p.getCity1(), p.getCity2())).distinct()
+				.sorted(Comparator.comparing(City::getId)).collect(toList());
+		final PackedSymmetricCostMatrix matrix = new PackedSymmetricCostMatrix(cities);
+		for (final CityPair cityPair : cityPairs)
+		{
+			if (!cityPair.isDiagonal() && nonNull(cityPair.getCost()))
+			{
+				final int row = matrix.indexOf(cityPair.getCity1());
+				final int column = matrix.indexOf(cityPair.getCity2());
+				if (row < column || matrix.getCost(row, column) == INFINITY)
+				{
+					matrix.setCost(row, column, cityPair.getCost());
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * @param costs row-major costs in list order as returned by
+	 *           {@link org.ark.math.commivoyager.repository.CostRepository#getCostMatrix(List)}, NaN for a missing cost;
+	 *           only the upper triangle is read unless an entry there is missing
+	 */
+	public static PackedSymmetricCostMatrix of(final List<City> cities, final double[] costs)
+	{
+		final PackedSymmetricCostMatrix matrix = new PackedSymmetricCostMatrix(cities);
+		final int size = cities.size();
+		Preconditions.checkArgument(costs.length >= (long) size * size, "Cost array must hold a full matrix for the given cities");
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = row + 1; column < size; column++)
+			{
+				double cost = costs[row * size + column];
+				if (Double.isNaN(cost))
+				{
+					cost = costs[column * size + row];
+				}
+				if (!Double.isNaN(cost))
+				{
+					matrix.setCost(row, column, Math.round(cost));
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Reads the upper triangle row by row through {@link CostRepository#getRow}, so loading needs no more than the packed
+	 * array and one row; a missing upper entry is looked up in the opposite direction.
+	 */
+	public static PackedSymmetricCostMatrix of(final List<City> cities, final CostRepository costRepository)
+	{
+		Preconditions.checkNotNull(costRepository, "Cost repository must be provided");
+		final PackedSymmetricCostMatrix matrix = new PackedSymmetricCostMatrix(cities);
+		final int size = cities.size();
+		final double[] costs = new double[size];
+		for (int row = 0; row < size - 1; row++)
+		{
+			final City city = cities.get(row);
+			final List<City> columns = cities.subList(row + 1, size);
+			costRepository.getRow(city, columns, costs);
+			for (int offset = 0; offset < columns.size(); offset++)
+			{
+				double cost = costs[offset];
+				if (Double.isNaN(cost))
+				{
+					final Double lower = costRepository.getCostBetweeen(new CityPair(columns.get(offset), city, null));
+					cost = nonNull(lower) ? lower : Double.NaN;
+				}
+				if (!Double.isNaN(cost))
+				{
+					matrix.setCost(row, row + 1 + offset, Math.round(cost));
+				}
+			}
+		}
+		return matrix;
+	}
+
+	@Override
+	public int size()
+	{
+		return cities.length;
+	}
+
+	@Override
+	public long getCost(final int row, final int column)
+	{
+		if (row < column)
+		{
+			return costs[rowOffsets[row] + column];
+		}
+		return row == column ? INFINITY : costs[rowOffsets[column] + row];
+	}
+
+	/**
+	 * Sets the cost in both directions; the diagonal has no storage and stays {@link CostMatrix#INFINITY}.
+	 */
+	public void setCost(final int row, final int column, final long cost)
+	{
+		Preconditions.checkArgument(cost >= 0, "Cost must not be negative");
+		if (row != column)
+		{
+			costs[row < column ? rowOffsets[row] + column : rowOffsets[column] + row] = cost;
+		}
+	}
+
+	@Override
+	public City getCity(final int index)
+	{
+		return cities[index];
+	}
+
+	@Override
+	public int indexOf(final City city)
+	{
+		final Integer index = cityIndex.get(city);
+		return nonNull(index) ? index : -1;
+	}
+
+	@Override
+	public boolean isSymmetric()
+	{
+		return true;
+	}
+
+	/**
+	 * Expands the triangle row by row, writing each stored cost to both of its cells.
+	 */
+	@Override
+	public long[] copyCosts()
+	{
+		final int size = cities.length;
+		final long[] cells = new long[size * size];
+		for (int row = 0, cell = 0; row < size; row++)
+		{
+			cells[row * size + row] = INFINITY;
+			for (int column = row + 1; column < size; column++, cell++)
+			{
+				cells[row * size + column] = costs[cell];
+				cells[column * size + row] = costs[cell];
+			}
+		}
+		return cells;
+	}
+}
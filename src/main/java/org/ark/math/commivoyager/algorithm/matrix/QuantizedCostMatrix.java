@@ -0,0 +1,302 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.matrix;
+
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ark.math.commivoyager.model.City;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Row-major cost matrix holding every cost as an integer number of {@link #getScale() scale} units, 4 bytes per cell
+ * for {@link Width#INT32} and 2 bytes for {@link Width#UINT16} instead of the 8 of {@link DenseCostMatrix}. Solvers
+ * see the quantized units: {@link #getCost(int, int)} returns them, so tour costs and bounds are in units as well and
+ * {@link #toCost(long)} converts them back.
+ * <p>
+ * Costs that do not fit the width at the given scale are rejected rather than clipped; {@link #minimumScale} gives the
+ * finest scale that fits.
+ */
+public class QuantizedCostMatrix implements CostMatrix
+{
+	public enum Width
+	{
+		INT32(Integer.MAX_VALUE - 1),
+		UINT16(Character.MAX_VALUE - 1);
+
+		// the value above is the marker of a missing cost
+		private final long maxUnits;
+
+		Width(final long maxUnits)
+		{
+			this.maxUnits = maxUnits;
+		}
+
+		public long getMaxUnits()
+		{
+			return maxUnits;
+		}
+	}
+
+	// cells are indexed by int, which caps the size at 46340 cities
+	public static final int MAX_CITIES = 46340;
+
+	private static final int MISSING_INT32 = Integer.MAX_VALUE;
+	private static final char MISSING_UINT16 = Character.MAX_VALUE;
+
+	private final City[] cities;
+	private final Map<City, Integer> cityIndex;
+	private final Width width;
+	private final double scale;
+	// exactly one of the two is allocated, depending on the width
+	private final int[] wideUnits;
+	private final char[] narrowUnits;
+	private double maxError;
+
+	public QuantizedCostMatrix(final List<City> cities, final Width width, final double scale)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		Preconditions.checkNotNull(width, "Width must be provided");
+		Preconditions.checkArgument(scale > 0 && !Double.isInfinite(scale), "Scale must be positive");
+		Preconditions.checkArgument(cities.size() <= MAX_CITIES, "Quantized matrix holds at most %s cities", MAX_CITIES);
+
+		final int size = cities.size();
+		this.cities = cities.toArray(new City[size]);
+		this.cityIndex = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++)
+		{
+			Preconditions.checkArgument(cityIndex.put(this.cities[i], i) == null, "Duplicate city on the route: %s", this.cities[i].getId());
+		}
+		this.width = width;
+		this.scale = scale;
+		if (width == Width.INT32)
+		{
+			this.wideUnits = new int[size * size];
+			this.narrowUnits = null;
+			Arrays.fill(wideUnits, MISSING_INT32);
+		}
+		else
+		{
+			this.wideUnits = null;
+			this.narrowUnits = new char[size * size];
+			Arrays.fill(narrowUnits, MISSING_UINT16);
+		}
+	}
+
+	/**
+	 * @param costs row-major costs in list order as returned by
+	 *           {@link org.ark.math.commivoyager.repository.CostRepository#getCostMatrix(List)}, NaN for a missing cost
+	 * @param symmetrical whether to symmetrize while loading: the upper triangle wins, the lower one fills its gaps
+	 */
+	public static QuantizedCostMatrix of(final List<City> cities, final double[] costs, final Width width, final double scale,
+			final boolean symmetrical)
+	{
+		final QuantizedCostMatrix matrix = new QuantizedCostMatrix(cities, width, scale);
+		final int size = cities.size();
+		Preconditions.checkArgument(costs.length >= (long) size * size, "Cost array must hold a full matrix for the given cities");
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = 0; column < size; column++)
+			{
+				double cost = costs[row * size + column];
+				if (symmetrical)
+				{
+					final double upper = row < column ? cost : costs[column * size + row];
+					final double lower = row < column ? costs[column * size + row] : cost;
+					cost = Double.isNaN(upper) ? lower : upper;
+				}
+				if (!Double.isNaN(cost))
+				{
+					matrix.setCost(row, column, cost);
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Quantizes an existing matrix, e.g. a {@link DenseCostMatrix} loaded from city pairs.
+	 */
+	public static QuantizedCostMatrix of(final CostMatrix source, final Width width, final double scale)
+	{
+		final int size = source.size();
+		final List<City> cities = new ArrayList<>(size);
+		for (int index = 0; index < size; index++)
+		{
+			cities.add(source.getCity(index));
+		}
+		final QuantizedCostMatrix matrix = new QuantizedCostMatrix(cities, width, scale);
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = 0; column < size; column++)
+			{
+				final long cost = source.getCost(row, column);
+				if (cost != INFINITY)
+				{
+					matrix.setCost(row, column, cost);
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Quantizes the exact distances of a metric matrix rather than its rounded costs.
+	 */
+	public static QuantizedCostMatrix ofDistances(final MetricCostMatrix source, final Width width, final double scale)
+	{
+		final int size = source.size();
+		final List<City> cities = new ArrayList<>(size);
+		for (int index = 0; index < size; index++)
+		{
+			cities.add(source.getCity(index));
+		}
+		final QuantizedCostMatrix matrix = new QuantizedCostMatrix(cities, width, scale);
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = 0; column < size; column++)
+			{
+				matrix.setCost(row, column, source.getDistance(row, column));
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * @return the smallest scale at which a cost of maxCost still fits the width
+	 */
+	public static double minimumScale(final double maxCost, final Width width)
+	{
+		Preconditions.checkArgument(maxCost > 0 && !Double.isInfinite(maxCost), "Maximum cost must be positive");
+		return maxCost / width.getMaxUnits();
+	}
+
+	/**
+	 * Stores round(cost / scale); the diagonal stays {@link CostMatrix#INFINITY}.
+	 *
+	 * @throws IllegalArgumentException if the cost is negative or does not fit the width at this scale
+	 */
+	public void setCost(final int row, final int column, final double cost)
+	{
+		Preconditions.checkArgument(cost >= 0, "Cost must not be negative");
+		if (row == column)
+		{
+			return;
+		}
+		final double units = Math.rint(cost / scale);
+		Preconditions.checkArgument(units <= width.getMaxUnits(), "Cost %s does not fit %s at scale %s", cost, width, scale);
+		final int cell = row * cities.length + column;
+		if (width == Width.INT32)
+		{
+			wideUnits[cell] = (int) units;
+		}
+		else
+		{
+			narrowUnits[cell] = (char) units;
+		}
+		maxError = Math.max(maxError, Math.abs(units * scale - cost));
+	}
+
+	@Override
+	public int size()
+	{
+		return cities.length;
+	}
+
+	/**
+	 * @return cost in scale units
+	 */
+	@Override
+	public long getCost(final int row, final int column)
+	{
+		final int cell = row * cities.length + column;
+		if (narrowUnits != null)
+		{
+			final char units = narrowUnits[cell];
+			return units == MISSING_UINT16 ? INFINITY : units;
+		}
+		final int units = wideUnits[cell];
+		return units == MISSING_INT32 ? INFINITY : units;
+	}
+
+	@Override
+	public City getCity(final int index)
+	{
+		return cities[index];
+	}
+
+	@Override
+	public int indexOf(final City city)
+	{
+		final Integer index = cityIndex.get(city);
+		return nonNull(index) ? index : -1;
+	}
+
+	/**
+	 * Widens every cell to {@code long}, so reductions and sums over the copy cannot overflow the narrow width.
+	 */
+	@Override
+	public long[] copyCosts()
+	{
+		final int cellCount = cities.length * cities.length;
+		final long[] cells = new long[cellCount];
+		if (narrowUnits != null)
+		{
+			for (int cell = 0; cell < cellCount; cell++)
+			{
+				cells[cell] = narrowUnits[cell] == MISSING_UINT16 ? INFINITY : narrowUnits[cell];
+			}
+		}
+		else
+		{
+			for (int cell = 0; cell < cellCount; cell++)
+			{
+				cells[cell] = wideUnits[cell] == MISSING_INT32 ? INFINITY : wideUnits[cell];
+			}
+		}
+		return cells;
+	}
+
+	/**
+	 * @return the original cost of the given number of scale units, e.g. of a tour cost; infinite for
+	 *         {@link CostMatrix#INFINITY}
+	 */
+	public double toCost(final long units)
+	{
+		return units == INFINITY ? Double.POSITIVE_INFINITY : units * scale;
+	}
+
+	public Width getWidth()
+	{
+		return width;
+	}
+
+	public double getScale()
+	{
+		return scale;
+	}
+
+	/**
+	 * @return largest difference between a stored cost and the cost it was loaded from, at most half a scale unit; the
+	 *         cost of a tour of n cities is off by at most n times this
+	 */
+	public double getMaxError()
+	{
+		return maxError;
+	}
+}
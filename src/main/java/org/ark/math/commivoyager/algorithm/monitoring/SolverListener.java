@@ -0,0 +1,55 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.monitoring;
+
+/**
+ * Callbacks fired by the solvers. Cities are dense matrix positions. Solvers skip timing and event construction
+ * entirely while the listener is {@link #NONE}, so an unused listener costs a reference comparison per step.
+ * Implementations used with the parallel solver are called from several threads at once.
+ */
+public interface SolverListener
+{
+	SolverListener NONE = new SolverListener()
+	{
+	};
+
+	/**
+	 * @param openCities rows still open in the reduced matrix
+	 * @param reduction amount subtracted from rows and columns, {@link Long#MAX_VALUE} if the matrix turned infeasible
+	 */
+	default void onReduction(final int openCities, final long reduction, final long lowerBound, final long nanos)
+	{
+	}
+
+	default void onEdgeFixed(final int from, final int to)
+	{
+	}
+
+	default void onNodeExpanded(final int depth, final long lowerBound)
+	{
+	}
+
+	default void onNodePruned(final long lowerBound)
+	{
+	}
+
+	/**
+	 * A cheaper tour was found.
+	 */
+	default void onBoundImproved(final long tourCost)
+	{
+	}
+
+	default void onSolved(final int cities, final long nanos)
+	{
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Thread-safe counters and timers over all solves it listens to, readable over JMX once registered.
+ */
+public class SolverMetrics implements SolverListener, SolverMetricsMBean
+{
+	public static final String DOMAIN = "org.ark.math.commivoyager";
+
+	private final LongAdder solves = new LongAdder();
+	private final LongAdder totalSolveNanos = new LongAdder();
+	private final AtomicLong maxSolveNanos = new AtomicLong();
+	private final LongAdder reductions = new LongAdder();
+	private final LongAdder totalReductionNanos = new LongAdder();
+	private final LongAdder fixedEdges = new LongAdder();
+	private final LongAdder expandedNodes = new LongAdder();
+	private final LongAdder prunedNodes = new LongAdder();
+	private final LongAdder boundImprovements = new LongAdder();
+	private final AtomicInteger peakMatrixSize = new AtomicInteger();
+
+	/**
+	 * Registers this instance with the platform MBean server as {@code org.ark.math.commivoyager:type=SolverMetrics,name=<name>}.
+	 */
+	public ObjectName registerMBean(final String name)
+	{
+		try
+		{
+			final ObjectName objectName = new ObjectName(DOMAIN + ":type=SolverMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			return objectName;
+		}
+		catch (final JMException e)
+		{
+			throw new IllegalStateException("Solver metrics could not be registered as " + name, e);
+		}
+	}
+
+	@Override
+	public void onReduction(final int openCities, final long reduction, final long lowerBound, final long nanos)
+	{
+		reductions.increment();
+		totalReductionNanos.add(nanos);
+		peakMatrixSize.accumulateAndGet(openCities, Math::max);
+	}
+
+	@Override
+	public void onEdgeFixed(final int from, final int to)
+	{
+		fixedEdges.increment();
+	}
+
+	@Override
+	public void onNodeExpanded(final int depth, final long lowerBound)
+	{
+		expandedNodes.increment();
+	}
+
+	@Override
+	public void onNodePruned(final long lowerBound)
+	{
+		prunedNodes.increment();
+	}
+
+	@Override
+	public void onBoundImproved(final long tourCost)
+	{
+		boundImprovements.increment();
+	}
+
+	@Override
+	public void onSolved(final int cities, final long nanos)
+	{
+		solves.increment();
+		totalSolveNanos.add(nanos);
+		maxSolveNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	@Override
+	public long getSolves()
+	{
+		return solves.sum();
+	}
+
+	@Override
+	public long getTotalSolveNanos()
+	{
+		return totalSolveNanos.sum();
+	}
+
+	@Override
+	public long getMaxSolveNanos()
+	{
+		return maxSolveNanos.get();
+	}
+
+	@Override
+	public long getReductions()
+	{
+		return reductions.sum();
+	}
+
+	@Override
+	public long getTotalReductionNanos()
+	{
+		return totalReductionNanos.sum();
+	}
+
+	@Override
+	public long getFixedEdges()
+	{
+		return fixedEdges.sum();
+	}
+
+	@Override
+	public long getExpandedNodes()
+	{
+		return expandedNodes.sum();
+	}
+
+	@Override
+	public long getPrunedNodes()
+	{
+		return prunedNodes.sum();
+	}
+
+	@Override
+	public long getBoundImprovements()
+	{
+		return boundImprovements.sum();
+	}
+
+	@Override
+	public int getPeakMatrixSize()
+	{
+		return peakMatrixSize.get();
+	}
+
+	@Override
+	public void reset()
+	{
+		solves.reset();
+		totalSolveNanos.reset();
+		maxSolveNanos.set(0);
+		reductions.reset();
+		totalReductionNanos.reset();
+		fixedEdges.reset();
+		expandedNodes.reset();
+		prunedNodes.reset();
+		boundImprovements.reset();
+		peakMatrixSize.set(0);
+	}
+}
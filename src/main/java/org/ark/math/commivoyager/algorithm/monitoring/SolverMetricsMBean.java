@@ -0,0 +1,37 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.monitoring;
+
+public interface SolverMetricsMBean
+{
+	long getSolves();
+
+	long getTotalSolveNanos();
+
+	long getMaxSolveNanos();
+
+	long getReductions();
+
+	long getTotalReductionNanos();
+
+	long getFixedEdges();
+
+	long getExpandedNodes();
+
+	long getPrunedNodes();
+
+	long getBoundImprovements();
+
+	int getPeakMatrixSize();
+
+	void reset();
+}
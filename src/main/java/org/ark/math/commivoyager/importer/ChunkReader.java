@@ -0,0 +1,74 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Cuts a file channel into chunks of at most {@code chunkBytes} that end on a line break, so every chunk can be parsed
+ * on its own. The incomplete last line of a read is carried over to the next chunk; only the last chunk of the file
+ * may end without a line break.
+ */
+final class ChunkReader
+{
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private boolean endOfFile;
+
+	ChunkReader(final FileChannel channel, final long position, final int chunkBytes) throws IOException
+	{
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(chunkBytes);
+		channel.position(position);
+	}
+
+	/**
+	 * @return next chunk, null once the file is exhausted
+	 * @throws IllegalArgumentException if a single line does not fit into a chunk
+	 */
+	byte[] next() throws IOException
+	{
+		while (!endOfFile && buffer.hasRemaining())
+		{
+			endOfFile = channel.read(buffer) < 0;
+		}
+		if (buffer.position() == 0)
+		{
+			return null;
+		}
+		final int end = endOfFile ? buffer.position() : lineEnd(buffer.array(), buffer.position());
+		if (end == 0)
+		{
+			throw new IllegalArgumentException("Line longer than the chunk size of " + buffer.capacity() + " bytes");
+		}
+		final byte[] chunk = Arrays.copyOf(buffer.array(), end);
+		buffer.flip();
+		buffer.position(end);
+		buffer.compact();
+		return chunk;
+	}
+
+	private static int lineEnd(final byte[] bytes, final int length)
+	{
+		for (int index = length - 1; index >= 0; index--)
+		{
+			if (bytes[index] == '\n')
+			{
+				return index + 1;
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.importer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one {@link InstanceImporter} run: data rows imported (edge weights, nodes or edges, depending on the
+ * format), bytes read and wall clock time.
+ */
+public class ImportResult
+{
+	private final long rows;
+	private final long bytes;
+	private final long elapsedNanos;
+
+	public ImportResult(final long rows, final long bytes, final long elapsedNanos)
+	{
+		this.rows = rows;
+		this.bytes = bytes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public long getRows()
+	{
+		return rows;
+	}
+
+	public long getBytes()
+	{
+		return bytes;
+	}
+
+	public long getElapsedNanos()
+	{
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return imported rows per second of wall clock time
+	 */
+	public double getRowsPerSecond()
+	{
+		return elapsedNanos == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+}
@@ -0,0 +1,505 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.importer;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ark.math.commivoyager.importer.NumberScanner.Values;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.ark.math.commivoyager.repository.CityRepository;
+import org.ark.math.commivoyager.repository.CostRepository;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+/**
+ * Streams problem instances from disk into the repositories:
+ * <ul>
+ * <li>TSPLIB files with {@code EDGE_WEIGHT_TYPE: EXPLICIT} in the {@code FULL_MATRIX}, {@code UPPER_ROW},
+ * {@code LOWER_ROW}, {@code UPPER_DIAG_ROW} or {@code LOWER_DIAG_ROW} format; cities 1..DIMENSION are saved along with
+ * the weights, both directions for the triangular formats</li>
+ * <li>TSPLIB files with {@code EDGE_WEIGHT_TYPE: EUC_2D}; only the cities are saved, with planar coordinates, as their
+ * costs are computed by {@link org.ark.math.commivoyager.repository.impl.MetricCostRepository}</li>
+ * <li>CSV edge lists of {@code from,to,cost} lines with an optional header line; unknown cities are saved under their
+ * id</li>
+ * </ul>
+ * The file is read through a {@link FileChannel} in chunks cut at line breaks. Chunks are parsed on the executor while
+ * the next ones are read, and written in file order on the calling thread through the bulk repository methods, one
+ * call per chunk. At most {@code maxInFlight} chunks are read and not yet written, so memory stays bounded by
+ * {@code maxInFlight * chunkBytes} however large the file is.
+ */
+public class InstanceImporter implements AutoCloseable
+{
+	public static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+
+	private final CityRepository cityRepository;
+	private final CostRepository costRepository;
+	private final ExecutorService executorService;
+	private final boolean ownsExecutorService;
+	private final int maxInFlight;
+	private int chunkBytes = DEFAULT_CHUNK_BYTES;
+
+	public InstanceImporter(final CityRepository cityRepository, final CostRepository costRepository)
+	{
+		this(cityRepository, costRepository, Runtime.getRuntime().availableProcessors());
+	}
+
+	public InstanceImporter(final CityRepository cityRepository, final CostRepository costRepository, final int threads)
+	{
+		this(cityRepository, costRepository, Executors.newFixedThreadPool(checkThreads(threads), new ImporterThreadFactory()),
+				threads * 2, true);
+	}
+
+	/**
+	 * @param executorService executor to parse on, left running by {@link #close()}
+	 * @param maxInFlight maximum number of chunks read and not yet written
+	 */
+	public InstanceImporter(final CityRepository cityRepository, final CostRepository costRepository,
+			final ExecutorService executorService, final int maxInFlight)
+	{
+		this(cityRepository, costRepository, executorService, maxInFlight, false);
+	}
+
+	private InstanceImporter(final CityRepository cityRepository, final CostRepository costRepository,
+			final ExecutorService executorService, final int maxInFlight, final boolean ownsExecutorService)
+	{
+		Preconditions.checkNotNull(cityRepository, "City repository must be provided");
+		Preconditions.checkNotNull(costRepository, "Cost repository must be provided");
+		Preconditions.checkNotNull(executorService, "Executor service must be provided");
+		Preconditions.checkArgument(maxInFlight > 0, "Max in flight must be positive");
+		this.cityRepository = cityRepository;
+		this.costRepository = costRepository;
+		this.executorService = executorService;
+		this.maxInFlight = maxInFlight;
+		this.ownsExecutorService = ownsExecutorService;
+	}
+
+	private static int checkThreads(final int threads)
+	{
+		Preconditions.checkArgument(threads > 0, "Thread count must be positive");
+		return threads;
+	}
+
+	/**
+	 * A line must fit into one chunk.
+	 */
+	public void setChunkBytes(final int chunkBytes)
+	{
+		Preconditions.checkArgument(chunkBytes > 0, "Chunk size must be positive");
+		this.chunkBytes = chunkBytes;
+	}
+
+	public ImportResult importTsplib(final Path file) throws IOException
+	{
+		Preconditions.checkNotNull(file, "File must be provided");
+		final long startTime = System.nanoTime();
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			final TsplibHeader header = TsplibHeader.read(channel);
+			final String edgeWeightType = header.getRequired("EDGE_WEIGHT_TYPE");
+			final Section section;
+			final String expectedSection;
+			if ("EXPLICIT".equals(edgeWeightType))
+			{
+				section = new EdgeWeightSection(header.getDimension(), parseFormat(header.getRequired("EDGE_WEIGHT_FORMAT")));
+				expectedSection = "EDGE_WEIGHT_SECTION";
+			}
+			else if ("EUC_2D".equals(edgeWeightType))
+			{
+				section = new NodeCoordSection(header.getDimension());
+				expectedSection = "NODE_COORD_SECTION";
+			}
+			else
+			{
+				throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_TYPE: " + edgeWeightType);
+			}
+			Preconditions.checkArgument(expectedSection.equals(header.getSection()), "Expected %s but found %s",
+					expectedSection, header.getSection());
+			return run(channel, header.getDataOffset(), section, startTime);
+		}
+	}
+
+	public ImportResult importEdgeList(final Path file) throws IOException
+	{
+		Preconditions.checkNotNull(file, "File must be provided");
+		final long startTime = System.nanoTime();
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			return run(channel, 0, new EdgeListSection(), startTime);
+		}
+	}
+
+	private static EdgeWeightFormat parseFormat(final String format)
+	{
+		try
+		{
+			return EdgeWeightFormat.valueOf(format.toUpperCase(Locale.ROOT));
+		}
+		catch (final IllegalArgumentException e)
+		{
+			throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_FORMAT: " + format, e);
+		}
+	}
+
+	private ImportResult run(final FileChannel channel, final long dataOffset, final Section section, final long startTime)
+			throws IOException
+	{
+		final ChunkReader reader = new ChunkReader(channel, dataOffset, chunkBytes);
+		final Deque<Future<Values>> pending = new ArrayDeque<>(maxInFlight);
+		long rows = 0;
+		try
+		{
+			section.start();
+			boolean endOfSection = false;
+			boolean firstChunk = true;
+			while (!endOfSection)
+			{
+				byte[] chunk;
+				while (pending.size() < maxInFlight && (chunk = reader.next()) != null)
+				{
+					final byte[] bytes = chunk;
+					final boolean skipHeader = firstChunk && section.hasHeaderLine();
+					pending.add(executorService.submit(() -> section.parse(bytes, skipHeader)));
+					firstChunk = false;
+				}
+				if (pending.isEmpty())
+				{
+					break;
+				}
+				final Values values = await(pending.poll());
+				rows += section.write(values);
+				endOfSection = values.isEndOfSection();
+			}
+			section.finish();
+		}
+		finally
+		{
+			for (final Future<Values> future : pending)
+			{
+				future.cancel(false);
+			}
+		}
+		return new ImportResult(rows, channel.position(), System.nanoTime() - startTime);
+	}
+
+	private static Values await(final Future<Values> future)
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while importing", e);
+		}
+		catch (final ExecutionException e)
+		{
+			Throwables.propagateIfPossible(e.getCause());
+			throw new IllegalStateException("Chunk could not be parsed", e.getCause());
+		}
+	}
+
+	/**
+	 * Shuts down the executor if it was created by this importer.
+	 */
+	@Override
+	public void close()
+	{
+		if (ownsExecutorService)
+		{
+			executorService.shutdown();
+		}
+	}
+
+	private static int toId(final double id)
+	{
+		final int cityId = (int) id;
+		Preconditions.checkArgument(cityId == id, "City id must be an integer: %s", id);
+		return cityId;
+	}
+
+	private static City newCity(final int id, final Coordinates coordinates)
+	{
+		return new City(id, String.valueOf(id), coordinates);
+	}
+
+	/**
+	 * Parsing runs on the executor and must not touch any state; writing runs on the calling thread in file order.
+	 */
+	private abstract static class Section
+	{
+		boolean hasHeaderLine()
+		{
+			return false;
+		}
+
+		void start()
+		{
+		}
+
+		Values parse(final byte[] chunk, final boolean skipHeader)
+		{
+			return NumberScanner.scan(chunk, 0, false, true);
+		}
+
+		/**
+		 * @return rows written
+		 */
+		abstract int write(Values values);
+
+		void finish()
+		{
+		}
+	}
+
+	private enum EdgeWeightFormat
+	{
+		FULL_MATRIX, UPPER_ROW, LOWER_ROW, UPPER_DIAG_ROW, LOWER_DIAG_ROW
+	}
+
+	private final class EdgeWeightSection extends Section
+	{
+		private final EdgeWeightFormat format;
+		private final City[] cities;
+		private final long total;
+		private long written;
+		private int row;
+		private int column;
+
+		private EdgeWeightSection(final int dimension, final EdgeWeightFormat format)
+		{
+			this.format = format;
+			this.cities = new City[dimension];
+			for (int city = 0; city < dimension; city++)
+			{
+				cities[city] = newCity(city + 1, null);
+			}
+			final long size = dimension;
+			switch (format)
+			{
+				case FULL_MATRIX:
+					total = size * size;
+					break;
+				case UPPER_ROW:
+				case LOWER_ROW:
+					total = size * (size - 1) / 2;
+					row = format == EdgeWeightFormat.UPPER_ROW ? 0 : 1;
+					column = format == EdgeWeightFormat.UPPER_ROW ? 1 : 0;
+					break;
+				default:
+					total = size * (size + 1) / 2;
+					break;
+			}
+		}
+
+		@Override
+		void start()
+		{
+			cityRepository.saveCities(Arrays.asList(cities));
+		}
+
+		@Override
+		int write(final Values values)
+		{
+			final int count = values.size();
+			Preconditions.checkArgument(count <= total - written, "EDGE_WEIGHT_SECTION holds more than %s weights", total);
+			final boolean symmetrical = format != EdgeWeightFormat.FULL_MATRIX;
+			final List<City> fromCities = new ArrayList<>(symmetrical ? count * 2 : count);
+			final List<City> toCities = new ArrayList<>(symmetrical ? count * 2 : count);
+			final double[] costs = new double[symmetrical ? count * 2 : count];
+			for (int value = 0; value < count; value++)
+			{
+				if (row != column)
+				{
+					costs[fromCities.size()] = values.get(value);
+					fromCities.add(cities[row]);
+					toCities.add(cities[column]);
+					if (symmetrical)
+					{
+						costs[fromCities.size()] = values.get(value);
+						fromCities.add(cities[column]);
+						toCities.add(cities[row]);
+					}
+				}
+				advance();
+			}
+			written += count;
+			costRepository.saveCosts(fromCities, toCities, costs);
+			return count;
+		}
+
+		private void advance()
+		{
+			column++;
+			switch (format)
+			{
+				case FULL_MATRIX:
+				case UPPER_ROW:
+				case UPPER_DIAG_ROW:
+					if (column == cities.length)
+					{
+						row++;
+						column = format == EdgeWeightFormat.FULL_MATRIX ? 0 : format == EdgeWeightFormat.UPPER_ROW ? row + 1 : row;
+					}
+					break;
+				case LOWER_ROW:
+					if (column == row)
+					{
+						row++;
+						column = 0;
+					}
+					break;
+				default:
+					if (column > row)
+					{
+						row++;
+						column = 0;
+					}
+					break;
+			}
+		}
+
+		@Override
+		void finish()
+		{
+			Preconditions.checkArgument(written == total, "EDGE_WEIGHT_SECTION ends after %s of %s weights", written, total);
+		}
+	}
+
+	private final class NodeCoordSection extends Section
+	{
+		private final int dimension;
+		private int written;
+
+		private NodeCoordSection(final int dimension)
+		{
+			this.dimension = dimension;
+		}
+
+		@Override
+		Values parse(final byte[] chunk, final boolean skipHeader)
+		{
+			return NumberScanner.scan(chunk, 3, false, true);
+		}
+
+		@Override
+		int write(final Values values)
+		{
+			final int count = values.size() / 3;
+			Preconditions.checkArgument(count <= dimension - written, "NODE_COORD_SECTION holds more than %s nodes", dimension);
+			final List<City> cities = new ArrayList<>(count);
+			for (int node = 0; node < count; node++)
+			{
+				cities.add(newCity(toId(values.get(node * 3)), Coordinates.planar(values.get(node * 3 + 1), values.get(node * 3 + 2))));
+			}
+			cityRepository.saveCities(cities);
+			written += count;
+			return count;
+		}
+
+		@Override
+		void finish()
+		{
+			Preconditions.checkArgument(written == dimension, "NODE_COORD_SECTION ends after %s of %s nodes", written, dimension);
+		}
+	}
+
+	private final class EdgeListSection extends Section
+	{
+		private final Map<Integer, City> cities = new HashMap<>();
+
+		@Override
+		boolean hasHeaderLine()
+		{
+			return true;
+		}
+
+		@Override
+		Values parse(final byte[] chunk, final boolean skipHeader)
+		{
+			return NumberScanner.scan(chunk, 3, skipHeader, false);
+		}
+
+		@Override
+		int write(final Values values)
+		{
+			final int count = values.size() / 3;
+			final List<City> newCities = new ArrayList<>();
+			final List<City> fromCities = new ArrayList<>(count);
+			final List<City> toCities = new ArrayList<>(count);
+			final double[] costs = new double[count];
+			for (int edge = 0; edge < count; edge++)
+			{
+				fromCities.add(resolve(values.get(edge * 3), newCities));
+				toCities.add(resolve(values.get(edge * 3 + 1), newCities));
+				costs[edge] = values.get(edge * 3 + 2);
+			}
+			if (!newCities.isEmpty())
+			{
+				cityRepository.saveCities(newCities);
+			}
+			costRepository.saveCosts(fromCities, toCities, costs);
+			return count;
+		}
+
+		private City resolve(final double id, final List<City> newCities)
+		{
+			final Integer cityId = toId(id);
+			City city = cities.get(cityId);
+			if (city == null)
+			{
+				city = cityRepository.getCity(cityId);
+				if (city == null)
+				{
+					city = newCity(cityId, null);
+					newCities.add(city);
+				}
+				cities.put(cityId, city);
+			}
+			return city;
+		}
+	}
+
+	private static final class ImporterThreadFactory implements ThreadFactory
+	{
+		private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+		private final int poolNumber = POOL_NUMBER.incrementAndGet();
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable)
+		{
+			final Thread thread = new Thread(runnable, "instance-importer-" + poolNumber + "-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
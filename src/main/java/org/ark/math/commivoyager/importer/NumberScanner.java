@@ -0,0 +1,240 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.importer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads numbers straight from the bytes of a chunk. Whitespace, {@code ,} and {@code ;} separate values. Plain decimals
+ * of up to 15 significant digits are converted without creating a string (the result is exact, as both the digits and
+ * the power of ten fit into a double); exponents and longer numbers fall back to {@link Double#parseDouble(String)}.
+ */
+final class NumberScanner
+{
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15 };
+	private static final int MAX_FAST_DIGITS = 15;
+
+	private final byte[] bytes;
+	private int position;
+
+	NumberScanner(final byte[] bytes)
+	{
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Parses values until the end of the chunk or the first token that is not a number.
+	 *
+	 * @param valuesPerLine number of values every non-blank line must hold, 0 if lines do not matter
+	 * @param skipHeader whether a first line starting with text is a header to skip
+	 * @param textEndsSection whether text ends the data (TSPLIB keywords such as {@code EOF}) or is an error
+	 */
+	static Values scan(final byte[] bytes, final int valuesPerLine, final boolean skipHeader, final boolean textEndsSection)
+	{
+		final NumberScanner scanner = new NumberScanner(bytes);
+		if (skipHeader && !scanner.hasNumber() && !scanner.isAtEnd())
+		{
+			scanner.skipLine();
+		}
+		final Values values = new Values(Math.max(16, bytes.length / 4));
+		while (scanner.hasNumber())
+		{
+			if (valuesPerLine == 0)
+			{
+				values.add(scanner.nextDouble());
+				continue;
+			}
+			for (int value = 0; value < valuesPerLine; value++)
+			{
+				if (value > 0 && !scanner.hasNumberOnLine())
+				{
+					throw new IllegalArgumentException("Expected " + valuesPerLine + " values on every line");
+				}
+				values.add(scanner.nextDouble());
+			}
+			if (!scanner.isAtLineEnd())
+			{
+				throw new IllegalArgumentException("Expected " + valuesPerLine + " values on every line");
+			}
+		}
+		if (!scanner.isAtEnd())
+		{
+			if (!textEndsSection)
+			{
+				throw new IllegalArgumentException("Unexpected text in numeric data: " + scanner.nextToken());
+			}
+			values.endOfSection = true;
+		}
+		return values;
+	}
+
+	/**
+	 * Skips separators including line breaks.
+	 *
+	 * @return true if a number follows, false at the end of the chunk or before text
+	 */
+	boolean hasNumber()
+	{
+		while (position < bytes.length && isSeparator(bytes[position]))
+		{
+			position++;
+		}
+		return position < bytes.length && isNumberStart(bytes[position]);
+	}
+
+	/**
+	 * Like {@link #hasNumber()} but stops at a line break.
+	 */
+	boolean hasNumberOnLine()
+	{
+		skipOnLine();
+		return position < bytes.length && isNumberStart(bytes[position]);
+	}
+
+	boolean isAtLineEnd()
+	{
+		skipOnLine();
+		return position == bytes.length || bytes[position] == '\n';
+	}
+
+	boolean isAtEnd()
+	{
+		return position == bytes.length;
+	}
+
+	void skipLine()
+	{
+		while (position < bytes.length && bytes[position++] != '\n')
+		{
+			// skip
+		}
+	}
+
+	double nextDouble()
+	{
+		final int start = position;
+		int index = position;
+		final boolean negative = bytes[index] == '-';
+		if (negative || bytes[index] == '+')
+		{
+			index++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		for (; index < bytes.length && isDigit(bytes[index]); index++, digits++)
+		{
+			mantissa = mantissa * 10 + (bytes[index] - '0');
+		}
+		if (index < bytes.length && bytes[index] == '.')
+		{
+			for (index++; index < bytes.length && isDigit(bytes[index]); index++, digits++, fractionDigits++)
+			{
+				mantissa = mantissa * 10 + (bytes[index] - '0');
+			}
+		}
+		if (digits > 0 && digits <= MAX_FAST_DIGITS && (index == bytes.length || isSeparator(bytes[index])))
+		{
+			position = index;
+			final double value = mantissa / POWERS_OF_TEN[fractionDigits];
+			return negative ? -value : value;
+		}
+
+		final String token = nextToken();
+		try
+		{
+			return Double.parseDouble(token);
+		}
+		catch (final NumberFormatException e)
+		{
+			position = start;
+			throw new IllegalArgumentException("Malformed number: " + token, e);
+		}
+	}
+
+	private String nextToken()
+	{
+		final int start = position;
+		while (position < bytes.length && !isSeparator(bytes[position]))
+		{
+			position++;
+		}
+		return new String(bytes, start, position - start, StandardCharsets.US_ASCII);
+	}
+
+	private void skipOnLine()
+	{
+		while (position < bytes.length && bytes[position] != '\n' && isSeparator(bytes[position]))
+		{
+			position++;
+		}
+	}
+
+	private static boolean isSeparator(final byte b)
+	{
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',' || b == ';';
+	}
+
+	private static boolean isDigit(final byte b)
+	{
+		return b >= '0' && b <= '9';
+	}
+
+	private static boolean isNumberStart(final byte b)
+	{
+		return isDigit(b) || b == '-' || b == '+' || b == '.';
+	}
+
+	/**
+	 * Values of one chunk in file order.
+	 */
+	static final class Values
+	{
+		private double[] values;
+		private int count;
+		private boolean endOfSection;
+
+		private Values(final int capacity)
+		{
+			this.values = new double[capacity];
+		}
+
+		private void add(final double value)
+		{
+			if (count == values.length)
+			{
+				values = Arrays.copyOf(values, count * 2);
+			}
+			values[count++] = value;
+		}
+
+		double get(final int index)
+		{
+			return values[index];
+		}
+
+		int size()
+		{
+			return count;
+		}
+
+		/**
+		 * @return true if the chunk ran into text, so chunks after it are not part of the data
+		 */
+		boolean isEndOfSection()
+		{
+			return endOfSection;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Specification part of a TSPLIB file: the {@code KEY : VALUE} lines up to the first data section, which is where
+ * parallel parsing takes over.
+ */
+final class TsplibHeader
+{
+	private static final int MAX_LINE_LENGTH = 4096;
+
+	private final Map<String, String> fields;
+	private final String section;
+	private final long dataOffset;
+
+	private TsplibHeader(final Map<String, String> fields, final String section, final long dataOffset)
+	{
+		this.fields = fields;
+		this.section = section;
+		this.dataOffset = dataOffset;
+	}
+
+	static TsplibHeader read(final FileChannel channel) throws IOException
+	{
+		final Map<String, String> fields = new HashMap<>();
+		final ByteBuffer buffer = ByteBuffer.allocate(8192);
+		final StringBuilder line = new StringBuilder();
+		long offset = 0;
+		channel.position(0);
+		while (channel.read(buffer) > 0)
+		{
+			buffer.flip();
+			while (buffer.hasRemaining())
+			{
+				final char c = (char) (buffer.get() & 0xff);
+				offset++;
+				if (c != '\n')
+				{
+					line.append(c);
+					if (line.length() > MAX_LINE_LENGTH)
+					{
+						throw new IllegalArgumentException("TSPLIB header line longer than " + MAX_LINE_LENGTH + " characters");
+					}
+					continue;
+				}
+				final String keyword = parseLine(line.toString(), fields);
+				line.setLength(0);
+				if (keyword != null)
+				{
+					return new TsplibHeader(fields, keyword, offset);
+				}
+			}
+			buffer.clear();
+		}
+		final String keyword = parseLine(line.toString(), fields);
+		return new TsplibHeader(fields, keyword != null ? keyword : "EOF", offset);
+	}
+
+	// returns the keyword of a section or EOF line, null for a specification line
+	private static String parseLine(final String line, final Map<String, String> fields)
+	{
+		final int colon = line.indexOf(':');
+		final String key = (colon < 0 ? line : line.substring(0, colon)).trim().toUpperCase(Locale.ROOT);
+		if (colon < 0 && (key.endsWith("_SECTION") || "EOF".equals(key)))
+		{
+			return key;
+		}
+		if (!key.isEmpty())
+		{
+			fields.put(key, colon < 0 ? "" : line.substring(colon + 1).trim());
+		}
+		return null;
+	}
+
+	String get(final String key)
+	{
+		return fields.get(key);
+	}
+
+	String getRequired(final String key)
+	{
+		final String value = fields.get(key);
+		if (value == null || value.isEmpty())
+		{
+			throw new IllegalArgumentException("TSPLIB header has no " + key);
+		}
+		return value.toUpperCase(Locale.ROOT);
+	}
+
+	int getDimension()
+	{
+		final String dimension = getRequired("DIMENSION");
+		try
+		{
+			final int value = Integer.parseInt(dimension);
+			if (value > 0)
+			{
+				return value;
+			}
+		}
+		catch (final NumberFormatException e)
+		{
+			// reported below
+		}
+		throw new IllegalArgumentException("TSPLIB DIMENSION must be a positive integer: " + dimension);
+	}
+
+	/**
+	 * @return keyword of the first data section, {@code EOF} if the file has none
+	 */
+	String getSection()
+	{
+		return section;
+	}
+
+	/**
+	 * @return position of the first byte after the section keyword line
+	 */
+	long getDataOffset()
+	{
+		return dataOffset;
+	}
+}
@@ -15,6 +15,7 @@ public class City
 {
 	private Integer id;
 	private String name;
+	private Coordinates coordinates;
 
 	public City(final Integer id, final String name)
 	{
@@ -22,6 +23,17 @@ public class City
 		this.name = name;
 	}
 
+	/**
+	 * Cities with coordinates can be routed without stored costs, see
+	 * {@link org.ark.math.commivoyager.repository.impl.MetricCostRepository}. They are still identified by id only.
+	 */
+	public City(final Integer id, final String name, final Coordinates coordinates)
+	{
+		this.id = id;
+		this.name = name;
+		this.coordinates = coordinates;
+	}
+
 	public Integer getId()
 	{
 		return id;
@@ -32,6 +44,14 @@ public class City
 		return name;
 	}
 
+	/**
+	 * @return the position of the city or null if it has none
+	 */
+	public Coordinates getCoordinates()
+	{
+		return coordinates;
+	}
+
 	@Override
 	public boolean equals(final Object o)
 	{
@@ -0,0 +1,96 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.model;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Position of a city, either on a plane or on the globe in degrees.
+ */
+public final class Coordinates
+{
+	private final double x;
+	private final double y;
+	private final boolean geographic;
+
+	private Coordinates(final double x, final double y, final boolean geographic)
+	{
+		Preconditions.checkArgument(Double.isFinite(x) && Double.isFinite(y), "Coordinates must be finite");
+		this.x = x;
+		this.y = y;
+		this.geographic = geographic;
+	}
+
+	public static Coordinates planar(final double x, final double y)
+	{
+		return new Coordinates(x, y, false);
+	}
+
+	public static Coordinates geographic(final double latitude, final double longitude)
+	{
+		Preconditions.checkArgument(Math.abs(latitude) <= 90, "Latitude must be within [-90, 90]");
+		Preconditions.checkArgument(Math.abs(longitude) <= 180, "Longitude must be within [-180, 180]");
+		return new Coordinates(longitude, latitude, true);
+	}
+
+	public double getX()
+	{
+		return x;
+	}
+
+	public double getY()
+	{
+		return y;
+	}
+
+	public double getLatitude()
+	{
+		return y;
+	}
+
+	public double getLongitude()
+	{
+		return x;
+	}
+
+	public boolean isGeographic()
+	{
+		return geographic;
+	}
+
+	@Override
+	public boolean equals(final Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (!(o instanceof Coordinates))
+		{
+			return false;
+		}
+		final Coordinates coordinates = (Coordinates) o;
+		return Double.compare(x, coordinates.x) == 0 && Double.compare(y, coordinates.y) == 0 && geographic == coordinates.geographic;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return 31 * (31 * Double.hashCode(x) + Double.hashCode(y)) + (geographic ? 1 : 0);
+	}
+
+	@Override
+	public String toString()
+	{
+		return geographic ? "(lat " + y + ", lon " + x + ")" : "(" + x + ", " + y + ")";
+	}
+}
@@ -11,6 +11,8 @@
  */
 package org.ark.math.commivoyager.repository;
 
+import java.util.Collection;
+
 import org.ark.math.commivoyager.model.City;
 
 public interface CityRepository
@@ -18,4 +20,15 @@ public interface CityRepository
 	City getCity(Integer id);
 	
 	void saveCity(City city);
+
+	/**
+	 * Bulk variant of {@link #saveCity(City)}, one call per city unless overridden.
+	 */
+	default void saveCities(final Collection<City> cities)
+	{
+		for (final City city : cities)
+		{
+			saveCity(city);
+		}
+	}
 }
\ No newline at end of file
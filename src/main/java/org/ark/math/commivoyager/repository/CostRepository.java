@@ -11,9 +11,18 @@
  */
 package org.ark.math.commivoyager.repository;
 
+import java.util.List;
+
 import org.ark.math.commivoyager.model.City;
 import org.ark.math.commivoyager.model.CityPair;
 
+import com.google.common.base.Preconditions;
+
+/**
+ * The bulk operations exchange costs through primitive arrays with {@link Double#NaN} standing for a missing cost. The
+ * default implementations fall back to one {@link #getCostBetweeen(CityPair)} / {@link #saveCostBetween(CityPair, Double)}
+ * call per cell; implementations are expected to override them.
+ */
 public interface CostRepository
 {
 	
@@ -21,5 +30,113 @@ public interface CostRepository
 	
 	void saveCostBetween(CityPair cityPair, Double cost);
 
-	
+	/**
+	 * Fills {@code costs[i]} with the cost from {@code city} to {@code cities.get(i)}.
+	 */
+	default void getRow(final City city, final List<City> cities, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+		for (int column = 0; column < cities.size(); column++)
+		{
+			costs[column] = toPrimitive(getCostBetweeen(new CityPair(city, cities.get(column), null)));
+		}
+	}
+
+	/**
+	 * Fills {@code costs[i]} with the cost from {@code cities.get(i)} to {@code city}.
+	 */
+	default void getColumn(final List<City> cities, final City city, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+		for (int row = 0; row < cities.size(); row++)
+		{
+			costs[row] = toPrimitive(getCostBetweeen(new CityPair(cities.get(row), city, null)));
+		}
+	}
+
+	/**
+	 * @return row-major matrix of the costs between all given cities, in list order
+	 */
+	default double[] getCostMatrix(final List<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		final int size = cities.size();
+		final double[] costs = new double[size * size];
+		final double[] row = new double[size];
+		for (int city = 0; city < size; city++)
+		{
+			getRow(cities.get(city), cities, row);
+			System.arraycopy(row, 0, costs, city * size, size);
+		}
+		return costs;
+	}
+
+	/**
+	 * Saves the costs from {@code city} to {@code cities.get(i)}; NaN entries are skipped.
+	 */
+	default void saveRow(final City city, final List<City> cities, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+		for (int column = 0; column < cities.size(); column++)
+		{
+			if (!Double.isNaN(costs[column]))
+			{
+				saveCostBetween(new CityPair(city, cities.get(column), null), costs[column]);
+			}
+		}
+	}
+
+	/**
+	 * Saves a row-major matrix of costs between all given cities; NaN entries are skipped.
+	 */
+	default void saveCostMatrix(final List<City> cities, final double[] costs)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		Preconditions.checkArgument(costs != null && costs.length >= cities.size() * cities.size(),
+				"Cost array must hold a full matrix for the given cities");
+		final int size = cities.size();
+		final double[] row = new double[size];
+		for (int city = 0; city < size; city++)
+		{
+			System.arraycopy(costs, city * size, row, 0, size);
+			saveRow(cities.get(city), cities, row);
+		}
+	}
+
+	/**
+	 * Saves {@code costs[i]} from {@code fromCities.get(i)} to {@code toCities.get(i)}, e.g. a chunk of an edge list; NaN
+	 * entries are skipped.
+	 */
+	default void saveCosts(final List<City> fromCities, final List<City> toCities, final double[] costs)
+	{
+		checkEdgeArguments(fromCities, toCities, costs);
+		for (int edge = 0; edge < fromCities.size(); edge++)
+		{
+			if (!Double.isNaN(costs[edge]))
+			{
+				saveCostBetween(new CityPair(fromCities.get(edge), toCities.get(edge), null), costs[edge]);
+			}
+		}
+	}
+
+	static void checkEdgeArguments(final List<City> fromCities, final List<City> toCities, final double[] costs)
+	{
+		Preconditions.checkNotNull(fromCities, "Cities must be provided");
+		Preconditions.checkNotNull(toCities, "Cities must be provided");
+		Preconditions.checkArgument(fromCities.size() == toCities.size(), "Every edge needs a city on both ends");
+		Preconditions.checkArgument(costs != null && costs.length >= fromCities.size(), "Cost array must hold %s entries",
+				fromCities.size());
+	}
+
+	static void checkBulkArguments(final City city, final List<City> cities, final double[] costs)
+	{
+		Preconditions.checkNotNull(city, "City must be provided");
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		Preconditions.checkArgument(costs != null && costs.length >= cities.size(), "Cost array must hold %s entries", cities.size());
+	}
+
+	static double toPrimitive(final Double cost)
+	{
+		return cost == null ? Double.NaN : cost;
+	}
 }
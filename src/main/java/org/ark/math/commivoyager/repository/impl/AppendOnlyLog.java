@@ -0,0 +1,511 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static java.util.Objects.nonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * Append-only log plus snapshot behind the durable repositories. For a store called {@code name} the directory holds
+ * <pre>
+ * name.snapshot          int magic, int version, long generation, state as written by the owner
+ * name-generation.log    records of int length, int crc32, byte[length] payload
+ * </pre>
+ * Appended records collect in a buffer that a background thread writes and fsyncs as one batch every sync interval, so
+ * a crash loses at most the records of the last interval. A snapshot moves appends on to the next log generation and
+ * writes a copy of the state in the background to a temporary file, which then atomically replaces the old snapshot;
+ * logs older than the new snapshot are deleted afterwards. Opening reads the snapshot, replays the logs from its
+ * generation on and cuts off a record torn by a crash.
+ * <p>
+ * Appends and snapshots must not run concurrently with each other; the owner serializes them.
+ */
+final class AppendOnlyLog implements Closeable
+{
+	static final int SNAPSHOT_MAGIC = 0x43564c31;
+	static final int SNAPSHOT_VERSION = 1;
+	static final int MAX_RECORD_BYTES = 1 << 26;
+	private static final int RECORD_HEADER_BYTES = 8;
+	private static final int BUFFER_BYTES = 1 << 16;
+	private static final AtomicInteger LOG_NUMBER = new AtomicInteger();
+
+	interface State
+	{
+		void readSnapshot(DataInputStream in) throws IOException;
+
+		void replay(ByteBuffer payload);
+	}
+
+	/**
+	 * Runs on a background thread, so it must write a copy of the state taken when the snapshot was started.
+	 */
+	interface SnapshotWriter
+	{
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	private final Path directory;
+	private final String name;
+	private final long syncIntervalMillis;
+	private final long snapshotRecords;
+	private final ScheduledExecutorService executor;
+	private final CRC32 crc = new CRC32();
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+	private FileChannel channel;
+	private long generation;
+	private long recordsSinceSnapshot;
+	private boolean dirty;
+	private boolean closed;
+	private volatile Future<?> pendingSnapshot = Futures.immediateFuture(null);
+	private volatile IOException failure;
+
+	private AppendOnlyLog(final Path directory, final String name, final long syncIntervalMillis, final long snapshotRecords,
+			final long generation, final long recordsSinceSnapshot) throws IOException
+	{
+		this.directory = directory;
+		this.name = name;
+		this.syncIntervalMillis = syncIntervalMillis;
+		this.snapshotRecords = snapshotRecords;
+		this.generation = generation;
+		this.recordsSinceSnapshot = recordsSinceSnapshot;
+		this.channel = openLog(generation);
+		final int logNumber = LOG_NUMBER.incrementAndGet();
+		this.executor = Executors.newScheduledThreadPool(2, runnable -> {
+			final Thread thread = new Thread(runnable, "append-log-" + name + "-" + logNumber);
+			thread.setDaemon(true);
+			return thread;
+		});
+		if (syncIntervalMillis > 0)
+		{
+			executor.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Restores the state from the directory (created if missing) and opens the newest log for appending.
+	 *
+	 * @param syncIntervalMillis delay between batched fsyncs, 0 to fsync every record
+	 * @param snapshotRecords number of records after which {@link #append(ByteBuffer)} asks for a snapshot
+	 */
+	static AppendOnlyLog open(final Path directory, final String name, final State state, final long syncIntervalMillis,
+			final long snapshotRecords)
+	{
+		Preconditions.checkNotNull(directory, "Directory must be provided");
+		Preconditions.checkArgument(syncIntervalMillis >= 0, "Sync interval must not be negative");
+		Preconditions.checkArgument(snapshotRecords > 0, "Snapshot interval must be positive");
+		try
+		{
+			Files.createDirectories(directory);
+			Files.deleteIfExists(directory.resolve(name + ".snapshot.tmp"));
+			final long snapshotGeneration = readSnapshot(directory.resolve(name + ".snapshot"), state);
+
+			long generation = snapshotGeneration;
+			long replayedRecords = 0;
+			for (final long logGeneration : listLogs(directory, name))
+			{
+				final Path log = logFile(directory, name, logGeneration);
+				if (logGeneration < snapshotGeneration)
+				{
+					Files.delete(log);
+					continue;
+				}
+				replayedRecords += replay(log, state);
+				generation = logGeneration;
+			}
+			return new AppendOnlyLog(directory, name, syncIntervalMillis, snapshotRecords, generation, replayedRecords);
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException("Log could not be opened: " + directory.resolve(name), e);
+		}
+	}
+
+	/**
+	 * @return whether a snapshot is due and none is being written
+	 */
+	synchronized boolean append(final ByteBuffer payload)
+	{
+		checkOpen();
+		final int length = payload.remaining();
+		Preconditions.checkArgument(length <= MAX_RECORD_BYTES, "Record of %s bytes is too large", length);
+		crc.reset();
+		crc.update(payload.duplicate());
+		try
+		{
+			if (buffer.remaining() < RECORD_HEADER_BYTES + length)
+			{
+				writeBuffer();
+				if (buffer.capacity() < RECORD_HEADER_BYTES + length)
+				{
+					buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+				}
+			}
+			buffer.putInt(length).putInt((int) crc.getValue()).put(payload);
+			dirty = true;
+			if (syncIntervalMillis == 0)
+			{
+				writeBuffer();
+				channel.force(false);
+				dirty = false;
+			}
+		}
+		catch (final IOException e)
+		{
+			failure = e;
+			throw new UncheckedIOException("Log record could not be written: " + logFile(directory, name, generation), e);
+		}
+		return ++recordsSinceSnapshot >= snapshotRecords && pendingSnapshot.isDone();
+	}
+
+	/**
+	 * Writes the buffered records and waits until they are on disk.
+	 */
+	void sync()
+	{
+		final FileChannel syncChannel;
+		synchronized (this)
+		{
+			checkOpen();
+			if (!dirty)
+			{
+				return;
+			}
+			try
+			{
+				writeBuffer();
+			}
+			catch (final IOException e)
+			{
+				failure = e;
+				throw new UncheckedIOException("Log could not be written: " + logFile(directory, name, generation), e);
+			}
+			dirty = false;
+			syncChannel = channel;
+		}
+		// forced outside of the lock so appends go on meanwhile
+		try
+		{
+			syncChannel.force(false);
+		}
+		catch (final ClosedChannelException e)
+		{
+			// a snapshot or close switched logs and forced this one before closing it
+		}
+		catch (final IOException e)
+		{
+			failure = e;
+			throw new UncheckedIOException("Log could not be synced: " + directory.resolve(name), e);
+		}
+	}
+
+	/**
+	 * Syncs the current log, continues in the next generation and writes the state copy as snapshot in the background.
+	 *
+	 * @return completes once the snapshot is in place and the older logs are deleted
+	 */
+	synchronized Future<?> snapshot(final SnapshotWriter writer)
+	{
+		checkOpen();
+		Preconditions.checkState(pendingSnapshot.isDone(), "A snapshot is being written already");
+		try
+		{
+			writeBuffer();
+			channel.force(false);
+			channel.close();
+			generation++;
+			channel = openLog(generation);
+			dirty = false;
+		}
+		catch (final IOException e)
+		{
+			failure = e;
+			throw new UncheckedIOException("Log could not be rotated: " + directory.resolve(name), e);
+		}
+		recordsSinceSnapshot = 0;
+		final long snapshotGeneration = generation;
+		pendingSnapshot = executor.submit(() -> writeSnapshot(snapshotGeneration, writer));
+		return pendingSnapshot;
+	}
+
+	/**
+	 * Waits for a snapshot still being written; must not be called while holding the lock of this log.
+	 */
+	void awaitSnapshot()
+	{
+		try
+		{
+			pendingSnapshot.get();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the snapshot", e);
+		}
+		catch (final ExecutionException e)
+		{
+			throw new UncheckedIOException("Snapshot could not be written: " + directory.resolve(name), asIOException(e.getCause()));
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			awaitSnapshot();
+		}
+		finally
+		{
+			// no interrupt: it would close the channel under a running fsync
+			executor.shutdown();
+			synchronized (this)
+			{
+				if (!closed)
+				{
+					closed = true;
+					try
+					{
+						writeBuffer();
+						channel.force(false);
+					}
+					finally
+					{
+						channel.close();
+					}
+				}
+			}
+		}
+	}
+
+	private void writeSnapshot(final long snapshotGeneration, final SnapshotWriter writer)
+	{
+		final Path temporary = directory.resolve(name + ".snapshot.tmp");
+		try
+		{
+			try (FileChannel snapshotChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+					DataOutputStream out = new DataOutputStream(
+							new BufferedOutputStream(Channels.newOutputStream(snapshotChannel), BUFFER_BYTES)))
+			{
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeLong(snapshotGeneration);
+				writer.write(out);
+				out.flush();
+				snapshotChannel.force(true);
+			}
+			Files.move(temporary, directory.resolve(name + ".snapshot"), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			syncDirectory();
+			for (final long logGeneration : listLogs(directory, name))
+			{
+				if (logGeneration < snapshotGeneration)
+				{
+					Files.delete(logFile(directory, name, logGeneration));
+				}
+			}
+		}
+		catch (final IOException e)
+		{
+			failure = e;
+			throw new UncheckedIOException("Snapshot could not be written: " + temporary, e);
+		}
+	}
+
+	private void syncDirectory()
+	{
+		// makes the rename durable; directories cannot be opened on every platform, the rename is atomic regardless
+		try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ))
+		{
+			directoryChannel.force(true);
+		}
+		catch (final IOException e)
+		{
+			// best effort
+		}
+	}
+
+	private void syncQuietly()
+	{
+		try
+		{
+			sync();
+		}
+		catch (final RuntimeException e)
+		{
+			// kept in failure and reported by the next append
+		}
+	}
+
+	private void writeBuffer() throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void checkOpen()
+	{
+		Preconditions.checkState(!closed, "Log is closed");
+		if (nonNull(failure))
+		{
+			throw new UncheckedIOException("Log failed earlier: " + directory.resolve(name), failure);
+		}
+	}
+
+	private FileChannel openLog(final long logGeneration) throws IOException
+	{
+		return FileChannel.open(logFile(directory, name, logGeneration), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+	}
+
+	private static long readSnapshot(final Path snapshot, final State state) throws IOException
+	{
+		if (!Files.exists(snapshot))
+		{
+			return 0;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), BUFFER_BYTES)))
+		{
+			Preconditions.checkArgument(in.readInt() == SNAPSHOT_MAGIC, "Not a snapshot file: %s", snapshot);
+			final int version = in.readInt();
+			Preconditions.checkArgument(version == SNAPSHOT_VERSION, "Unsupported snapshot version %s", version);
+			final long generation = in.readLong();
+			state.readSnapshot(in);
+			return generation;
+		}
+	}
+
+	/**
+	 * Replays the intact records and truncates the file after the last of them.
+	 *
+	 * @return number of replayed records
+	 */
+	private static long replay(final Path log, final State state) throws IOException
+	{
+		final CRC32 checksum = new CRC32();
+		long records = 0;
+		long validBytes = 0;
+		byte[] payload = new byte[256];
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log), BUFFER_BYTES)))
+		{
+			while (true)
+			{
+				final int length;
+				final int crc;
+				try
+				{
+					length = in.readInt();
+					crc = in.readInt();
+					if (length < 0 || length > MAX_RECORD_BYTES)
+					{
+						break;
+					}
+					if (payload.length < length)
+					{
+						payload = new byte[length];
+					}
+					in.readFully(payload, 0, length);
+				}
+				catch (final EOFException e)
+				{
+					break;
+				}
+				checksum.reset();
+				checksum.update(payload, 0, length);
+				if ((int) checksum.getValue() != crc)
+				{
+					break;
+				}
+				state.replay(ByteBuffer.wrap(payload, 0, length));
+				validBytes += RECORD_HEADER_BYTES + length;
+				records++;
+			}
+		}
+		if (validBytes < Files.size(log))
+		{
+			try (FileChannel logChannel = FileChannel.open(log, StandardOpenOption.WRITE))
+			{
+				logChannel.truncate(validBytes);
+				logChannel.force(true);
+			}
+		}
+		return records;
+	}
+
+	private static List<Long> listLogs(final Path directory, final String name) throws IOException
+	{
+		final Pattern logName = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.log");
+		final List<Long> generations = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + "-*.log"))
+		{
+			for (final Path file : files)
+			{
+				final Matcher matcher = logName.matcher(file.getFileName().toString());
+				if (matcher.matches())
+				{
+					generations.add(Long.parseLong(matcher.group(1)));
+				}
+			}
+		}
+		Collections.sort(generations);
+		return generations;
+	}
+
+	private static Path logFile(final Path directory, final String name, final long generation)
+	{
+		return directory.resolve(name + "-" + generation + ".log");
+	}
+
+	private static IOException asIOException(final Throwable cause)
+	{
+		if (cause instanceof UncheckedIOException)
+		{
+			return ((UncheckedIOException) cause).getCause();
+		}
+		return cause instanceof IOException ? (IOException) cause : new IOException(cause);
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.ark.math.commivoyager.repository.CityRepository;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link InMemoryCityRepository} that survives restarts, with the same log and snapshot scheme as
+ * {@link DurableDistanceRepository}. A city is stored as id, name and optional coordinates.
+ * <p>
+ * A batch is logged as one record as long as it fits {@link AppendOnlyLog#MAX_RECORD_BYTES}; a larger one is split into
+ * several records, so it is not atomic: a crash can keep the leading records of the batch and lose the rest.
+ */
+public class DurableCityRepository implements CityRepository, Closeable
+{
+	public static final long DEFAULT_SYNC_INTERVAL_MILLIS = DurableDistanceRepository.DEFAULT_SYNC_INTERVAL_MILLIS;
+	public static final long DEFAULT_SNAPSHOT_RECORDS = 100_000;
+	static final String NAME = "cities";
+	private static final byte NO_COORDINATES = 0;
+	private static final byte PLANAR = 1;
+	private static final byte GEOGRAPHIC = 2;
+
+	private final InMemoryCityRepository cities = new InMemoryCityRepository();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+	private final DataOutputStream record = new DataOutputStream(recordBytes);
+	private final ByteArrayOutputStream cityBytes = new ByteArrayOutputStream();
+	private final DataOutputStream city = new DataOutputStream(cityBytes);
+	private final List<City> recordCities = new ArrayList<>();
+	private int maxRecordBytes = AppendOnlyLog.MAX_RECORD_BYTES;
+	private final AppendOnlyLog log;
+
+	private DurableCityRepository(final Path directory, final long syncIntervalMillis, final long snapshotRecords)
+	{
+		this.log = AppendOnlyLog.open(directory, NAME, new CityState(), syncIntervalMillis, snapshotRecords);
+	}
+
+	public static DurableCityRepository open(final Path directory)
+	{
+		return open(directory, DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_SNAPSHOT_RECORDS);
+	}
+
+	/**
+	 * @see DurableDistanceRepository#open(Path, long, long)
+	 */
+	public static DurableCityRepository open(final Path directory, final long syncIntervalMillis, final long snapshotRecords)
+	{
+		return new DurableCityRepository(directory, syncIntervalMillis, snapshotRecords);
+	}
+
+	@Override
+	public City getCity(final Integer id)
+	{
+		lock.readLock().lock();
+		try
+		{
+			return cities.getCity(id);
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void saveCity(final City city)
+	{
+		saveCities(Collections.singletonList(city));
+	}
+
+	/**
+	 * Logs the batch as one record, or as several if it does not fit {@link AppendOnlyLog#MAX_RECORD_BYTES}.
+	 */
+	@Override
+	public void saveCities(final Collection<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		for (final City city : cities)
+		{
+			Preconditions.checkArgument(nonNull(city) && nonNull(city.getId()), "City with valid id [integer] must be provided");
+			Preconditions.checkArgument(nonNull(city.getName()), "Name of the city must be provided");
+		}
+		if (cities.isEmpty())
+		{
+			return;
+		}
+
+		lock.writeLock().lock();
+		try
+		{
+			recordBytes.reset();
+			recordCities.clear();
+			for (final City next : cities)
+			{
+				cityBytes.reset();
+				writeCity(next, city);
+				if (recordBytes.size() > 0 && recordBytes.size() + cityBytes.size() > maxRecordBytes)
+				{
+					logAndApply();
+				}
+				cityBytes.writeTo(record);
+				recordCities.add(next);
+			}
+			logAndApply();
+		}
+		catch (final IOException e)
+		{
+			// a byte array stream does not throw
+			throw new UncheckedIOException(e);
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @see DurableDistanceRepository#sync()
+	 */
+	public void sync()
+	{
+		log.sync();
+	}
+
+	/**
+	 * @see DurableDistanceRepository#snapshot()
+	 */
+	public void snapshot()
+	{
+		lock.writeLock().lock();
+		try
+		{
+			log.awaitSnapshot();
+			log.snapshot(snapshotWriter());
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+		log.awaitSnapshot();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		log.close();
+	}
+
+	/**
+	 * Lowers the size of a log record, so tests can split batches without writing 64 MB.
+	 */
+	void setMaxRecordBytes(final int maxRecordBytes)
+	{
+		Preconditions.checkArgument(maxRecordBytes > 0 && maxRecordBytes <= AppendOnlyLog.MAX_RECORD_BYTES, "Record size out of range");
+		this.maxRecordBytes = maxRecordBytes;
+	}
+
+	// called with the write lock held
+	private void logAndApply()
+	{
+		final boolean snapshotDue = log.append(ByteBuffer.wrap(recordBytes.toByteArray()));
+		for (final City city : recordCities)
+		{
+			cities.saveCity(city);
+		}
+		recordBytes.reset();
+		recordCities.clear();
+		if (snapshotDue)
+		{
+			log.snapshot(snapshotWriter());
+		}
+	}
+
+	// cities are immutable, a copy of the list is enough
+	private AppendOnlyLog.SnapshotWriter snapshotWriter()
+	{
+		final List<City> snapshot = new ArrayList<>(cities.getCities());
+		return out -> {
+			out.writeInt(snapshot.size());
+			for (final City city : snapshot)
+			{
+				writeCity(city, out);
+			}
+		};
+	}
+
+	private static void writeCity(final City city, final DataOutput out) throws IOException
+	{
+		out.writeInt(city.getId());
+		out.writeUTF(city.getName());
+		final Coordinates coordinates = city.getCoordinates();
+		if (isNull(coordinates))
+		{
+			out.writeByte(NO_COORDINATES);
+		}
+		else
+		{
+			out.writeByte(coordinates.isGeographic() ? GEOGRAPHIC : PLANAR);
+			out.writeDouble(coordinates.getX());
+			out.writeDouble(coordinates.getY());
+		}
+	}
+
+	private static City readCity(final DataInput in) throws IOException
+	{
+		final int id = in.readInt();
+		final String name = in.readUTF();
+		final byte kind = in.readByte();
+		if (kind == NO_COORDINATES)
+		{
+			return new City(id, name);
+		}
+		final double x = in.readDouble();
+		final double y = in.readDouble();
+		return new City(id, name, kind == GEOGRAPHIC ? Coordinates.geographic(y, x) : Coordinates.planar(x, y));
+	}
+
+	private final class CityState implements AppendOnlyLog.State
+	{
+		@Override
+		public void readSnapshot(final DataInputStream in) throws IOException
+		{
+			final int count = in.readInt();
+			for (int city = 0; city < count; city++)
+			{
+				cities.saveCity(readCity(in));
+			}
+		}
+
+		@Override
+		public void replay(final ByteBuffer payload)
+		{
+			final ByteArrayInputStream bytes = new ByteArrayInputStream(payload.array(), payload.arrayOffset() + payload.position(),
+					payload.remaining());
+			final DataInputStream in = new DataInputStream(bytes);
+			try
+			{
+				while (bytes.available() > 0)
+				{
+					cities.saveCity(readCity(in));
+				}
+			}
+			catch (final IOException e)
+			{
+				throw new UncheckedIOException("Logged city could not be read", e);
+			}
+		}
+	}
+}
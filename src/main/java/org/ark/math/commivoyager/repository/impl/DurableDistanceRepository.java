@@ -0,0 +1,333 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static org.ark.math.commivoyager.repository.CostRepository.checkBulkArguments;
+import static org.ark.math.commivoyager.repository.CostRepository.checkEdgeArguments;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.repository.CostRepository;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link InMemoryDistanceRepository} that survives restarts: every save is appended to a log before it is applied, and
+ * a binary snapshot of the whole table is written every {@code snapshotRecords} log records, see
+ * {@link AppendOnlyLog}. Opening loads the snapshot and replays the log written since, so the repository is warm
+ * after reading one sequential file instead of being rebuilt cost by cost.
+ * <p>
+ * Saves are durable once the next batched fsync ran, at most the sync interval later, or after {@link #sync()}. Bulk
+ * saves log one record per row. Records are capped at {@link AppendOnlyLog#MAX_RECORD_BYTES}, so larger batches are
+ * logged as several records, each applied as it is logged; such a batch is not atomic, a crash can keep its leading
+ * records and lose the rest. Safe for concurrent use; reads share a read lock.
+ */
+public class DurableDistanceRepository implements CostRepository, Closeable
+{
+	public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 100;
+	public static final long DEFAULT_SNAPSHOT_RECORDS = 1_000_000;
+	static final String NAME = "costs";
+	// packed city pair key and cost
+	private static final int ENTRY_BYTES = 16;
+	private static final int MAX_RECORD_ENTRIES = AppendOnlyLog.MAX_RECORD_BYTES / ENTRY_BYTES;
+
+	private final InMemoryDistanceRepository costs = new InMemoryDistanceRepository();
+	private final LongDoubleHashMap costTable = costs.getCostTable();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final AppendOnlyLog log;
+	private ByteBuffer record = ByteBuffer.allocate(ENTRY_BYTES * 64);
+	private int maxRecordEntries = MAX_RECORD_ENTRIES;
+
+	private DurableDistanceRepository(final Path directory, final long syncIntervalMillis, final long snapshotRecords)
+	{
+		this.log = AppendOnlyLog.open(directory, NAME, new CostState(), syncIntervalMillis, snapshotRecords);
+	}
+
+	public static DurableDistanceRepository open(final Path directory)
+	{
+		return open(directory, DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_SNAPSHOT_RECORDS);
+	}
+
+	/**
+	 * @param syncIntervalMillis delay between batched fsyncs of the log, 0 to fsync every save
+	 * @param snapshotRecords log records after which a snapshot is written in the background
+	 */
+	public static DurableDistanceRepository open(final Path directory, final long syncIntervalMillis, final long snapshotRecords)
+	{
+		return new DurableDistanceRepository(directory, syncIntervalMillis, snapshotRecords);
+	}
+
+	@Override
+	public Double getCostBetweeen(final CityPair cityPair)
+	{
+		lock.readLock().lock();
+		try
+		{
+			return costs.getCostBetweeen(cityPair);
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void saveCostBetween(final CityPair cityPair, final Double cost)
+	{
+		Preconditions.checkNotNull(cityPair, "City pair should be provided");
+		Preconditions.checkNotNull(cost, "Cost must bbe provided");
+		Preconditions.checkArgument(!cost.isNaN(), "Cost must be a number");
+
+		lock.writeLock().lock();
+		try
+		{
+			record.clear();
+			putEntry(InMemoryDistanceRepository.key(cityPair.getCity1(), cityPair.getCity2()), cost);
+			logAndApply();
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void getRow(final City city, final List<City> cities, final double[] costs)
+	{
+		lock.readLock().lock();
+		try
+		{
+			this.costs.getRow(city, cities, costs);
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void getColumn(final List<City> cities, final City city, final double[] costs)
+	{
+		lock.readLock().lock();
+		try
+		{
+			this.costs.getColumn(cities, city, costs);
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public double[] getCostMatrix(final List<City> cities)
+	{
+		lock.readLock().lock();
+		try
+		{
+			return costs.getCostMatrix(cities);
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void saveRow(final City city, final List<City> cities, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+
+		lock.writeLock().lock();
+		try
+		{
+			saveRow(InMemoryDistanceRepository.rowKey(city), InMemoryDistanceRepository.columnKeys(cities), costs, 0);
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void saveCostMatrix(final List<City> cities, final double[] costs)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		Preconditions.checkArgument(costs != null && costs.length >= cities.size() * cities.size(),
+				"Cost array must hold a full matrix for the given cities");
+
+		final long[] columnKeys = InMemoryDistanceRepository.columnKeys(cities);
+		lock.writeLock().lock();
+		try
+		{
+			for (int row = 0; row < cities.size(); row++)
+			{
+				saveRow(InMemoryDistanceRepository.rowKey(cities.get(row)), columnKeys, costs, row * cities.size());
+			}
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Logs the batch as one record, or as several if it does not fit {@link AppendOnlyLog#MAX_RECORD_BYTES}.
+	 */
+	@Override
+	public void saveCosts(final List<City> fromCities, final List<City> toCities, final double[] costs)
+	{
+		checkEdgeArguments(fromCities, toCities, costs);
+
+		lock.writeLock().lock();
+		try
+		{
+			record.clear();
+			for (int edge = 0; edge < fromCities.size(); edge++)
+			{
+				if (!Double.isNaN(costs[edge]))
+				{
+					putEntry(InMemoryDistanceRepository.key(fromCities.get(edge), toCities.get(edge)), costs[edge]);
+				}
+			}
+			if (record.position() > 0)
+			{
+				logAndApply();
+			}
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Waits until every save so far is on disk.
+	 */
+	public void sync()
+	{
+		log.sync();
+	}
+
+	/**
+	 * Writes a snapshot now and waits for it, e.g. before a planned restart.
+	 */
+	public void snapshot()
+	{
+		lock.writeLock().lock();
+		try
+		{
+			log.awaitSnapshot();
+			log.snapshot(costTable.copy()::writeTo);
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+		log.awaitSnapshot();
+	}
+
+	/**
+	 * Syncs the log; a snapshot still being written is finished first.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		log.close();
+	}
+
+	private void saveRow(final long rowKey, final long[] columnKeys, final double[] costs, final int offset)
+	{
+		record.clear();
+		for (int column = 0; column < columnKeys.length; column++)
+		{
+			if (!Double.isNaN(costs[offset + column]))
+			{
+				putEntry(rowKey | columnKeys[column], costs[offset + column]);
+			}
+		}
+		if (record.position() > 0)
+		{
+			logAndApply();
+		}
+	}
+
+	/**
+	 * Lowers the number of entries per log record, so tests can split batches without writing 64 MB.
+	 */
+	void setMaxRecordEntries(final int maxRecordEntries)
+	{
+		Preconditions.checkArgument(maxRecordEntries > 0 && maxRecordEntries <= MAX_RECORD_ENTRIES, "Record size out of range");
+		this.maxRecordEntries = maxRecordEntries;
+	}
+
+	// a full record is logged and applied first, so a batch never exceeds the record size of the log
+	private void putEntry(final long key, final double cost)
+	{
+		if (record.position() >= maxRecordEntries * ENTRY_BYTES)
+		{
+			logAndApply();
+			record.clear();
+		}
+		if (record.remaining() < ENTRY_BYTES)
+		{
+			final ByteBuffer larger = ByteBuffer.allocate(Math.min(record.capacity() * 2, maxRecordEntries * ENTRY_BYTES));
+			record.flip();
+			record = larger.put(record);
+		}
+		record.putLong(key).putDouble(cost);
+	}
+
+	// called with the write lock held
+	private void logAndApply()
+	{
+		record.flip();
+		final boolean snapshotDue = log.append(record.duplicate());
+		apply(record);
+		if (snapshotDue)
+		{
+			log.snapshot(costTable.copy()::writeTo);
+		}
+	}
+
+	private void apply(final ByteBuffer entries)
+	{
+		while (entries.remaining() >= ENTRY_BYTES)
+		{
+			costTable.put(entries.getLong(), entries.getDouble());
+		}
+	}
+
+	private final class CostState implements AppendOnlyLog.State
+	{
+		@Override
+		public void readSnapshot(final DataInputStream in) throws IOException
+		{
+			costTable.readFrom(in);
+		}
+
+		@Override
+		public void replay(final ByteBuffer payload)
+		{
+			apply(payload);
+		}
+	}
+}
@@ -13,6 +13,7 @@ package org.ark.math.commivoyager.repository.impl;
 
 import static java.util.Objects.nonNull;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -46,4 +47,9 @@ public class InMemoryCityRepository implements CityRepository
 		
 		cityMap.put(city.getId(), city);
 	}
+
+	Collection<City> getCities()
+	{
+		return cityMap.values();
+	}
 }
@@ -11,9 +11,12 @@
  */
 package org.ark.math.commivoyager.repository.impl;
 
-import java.util.HashMap;
-import java.util.Map;
+import static org.ark.math.commivoyager.repository.CostRepository.checkBulkArguments;
+import static org.ark.math.commivoyager.repository.CostRepository.checkEdgeArguments;
 
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
 import org.ark.math.commivoyager.model.CityPair;
 import org.ark.math.commivoyager.repository.CostRepository;
 
@@ -22,17 +25,42 @@ import com.google.common.base.Preconditions;
 public class InMemoryDistanceRepository implements CostRepository
 {
 
-	private final Map<CityPair, Double> costMatrix;
+	// (city1 id, city2 id) packed into one long key, primitive double values
+	private final LongDoubleHashMap costMatrix;
 	
 	public InMemoryDistanceRepository()
 	{
-		costMatrix = new HashMap<>();		
+		costMatrix = new LongDoubleHashMap();		
+	}
+
+	public InMemoryDistanceRepository(final int expectedCosts)
+	{
+		costMatrix = new LongDoubleHashMap(expectedCosts);
 	}
 	
+	/**
+	 * The live table for {@link DurableDistanceRepository}, which logs every change before making it here.
+	 */
+	LongDoubleHashMap getCostTable()
+	{
+		return costMatrix;
+	}
+
 	@Override
 	public Double getCostBetweeen(final CityPair cityPair)
 	{
-		return costMatrix.get(cityPair);
+		final double cost = getCost(cityPair.getCity1(), cityPair.getCity2());
+		return Double.isNaN(cost) ? null : cost;
+	}
+
+	/**
+	 * Allocation free variant of {@link #getCostBetweeen(CityPair)}.
+	 *
+	 * @return the cost or NaN if there is none
+	 */
+	public double getCost(final City city1, final City city2)
+	{
+		return costMatrix.get(key(city1, city2));
 	}
 
 	@Override
@@ -40,7 +68,127 @@ public class InMemoryDistanceRepository implements CostRepository
 	{
 		Preconditions.checkNotNull(cityPair, "City pair should be provided");
 		Preconditions.checkNotNull(cost, "Cost must bbe provided");
+		Preconditions.checkArgument(!cost.isNaN(), "Cost must be a number");
+
+		costMatrix.put(key(cityPair.getCity1(), cityPair.getCity2()), cost);
+	}
+
+	@Override
+	public void getRow(final City city, final List<City> cities, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+
+		final long rowKey = rowKey(city);
+		for (int column = 0; column < cities.size(); column++)
+		{
+			costs[column] = costMatrix.get(rowKey | columnKey(cities.get(column)));
+		}
+	}
+
+	@Override
+	public void getColumn(final List<City> cities, final City city, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+
+		final long columnKey = columnKey(city);
+		for (int row = 0; row < cities.size(); row++)
+		{
+			costs[row] = costMatrix.get(rowKey(cities.get(row)) | columnKey);
+		}
+	}
+
+	@Override
+	public double[] getCostMatrix(final List<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+
+		final int size = cities.size();
+		final long[] columnKeys = columnKeys(cities);
+		final double[] costs = new double[size * size];
+		for (int row = 0, cell = 0; row < size; row++)
+		{
+			final long rowKey = rowKey(cities.get(row));
+			for (int column = 0; column < size; column++, cell++)
+			{
+				costs[cell] = costMatrix.get(rowKey | columnKeys[column]);
+			}
+		}
+		return costs;
+	}
+
+	@Override
+	public void saveRow(final City city, final List<City> cities, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+
+		final long rowKey = rowKey(city);
+		for (int column = 0; column < cities.size(); column++)
+		{
+			if (!Double.isNaN(costs[column]))
+			{
+				costMatrix.put(rowKey | columnKey(cities.get(column)), costs[column]);
+			}
+		}
+	}
+
+	@Override
+	public void saveCostMatrix(final List<City> cities, final double[] costs)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		Preconditions.checkArgument(costs != null && costs.length >= cities.size() * cities.size(),
+				"Cost array must hold a full matrix for the given cities");
+
+		final int size = cities.size();
+		final long[] columnKeys = columnKeys(cities);
+		for (int row = 0, cell = 0; row < size; row++)
+		{
+			final long rowKey = rowKey(cities.get(row));
+			for (int column = 0; column < size; column++, cell++)
+			{
+				if (!Double.isNaN(costs[cell]))
+				{
+					costMatrix.put(rowKey | columnKeys[column], costs[cell]);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void saveCosts(final List<City> fromCities, final List<City> toCities, final double[] costs)
+	{
+		checkEdgeArguments(fromCities, toCities, costs);
+
+		for (int edge = 0; edge < fromCities.size(); edge++)
+		{
+			if (!Double.isNaN(costs[edge]))
+			{
+				costMatrix.put(key(fromCities.get(edge), toCities.get(edge)), costs[edge]);
+			}
+		}
+	}
 
-		costMatrix.put(cityPair, cost);
+	static long key(final City city1, final City city2)
+	{
+		return rowKey(city1) | columnKey(city2);
+	}
+
+	static long rowKey(final City city)
+	{
+		return (long) city.getId() << 32;
+	}
+
+	static long columnKey(final City city)
+	{
+		return city.getId() & 0xffffffffL;
+	}
+
+	static long[] columnKeys(final List<City> cities)
+	{
+		final long[] columnKeys = new long[cities.size()];
+		for (int column = 0; column < columnKeys.length; column++)
+		{
+			columnKeys[column] = columnKey(cities.get(column));
+		}
+		return columnKeys;
 	}
 }
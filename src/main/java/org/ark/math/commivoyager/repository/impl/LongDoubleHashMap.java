@@ -0,0 +1,205 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Open addressing (linear probing) map from primitive long keys to primitive double values kept in two parallel
+ * arrays. Lookups allocate nothing; a missing key reads as {@link Double#NaN}. There is no removal.
+ */
+class LongDoubleHashMap
+{
+	private static final long FREE_KEY = Long.MIN_VALUE;
+	private static final float LOAD_FACTOR = 0.6f;
+	private static final int MINIMUM_CAPACITY = 16;
+
+	private long[] keys;
+	private double[] values;
+	private int mask;
+	private int shift;
+	private int size;
+	private int resizeThreshold;
+	// FREE_KEY itself cannot be stored in the table
+	private boolean hasFreeKey;
+	private double freeKeyValue;
+
+	LongDoubleHashMap()
+	{
+		this(MINIMUM_CAPACITY);
+	}
+
+	LongDoubleHashMap(final int expectedSize)
+	{
+		Preconditions.checkArgument(expectedSize >= 0, "Expected size must not be negative");
+		allocate(capacityFor(expectedSize));
+	}
+
+	double get(final long key)
+	{
+		if (key == FREE_KEY)
+		{
+			return hasFreeKey ? freeKeyValue : Double.NaN;
+		}
+		for (int slot = slot(key);; slot = (slot + 1) & mask)
+		{
+			final long slotKey = keys[slot];
+			if (slotKey == key)
+			{
+				return values[slot];
+			}
+			if (slotKey == FREE_KEY)
+			{
+				return Double.NaN;
+			}
+		}
+	}
+
+	void put(final long key, final double value)
+	{
+		if (key == FREE_KEY)
+		{
+			if (!hasFreeKey)
+			{
+				hasFreeKey = true;
+				size++;
+			}
+			freeKeyValue = value;
+			return;
+		}
+		for (int slot = slot(key);; slot = (slot + 1) & mask)
+		{
+			final long slotKey = keys[slot];
+			if (slotKey == key)
+			{
+				values[slot] = value;
+				return;
+			}
+			if (slotKey == FREE_KEY)
+			{
+				keys[slot] = key;
+				values[slot] = value;
+				if (++size > resizeThreshold)
+				{
+					Preconditions.checkState(keys.length < 1 << 30, "Too many entries for a single table: %s", size);
+					rehash(keys.length * 2);
+				}
+				return;
+			}
+		}
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	LongDoubleHashMap copy()
+	{
+		final LongDoubleHashMap copy = new LongDoubleHashMap();
+		copy.keys = keys.clone();
+		copy.values = values.clone();
+		copy.mask = mask;
+		copy.shift = shift;
+		copy.size = size;
+		copy.resizeThreshold = resizeThreshold;
+		copy.hasFreeKey = hasFreeKey;
+		copy.freeKeyValue = freeKeyValue;
+		return copy;
+	}
+
+	/**
+	 * Writes the entry count followed by every key and value, in table order.
+	 */
+	void writeTo(final DataOutput out) throws IOException
+	{
+		out.writeInt(size);
+		if (hasFreeKey)
+		{
+			out.writeLong(FREE_KEY);
+			out.writeDouble(freeKeyValue);
+		}
+		for (int slot = 0; slot < keys.length; slot++)
+		{
+			if (keys[slot] != FREE_KEY)
+			{
+				out.writeLong(keys[slot]);
+				out.writeDouble(values[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Puts the entries written by {@link #writeTo(DataOutput)}.
+	 */
+	void readFrom(final DataInput in) throws IOException
+	{
+		final int entries = in.readInt();
+		if (size == 0 && entries > resizeThreshold)
+		{
+			allocate(capacityFor(entries));
+		}
+		for (int entry = 0; entry < entries; entry++)
+		{
+			put(in.readLong(), in.readDouble());
+		}
+	}
+
+	private int slot(final long key)
+	{
+		// fibonacci hashing spreads the packed city ids, whose low bits alone would cluster
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+	private void rehash(final int capacity)
+	{
+		final long[] oldKeys = keys;
+		final double[] oldValues = values;
+		allocate(capacity);
+		for (int slot = 0; slot < oldKeys.length; slot++)
+		{
+			final long key = oldKeys[slot];
+			if (key != FREE_KEY)
+			{
+				int newSlot = slot(key);
+				while (keys[newSlot] != FREE_KEY)
+				{
+					newSlot = (newSlot + 1) & mask;
+				}
+				keys[newSlot] = key;
+				values[newSlot] = oldValues[slot];
+			}
+		}
+	}
+
+	private void allocate(final int capacity)
+	{
+		keys = new long[capacity];
+		Arrays.fill(keys, FREE_KEY);
+		values = new double[capacity];
+		mask = capacity - 1;
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		resizeThreshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private static int capacityFor(final int expectedSize)
+	{
+		final long required = Math.max(MINIMUM_CAPACITY, (long) Math.ceil(expectedSize / LOAD_FACTOR));
+		Preconditions.checkArgument(required <= 1 << 30, "Too many entries for a single table: %s", expectedSize);
+		return Integer.highestOneBit((int) required - 1) << 1;
+	}
+}
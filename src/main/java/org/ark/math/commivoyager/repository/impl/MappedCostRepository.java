@@ -0,0 +1,379 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.ark.math.commivoyager.repository.CostRepository.checkBulkArguments;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.repository.CostRepository;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Cost matrix in a memory-mapped file, little endian:
+ * <pre>
+ * int magic, int version, int cityCount, int reserved
+ * int[cityCount]            city ids, ascending
+ * float[cityCount^2]        costs, row-major, NaN for a missing cost
+ * </pre>
+ * Opening only maps the file; pages are faulted in on first access and are shared through the page cache by every
+ * process mapping the same file. Cities are located by binary search over the mapped ids, so nothing is loaded onto
+ * the heap. Rows are mapped in segments of at most 1 GB to stay below the {@link MappedByteBuffer} size limit.
+ */
+public class MappedCostRepository implements CostRepository, Closeable
+{
+	static final int MAGIC = 0x43564d31;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 16;
+	static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+	private final FileChannel channel;
+	private final boolean writable;
+	private final int cityCount;
+	private final MappedByteBuffer cityIds;
+	private final MappedByteBuffer[] segments;
+	private final int rowsPerSegment;
+
+	private MappedCostRepository(final FileChannel channel, final boolean writable, final long maxSegmentBytes) throws IOException
+	{
+		this.channel = channel;
+		this.writable = writable;
+		final FileChannel.MapMode mapMode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+
+		final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		Preconditions.checkArgument(header.getInt(0) == MAGIC, "Not a cost matrix file");
+		Preconditions.checkArgument(header.getInt(4) == VERSION, "Unsupported cost matrix file version %s", header.getInt(4));
+		this.cityCount = header.getInt(8);
+		final long rowBytes = 4L * cityCount;
+		final long costsOffset = HEADER_BYTES + rowBytes;
+		Preconditions.checkArgument(channel.size() >= costsOffset + rowBytes * cityCount, "Cost matrix file is truncated");
+
+		this.cityIds = map(channel, mapMode, HEADER_BYTES, rowBytes);
+		this.rowsPerSegment = (int) Math.max(1, Math.min(cityCount, maxSegmentBytes / Math.max(1, rowBytes)));
+		final int segmentCount = cityCount == 0 ? 0 : (cityCount + rowsPerSegment - 1) / rowsPerSegment;
+		this.segments = new MappedByteBuffer[segmentCount];
+		for (int segment = 0; segment < segmentCount; segment++)
+		{
+			final int rows = Math.min(rowsPerSegment, cityCount - segment * rowsPerSegment);
+			segments[segment] = map(channel, mapMode, costsOffset + segment * rowsPerSegment * rowBytes, rows * rowBytes);
+		}
+	}
+
+	private static MappedByteBuffer map(final FileChannel channel, final FileChannel.MapMode mapMode, final long offset,
+			final long length) throws IOException
+	{
+		final MappedByteBuffer buffer = channel.map(mapMode, offset, length);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	/**
+	 * Creates (or truncates) the file for the given cities with every cost missing and opens it for writing.
+	 */
+	public static MappedCostRepository create(final Path file, final List<City> cities)
+	{
+		return create(file, cities, MAX_SEGMENT_BYTES);
+	}
+
+	static MappedCostRepository create(final Path file, final List<City> cities, final long maxSegmentBytes)
+	{
+		Preconditions.checkNotNull(file, "File must be provided");
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		final int[] ids = cities.stream().mapToInt(City::getId).sorted().distinct().toArray();
+		Preconditions.checkArgument(ids.length == cities.size(), "City ids must be unique");
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			final long rowBytes = 4L * ids.length;
+			final MappedByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + rowBytes);
+			header.putInt(MAGIC).putInt(VERSION).putInt(ids.length).putInt(0);
+			for (final int id : ids)
+			{
+				header.putInt(id);
+			}
+			final ByteBuffer missingRow = ByteBuffer.allocate((int) rowBytes).order(ByteOrder.LITTLE_ENDIAN);
+			for (int column = 0; column < ids.length; column++)
+			{
+				missingRow.putFloat(Float.NaN);
+			}
+			for (int row = 0; row < ids.length; row++)
+			{
+				missingRow.rewind();
+				channel.write(missingRow, HEADER_BYTES + rowBytes * (row + 1));
+			}
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException("Cost matrix file could not be created: " + file, e);
+		}
+		return open(file, true, maxSegmentBytes);
+	}
+
+	public static MappedCostRepository open(final Path file, final boolean writable)
+	{
+		return open(file, writable, MAX_SEGMENT_BYTES);
+	}
+
+	static MappedCostRepository open(final Path file, final boolean writable, final long maxSegmentBytes)
+	{
+		Preconditions.checkNotNull(file, "File must be provided");
+		FileChannel channel = null;
+		try
+		{
+			channel = writable ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+					: FileChannel.open(file, StandardOpenOption.READ);
+			return new MappedCostRepository(channel, writable, maxSegmentBytes);
+		}
+		catch (final IOException e)
+		{
+			closeQuietly(channel);
+			throw new UncheckedIOException("Cost matrix file could not be opened: " + file, e);
+		}
+		catch (final RuntimeException e)
+		{
+			closeQuietly(channel);
+			throw e;
+		}
+	}
+
+	@Override
+	public Double getCostBetweeen(final CityPair cityPair)
+	{
+		Preconditions.checkNotNull(cityPair, "City pair should be provided");
+
+		final int row = indexOf(cityPair.getCity1());
+		final int column = indexOf(cityPair.getCity2());
+		if (row < 0 || column < 0)
+		{
+			return null;
+		}
+		final float cost = getCost(row, column);
+		return Float.isNaN(cost) ? null : (double) cost;
+	}
+
+	@Override
+	public void saveCostBetween(final CityPair cityPair, final Double cost)
+	{
+		Preconditions.checkNotNull(cityPair, "City pair should be provided");
+		Preconditions.checkNotNull(cost, "Cost must bbe provided");
+		Preconditions.checkState(writable, "Cost matrix file is opened read-only");
+
+		final int row = indexOf(cityPair.getCity1());
+		final int column = indexOf(cityPair.getCity2());
+		Preconditions.checkArgument(row >= 0 && column >= 0, "Both cities must be part of the cost matrix file");
+		segments[row / rowsPerSegment].putFloat(offset(row, column), cost.floatValue());
+	}
+
+	@Override
+	public void getRow(final City city, final List<City> cities, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+
+		final int row = indexOf(city);
+		final int[] columns = indexesOf(cities);
+		for (int column = 0; column < columns.length; column++)
+		{
+			costs[column] = row < 0 || columns[column] < 0 ? Double.NaN : getCost(row, columns[column]);
+		}
+	}
+
+	@Override
+	public void getColumn(final List<City> cities, final City city, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+
+		final int column = indexOf(city);
+		final int[] rows = indexesOf(cities);
+		for (int row = 0; row < rows.length; row++)
+		{
+			costs[row] = column < 0 || rows[row] < 0 ? Double.NaN : getCost(rows[row], column);
+		}
+	}
+
+	@Override
+	public double[] getCostMatrix(final List<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+
+		final int[] indexes = indexesOf(cities);
+		final int size = indexes.length;
+		final double[] costs = new double[size * size];
+		for (int row = 0, cell = 0; row < size; row++)
+		{
+			for (int column = 0; column < size; column++, cell++)
+			{
+				costs[cell] = indexes[row] < 0 || indexes[column] < 0 ? Double.NaN : getCost(indexes[row], indexes[column]);
+			}
+		}
+		return costs;
+	}
+
+	@Override
+	public void saveRow(final City city, final List<City> cities, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+		Preconditions.checkState(writable, "Cost matrix file is opened read-only");
+
+		final int row = indexOf(city);
+		final int[] columns = indexesOf(cities);
+		Preconditions.checkArgument(row >= 0 && Arrays.stream(columns).allMatch(c -> c >= 0), "All cities must be part of the cost matrix file");
+		final MappedByteBuffer segment = segments[row / rowsPerSegment];
+		for (int column = 0; column < columns.length; column++)
+		{
+			if (!Double.isNaN(costs[column]))
+			{
+				segment.putFloat(offset(row, columns[column]), (float) costs[column]);
+			}
+		}
+	}
+
+	@Override
+	public void saveCostMatrix(final List<City> cities, final double[] costs)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+		Preconditions.checkArgument(costs != null && costs.length >= cities.size() * cities.size(),
+				"Cost array must hold a full matrix for the given cities");
+		Preconditions.checkState(writable, "Cost matrix file is opened read-only");
+
+		final int[] indexes = indexesOf(cities);
+		Preconditions.checkArgument(Arrays.stream(indexes).allMatch(c -> c >= 0), "All cities must be part of the cost matrix file");
+		final int size = indexes.length;
+		for (int row = 0, cell = 0; row < size; row++)
+		{
+			final MappedByteBuffer segment = segments[indexes[row] / rowsPerSegment];
+			for (int column = 0; column < size; column++, cell++)
+			{
+				if (!Double.isNaN(costs[cell]))
+				{
+					segment.putFloat(offset(indexes[row], indexes[column]), (float) costs[cell]);
+				}
+			}
+		}
+	}
+
+	private int[] indexesOf(final List<City> cities)
+	{
+		final int[] indexes = new int[cities.size()];
+		for (int city = 0; city < indexes.length; city++)
+		{
+			indexes[city] = indexOf(cities.get(city));
+		}
+		return indexes;
+	}
+
+	public int getCityCount()
+	{
+		return cityCount;
+	}
+
+	/**
+	 * @return position of the city in the file or -1 if it is not part of it
+	 */
+	public int indexOf(final City city)
+	{
+		if (isNull(city) || isNull(city.getId()))
+		{
+			return -1;
+		}
+		final int id = city.getId();
+		int low = 0;
+		int high = cityCount - 1;
+		while (low <= high)
+		{
+			final int middle = (low + high) >>> 1;
+			final int middleId = cityIds.getInt(middle * 4);
+			if (middleId < id)
+			{
+				low = middle + 1;
+			}
+			else if (middleId > id)
+			{
+				high = middle - 1;
+			}
+			else
+			{
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	public int getCityId(final int index)
+	{
+		return cityIds.getInt(index * 4);
+	}
+
+	/**
+	 * @return cost by file position, NaN if missing
+	 */
+	public float getCost(final int row, final int column)
+	{
+		return segments[row / rowsPerSegment].getFloat(offset(row, column));
+	}
+
+	/**
+	 * Flushes written costs to the file.
+	 */
+	public void force()
+	{
+		for (final MappedByteBuffer segment : segments)
+		{
+			segment.force();
+		}
+	}
+
+	private int offset(final int row, final int column)
+	{
+		return ((row % rowsPerSegment) * cityCount + column) * 4;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (writable)
+		{
+			force();
+		}
+		channel.close();
+	}
+
+	private static void closeQuietly(final FileChannel channel)
+	{
+		if (nonNull(channel))
+		{
+			try
+			{
+				channel.close();
+			}
+			catch (final IOException e)
+			{
+				// the original failure is more relevant
+			}
+		}
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static org.ark.math.commivoyager.repository.CostRepository.checkBulkArguments;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.ark.math.commivoyager.repository.CityRepository;
+import org.ark.math.commivoyager.repository.CostRepository;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Computes costs from city coordinates on demand instead of storing them, so memory stays O(n) however many cities
+ * are routed. Cities without coordinates are looked up by id in the optional city repository; a city without a
+ * position has no costs (NaN / null). Costs are read-only: saving them is not supported.
+ * <p>
+ * {@link org.ark.math.commivoyager.algorithm.OptimizationStrategy} does not load an n^2 matrix from this repository
+ * but computes the costs on demand, see {@link org.ark.math.commivoyager.algorithm.matrix.MetricCostMatrix}.
+ */
+public class MetricCostRepository implements CostRepository
+{
+	public static final double EARTH_RADIUS_METERS = 6371008.8;
+
+	public enum Metric
+	{
+		/**
+		 * Straight line distance in coordinate units.
+		 */
+		EUCLIDEAN,
+
+		/**
+		 * Great circle distance in meters between geographic coordinates.
+		 */
+		HAVERSINE
+	}
+
+	private final Metric metric;
+	private final CityRepository cityRepository;
+
+	public MetricCostRepository(final Metric metric)
+	{
+		this(metric, null);
+	}
+
+	public MetricCostRepository(final Metric metric, final CityRepository cityRepository)
+	{
+		Preconditions.checkNotNull(metric, "Metric must be provided");
+		this.metric = metric;
+		this.cityRepository = cityRepository;
+	}
+
+	public Metric getMetric()
+	{
+		return metric;
+	}
+
+	/**
+	 * @return the cities with their coordinates, taken from the city repository where a city has none of its own; null
+	 *         if one of them has no position at all
+	 */
+	public List<City> withCoordinates(final List<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+
+		final List<City> located = new ArrayList<>(cities.size());
+		for (final City city : cities)
+		{
+			if (city.getCoordinates() != null)
+			{
+				located.add(city);
+				continue;
+			}
+			final City storedCity = cityRepository == null ? null : cityRepository.getCity(city.getId());
+			if (storedCity == null || storedCity.getCoordinates() == null)
+			{
+				return null;
+			}
+			located.add(new City(city.getId(), city.getName(), storedCity.getCoordinates()));
+		}
+		return located;
+	}
+
+	@Override
+	public Double getCostBetweeen(final CityPair cityPair)
+	{
+		final double cost = getCost(cityPair.getCity1(), cityPair.getCity2());
+		return Double.isNaN(cost) ? null : cost;
+	}
+
+	/**
+	 * @return the distance or NaN if one of the cities has no coordinates
+	 */
+	public double getCost(final City city1, final City city2)
+	{
+		final Coordinates from = coordinatesOf(city1);
+		final Coordinates to = coordinatesOf(city2);
+		if (from == null || to == null)
+		{
+			return Double.NaN;
+		}
+		if (metric == Metric.EUCLIDEAN)
+		{
+			return Math.hypot(from.getX() - to.getX(), from.getY() - to.getY());
+		}
+		final double fromLatitude = Math.toRadians(from.getLatitude());
+		final double toLatitude = Math.toRadians(to.getLatitude());
+		return haversine(fromLatitude, Math.toRadians(from.getLongitude()), Math.cos(fromLatitude), toLatitude,
+				Math.toRadians(to.getLongitude()), Math.cos(toLatitude));
+	}
+
+	@Override
+	public void saveCostBetween(final CityPair cityPair, final Double cost)
+	{
+		throw new UnsupportedOperationException("Costs are computed from coordinates and cannot be saved");
+	}
+
+	@Override
+	public void getRow(final City city, final List<City> cities, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+
+		final Positions positions = new Positions(cities);
+		final Positions origin = new Positions(city);
+		for (int column = 0; column < cities.size(); column++)
+		{
+			costs[column] = distance(origin, 0, positions, column);
+		}
+	}
+
+	@Override
+	public void getColumn(final List<City> cities, final City city, final double[] costs)
+	{
+		checkBulkArguments(city, cities, costs);
+
+		final Positions positions = new Positions(cities);
+		final Positions target = new Positions(city);
+		for (int row = 0; row < cities.size(); row++)
+		{
+			costs[row] = distance(positions, row, target, 0);
+		}
+	}
+
+	@Override
+	public double[] getCostMatrix(final List<City> cities)
+	{
+		Preconditions.checkNotNull(cities, "Cities must be provided");
+
+		final int size = cities.size();
+		final Positions positions = new Positions(cities);
+		final double[] costs = new double[size * size];
+		for (int row = 0, cell = 0; row < size; row++)
+		{
+			for (int column = 0; column < size; column++, cell++)
+			{
+				costs[cell] = distance(positions, row, positions, column);
+			}
+		}
+		return costs;
+	}
+
+	@Override
+	public void saveRow(final City city, final List<City> cities, final double[] costs)
+	{
+		throw new UnsupportedOperationException("Costs are computed from coordinates and cannot be saved");
+	}
+
+	@Override
+	public void saveCostMatrix(final List<City> cities, final double[] costs)
+	{
+		throw new UnsupportedOperationException("Costs are computed from coordinates and cannot be saved");
+	}
+
+	private Coordinates coordinatesOf(final City city)
+	{
+		if (city.getCoordinates() != null || cityRepository == null)
+		{
+			return city.getCoordinates();
+		}
+		final City storedCity = cityRepository.getCity(city.getId());
+		return storedCity == null ? null : storedCity.getCoordinates();
+	}
+
+	private double distance(final Positions from, final int fromIndex, final Positions to, final int toIndex)
+	{
+		if (!from.present[fromIndex] || !to.present[toIndex])
+		{
+			return Double.NaN;
+		}
+		if (metric == Metric.EUCLIDEAN)
+		{
+			return Math.hypot(from.x[fromIndex] - to.x[toIndex], from.y[fromIndex] - to.y[toIndex]);
+		}
+		return haversine(from.y[fromIndex], from.x[fromIndex], from.cosLatitude[fromIndex], to.y[toIndex], to.x[toIndex],
+				to.cosLatitude[toIndex]);
+	}
+
+	/**
+	 * Great circle distance in meters; latitudes and longitudes in radians.
+	 */
+	public static double haversine(final double fromLatitude, final double fromLongitude, final double fromCosLatitude,
+			final double toLatitude, final double toLongitude, final double toCosLatitude)
+	{
+		final double sinLatitude = Math.sin((toLatitude - fromLatitude) / 2);
+		final double sinLongitude = Math.sin((toLongitude - fromLongitude) / 2);
+		final double a = sinLatitude * sinLatitude + fromCosLatitude * toCosLatitude * sinLongitude * sinLongitude;
+		return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	/**
+	 * Coordinates of a city list unpacked into primitive arrays once per bulk call, in radians for the haversine metric.
+	 */
+	private final class Positions
+	{
+		private final double[] x;
+		private final double[] y;
+		private final double[] cosLatitude;
+		private final boolean[] present;
+
+		private Positions(final City city)
+		{
+			this(Arrays.asList(city));
+		}
+
+		private Positions(final List<City> cities)
+		{
+			final int size = cities.size();
+			this.x = new double[size];
+			this.y = new double[size];
+			this.cosLatitude = metric == Metric.HAVERSINE ? new double[size] : null;
+			this.present = new boolean[size];
+			for (int index = 0; index < size; index++)
+			{
+				final Coordinates coordinates = coordinatesOf(cities.get(index));
+				if (coordinates == null)
+				{
+					continue;
+				}
+				present[index] = true;
+				if (metric == Metric.HAVERSINE)
+				{
+					x[index] = Math.toRadians(coordinates.getLongitude());
+					y[index] = Math.toRadians(coordinates.getLatitude());
+					cosLatitude[index] = Math.cos(y[index]);
+				}
+				else
+				{
+					x[index] = coordinates.getX();
+					y[index] = coordinates.getY();
+				}
+			}
+		}
+	}
+}
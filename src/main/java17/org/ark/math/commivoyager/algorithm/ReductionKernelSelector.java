@@ -0,0 +1,37 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+/**
+ * Java 17 version of the kernel selection: the Vector API kernels when {@code jdk.incubator.vector} was added to the
+ * boot layer, the scalar loops otherwise. The vector class is not touched before the module check, so a missing
+ * module never surfaces as a linkage error.
+ */
+final class ReductionKernelSelector
+{
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+	static final ReductionKernels PREFERRED = select();
+
+	private ReductionKernelSelector()
+	{
+	}
+
+	private static ReductionKernels select()
+	{
+		if (Boolean.getBoolean(ReductionKernels.SCALAR_PROPERTY) || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty())
+		{
+			return ScalarReductionKernels.INSTANCE;
+		}
+		return VectorReductionKernels.create();
+	}
+}
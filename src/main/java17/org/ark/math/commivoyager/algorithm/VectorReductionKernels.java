@@ -0,0 +1,211 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels on the preferred {@link LongVector} shape. Positions of minimums are tracked in {@code long} lanes as well, so
+ * one comparison mask drives costs and positions. Each loop finishes the tail that does not fill a whole vector with
+ * the scalar code.
+ */
+final class VectorReductionKernels extends ReductionKernels
+{
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+	private static final int LANES = SPECIES.length();
+	// 0, 1, 2, ... : the column of every lane relative to the start of the vector
+	private static final LongVector LANE_INDEXES = LongVector.zero(SPECIES).addIndex(1);
+
+	private VectorReductionKernels()
+	{
+	}
+
+	/**
+	 * @return the vector kernels, or the scalar ones where a {@code long} vector has a single lane
+	 */
+	static ReductionKernels create()
+	{
+		return LANES < 2 ? ScalarReductionKernels.INSTANCE : new VectorReductionKernels();
+	}
+
+	@Override
+	public long minimum(final long[] cells, final int from, final int to)
+	{
+		final int upper = from + SPECIES.loopBound(to - from);
+		LongVector minimums = LongVector.broadcast(SPECIES, INFINITY);
+		int cell = from;
+		for (; cell < upper; cell += LANES)
+		{
+			minimums = minimums.min(LongVector.fromArray(SPECIES, cells, cell));
+		}
+		long minimum = minimums.reduceLanes(VectorOperators.MIN);
+		for (; cell < to; cell++)
+		{
+			minimum = Math.min(minimum, cells[cell]);
+		}
+		return minimum;
+	}
+
+	@Override
+	public void subtract(final long[] cells, final int from, final int to, final long amount)
+	{
+		final int upper = from + SPECIES.loopBound(to - from);
+		int cell = from;
+		for (; cell < upper; cell += LANES)
+		{
+			final LongVector costs = LongVector.fromArray(SPECIES, cells, cell);
+			costs.sub(amount, costs.compare(VectorOperators.NE, INFINITY)).intoArray(cells, cell);
+		}
+		ScalarReductionKernels.INSTANCE.subtract(cells, cell, to, amount);
+	}
+
+	@Override
+	public void columnMinimums(final long[] cells, final int offset, final long[] minimums)
+	{
+		final int upper = SPECIES.loopBound(minimums.length);
+		int column = 0;
+		for (; column < upper; column += LANES)
+		{
+			LongVector.fromArray(SPECIES, minimums, column).min(LongVector.fromArray(SPECIES, cells, offset + column))
+					.intoArray(minimums, column);
+		}
+		for (; column < minimums.length; column++)
+		{
+			minimums[column] = Math.min(minimums[column], cells[offset + column]);
+		}
+	}
+
+	@Override
+	public void subtractColumns(final long[] cells, final int offset, final long[] amounts)
+	{
+		final int upper = SPECIES.loopBound(amounts.length);
+		int column = 0;
+		for (; column < upper; column += LANES)
+		{
+			final LongVector costs = LongVector.fromArray(SPECIES, cells, offset + column);
+			costs.sub(LongVector.fromArray(SPECIES, amounts, column), costs.compare(VectorOperators.NE, INFINITY))
+					.intoArray(cells, offset + column);
+		}
+		for (; column < amounts.length; column++)
+		{
+			if (cells[offset + column] != INFINITY)
+			{
+				cells[offset + column] -= amounts[column];
+			}
+		}
+	}
+
+	/**
+	 * Columns are independent lanes. The row is folded per lane first, and the lanes are merged afterwards: the
+	 * smallest lane minimum wins, the lowest column on ties, and every other lane minimum competes for second place.
+	 */
+	@Override
+	public void twoSmallest(final long[] cells, final int row, final int size, final long[] rowFirst, final long[] rowSecond,
+			final long[] rowFirstColumn, final long[] columnFirst, final long[] columnSecond, final long[] columnFirstRow)
+	{
+		final int offset = row * size;
+		final int upper = SPECIES.loopBound(size);
+		LongVector laneFirst = LongVector.broadcast(SPECIES, INFINITY);
+		LongVector laneSecond = laneFirst;
+		LongVector laneFirstColumn = laneFirst;
+		int column = 0;
+		for (; column < upper; column += LANES)
+		{
+			final LongVector costs = LongVector.fromArray(SPECIES, cells, offset + column);
+
+			final VectorMask<Long> rowSmaller = costs.compare(VectorOperators.LT, laneFirst);
+			laneSecond = laneSecond.min(laneFirst.max(costs));
+			laneFirst = laneFirst.min(costs);
+			laneFirstColumn = laneFirstColumn.blend(LANE_INDEXES.add(column), rowSmaller);
+
+			final LongVector first = LongVector.fromArray(SPECIES, columnFirst, column);
+			final VectorMask<Long> columnSmaller = costs.compare(VectorOperators.LT, first);
+			LongVector.fromArray(SPECIES, columnSecond, column).min(first.max(costs)).intoArray(columnSecond, column);
+			first.min(costs).intoArray(columnFirst, column);
+			LongVector.fromArray(SPECIES, columnFirstRow, column).blend(row, columnSmaller).intoArray(columnFirstRow, column);
+		}
+
+		long first = rowFirst[row];
+		long second = rowSecond[row];
+		long firstColumn = rowFirstColumn[row];
+		final long vectorFirst = laneFirst.reduceLanes(VectorOperators.MIN);
+		if (vectorFirst != INFINITY)
+		{
+			final VectorMask<Long> firstLanes = laneFirst.eq(vectorFirst);
+			final long vectorFirstColumn = laneFirstColumn.reduceLanes(VectorOperators.MIN, firstLanes);
+			final long vectorSecond = Math.min(laneSecond.reduceLanes(VectorOperators.MIN),
+					laneFirst.reduceLanes(VectorOperators.MIN, laneFirstColumn.eq(vectorFirstColumn).not()));
+			if (vectorFirst < first || vectorFirst == first && vectorFirstColumn < firstColumn)
+			{
+				second = Math.min(first, vectorSecond);
+				first = vectorFirst;
+				firstColumn = vectorFirstColumn;
+			}
+			else
+			{
+				second = Math.min(second, vectorFirst);
+			}
+		}
+		for (; column < size; column++)
+		{
+			final long cost = cells[offset + column];
+			if (cost == INFINITY)
+			{
+				continue;
+			}
+			if (cost < first)
+			{
+				second = first;
+				first = cost;
+				firstColumn = column;
+			}
+			else if (cost < second)
+			{
+				second = cost;
+			}
+			if (cost < columnFirst[column])
+			{
+				columnSecond[column] = columnFirst[column];
+				columnFirst[column] = cost;
+				columnFirstRow[column] = row;
+			}
+			else if (cost < columnSecond[column])
+			{
+				columnSecond[column] = cost;
+			}
+		}
+		rowFirst[row] = first;
+		rowSecond[row] = second;
+		rowFirstColumn[row] = firstColumn;
+	}
+
+	@Override
+	public int indexOfZero(final long[] cells, final int from, final int to)
+	{
+		final int upper = from + SPECIES.loopBound(to - from);
+		int cell = from;
+		for (; cell < upper; cell += LANES)
+		{
+			final VectorMask<Long> zeros = LongVector.fromArray(SPECIES, cells, cell).eq(0);
+			if (zeros.anyTrue())
+			{
+				return cell + zeros.firstTrue();
+			}
+		}
+		return ScalarReductionKernels.INSTANCE.indexOfZero(cells, cell, to);
+	}
+}
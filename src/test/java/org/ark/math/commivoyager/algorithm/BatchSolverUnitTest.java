@@ -0,0 +1,129 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy.DISTANCE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ark.math.commivoyager.algorithm.BatchSolver.RouteProblem;
+import org.ark.math.commivoyager.algorithm.BatchSolver.RouteResult;
+import org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.junit.Test;
+
+public class BatchSolverUnitTest
+{
+	private final OptimizationStrategy optimizationStrategy = new OptimizationStrategy();
+
+	@Test
+	public void testSolveAllKeepsInputOrder() throws InterruptedException
+	{
+		final List<RouteProblem> problems = new ArrayList<>();
+		final List<List<City>> expectedRoutes = new ArrayList<>();
+		for (int seed = 0; seed < 40; seed++)
+		{
+			final Set<CityPair> cityPairs = RouteTestData.toCityPairs(RouteTestData.randomMatrix(5 + seed % 15, seed, false));
+			final City startCity = new City(1 + seed % 5, "");
+			problems.add(RouteProblem.ofCityPairs(cityPairs, startCity, DISTANCE));
+			expectedRoutes.add(optimizationStrategy.optimize(cityPairs, startCity, DISTANCE));
+		}
+		final AtomicInteger completed = new AtomicInteger();
+		final BatchResult batchResult;
+		try (BatchSolver batchSolver = new BatchSolver(optimizationStrategy, 4))
+		{
+			batchResult = batchSolver.solveAll(problems, result -> completed.incrementAndGet());
+		}
+
+		assertThat(completed.get()).isEqualTo(problems.size());
+		assertThat(batchResult.getFailedCount()).isZero();
+		assertThat(batchResult.getThroughput()).isPositive();
+		for (int problem = 0; problem < problems.size(); problem++)
+		{
+			final RouteResult result = batchResult.getResults().get(problem);
+			assertThat(result.getProblem()).isSameAs(problems.get(problem));
+			assertThat(result.getRoute()).isEqualTo(expectedRoutes.get(problem));
+		}
+	}
+
+	@Test
+	public void testSolveAllReportsFailuresPerProblem() throws InterruptedException
+	{
+		final List<RouteProblem> problems = new ArrayList<>();
+		problems.add(RouteProblem.ofCityPairs(RouteTestData.toCityPairs(RouteTestData.randomMatrix(6, 1, true)), new City(1, ""), DISTANCE));
+		problems.add(RouteProblem.ofCityPairs(Collections.emptySet(), new City(1, ""), DISTANCE));
+		final BatchResult batchResult;
+		try (BatchSolver batchSolver = new BatchSolver(optimizationStrategy, 2))
+		{
+			batchResult = batchSolver.solveAll(problems);
+		}
+
+		assertThat(batchResult.getFailedCount()).isEqualTo(1);
+		assertThat(batchResult.getResults().get(0).getRoute()).hasSize(6);
+		assertThat(batchResult.getResults().get(1).isSuccessful()).isFalse();
+		assertThat(batchResult.getResults().get(1).getError()).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testSolveAllBoundsProblemsInFlight() throws InterruptedException
+	{
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maximumRunning = new AtomicInteger();
+		final OptimizationStrategy countingStrategy = new OptimizationStrategy()
+		{
+			@Override
+			public List<City> optimize(final Set<CityPair> seedRoute, final City startCity, final OptimizeBy optimizeBy)
+			{
+				maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try
+				{
+					Thread.sleep(2);
+					return super.optimize(seedRoute, startCity, optimizeBy);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+				finally
+				{
+					running.decrementAndGet();
+				}
+			}
+		};
+		final List<RouteProblem> problems = new ArrayList<>();
+		for (int seed = 0; seed < 30; seed++)
+		{
+			problems.add(RouteProblem.ofCityPairs(RouteTestData.toCityPairs(RouteTestData.randomMatrix(5, seed, true)), new City(1, ""), DISTANCE));
+		}
+		final ExecutorService executorService = Executors.newCachedThreadPool();
+		try
+		{
+			final BatchResult batchResult = new BatchSolver(countingStrategy, executorService, 3).solveAll(problems);
+
+			assertThat(batchResult.getFailedCount()).isZero();
+			assertThat(maximumRunning.get()).isBetween(1, 3);
+		}
+		finally
+		{
+			executorService.shutdown();
+		}
+	}
+}
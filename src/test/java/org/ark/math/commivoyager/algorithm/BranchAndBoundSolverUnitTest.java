@@ -0,0 +1,131 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.assertClosedTour;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.optimalTourCost;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.junit.Test;
+
+public class BranchAndBoundSolverUnitTest
+{
+	private final BranchAndBoundSolver branchAndBoundSolver = new BranchAndBoundSolver();
+
+	@Test
+	public void testSearchFindsOptimalTour()
+	{
+		for (int seed = 0; seed < 24; seed++)
+		{
+			final DenseCostMatrix matrix = randomMatrix(4 + seed % 6, seed, seed % 2 == 0);
+			final SearchResult result = branchAndBoundSolver.search(matrix);
+
+			assertClosedTour(result.getSuccessors());
+			assertThat(result.getCost()).isEqualTo(tourCost(matrix, result.getSuccessors()));
+			assertThat(result.getCost()).isEqualTo(optimalTourCost(matrix));
+			assertThat(result.isOptimal()).isTrue();
+		}
+	}
+
+	@Test
+	public void testSearchIsNotWorseThanReduction()
+	{
+		final DenseCostMatrix matrix = randomMatrix(30, 3, false);
+		final SearchResult result = branchAndBoundSolver.search(matrix);
+
+		assertClosedTour(result.getSuccessors());
+		assertThat(result.getCost()).isLessThanOrEqualTo(tourCost(matrix, new ReductionEngine().solve(matrix)));
+		assertThat(result.getExpandedNodes()).isPositive();
+		assertThat(result.getCreatedNodes()).isPositive();
+	}
+
+	@Test
+	public void testSearchStopsAtNodeLimit()
+	{
+		branchAndBoundSolver.setNodeLimit(1);
+		final SearchResult result = branchAndBoundSolver.search(randomMatrix(40, 11, true));
+
+		assertClosedTour(result.getSuccessors());
+		assertThat(result.getExpandedNodes()).isEqualTo(1);
+		assertThat(result.getLowerBound()).isLessThanOrEqualTo(result.getCost());
+	}
+
+	@Test
+	public void testSearchPublishesImprovedIncumbents()
+	{
+		final DenseCostMatrix matrix = randomMatrix(14, 8, false);
+		final List<Long> incumbentCosts = new ArrayList<>();
+		final SearchControl searchControl = new SearchControl();
+		searchControl.setIncumbentListener((successors, cost) -> {
+			assertClosedTour(successors);
+			assertThat(tourCost(matrix, successors)).isEqualTo(cost);
+			incumbentCosts.add(cost);
+		});
+		final SearchResult result = branchAndBoundSolver.search(matrix, searchControl);
+
+		assertThat(incumbentCosts).isNotEmpty().isSortedAccordingTo((first, second) -> Long.compare(second, first));
+		assertThat(incumbentCosts.get(incumbentCosts.size() - 1)).isEqualTo(result.getCost());
+		assertThat(result.getGap()).isZero();
+	}
+
+	@Test
+	public void testCancelledSearchReturnsInitialTour()
+	{
+		final DenseCostMatrix matrix = randomMatrix(30, 6, true);
+		final int[] initialTour = new int[30];
+		for (int city = 0; city < initialTour.length; city++)
+		{
+			initialTour[city] = (city + 1) % initialTour.length;
+		}
+		final SearchControl searchControl = new SearchControl();
+		searchControl.setInitialTour(initialTour);
+		searchControl.cancel();
+		final SearchResult result = branchAndBoundSolver.search(matrix, searchControl);
+
+		assertThat(result.getSuccessors()).containsExactly(initialTour);
+		assertThat(result.getExpandedNodes()).isZero();
+		assertThat(result.getLowerBound()).isPositive().isLessThan(result.getCost());
+		assertThat(result.getGap()).isBetween(0.0, 1.0);
+	}
+
+	@Test
+	public void testSearchStopsOnceBoundProvesIncumbent()
+	{
+		final DenseCostMatrix matrix = randomMatrix(14, 3, false);
+		final long optimalCost = tourCost(matrix, new HeldKarpSolver().solve(matrix));
+		final SearchControl searchControl = new SearchControl();
+		searchControl.setLowerBound(optimalCost);
+		final SearchResult result = branchAndBoundSolver.search(matrix, searchControl);
+
+		assertThat(result.getCost()).isEqualTo(optimalCost);
+		assertThat(result.isOptimal()).isTrue();
+		assertThat(result.getExpandedNodes()).isLessThan(branchAndBoundSolver.search(matrix).getExpandedNodes());
+	}
+
+	@Test
+	public void testSearchStopsAtTargetGap()
+	{
+		final DenseCostMatrix matrix = randomMatrix(40, 8, false);
+		final SearchControl searchControl = new SearchControl();
+		searchControl.setTargetGap(0.5);
+		final SearchResult result = branchAndBoundSolver.search(matrix, searchControl);
+
+		assertThat(result.getGap()).isLessThanOrEqualTo(0.5);
+		assertThat(result.getExpandedNodes()).isLessThan(branchAndBoundSolver.search(matrix).getExpandedNodes());
+	}
+}
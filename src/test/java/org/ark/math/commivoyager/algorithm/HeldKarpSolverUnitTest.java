@@ -0,0 +1,95 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.assertClosedTour;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.cities;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.optimalTourCost;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.junit.Test;
+
+public class HeldKarpSolverUnitTest
+{
+	private final HeldKarpSolver heldKarpSolver = new HeldKarpSolver();
+
+	@Test
+	public void testSolveFindsOptimalTour()
+	{
+		for (int seed = 0; seed < 20; seed++)
+		{
+			final DenseCostMatrix matrix = randomMatrix(1 + seed % 9, seed, seed % 2 == 0);
+			final int[] successors = heldKarpSolver.solve(matrix);
+
+			assertClosedTour(successors);
+			if (matrix.size() > 1)
+			{
+				assertThat(tourCost(matrix, successors)).isEqualTo(optimalTourCost(matrix));
+			}
+		}
+	}
+
+	@Test
+	public void testParallelFillMatchesBranchAndBound()
+	{
+		final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+		try
+		{
+			heldKarpSolver.setForkJoinPool(forkJoinPool);
+			for (int seed = 0; seed < 3; seed++)
+			{
+				final DenseCostMatrix matrix = randomMatrix(15, seed, seed == 0);
+				final int[] successors = heldKarpSolver.solve(matrix);
+
+				assertClosedTour(successors);
+				assertThat(tourCost(matrix, successors)).isEqualTo(new BranchAndBoundSolver().search(matrix).getCost());
+			}
+		}
+		finally
+		{
+			forkJoinPool.shutdown();
+		}
+	}
+
+	@Test
+	public void testSolveFallsBackForCostsBeyondInt()
+	{
+		final DenseCostMatrix matrix = randomMatrix(6, 4, false);
+		matrix.setCost(0, 1, Integer.MAX_VALUE + 10L);
+		final int[] successors = heldKarpSolver.solve(matrix);
+
+		assertClosedTour(successors);
+		assertThat(tourCost(matrix, successors)).isEqualTo(optimalTourCost(matrix));
+	}
+
+	@Test(expected = InconsistentRouteException.class)
+	public void testSolveRejectsMatrixWithoutTour()
+	{
+		final DenseCostMatrix matrix = new DenseCostMatrix(cities(4));
+		matrix.setCost(0, 1, 1);
+		matrix.setCost(1, 2, 1);
+		matrix.setCost(2, 3, 1);
+		heldKarpSolver.solve(matrix);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSolveRejectsTooManyCities()
+	{
+		heldKarpSolver.solve(new DenseCostMatrix(cities(HeldKarpSolver.MAX_CITIES + 1)));
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.repository.impl.InMemoryDistanceRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncrementalTourUnitTest
+{
+	private static final int CITIES = 40;
+
+	private final InMemoryDistanceRepository repository = new InMemoryDistanceRepository();
+	private final List<City> cities = RouteTestData.cities(CITIES);
+
+	@Before
+	public void setUp()
+	{
+		final DenseCostMatrix matrix = RouteTestData.randomMatrix(CITIES, 9, false);
+		final double[] costs = RouteTestData.toCostArray(matrix);
+		repository.saveCostMatrix(cities, costs);
+	}
+
+	@Test
+	public void testInsertReportsCostDelta()
+	{
+		final IncrementalTour tour = new IncrementalTour(repository, cities.subList(0, 20));
+		for (final City city : cities.subList(20, CITIES))
+		{
+			final double before = tour.getCost();
+			final double delta = tour.insert(city);
+
+			assertThat(tour.getCost()).isCloseTo(before + delta, within(1e-6));
+			assertThat(tour.getCost()).isCloseTo(routeCost(tour.getRoute()), within(1e-6));
+		}
+		assertThat(tour.getRoute()).hasSize(CITIES).containsOnlyElementsOf(cities);
+		assertThat(tour.getRoute().get(0)).isEqualTo(cities.get(0));
+	}
+
+	@Test
+	public void testRepairNeverMakesInsertionWorse()
+	{
+		final IncrementalTour tour = new IncrementalTour(repository, cities.subList(0, 20));
+		int repairs = 0;
+		for (final City city : cities.subList(20, CITIES))
+		{
+			final IncrementalTour unrepaired = new IncrementalTour(repository, tour.getRoute());
+			unrepaired.setRepairWindow(0);
+			final double unrepairedDelta = unrepaired.insert(city);
+			final double delta = tour.insert(city);
+
+			assertThat(delta).isLessThanOrEqualTo(unrepairedDelta + 1e-6);
+			repairs += delta < unrepairedDelta - 1e-6 ? 1 : 0;
+		}
+		assertThat(repairs).isPositive();
+		assertThat(tour.getCost()).isCloseTo(routeCost(tour.getRoute()), within(1e-6));
+	}
+
+	@Test
+	public void testRemoveReportsCostDelta()
+	{
+		final IncrementalTour tour = new IncrementalTour(repository, cities);
+		for (int city = 0; city < CITIES; city += 3)
+		{
+			final double before = tour.getCost();
+			final double delta = tour.remove(cities.get(city));
+
+			assertThat(tour.getCost()).isCloseTo(before + delta, within(1e-6));
+			assertThat(tour.getCost()).isCloseTo(routeCost(tour.getRoute()), within(1e-6));
+		}
+		assertThat(tour.getRoute()).doesNotContain(cities.get(0)).hasSize(CITIES - 14);
+	}
+
+	@Test
+	public void testGrowFromEmptyRoute()
+	{
+		final IncrementalTour tour = new IncrementalTour(repository, new ArrayList<>());
+		for (final City city : cities.subList(0, 5))
+		{
+			tour.insert(city);
+		}
+		assertThat(tour.size()).isEqualTo(5);
+		assertThat(tour.getCost()).isCloseTo(routeCost(tour.getRoute()), within(1e-6));
+
+		for (final City city : cities.subList(0, 5))
+		{
+			tour.remove(city);
+		}
+		assertThat(tour.size()).isZero();
+		assertThat(tour.getCost()).isCloseTo(0, within(1e-6));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInsertRejectsCityOnRoute()
+	{
+		new IncrementalTour(repository, cities).insert(cities.get(3));
+	}
+
+	private double routeCost(final List<City> route)
+	{
+		double cost = 0;
+		for (int position = 0; route.size() > 1 && position < route.size(); position++)
+		{
+			cost += repository.getCost(route.get(position), route.get((position + 1) % route.size()));
+		}
+		return cost;
+	}
+}
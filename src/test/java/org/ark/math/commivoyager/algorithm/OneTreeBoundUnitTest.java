@@ -0,0 +1,82 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.cities;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.optimalTourCost;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.planarMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.ark.math.commivoyager.algorithm.heuristic.LinKernighanSolver;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.junit.Test;
+
+public class OneTreeBoundUnitTest
+{
+	@Test
+	public void testBoundNeverExceedsOptimum()
+	{
+		for (int seed = 0; seed < 30; seed++)
+		{
+			final DenseCostMatrix matrix = randomMatrix(2 + seed % 8, seed, seed % 2 == 0);
+
+			assertThat(new OneTreeBound(matrix).compute()).as("seed %s", seed).isLessThanOrEqualTo(optimalTourCost(matrix));
+		}
+	}
+
+	@Test
+	public void testBoundIsTightOnPlanarCities()
+	{
+		final DenseCostMatrix matrix = planarMatrix(200, 11);
+		final long tourCost = tourCost(matrix, new LinKernighanSolver().solve(matrix));
+		final OneTreeBound oneTreeBound = new OneTreeBound(matrix);
+		oneTreeBound.setUpperBound(tourCost);
+		final long lowerBound = oneTreeBound.compute();
+
+		assertThat(lowerBound).isLessThanOrEqualTo(tourCost).isGreaterThan(tourCost * 97 / 100);
+		assertThat(lowerBound).isGreaterThan(new ReductionMatrix(matrix).reduce());
+	}
+
+	@Test
+	public void testStoppedControlEndsIterationsEarly()
+	{
+		final DenseCostMatrix matrix = planarMatrix(200, 12);
+		final long fullBound = new OneTreeBound(matrix).compute();
+		final OneTreeBound running = new OneTreeBound(matrix);
+		running.setSearchControl(new SearchControl());
+		final SearchControl cancelled = new SearchControl();
+		cancelled.cancel();
+		final OneTreeBound stopped = new OneTreeBound(matrix);
+		stopped.setSearchControl(cancelled);
+
+		assertThat(running.compute()).isEqualTo(fullBound);
+		assertThat(stopped.compute()).isZero();
+	}
+
+	@Test
+	public void testUnreachableCityHasNoBound()
+	{
+		final DenseCostMatrix matrix = new DenseCostMatrix(cities(5));
+		for (int row = 0; row < 4; row++)
+		{
+			for (int column = 0; column < 4; column++)
+			{
+				matrix.setCost(row, column, 1);
+			}
+		}
+
+		assertThat(new OneTreeBound(matrix).compute()).isEqualTo(CostMatrix.INFINITY);
+	}
+}
@@ -16,6 +16,8 @@ import static java.util.stream.Collectors.toSet;
 import static org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy.DISTANCE;
 import static org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy.DISTANCE_SYMMETRICAL;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.HashSet;
 import java.util.List;
@@ -23,10 +25,15 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.QuantizedCostMatrix;
 import org.ark.math.commivoyager.model.City;
 import org.ark.math.commivoyager.model.CityPair;
 import org.ark.math.commivoyager.repository.CostRepository;
+import org.ark.math.commivoyager.repository.impl.InMemoryDistanceRepository;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -164,6 +171,128 @@ public class OptimizationStrategyUnitTest
 		dumpRoute(route);
 	}
 	
+	@Test
+	public void testOptimizeCitiesFromRepository()
+	{
+		final List<City> cityList = RouteTestData.cities(5);
+		final DenseCostMatrix matrix = RouteTestData.randomMatrix(5, 3, false);
+		final double[] costs = RouteTestData.toCostArray(matrix);
+		when(costRepository.getCostMatrix(cityList)).thenReturn(costs);
+
+		final List<City> route = optimizationStrategy.optimize(cityList, cityList.get(2), DISTANCE);
+		assertThat(route).hasSize(5).containsOnlyElementsOf(cityList);
+		assertThat(route.get(0)).isEqualTo(cityList.get(2));
+		verify(costRepository).getCostMatrix(cityList);
+	}
+
+	@Test
+	public void testOptimizeAsyncPublishesRoutesUntilTimeout() throws Exception
+	{
+		final List<City> cityList = RouteTestData.cities(40);
+		final DenseCostMatrix matrix = RouteTestData.randomMatrix(40, 5, false);
+		final double[] costs = RouteTestData.toCostArray(matrix);
+		when(costRepository.getCostMatrix(cityList)).thenReturn(costs);
+		final List<List<City>> publishedRoutes = new CopyOnWriteArrayList<>();
+
+		final AnytimeRoute result = optimizationStrategy.optimizeAsync(cityList, cityList.get(0), DISTANCE, 200,
+				TimeUnit.MILLISECONDS, publishedRoutes::add).get(10, TimeUnit.SECONDS);
+
+		assertThat(publishedRoutes).isNotEmpty();
+		assertThat(publishedRoutes.get(publishedRoutes.size() - 1)).isEqualTo(result.getRoute());
+		assertThat(result.getRoute()).hasSize(40).containsOnlyElementsOf(cityList);
+		assertThat(result.getLowerBound()).isLessThanOrEqualTo(result.getCost());
+		assertThat(result.getGap()).isBetween(0.0, 1.0);
+	}
+
+	@Test
+	public void testOptimizeBoundedCarriesQuantizationScale()
+	{
+		final List<City> cityList = RouteTestData.cities(30);
+		final DenseCostMatrix matrix = RouteTestData.randomMatrix(30, 5, true);
+		final InMemoryDistanceRepository repository = new InMemoryDistanceRepository();
+		repository.saveCostMatrix(cityList, RouteTestData.toCostArray(matrix));
+		optimizationStrategy.setCostRepository(repository);
+		optimizationStrategy.setQuantization(QuantizedCostMatrix.Width.UINT16, 10);
+
+		final AnytimeRoute result = optimizationStrategy.optimizeBounded(cityList, cityList.get(0), DISTANCE);
+
+		assertThat(result.getScale()).isEqualTo(10.0);
+		assertThat(result.getMaxError()).isPositive().isLessThanOrEqualTo(5.0);
+		assertThat(result.getOriginalCost()).isEqualTo(result.getCost() * 10.0);
+		long originalCost = 0;
+		final List<City> route = result.getRoute();
+		for (int i = 0; i < route.size(); i++)
+		{
+			originalCost += matrix.getCost(matrix.indexOf(route.get(i)), matrix.indexOf(route.get((i + 1) % route.size())));
+		}
+		assertThat(Math.abs(result.getOriginalCost() - originalCost)).isLessThanOrEqualTo(result.getErrorBound());
+		assertThat(result.getOriginalLowerBound()).isLessThanOrEqualTo(originalCost);
+	}
+
+	@Test
+	public void testOptimizeBoundedWithoutQuantizationKeepsCosts()
+	{
+		final List<City> cityList = RouteTestData.cities(30);
+		final InMemoryDistanceRepository repository = new InMemoryDistanceRepository();
+		repository.saveCostMatrix(cityList, RouteTestData.toCostArray(RouteTestData.randomMatrix(30, 6, true)));
+		optimizationStrategy.setCostRepository(repository);
+
+		final AnytimeRoute result = optimizationStrategy.optimizeBounded(cityList, cityList.get(0), DISTANCE);
+
+		assertThat(result.getScale()).isEqualTo(1.0);
+		assertThat(result.getErrorBound()).isZero();
+		assertThat(result.getOriginalCost()).isEqualTo(result.getCost());
+		assertThat(result.getOriginalLowerBound()).isEqualTo(result.getLowerBound());
+	}
+
+	@Test
+	public void testOptimizeAsyncReturnsLocalSearchTourOnceBudgetIsSpent() throws Exception
+	{
+		final List<City> cityList = RouteTestData.cities(300);
+		final DenseCostMatrix matrix = RouteTestData.randomMatrix(300, 6, false);
+		final double[] costs = RouteTestData.toCostArray(matrix);
+		when(costRepository.getCostMatrix(cityList)).thenReturn(costs);
+		final List<List<City>> publishedRoutes = new CopyOnWriteArrayList<>();
+
+		final AnytimeRoute result = optimizationStrategy.optimizeAsync(cityList, cityList.get(0), DISTANCE, 0,
+				TimeUnit.MILLISECONDS, publishedRoutes::add).get(10, TimeUnit.SECONDS);
+
+		assertThat(result.getRoute()).hasSize(300).containsOnlyElementsOf(cityList);
+		assertThat(publishedRoutes).hasSize(1);
+		assertThat(publishedRoutes.get(0)).isEqualTo(result.getRoute());
+		assertThat(result.getLowerBound()).isLessThanOrEqualTo(result.getCost());
+	}
+
+	@Test
+	public void testOptimizeBoundedReportsGap()
+	{
+		final List<City> cityList = RouteTestData.cities(30);
+		final DenseCostMatrix matrix = RouteTestData.randomMatrix(30, 4, true);
+		// the symmetrical mode loads the upper triangle row by row
+		final InMemoryDistanceRepository repository = new InMemoryDistanceRepository();
+		repository.saveCostMatrix(cityList, RouteTestData.toCostArray(matrix));
+		optimizationStrategy.setCostRepository(repository);
+
+		final AnytimeRoute result = optimizationStrategy.optimizeBounded(cityList, cityList.get(0), DISTANCE_SYMMETRICAL);
+
+		assertThat(result.getRoute()).hasSize(30).containsOnlyElementsOf(cityList);
+		assertThat(result.getLowerBound()).isPositive().isLessThanOrEqualTo(result.getCost());
+		assertThat(result.getLowerBound()).isGreaterThanOrEqualTo(new ReductionMatrix(matrix).reduce());
+		assertThat(result.getGap()).isBetween(0.0, 1.0);
+	}
+
+	@Test
+	public void testSelectRouteSolverUsesExactSolverUpToThreshold()
+	{
+		optimizationStrategy.setExactSolverThreshold(5);
+
+		assertThat(optimizationStrategy.selectRouteSolver(5)).isInstanceOf(HeldKarpSolver.class);
+		assertThat(optimizationStrategy.selectRouteSolver(6)).isInstanceOf(ReductionEngine.class);
+
+		optimizationStrategy.setExactSolverThreshold(0);
+		assertThat(optimizationStrategy.selectRouteSolver(2)).isInstanceOf(ReductionEngine.class);
+	}
+	
 	private Set<CityPair> getPermutations(final Set<City> cities)
 	{
 		final Set<CityPair> cityPairs = new HashSet<>();
@@ -0,0 +1,95 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.assertClosedTour;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelBranchAndBoundSolverUnitTest
+{
+	private final ParallelBranchAndBoundSolver parallelSolver = new ParallelBranchAndBoundSolver();
+	private final BranchAndBoundSolver sequentialSolver = new BranchAndBoundSolver();
+
+	@Before
+	public void setUp()
+	{
+		parallelSolver.setParallelism(4);
+	}
+
+	@After
+	public void tearDown()
+	{
+		parallelSolver.shutdown();
+	}
+
+	@Test
+	public void testSearchMatchesSequentialCost()
+	{
+		for (int seed = 0; seed < 12; seed++)
+		{
+			final DenseCostMatrix matrix = randomMatrix(8 + seed, seed, seed % 2 == 0);
+			final SearchResult parallelResult = parallelSolver.search(matrix);
+			final SearchResult sequentialResult = sequentialSolver.search(matrix);
+
+			assertClosedTour(parallelResult.getSuccessors());
+			assertThat(parallelResult.getCost()).isEqualTo(tourCost(matrix, parallelResult.getSuccessors()));
+			assertThat(parallelResult.getCost()).isEqualTo(sequentialResult.getCost());
+			assertThat(parallelResult.isOptimal()).isTrue();
+		}
+	}
+
+	@Test
+	public void testSearchIsDeterministicInCost()
+	{
+		final DenseCostMatrix matrix = randomMatrix(25, 5, false);
+		final long cost = parallelSolver.search(matrix).getCost();
+		for (int run = 0; run < 5; run++)
+		{
+			assertThat(parallelSolver.search(matrix).getCost()).isEqualTo(cost);
+		}
+	}
+
+	@Test
+	public void testSearchStopsAtNodeLimit()
+	{
+		parallelSolver.setNodeLimit(10);
+		final SearchResult result = parallelSolver.search(randomMatrix(40, 11, true));
+
+		assertClosedTour(result.getSuccessors());
+		assertThat(result.getLowerBound()).isLessThanOrEqualTo(result.getCost());
+	}
+
+	@Test
+	public void testSearchStopsAtTimeout()
+	{
+		final AtomicLong bestCost = new AtomicLong(Long.MAX_VALUE);
+		final SearchControl searchControl = new SearchControl();
+		searchControl.setTimeout(50, TimeUnit.MILLISECONDS);
+		searchControl.setIncumbentListener((successors, cost) -> bestCost.accumulateAndGet(cost, Math::min));
+		final SearchResult result = parallelSolver.search(randomMatrix(60, 13, false), searchControl);
+
+		assertClosedTour(result.getSuccessors());
+		assertThat(result.getCost()).isEqualTo(bestCost.get());
+		assertThat(result.getLowerBound()).isLessThanOrEqualTo(result.getCost());
+		assertThat(result.getElapsedNanos()).isLessThan(TimeUnit.SECONDS.toNanos(5));
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.assertClosedTour;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.junit.Test;
+
+public class ReductionEngineUnitTest
+{
+	private final ReductionEngine reductionEngine = new ReductionEngine();
+
+	@Test
+	public void testReduce()
+	{
+		final DenseCostMatrix costMatrix = new DenseCostMatrix(RouteTestData.cities(3));
+		costMatrix.setCost(0, 1, 5);
+		costMatrix.setCost(0, 2, 7);
+		costMatrix.setCost(1, 0, 3);
+		costMatrix.setCost(1, 2, 9);
+		costMatrix.setCost(2, 0, 4);
+		costMatrix.setCost(2, 1, 6);
+
+		final ReductionMatrix matrix = new ReductionMatrix(costMatrix);
+		// rows: 5 + 3 + 4, columns afterwards: 0 + 0 + 2
+		assertThat(matrix.reduce()).isEqualTo(14);
+		assertThat(matrix.getLowerBound()).isEqualTo(14);
+		assertThat(matrix.getCell(0, 1)).isEqualTo(0);
+		assertThat(matrix.getCell(1, 2)).isEqualTo(4);
+		assertThat(matrix.getCell(0, 0)).isEqualTo(INFINITY);
+	}
+
+	@Test
+	public void testIncludeForbidsSubtour()
+	{
+		final ReductionMatrix matrix = new ReductionMatrix(randomMatrix(5, 1, false));
+		matrix.include(0, 1);
+		matrix.include(1, 2);
+		assertThat(matrix.getCell(2, 0)).isEqualTo(INFINITY);
+		assertThat(matrix.getCell(1, 0)).isEqualTo(INFINITY);
+		assertThat(matrix.getCell(2, 3)).isNotEqualTo(INFINITY);
+	}
+
+	@Test
+	public void testSolveProducesClosedTour()
+	{
+		for (int seed = 0; seed < 20; seed++)
+		{
+			final int[] successors = reductionEngine.solve(randomMatrix(3 + seed, seed, seed % 2 == 0));
+			assertThat(successors).hasSize(3 + seed);
+			assertClosedTour(successors);
+		}
+	}
+
+	@Test
+	public void testSolveLargeMatrix()
+	{
+		final int[] successors = reductionEngine.solve(randomMatrix(400, 7, false));
+		assertClosedTour(successors);
+	}
+
+	@Test(expected = InconsistentRouteException.class)
+	public void testSolveDisconnectedMatrix()
+	{
+		final DenseCostMatrix costMatrix = new DenseCostMatrix(RouteTestData.cities(3));
+		costMatrix.setCost(0, 1, 1);
+		costMatrix.setCost(1, 0, 1);
+		reductionEngine.solve(costMatrix);
+	}
+}
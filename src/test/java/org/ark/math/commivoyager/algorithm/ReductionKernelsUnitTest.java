@@ -0,0 +1,130 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the preferred kernels against the scalar ones; on a java 17 build the preferred ones are the vector kernels.
+ */
+public class ReductionKernelsUnitTest
+{
+	private final ReductionKernels preferred = ReductionKernels.preferred();
+	private final ReductionKernels scalar = ReductionKernels.scalar();
+
+	@Test
+	public void testRowKernelsMatchScalar()
+	{
+		for (final int size : new int[] { 1, 3, 8, 13, 37 })
+		{
+			final long[] cells = randomCells(size, size);
+			final long[] expected = cells.clone();
+			for (int from = 0; from <= size; from += 3)
+			{
+				assertThat(preferred.minimum(cells, from, size)).isEqualTo(scalar.minimum(cells, from, size));
+				assertThat(preferred.indexOfZero(cells, from, size)).isEqualTo(scalar.indexOfZero(cells, from, size));
+			}
+			preferred.subtract(cells, 1, size, 1);
+			scalar.subtract(expected, 1, size, 1);
+			assertThat(cells).containsExactly(expected);
+		}
+	}
+
+	@Test
+	public void testColumnKernelsMatchScalar()
+	{
+		final int size = 21;
+		final long[] cells = randomCells(size, size * size);
+		final long[] minimums = new long[size];
+		final long[] expectedMinimums = new long[size];
+		Arrays.fill(minimums, INFINITY);
+		Arrays.fill(expectedMinimums, INFINITY);
+		for (int row = 0; row < size; row++)
+		{
+			preferred.columnMinimums(cells, row * size, minimums);
+			scalar.columnMinimums(cells, row * size, expectedMinimums);
+		}
+		assertThat(minimums).containsExactly(expectedMinimums);
+
+		final long[] expected = cells.clone();
+		preferred.subtractColumns(cells, 2 * size, minimums);
+		scalar.subtractColumns(expected, 2 * size, minimums);
+		assertThat(cells).containsExactly(expected);
+	}
+
+	@Test
+	public void testTwoSmallestMatchesScalar()
+	{
+		final int size = 19;
+		final long[] cells = randomCells(size, size * size);
+		final long[][] actual = twoSmallest(preferred, cells, size);
+		final long[][] expected = twoSmallest(scalar, cells, size);
+		for (int array = 0; array < expected.length; array++)
+		{
+			assertThat(actual[array]).as("array %s", array).containsExactly(expected[array]);
+		}
+	}
+
+	@Test
+	public void testReductionMatchesScalar()
+	{
+		final ReductionMatrix matrix = new ReductionMatrix(randomMatrix(23, 6, false));
+		final ReductionMatrix scalarMatrix = new ReductionMatrix(randomMatrix(23, 6, false), scalar);
+		for (int step = 0; step < 20; step++)
+		{
+			assertThat(matrix.reduce()).isEqualTo(scalarMatrix.reduce());
+			final int cell = matrix.selectBranchingCell();
+			assertThat(cell).isEqualTo(scalarMatrix.selectBranchingCell());
+			matrix.include(cell / 23, cell % 23);
+			scalarMatrix.include(cell / 23, cell % 23);
+		}
+		assertThat(matrix.getLowerBound()).isEqualTo(scalarMatrix.getLowerBound());
+	}
+
+	// small values so that zeros and ties are frequent, with blanked cells in between
+	private static long[] randomCells(final long seed, final int length)
+	{
+		final Random rnd = new Random(seed);
+		final long[] cells = new long[length];
+		for (int cell = 0; cell < length; cell++)
+		{
+			cells[cell] = rnd.nextInt(5) == 0 ? INFINITY : rnd.nextInt(6);
+		}
+		return cells;
+	}
+
+	private static long[][] twoSmallest(final ReductionKernels kernels, final long[] cells, final int size)
+	{
+		final long[] rowFirst = new long[size];
+		final long[] rowSecond = new long[size];
+		final long[] rowFirstColumn = new long[size];
+		final long[] columnFirst = new long[size];
+		final long[] columnSecond = new long[size];
+		final long[] columnFirstRow = new long[size];
+		Arrays.fill(rowFirst, INFINITY);
+		Arrays.fill(rowSecond, INFINITY);
+		Arrays.fill(columnFirst, INFINITY);
+		Arrays.fill(columnSecond, INFINITY);
+		for (int row = 0; row < size; row++)
+		{
+			kernels.twoSmallest(cells, row, size, rowFirst, rowSecond, rowFirstColumn, columnFirst, columnSecond, columnFirstRow);
+		}
+		return new long[][] { rowFirst, rowSecond, rowFirstColumn, columnFirst, columnSecond, columnFirstRow };
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy.DISTANCE;
+import static org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy.DISTANCE_SYMMETRICAL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy;
+import org.ark.math.commivoyager.model.City;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RouteCacheUnitTest
+{
+	@Mock
+	private OptimizationStrategy optimizationStrategy;
+
+	private RouteCache routeCache;
+	private final List<City> cities = RouteTestData.cities(4);
+	private final List<City> solvedRoute = Arrays.asList(cities.get(0), cities.get(2), cities.get(1), cities.get(3));
+
+	@Before
+	public void setUp()
+	{
+		routeCache = new RouteCache(optimizationStrategy, 10);
+		when(optimizationStrategy.optimize(anyListOf(City.class), any(City.class), any(OptimizeBy.class))).thenReturn(solvedRoute);
+	}
+
+	@Test
+	public void testSameCitySetIsServedFromCache()
+	{
+		final List<City> shuffledCities = Arrays.asList(cities.get(3), cities.get(1), cities.get(0), cities.get(2));
+
+		assertThat(routeCache.optimize(cities, cities.get(0), DISTANCE, 1)).isEqualTo(solvedRoute);
+		assertThat(routeCache.optimize(shuffledCities, cities.get(0), DISTANCE, 1)).isEqualTo(solvedRoute);
+
+		verify(optimizationStrategy, times(1)).optimize(cities, cities.get(0), DISTANCE);
+		assertThat(routeCache.getStats().hitCount()).isEqualTo(1);
+		assertThat(routeCache.getStats().missCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCachedRouteIsRotatedToStartCity()
+	{
+		routeCache.optimize(cities, cities.get(0), DISTANCE, 1);
+		final List<City> route = routeCache.optimize(cities, cities.get(1), DISTANCE, 1);
+
+		assertThat(route).containsExactly(cities.get(1), cities.get(3), cities.get(0), cities.get(2));
+		assertThat(routeCache.getStats().missCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testVersionAndModeArePartOfTheKey()
+	{
+		routeCache.optimize(cities, cities.get(0), DISTANCE, 1);
+		routeCache.optimize(cities, cities.get(0), DISTANCE, 2);
+		routeCache.optimize(cities, cities.get(0), DISTANCE_SYMMETRICAL, 2);
+
+		assertThat(routeCache.getStats().missCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedRouteIsEvicted()
+	{
+		// weight 10 holds two tours of four cities
+		routeCache.optimize(cities, cities.get(0), DISTANCE, 1);
+		routeCache.optimize(cities, cities.get(0), DISTANCE, 2);
+		routeCache.optimize(cities, cities.get(0), DISTANCE, 1);
+		routeCache.optimize(cities, cities.get(0), DISTANCE, 3);
+
+		assertThat(routeCache.size()).isEqualTo(2);
+		routeCache.optimize(cities, cities.get(0), DISTANCE, 1);
+		assertThat(routeCache.getStats().hitCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testConcurrentRequestsAreCoalesced() throws Exception
+	{
+		final CountDownLatch solving = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		when(optimizationStrategy.optimize(cities, cities.get(0), DISTANCE)).thenAnswer(invocation -> {
+			solving.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return solvedRoute;
+		});
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			final Future<List<City>> first = executor.submit(() -> routeCache.optimize(cities, cities.get(0), DISTANCE, 1));
+			solving.await(5, TimeUnit.SECONDS);
+			final Future<List<City>> second = executor.submit(() -> routeCache.optimize(cities, cities.get(0), DISTANCE, 1));
+			Thread.sleep(50);
+			release.countDown();
+
+			assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(solvedRoute);
+			assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(solvedRoute);
+			verify(optimizationStrategy, times(1)).optimize(cities, cities.get(0), DISTANCE);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testUnknownStartCity()
+	{
+		assertThat(routeCache.optimize(cities, cities.get(0), DISTANCE, 1)).isNotEmpty();
+		assertThat(routeCache.optimize(cities, new City(99, ""), DISTANCE, 1)).isEmpty();
+	}
+
+	@Test
+	public void testUnknownStartCityDoesNotPoisonCache()
+	{
+		assertThat(routeCache.optimize(cities, new City(99, ""), DISTANCE, 1)).isEmpty();
+
+		assertThat(routeCache.optimize(cities, cities.get(1), DISTANCE, 1)).containsExactly(cities.get(1), cities.get(3),
+				cities.get(0), cities.get(2));
+		verify(optimizationStrategy, times(1)).optimize(cities, cities.get(0), DISTANCE);
+	}
+
+	@Test
+	public void testShortRouteIsNotCached()
+	{
+		when(optimizationStrategy.optimize(cities, cities.get(0), DISTANCE)).thenReturn(Collections.<City> emptyList())
+				.thenReturn(solvedRoute);
+
+		try
+		{
+			routeCache.optimize(cities, cities.get(0), DISTANCE, 1);
+			fail("Short route must be rejected");
+		}
+		catch (final IllegalStateException e)
+		{
+			assertThat(e).hasMessageContaining("0 of 4");
+		}
+		assertThat(routeCache.optimize(cities, cities.get(0), DISTANCE, 1)).isEqualTo(solvedRoute);
+	}
+}
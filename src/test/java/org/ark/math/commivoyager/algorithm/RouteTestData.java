@@ -0,0 +1,178 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.model.Coordinates;
+
+public final class RouteTestData
+{
+	private RouteTestData()
+	{
+	}
+
+	public static List<City> cities(final int size)
+	{
+		final List<City> cities = new ArrayList<>(size);
+		for (int id = 1; id <= size; id++)
+		{
+			cities.add(new City(id, "city" + id));
+		}
+		return cities;
+	}
+
+	/**
+	 * Cities at random points of a 10000 by 10000 plane with rounded Euclidean costs. The cities carry their
+	 * coordinates, so candidate lists over the matrix come from a k-d tree.
+	 */
+	public static DenseCostMatrix planarMatrix(final int size, final long seed)
+	{
+		final Random rnd = new Random(seed);
+		final double[] x = new double[size];
+		final double[] y = new double[size];
+		final List<City> cities = new ArrayList<>(size);
+		for (int city = 0; city < size; city++)
+		{
+			x[city] = rnd.nextDouble() * 10000;
+			y[city] = rnd.nextDouble() * 10000;
+			cities.add(new City(city + 1, "city" + (city + 1), Coordinates.planar(x[city], y[city])));
+		}
+		final DenseCostMatrix matrix = new DenseCostMatrix(cities);
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = 0; column < size; column++)
+			{
+				matrix.setCost(row, column, Math.round(Math.hypot(x[row] - x[column], y[row] - y[column])));
+			}
+		}
+		return matrix;
+	}
+
+	public static DenseCostMatrix randomMatrix(final int size, final long seed, final boolean symmetrical)
+	{
+		final Random rnd = new Random(seed);
+		final DenseCostMatrix matrix = new DenseCostMatrix(cities(size));
+		for (int row = 0; row < size; row++)
+		{
+			for (int column = symmetrical ? row + 1 : 0; column < size; column++)
+			{
+				if (row != column)
+				{
+					final long cost = 1 + rnd.nextInt(10000);
+					matrix.setCost(row, column, cost);
+					if (symmetrical)
+					{
+						matrix.setCost(column, row, cost);
+					}
+				}
+			}
+		}
+		return matrix;
+	}
+
+	public static Set<CityPair> toCityPairs(final CostMatrix matrix)
+	{
+		final Set<CityPair> cityPairs = new HashSet<>();
+		for (int row = 0; row < matrix.size(); row++)
+		{
+			for (int column = 0; column < matrix.size(); column++)
+			{
+				if (row != column)
+				{
+					cityPairs.add(new CityPair(matrix.getCity(row), matrix.getCity(column), matrix.getCost(row, column)));
+				}
+			}
+		}
+		return cityPairs;
+	}
+
+	/**
+	 * @return row-major costs as returned by {@link org.ark.math.commivoyager.repository.CostRepository#getCostMatrix(List)},
+	 *         NaN on the diagonal
+	 */
+	public static double[] toCostArray(final CostMatrix matrix)
+	{
+		final int size = matrix.size();
+		final double[] costs = new double[size * size];
+		for (int cell = 0; cell < costs.length; cell++)
+		{
+			costs[cell] = cell / size == cell % size ? Double.NaN : matrix.getCost(cell / size, cell % size);
+		}
+		return costs;
+	}
+
+	public static long tourCost(final CostMatrix matrix, final int[] successors)
+	{
+		long cost = 0;
+		for (int city = 0; city < successors.length; city++)
+		{
+			cost += matrix.getCost(city, successors[city]);
+		}
+		return cost;
+	}
+
+	public static void assertClosedTour(final int[] successors)
+	{
+		final boolean[] visited = new boolean[successors.length];
+		int city = 0;
+		for (int step = 0; step < successors.length; step++)
+		{
+			assertThat(visited[city]).as("city %s visited twice", city).isFalse();
+			visited[city] = true;
+			city = successors[city];
+		}
+		assertThat(city).isEqualTo(0);
+	}
+
+	// exhaustive search, only usable for a handful of cities
+	public static long optimalTourCost(final CostMatrix matrix)
+	{
+		final int size = matrix.size();
+		final int[] path = new int[size];
+		final boolean[] used = new boolean[size];
+		used[0] = true;
+		return optimalTourCost(matrix, path, used, 1, 0);
+	}
+
+	private static long optimalTourCost(final CostMatrix matrix, final int[] path, final boolean[] used, final int depth,
+			final long cost)
+	{
+		final int size = matrix.size();
+		if (depth == size)
+		{
+			return cost + matrix.getCost(path[size - 1], 0);
+		}
+		long best = Long.MAX_VALUE;
+		for (int city = 1; city < size; city++)
+		{
+			if (!used[city])
+			{
+				used[city] = true;
+				path[depth] = city;
+				best = Math.min(best, optimalTourCost(matrix, path, used, depth + 1, cost + matrix.getCost(path[depth - 1], city)));
+				used[city] = false;
+			}
+		}
+		return best;
+	}
+}
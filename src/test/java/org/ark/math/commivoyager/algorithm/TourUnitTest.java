@@ -0,0 +1,132 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.cities;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.ark.math.commivoyager.InconsistentRouteException;
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.ark.math.commivoyager.model.City;
+import org.junit.Test;
+
+public class TourUnitTest
+{
+	@Test
+	public void testNavigation()
+	{
+		final Tour tour = Tour.fromOrder(new int[] { 2, 0, 3, 1, 4 });
+
+		assertThat(tour.next(2)).isEqualTo(0);
+		assertThat(tour.next(4)).isEqualTo(2);
+		assertThat(tour.previous(2)).isEqualTo(4);
+		assertThat(tour.position(3)).isEqualTo(2);
+		assertThat(tour.cityAt(3)).isEqualTo(1);
+		assertThat(tour.between(0, 3, 4)).isTrue();
+		assertThat(tour.between(4, 0, 3)).isTrue();
+		assertThat(tour.between(3, 0, 4)).isFalse();
+		assertThat(tour.toSuccessors()).containsExactly(3, 4, 0, 1, 2);
+	}
+
+	@Test
+	public void testReverseAcrossTheEndAndUndo()
+	{
+		final Tour tour = Tour.fromOrder(new int[] { 0, 1, 2, 3, 4, 5 });
+		tour.reverse(4, 1);
+
+		assertThat(tour.getOrder()).containsExactly(5, 4, 2, 3, 1, 0);
+		for (int city = 0; city < 6; city++)
+		{
+			assertThat(tour.cityAt(tour.position(city))).isEqualTo(city);
+		}
+
+		tour.reverse(1, 4);
+		assertThat(tour.getOrder()).containsExactly(0, 1, 2, 3, 4, 5);
+	}
+
+	@Test
+	public void testSubtoursAreDetected()
+	{
+		assertThat(Tour.countSubtours(new int[] { 1, 2, 0, 4, 3 })).isEqualTo(2);
+		assertThat(Tour.countSubtours(new int[] { 1, 2, 3, 4, 0 })).isEqualTo(1);
+	}
+
+	@Test(expected = InconsistentRouteException.class)
+	public void testFromSuccessorsRejectsSubtours()
+	{
+		Tour.fromSuccessors(new int[] { 1, 0, 3, 2 });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFromOrderRejectsRepeatedCity()
+	{
+		Tour.fromOrder(new int[] { 0, 1, 1 });
+	}
+
+	@Test
+	public void testRouteStartsAtStartCity()
+	{
+		final DenseCostMatrix matrix = randomMatrix(5, 1, false);
+		final int[] successors = { 3, 4, 0, 1, 2 };
+		final Tour tour = Tour.fromSuccessors(successors);
+		final List<City> route = tour.toRoute(matrix, matrix.getCity(1));
+
+		assertThat(route).extracting(City::getId).containsExactly(2, 5, 3, 1, 4);
+		assertThat(tour.getCost(matrix)).isEqualTo(tourCost(matrix, successors));
+		assertThat(tour.toRoute(matrix, new City(99, "elsewhere"))).isEmpty();
+	}
+
+	@Test
+	public void testLongRouteIsBuiltWithoutRecursion()
+	{
+		final int size = 200000;
+		final int[] order = new int[size];
+		for (int position = 0; position < size; position++)
+		{
+			order[position] = size - 1 - position;
+		}
+		final List<City> cities = cities(size);
+		final CostMatrix matrix = new CostMatrix()
+		{
+			@Override
+			public int size()
+			{
+				return size;
+			}
+
+			@Override
+			public long getCost(final int row, final int column)
+			{
+				return 1;
+			}
+
+			@Override
+			public City getCity(final int index)
+			{
+				return cities.get(index);
+			}
+
+			@Override
+			public int indexOf(final City city)
+			{
+				return city.getId() - 1;
+			}
+		};
+
+		assertThat(Tour.fromSuccessors(Tour.fromOrder(order).toSuccessors()).toRoute(matrix, matrix.getCity(0))).hasSize(size);
+	}
+}
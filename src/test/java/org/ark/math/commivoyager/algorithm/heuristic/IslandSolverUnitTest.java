@@ -0,0 +1,144 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.assertClosedTour;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.optimalTourCost;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.ark.math.commivoyager.model.City;
+import org.junit.Test;
+
+public class IslandSolverUnitTest
+{
+	private final IslandSolver islandSolver = new IslandSolver();
+
+	@Test
+	public void testSolveReturnsClosedTour()
+	{
+		islandSolver.setIslands(2);
+		islandSolver.setEpochs(3);
+		for (final IslandSolver.Method method : IslandSolver.Method.values())
+		{
+			islandSolver.setMethod(method);
+			for (int seed = 0; seed < 16; seed++)
+			{
+				final DenseCostMatrix matrix = randomMatrix(1 + seed, seed, seed % 2 == 0);
+				final int[] successors = islandSolver.solve(matrix);
+
+				assertClosedTour(successors);
+				if (matrix.size() > 1 && matrix.size() <= 8)
+				{
+					assertThat(tourCost(matrix, successors)).isGreaterThanOrEqualTo(optimalTourCost(matrix));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSeededRunsAreReproducible()
+	{
+		final DenseCostMatrix matrix = randomMatrix(200, 4, false);
+		islandSolver.setIslands(3);
+		islandSolver.setEpochs(4);
+		islandSolver.setSeed(42);
+		for (final IslandSolver.Method method : IslandSolver.Method.values())
+		{
+			islandSolver.setMethod(method);
+
+			assertThat(islandSolver.solveOrder(matrix)).as("%s", method).isEqualTo(islandSolver.solveOrder(matrix));
+		}
+	}
+
+	@Test
+	public void testSolveImprovesLocalSearch()
+	{
+		final DenseCostMatrix matrix = randomMatrix(300, 5, false);
+		final long localSearchCost = tourCost(matrix, new LocalSearchSolver().solve(matrix));
+		islandSolver.setIslands(2);
+
+		islandSolver.setMethod(IslandSolver.Method.ANNEALING);
+		assertThat(tourCost(matrix, islandSolver.solve(matrix))).isLessThan(localSearchCost);
+		islandSolver.setMethod(IslandSolver.Method.GENETIC);
+		islandSolver.setEpochs(4);
+		assertThat(tourCost(matrix, islandSolver.solve(matrix))).isLessThanOrEqualTo(localSearchCost);
+	}
+
+	@Test
+	public void testTimeLimitStopsAtNextMigration()
+	{
+		islandSolver.setIslands(2);
+		islandSolver.setEpochs(Integer.MAX_VALUE);
+		islandSolver.setMigrationInterval(1000);
+		islandSolver.setTimeLimitMillis(50);
+		final int[] successors = islandSolver.solve(randomMatrix(100, 2, false));
+
+		assertClosedTour(successors);
+	}
+
+	@Test(timeout = 10000)
+	public void testFailingIslandPropagatesAndReleasesTheOthers()
+	{
+		final DenseCostMatrix matrix = randomMatrix(100, 3, false);
+		final CostMatrix failingMatrix = new CostMatrix()
+		{
+			@Override
+			public int size()
+			{
+				return matrix.size();
+			}
+
+			@Override
+			public long getCost(final int row, final int column)
+			{
+				if ("island-1".equals(Thread.currentThread().getName()))
+				{
+					throw new IllegalStateException("Cost store unavailable");
+				}
+				return matrix.getCost(row, column);
+			}
+
+			@Override
+			public City getCity(final int index)
+			{
+				return matrix.getCity(index);
+			}
+
+			@Override
+			public int indexOf(final City city)
+			{
+				return matrix.indexOf(city);
+			}
+		};
+		islandSolver.setIslands(3);
+		islandSolver.setEpochs(Integer.MAX_VALUE);
+
+		for (final IslandSolver.Method method : IslandSolver.Method.values())
+		{
+			islandSolver.setMethod(method);
+			try
+			{
+				islandSolver.solve(failingMatrix);
+				fail("Island failure must propagate");
+			}
+			catch (final IllegalStateException e)
+			{
+				assertThat(e).hasMessage("Cost store unavailable");
+			}
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.ark.math.commivoyager.algorithm.RouteTestData;
+import org.ark.math.commivoyager.algorithm.Tour;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.ark.math.commivoyager.repository.impl.InMemoryDistanceRepository;
+import org.ark.math.commivoyager.repository.impl.MetricCostRepository;
+import org.ark.math.commivoyager.repository.impl.MetricCostRepository.Metric;
+import org.junit.Test;
+
+public class KdTreeUnitTest
+{
+	@Test
+	public void testNearestMatchesBruteForceOnPlane()
+	{
+		final List<City> cities = planarCities(500, 3);
+		// duplicates and collinear points stress the median splits
+		cities.add(new City(1000, "", cities.get(0).getCoordinates()));
+		cities.add(new City(1001, "", Coordinates.planar(5, 0)));
+		cities.add(new City(1002, "", Coordinates.planar(6, 0)));
+		assertNearest(cities, new MetricCostRepository(Metric.EUCLIDEAN), 8);
+	}
+
+	@Test
+	public void testNearestMatchesBruteForceOnGlobe()
+	{
+		final Random rnd = new Random(5);
+		final List<City> cities = new ArrayList<>();
+		for (int id = 0; id < 400; id++)
+		{
+			cities.add(new City(id, "", Coordinates.geographic(rnd.nextDouble() * 180 - 90, rnd.nextDouble() * 360 - 180)));
+		}
+		// neighbours across the antimeridian
+		cities.add(new City(400, "", Coordinates.geographic(10, 179.9)));
+		cities.add(new City(401, "", Coordinates.geographic(10, -179.9)));
+		assertNearest(cities, new MetricCostRepository(Metric.HAVERSINE), 6);
+	}
+
+	@Test
+	public void testNearestWithFewCities()
+	{
+		assertThat(KdTree.of(planarCities(1, 1)).nearest(5)).isEmpty();
+		assertThat(KdTree.of(planarCities(3, 1)).nearest(5)).hasSize(6);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsCitiesWithoutCoordinates()
+	{
+		KdTree.of(RouteTestData.cities(3));
+	}
+
+	@Test
+	public void testSaveCostsStoresOnlyCandidates()
+	{
+		final List<City> cities = planarCities(50, 9);
+		final MetricCostRepository source = new MetricCostRepository(Metric.EUCLIDEAN);
+		final InMemoryDistanceRepository target = new InMemoryDistanceRepository();
+		final CandidateLists candidateLists = CandidateLists.fromCities(cities, 4);
+		candidateLists.saveCosts(cities, source, target);
+
+		final double[] sparse = target.getCostMatrix(cities);
+		assertThat(Arrays.stream(sparse).filter(cost -> !Double.isNaN(cost)).count()).isEqualTo(50 * 4);
+		final int neighbour = candidateLists.get(7, 0);
+		assertThat(sparse[7 * 50 + neighbour]).isEqualTo(source.getCost(cities.get(7), cities.get(neighbour)));
+	}
+
+	@Test
+	public void testLocalSearchUsesSpatialCandidates()
+	{
+		final List<City> cities = planarCities(400, 11);
+		final DenseCostMatrix matrix = DenseCostMatrix.of(cities, new MetricCostRepository(Metric.EUCLIDEAN).getCostMatrix(cities), false);
+		final int[] successors = new LocalSearchSolver().solve(matrix);
+
+		RouteTestData.assertClosedTour(successors);
+		assertThat(RouteTestData.tourCost(matrix, successors))
+				.isLessThan(RouteTestData.tourCost(matrix, Tour.fromOrder(TourConstruction.nearestNeighbour(matrix)).toSuccessors()));
+	}
+
+	@Test
+	public void testCandidatesOfLocatedCitiesComeFromKdTree()
+	{
+		final List<City> cities = planarCities(60, 13);
+		// random costs unrelated to the positions, so the cheapest edges differ from the nearest cities
+		final DenseCostMatrix matrix = DenseCostMatrix.of(cities, RouteTestData.toCostArray(RouteTestData.randomMatrix(60, 13, false)),
+				false);
+
+		final int[] candidates = toArray(CandidateLists.of(matrix, 5));
+
+		assertThat(candidates).containsExactly(toArray(CandidateLists.fromCities(cities, 5)));
+		assertThat(candidates).isNotEqualTo(toArray(CandidateLists.fromMatrix(matrix, 5)));
+	}
+
+	@Test
+	public void testCandidatesWithoutCoordinatesComeFromMatrix()
+	{
+		final List<City> cities = planarCities(60, 13);
+		cities.set(17, new City(17, ""));
+		final DenseCostMatrix matrix = DenseCostMatrix.of(cities, RouteTestData.toCostArray(RouteTestData.randomMatrix(60, 13, false)),
+				false);
+
+		assertThat(toArray(CandidateLists.of(matrix, 5))).containsExactly(toArray(CandidateLists.fromMatrix(matrix, 5)));
+	}
+
+	private static void assertNearest(final List<City> cities, final MetricCostRepository metric, final int k)
+	{
+		final int[] nearest = KdTree.of(cities).nearest(k);
+		final int size = cities.size();
+		for (int city = 0; city < size; city++)
+		{
+			final double[] costs = new double[size];
+			metric.getRow(cities.get(city), cities, costs);
+			costs[city] = Double.POSITIVE_INFINITY;
+			final double[] expected = costs.clone();
+			Arrays.sort(expected);
+			for (int rank = 0; rank < k; rank++)
+			{
+				assertThat(costs[nearest[city * k + rank]]).as("city %s rank %s", city, rank).isCloseTo(expected[rank], within(1e-6));
+			}
+		}
+	}
+
+	private static List<City> planarCities(final int size, final long seed)
+	{
+		final Random rnd = new Random(seed);
+		final List<City> cities = new ArrayList<>(size);
+		for (int id = 0; id < size; id++)
+		{
+			cities.add(new City(id, "", Coordinates.planar(rnd.nextInt(1000), rnd.nextInt(1000))));
+		}
+		return cities;
+	}
+
+	private static int[] toArray(final CandidateLists candidateLists)
+	{
+		final int count = candidateLists.getCount();
+		final int[] candidates = new int[candidateLists.size() * count];
+		for (int city = 0; city < candidateLists.size(); city++)
+		{
+			for (int rank = 0; rank < count; rank++)
+			{
+				candidates[city * count + rank] = candidateLists.get(city, rank);
+			}
+		}
+		return candidates;
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.assertClosedTour;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.optimalTourCost;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.planarMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.ark.math.commivoyager.algorithm.matrix.CostMatrix;
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.junit.Test;
+
+public class LinKernighanSolverUnitTest
+{
+	private final LinKernighanSolver linKernighanSolver = new LinKernighanSolver();
+
+	@Test
+	public void testSolveReturnsClosedTour()
+	{
+		for (int seed = 0; seed < 24; seed++)
+		{
+			final DenseCostMatrix matrix = randomMatrix(1 + seed, seed, seed % 2 == 0);
+			final int[] successors = linKernighanSolver.solve(matrix);
+
+			assertClosedTour(successors);
+			if (matrix.size() > 1 && matrix.size() <= 8)
+			{
+				assertThat(tourCost(matrix, successors)).isGreaterThanOrEqualTo(optimalTourCost(matrix));
+			}
+		}
+	}
+
+	@Test
+	public void testSolveFindsOptimumOfSmallSymmetricalMatrices()
+	{
+		linKernighanSolver.setCandidates(7);
+		for (int seed = 0; seed < 10; seed++)
+		{
+			final DenseCostMatrix matrix = randomMatrix(8, seed, true);
+
+			assertThat(tourCost(matrix, linKernighanSolver.solve(matrix))).as("seed %s", seed).isEqualTo(optimalTourCost(matrix));
+		}
+	}
+
+	@Test
+	public void testSolveBeatsTwoOptOnPlanarCities()
+	{
+		final CostMatrix matrix = planarMatrix(2000, 3);
+		final LocalSearchSolver localSearchSolver = new LocalSearchSolver();
+
+		final long linKernighanCost = tourCost(matrix, linKernighanSolver.solve(matrix));
+		assertThat(linKernighanCost).isLessThan(tourCost(matrix, localSearchSolver.solve(matrix)));
+	}
+
+	@Test
+	public void testTimeLimitStillReturnsTour()
+	{
+		linKernighanSolver.setTimeLimitMillis(1);
+		final long startTime = System.nanoTime();
+		final int[] successors = linKernighanSolver.solve(planarMatrix(3000, 2));
+
+		assertClosedTour(successors);
+		assertThat(System.nanoTime() - startTime).isLessThan(2000000000L);
+	}
+}
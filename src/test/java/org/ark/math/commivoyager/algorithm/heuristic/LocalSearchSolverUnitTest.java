@@ -0,0 +1,135 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.heuristic;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.assertClosedTour;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.cities;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.optimalTourCost;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.planarMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.ark.math.commivoyager.algorithm.matrix.DenseCostMatrix;
+import org.junit.Test;
+
+public class LocalSearchSolverUnitTest
+{
+	private final LocalSearchSolver localSearchSolver = new LocalSearchSolver();
+
+	@Test
+	public void testSolveReturnsClosedTour()
+	{
+		for (final LocalSearchSolver.Construction construction : LocalSearchSolver.Construction.values())
+		{
+			localSearchSolver.setConstruction(construction);
+			for (int seed = 0; seed < 24; seed++)
+			{
+				final DenseCostMatrix matrix = randomMatrix(1 + seed, seed, seed % 2 == 0);
+				final int[] successors = localSearchSolver.solve(matrix);
+
+				assertClosedTour(successors);
+				if (matrix.size() > 1 && matrix.size() <= 8)
+				{
+					assertThat(tourCost(matrix, successors)).isGreaterThanOrEqualTo(optimalTourCost(matrix));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSolveImprovesConstruction()
+	{
+		final DenseCostMatrix symmetrical = planarMatrix(300, 5);
+		final DenseCostMatrix asymmetrical = randomMatrix(300, 5, false);
+		for (final DenseCostMatrix matrix : new DenseCostMatrix[] { symmetrical, asymmetrical })
+		{
+			final int[] start = TourConstruction.nearestNeighbour(matrix);
+			localSearchSolver.setConstruction(LocalSearchSolver.Construction.NEAREST_NEIGHBOUR);
+
+			assertThat(tourCost(matrix, localSearchSolver.solve(matrix))).isLessThan(tourCost(matrix, toSuccessors(start)));
+		}
+	}
+
+	@Test
+	public void testSymmetricalResultIsTwoOptOptimal()
+	{
+		final DenseCostMatrix matrix = planarMatrix(60, 7);
+		localSearchSolver.setCandidates(matrix.size());
+		final int[] order = localSearchSolver.solveOrder(matrix);
+
+		final int size = order.length;
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = i + 2; j < size; j++)
+			{
+				final long removed = matrix.getCost(order[i], order[i + 1]) + matrix.getCost(order[j], order[(j + 1) % size]);
+				final long added = matrix.getCost(order[i], order[j]) + matrix.getCost(order[i + 1], order[(j + 1) % size]);
+				assertThat(added).as("2-opt move %s %s", i, j).isGreaterThanOrEqualTo(removed);
+			}
+		}
+	}
+
+	@Test
+	public void testSolveCopesWithMissingEdges()
+	{
+		final DenseCostMatrix matrix = new DenseCostMatrix(cities(6));
+		for (int city = 0; city < 6; city++)
+		{
+			matrix.setCost(city, (city + 1) % 6, 10);
+			matrix.setCost(city, (city + 2) % 6, 1);
+		}
+		final int[] successors = localSearchSolver.solve(matrix);
+
+		assertClosedTour(successors);
+	}
+
+	@Test
+	public void testTimeLimitStillReturnsTour()
+	{
+		localSearchSolver.setTimeLimitMillis(1);
+		final int[] successors = localSearchSolver.solve(randomMatrix(400, 2, false));
+
+		assertClosedTour(successors);
+	}
+
+	@Test
+	public void testGreedyEdgeOrdersCostsBeyondKeyRange()
+	{
+		final DenseCostMatrix matrix = planarMatrix(80, 21);
+		// same order of costs, but too large to share a sort key with the edge index
+		final DenseCostMatrix scaled = new DenseCostMatrix(cities(80));
+		for (int row = 0; row < 80; row++)
+		{
+			for (int column = 0; column < 80; column++)
+			{
+				scaled.setCost(row, column, row == column ? 0 : matrix.getCost(row, column) << 48);
+			}
+		}
+		final CandidateLists candidateLists = CandidateLists.fromMatrix(matrix, 6);
+
+		final int[] order = TourConstruction.greedyEdge(matrix, candidateLists);
+
+		assertClosedTour(toSuccessors(order));
+		assertThat(TourConstruction.greedyEdge(scaled, candidateLists)).containsExactly(order);
+	}
+
+	private static int[] toSuccessors(final int[] order)
+	{
+		final int[] successors = new int[order.length];
+		for (int position = 0; position < order.length; position++)
+		{
+			successors[order[position]] = order[(position + 1) % order.length];
+		}
+		return successors;
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.matrix;
+
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.ark.math.commivoyager.algorithm.OptimizationStrategy;
+import org.ark.math.commivoyager.algorithm.OptimizationStrategy.OptimizeBy;
+import org.ark.math.commivoyager.algorithm.heuristic.LocalSearchSolver;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.ark.math.commivoyager.repository.impl.InMemoryCityRepository;
+import org.ark.math.commivoyager.repository.impl.MetricCostRepository;
+import org.ark.math.commivoyager.repository.impl.MetricCostRepository.Metric;
+import org.junit.Test;
+
+public class MetricCostMatrixUnitTest
+{
+	@Test
+	public void testMatchesRepositoryCosts()
+	{
+		final List<City> cities = Arrays.asList(new City(1, "", Coordinates.planar(0, 0)), new City(2, "", Coordinates.planar(3, 4)),
+				new City(3, "", Coordinates.planar(10.4, 0)));
+		final MetricCostRepository repository = new MetricCostRepository(Metric.EUCLIDEAN);
+		final double[] costs = repository.getCostMatrix(cities);
+
+		final MetricCostMatrix matrix = new MetricCostMatrix(cities, Metric.EUCLIDEAN);
+
+		assertThat(matrix.isSymmetric()).isTrue();
+		assertThat(matrix.copyCosts()).containsExactly(DenseCostMatrix.of(cities, costs, false).copyCosts());
+		assertThat(matrix.getCost(0, 1)).isEqualTo(5);
+		assertThat(matrix.getCost(0, 2)).isEqualTo(10);
+		assertThat(matrix.getDistance(0, 2)).isEqualTo(10.4);
+		assertThat(matrix.getCost(2, 2)).isEqualTo(INFINITY);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCityWithoutCoordinatesIsRejected()
+	{
+		new MetricCostMatrix(Arrays.asList(new City(1, "", Coordinates.planar(0, 0)), new City(2, "")), Metric.EUCLIDEAN);
+	}
+
+	@Test
+	public void testOptimizeComputesCostsOnDemand()
+	{
+		final InMemoryCityRepository cityRepository = new InMemoryCityRepository();
+		final List<City> cities = new ArrayList<>();
+		final Random random = new Random(8);
+		for (int id = 1; id <= 400; id++)
+		{
+			// half of the cities are only known with coordinates to the city repository
+			final City located = new City(id, "city" + id, Coordinates.planar(random.nextDouble() * 1000, random.nextDouble() * 1000));
+			cityRepository.saveCity(located);
+			cities.add(id % 2 == 0 ? located : new City(id, "city" + id));
+		}
+		final MetricCostRepository repository = spy(new MetricCostRepository(Metric.EUCLIDEAN, cityRepository));
+		final OptimizationStrategy optimizationStrategy = new OptimizationStrategy();
+		optimizationStrategy.setCostRepository(repository);
+		optimizationStrategy.setRouteSolver(new LocalSearchSolver());
+
+		final List<City> route = optimizationStrategy.optimize(cities, cities.get(0), OptimizeBy.DISTANCE_SYMMETRICAL);
+
+		assertThat(route).hasSize(400).containsOnlyElementsOf(cities);
+		assertThat(route.get(0)).isEqualTo(cities.get(0));
+		verify(repository, never()).getCostMatrix(cities);
+	}
+}
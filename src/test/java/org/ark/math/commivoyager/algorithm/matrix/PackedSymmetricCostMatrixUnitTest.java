@@ -0,0 +1,111 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.matrix;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.cities;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.toCityPairs;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+
+import org.ark.math.commivoyager.algorithm.BranchAndBoundSolver;
+import org.ark.math.commivoyager.algorithm.RouteTestData;
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.repository.impl.InMemoryDistanceRepository;
+import org.junit.Test;
+
+public class PackedSymmetricCostMatrixUnitTest
+{
+	@Test
+	public void testMatchesSymmetrizedDenseMatrix()
+	{
+		final Set<CityPair> cityPairs = toCityPairs(randomMatrix(11, 21L, false));
+
+		final DenseCostMatrix dense = DenseCostMatrix.of(cityPairs, true);
+		final PackedSymmetricCostMatrix packed = PackedSymmetricCostMatrix.of(cityPairs);
+
+		assertSameCosts(packed, dense);
+		assertThat(packed.copyCosts()).containsExactly(dense.copyCosts());
+	}
+
+	@Test
+	public void testCostArrayFallsBackToLowerTriangle()
+	{
+		final List<City> cities = cities(3);
+		final double[] costs = { Double.NaN, 4, Double.NaN, 7, Double.NaN, 9, 5, 2, Double.NaN };
+
+		final PackedSymmetricCostMatrix packed = PackedSymmetricCostMatrix.of(cities, costs);
+
+		assertSameCosts(packed, DenseCostMatrix.of(cities, costs, true));
+		assertThat(packed.getCost(0, 2)).isEqualTo(5);
+		assertThat(packed.getCost(2, 0)).isEqualTo(5);
+		assertThat(packed.getCost(1, 1)).isEqualTo(INFINITY);
+	}
+
+	@Test
+	public void testRepositoryLoadMatchesCostArray()
+	{
+		final List<City> cities = cities(9);
+		final double[] costs = RouteTestData.toCostArray(randomMatrix(9, 22L, false));
+		costs[2] = Double.NaN;
+		final InMemoryDistanceRepository repository = new InMemoryDistanceRepository();
+		repository.saveCostMatrix(cities, costs);
+
+		final PackedSymmetricCostMatrix packed = PackedSymmetricCostMatrix.of(cities, repository);
+
+		assertSameCosts(packed, PackedSymmetricCostMatrix.of(cities, costs));
+		assertThat(packed.getCost(0, 2)).isEqualTo(Math.round(costs[18]));
+	}
+
+	@Test
+	public void testSetCostWritesBothDirections()
+	{
+		final PackedSymmetricCostMatrix packed = new PackedSymmetricCostMatrix(cities(5));
+		packed.setCost(4, 1, 12);
+		packed.setCost(2, 2, 3);
+
+		assertThat(packed.getCost(1, 4)).isEqualTo(12);
+		assertThat(packed.getCost(4, 1)).isEqualTo(12);
+		assertThat(packed.getCost(2, 2)).isEqualTo(INFINITY);
+		assertThat(packed.getCost(0, 1)).isEqualTo(INFINITY);
+		assertThat(packed.isSymmetric()).isTrue();
+	}
+
+	@Test
+	public void testBranchAndBoundFindsSameOptimum()
+	{
+		final DenseCostMatrix dense = randomMatrix(10, 5L, true);
+		final PackedSymmetricCostMatrix packed = PackedSymmetricCostMatrix.of(toCityPairs(dense));
+
+		final int[] successors = new BranchAndBoundSolver().solve(packed);
+
+		assertThat(tourCost(packed, successors)).isEqualTo(tourCost(dense, new BranchAndBoundSolver().solve(dense)));
+	}
+
+	private static void assertSameCosts(final CostMatrix actual, final CostMatrix expected)
+	{
+		assertThat(actual.size()).isEqualTo(expected.size());
+		for (int row = 0; row < expected.size(); row++)
+		{
+			assertThat(actual.getCity(row)).isEqualTo(expected.getCity(row));
+			for (int column = 0; column < expected.size(); column++)
+			{
+				assertThat(actual.getCost(row, column)).as("cost %s -> %s", row, column).isEqualTo(expected.getCost(row, column));
+			}
+		}
+	}
+}
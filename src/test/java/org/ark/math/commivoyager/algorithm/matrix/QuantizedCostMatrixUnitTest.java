@@ -0,0 +1,102 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.matrix;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.cities;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.ark.math.commivoyager.algorithm.RouteTestData.tourCost;
+import static org.ark.math.commivoyager.algorithm.matrix.CostMatrix.INFINITY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.ark.math.commivoyager.algorithm.BranchAndBoundSolver;
+import org.ark.math.commivoyager.algorithm.matrix.QuantizedCostMatrix.Width;
+import org.junit.Test;
+
+public class QuantizedCostMatrixUnitTest
+{
+	@Test
+	public void testUnitScaleKeepsIntegerCosts()
+	{
+		final DenseCostMatrix dense = randomMatrix(9, 12L, false);
+
+		for (final Width width : Width.values())
+		{
+			final QuantizedCostMatrix quantized = QuantizedCostMatrix.of(dense, width, 1);
+
+			assertThat(quantized.copyCosts()).containsExactly(dense.copyCosts());
+			assertThat(quantized.getMaxError()).isZero();
+		}
+	}
+
+	@Test
+	public void testScaledCostsReportMaxError()
+	{
+		final double[] costs = { Double.NaN, 1234.4, 70000.0, 15.0, Double.NaN, Double.NaN, 99.9, 500.5, Double.NaN };
+
+		final QuantizedCostMatrix quantized = QuantizedCostMatrix.of(cities(3), costs, Width.UINT16, 10, false);
+
+		assertThat(quantized.getCost(0, 1)).isEqualTo(123);
+		assertThat(quantized.getCost(0, 2)).isEqualTo(7000);
+		assertThat(quantized.getCost(1, 0)).isEqualTo(2);
+		assertThat(quantized.getCost(1, 2)).isEqualTo(INFINITY);
+		assertThat(quantized.getCost(2, 2)).isEqualTo(INFINITY);
+		assertThat(quantized.toCost(quantized.getCost(2, 1))).isEqualTo(500.0);
+		assertThat(quantized.getMaxError()).isCloseTo(5.0, within(1e-9));
+	}
+
+	@Test
+	public void testSymmetricalLoadFillsGapsFromLowerTriangle()
+	{
+		final double[] costs = { Double.NaN, 4, Double.NaN, 7, Double.NaN, 9, 5, 2, Double.NaN };
+
+		final QuantizedCostMatrix quantized = QuantizedCostMatrix.of(cities(3), costs, Width.INT32, 1, true);
+
+		assertThat(quantized.getCost(1, 0)).isEqualTo(4);
+		assertThat(quantized.getCost(0, 2)).isEqualTo(5);
+		assertThat(quantized.getCost(2, 1)).isEqualTo(9);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCostBeyondWidthIsRejected()
+	{
+		new QuantizedCostMatrix(cities(2), Width.UINT16, 1).setCost(0, 1, 70000);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSizeBeyondIntIndexIsRejected()
+	{
+		new QuantizedCostMatrix(cities(QuantizedCostMatrix.MAX_CITIES + 1), Width.UINT16, 1);
+	}
+
+	@Test
+	public void testMinimumScaleFitsLargestCost()
+	{
+		final double scale = QuantizedCostMatrix.minimumScale(4_000_000, Width.UINT16);
+		final QuantizedCostMatrix quantized = new QuantizedCostMatrix(cities(2), Width.UINT16, scale);
+		quantized.setCost(0, 1, 4_000_000);
+
+		assertThat(quantized.getCost(0, 1)).isEqualTo(Width.UINT16.getMaxUnits());
+		assertThat(quantized.getMaxError()).isLessThanOrEqualTo(scale / 2);
+	}
+
+	@Test
+	public void testBranchAndBoundSolvesNarrowMatrix()
+	{
+		final DenseCostMatrix dense = randomMatrix(10, 8L, false);
+		final QuantizedCostMatrix quantized = QuantizedCostMatrix.of(dense, Width.UINT16, 1);
+
+		final int[] successors = new BranchAndBoundSolver().solve(quantized);
+
+		assertThat(tourCost(quantized, successors)).isEqualTo(tourCost(dense, new BranchAndBoundSolver().solve(dense)));
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.algorithm.monitoring;
+
+import static org.ark.math.commivoyager.algorithm.RouteTestData.randomMatrix;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ark.math.commivoyager.algorithm.BranchAndBoundSolver;
+import org.ark.math.commivoyager.algorithm.ReductionEngine;
+import org.junit.Test;
+
+public class SolverMetricsUnitTest
+{
+	private final SolverMetrics solverMetrics = new SolverMetrics();
+
+	@Test
+	public void testReductionEngineEvents()
+	{
+		final ReductionEngine reductionEngine = new ReductionEngine();
+		reductionEngine.setSolverListener(solverMetrics);
+		reductionEngine.solve(randomMatrix(20, 1, false));
+
+		assertThat(solverMetrics.getSolves()).isEqualTo(1);
+		assertThat(solverMetrics.getReductions()).isEqualTo(20);
+		assertThat(solverMetrics.getFixedEdges()).isEqualTo(20);
+		assertThat(solverMetrics.getPeakMatrixSize()).isEqualTo(20);
+	}
+
+	@Test
+	public void testBranchAndBoundEvents()
+	{
+		final BranchAndBoundSolver branchAndBoundSolver = new BranchAndBoundSolver();
+		branchAndBoundSolver.setSolverListener(solverMetrics);
+		branchAndBoundSolver.search(randomMatrix(12, 2, false));
+
+		assertThat(solverMetrics.getExpandedNodes()).isPositive();
+		assertThat(solverMetrics.getBoundImprovements()).isPositive();
+		assertThat(solverMetrics.getTotalSolveNanos()).isPositive();
+
+		solverMetrics.reset();
+		assertThat(solverMetrics.getExpandedNodes()).isZero();
+	}
+
+	@Test
+	public void testRegisterMBean() throws Exception
+	{
+		final ObjectName objectName = solverMetrics.registerMBean("unit-test");
+		final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		try
+		{
+			solverMetrics.onSolved(5, 100);
+			assertThat(mBeanServer.getAttribute(objectName, "Solves")).isEqualTo(1L);
+			assertThat(mBeanServer.getAttribute(objectName, "MaxSolveNanos")).isEqualTo(100L);
+		}
+		finally
+		{
+			mBeanServer.unregisterMBean(objectName);
+		}
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.ark.math.commivoyager.repository.impl.InMemoryCityRepository;
+import org.ark.math.commivoyager.repository.impl.InMemoryDistanceRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InstanceImporterUnitTest
+{
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private InMemoryCityRepository cityRepository;
+	private InMemoryDistanceRepository costRepository;
+	private InstanceImporter instanceImporter;
+
+	@Before
+	public void setUp()
+	{
+		cityRepository = new InMemoryCityRepository();
+		costRepository = new InMemoryDistanceRepository();
+		instanceImporter = new InstanceImporter(cityRepository, costRepository, 3);
+		// a few lines per chunk, so every test runs through several chunks in flight
+		instanceImporter.setChunkBytes(32);
+	}
+
+	@After
+	public void tearDown()
+	{
+		instanceImporter.close();
+	}
+
+	@Test
+	public void testImportsFullMatrix() throws Exception
+	{
+		final StringBuilder matrix = new StringBuilder();
+		for (int row = 0; row < 6; row++)
+		{
+			for (int column = 0; column < 6; column++)
+			{
+				matrix.append(' ').append(row == column ? 9999 : (row + 1) * 10 + column + 1);
+			}
+			matrix.append('\n');
+		}
+		final Path file = write("NAME: test6\nTYPE: ATSP\nDIMENSION: 6\nEDGE_WEIGHT_TYPE: EXPLICIT\nEDGE_WEIGHT_FORMAT: FULL_MATRIX\n"
+				+ "EDGE_WEIGHT_SECTION\n" + matrix + "EOF\n");
+
+		final ImportResult result = instanceImporter.importTsplib(file);
+
+		assertThat(result.getRows()).isEqualTo(36);
+		assertThat(result.getBytes()).isEqualTo(Files.size(file));
+		assertThat(cityRepository.getCity(6).getName()).isEqualTo("6");
+		assertThat(cost(2, 5)).isEqualTo(25.0);
+		assertThat(cost(5, 2)).isEqualTo(52.0);
+		assertThat(cost(6, 1)).isEqualTo(61.0);
+		assertThat(cost(3, 3)).isNull();
+	}
+
+	@Test
+	public void testImportsUpperRowBothWays() throws Exception
+	{
+		final Path file = write("NAME : upper\r\nTYPE : TSP\r\nDIMENSION : 4\r\nEDGE_WEIGHT_TYPE : EXPLICIT\r\n"
+				+ "EDGE_WEIGHT_FORMAT : UPPER_ROW\r\nEDGE_WEIGHT_SECTION\r\n12 13 14\r\n23 24\r\n34\r\n"
+				+ "DISPLAY_DATA_SECTION\r\n1 0 0\r\n2 1 1\r\nEOF\r\n");
+
+		assertThat(instanceImporter.importTsplib(file).getRows()).isEqualTo(6);
+
+		assertThat(cost(1, 4)).isEqualTo(14.0);
+		assertThat(cost(4, 1)).isEqualTo(14.0);
+		assertThat(cost(2, 3)).isEqualTo(23.0);
+		assertThat(cost(4, 3)).isEqualTo(34.0);
+	}
+
+	@Test
+	public void testImportsLowerDiagonalRow() throws Exception
+	{
+		final Path file = write("DIMENSION: 3\nEDGE_WEIGHT_TYPE: EXPLICIT\nEDGE_WEIGHT_FORMAT: LOWER_DIAG_ROW\n"
+				+ "EDGE_WEIGHT_SECTION\n0 21 0 31 32 0\n");
+
+		instanceImporter.importTsplib(file);
+
+		assertThat(cost(1, 2)).isEqualTo(21.0);
+		assertThat(cost(3, 1)).isEqualTo(31.0);
+		assertThat(cost(2, 3)).isEqualTo(32.0);
+		assertThat(cost(1, 1)).isNull();
+	}
+
+	@Test
+	public void testImportsEuclideanCoordinates() throws Exception
+	{
+		final Path file = write("NAME: coords\nDIMENSION: 3\nEDGE_WEIGHT_TYPE: EUC_2D\nNODE_COORD_SECTION\n1 0 0\n2 3.5 -4\n"
+				+ "3 1.25e3 7\nEOF\n");
+
+		assertThat(instanceImporter.importTsplib(file).getRows()).isEqualTo(3);
+
+		assertThat(cityRepository.getCity(2).getCoordinates()).isEqualTo(Coordinates.planar(3.5, -4));
+		assertThat(cityRepository.getCity(3).getCoordinates()).isEqualTo(Coordinates.planar(1250, 7));
+	}
+
+	@Test
+	public void testImportsEdgeListWithHeader() throws Exception
+	{
+		cityRepository.saveCity(new City(1, "Kyiv"));
+		final StringBuilder edges = new StringBuilder("from,to,cost\n");
+		for (int from = 1; from <= 10; from++)
+		{
+			for (int to = 1; to <= 10; to++)
+			{
+				if (from != to)
+				{
+					edges.append(from).append(',').append(to).append(',').append(from * 0.5 + to).append('\n');
+				}
+			}
+		}
+		final Path file = write(edges.toString());
+
+		final ImportResult result = instanceImporter.importEdgeList(file);
+
+		assertThat(result.getRows()).isEqualTo(90);
+		assertThat(result.getRowsPerSecond()).isPositive();
+		assertThat(cityRepository.getCity(1).getName()).isEqualTo("Kyiv");
+		assertThat(cityRepository.getCity(10).getName()).isEqualTo("10");
+		assertThat(cost(3, 7)).isEqualTo(8.5);
+		assertThat(cost(10, 9)).isEqualTo(14.0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testShortEdgeWeightSectionIsRejected() throws Exception
+	{
+		instanceImporter.importTsplib(write("DIMENSION: 3\nEDGE_WEIGHT_TYPE: EXPLICIT\nEDGE_WEIGHT_FORMAT: UPPER_ROW\n"
+				+ "EDGE_WEIGHT_SECTION\n12 13\nEOF\n"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEdgeListWithMissingCostIsRejected() throws Exception
+	{
+		instanceImporter.importEdgeList(write("1,2,12\n2,3\n3,1,31\n"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLineLongerThanChunkIsRejected() throws Exception
+	{
+		instanceImporter.importEdgeList(write("1,2,12\n2,3,000000000000000000000000000000000023\n"));
+	}
+
+	private Double cost(final int from, final int to)
+	{
+		return costRepository.getCostBetweeen(new CityPair(new City(from, null), new City(to, null), null));
+	}
+
+	private Path write(final String content) throws IOException
+	{
+		final Path file = temporaryFolder.newFile().toPath();
+		Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+		return file;
+	}
+}
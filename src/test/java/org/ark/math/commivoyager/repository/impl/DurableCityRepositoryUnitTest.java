@@ -0,0 +1,96 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DurableCityRepositoryUnitTest
+{
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testRestoresSnapshotAndLog() throws Exception
+	{
+		final Path directory = temporaryFolder.newFolder().toPath();
+		try (DurableCityRepository repository = DurableCityRepository.open(directory))
+		{
+			repository.saveCity(new City(1, "Kyiv", Coordinates.geographic(50.45, 30.52)));
+			repository.saveCity(new City(2, "Lviv"));
+			repository.snapshot();
+			repository.saveCity(new City(3, "Depot", Coordinates.planar(3.5, -2)));
+			repository.saveCity(new City(2, "Lw\u00f3w"));
+			repository.saveCities(Arrays.asList(new City(4, "Odesa"), new City(5, "Dnipro", Coordinates.planar(1, 2))));
+		}
+
+		try (DurableCityRepository repository = DurableCityRepository.open(directory))
+		{
+			assertThat(repository.getCity(1).getName()).isEqualTo("Kyiv");
+			assertThat(repository.getCity(1).getCoordinates()).isEqualTo(Coordinates.geographic(50.45, 30.52));
+			assertThat(repository.getCity(2).getName()).isEqualTo("Lw\u00f3w");
+			assertThat(repository.getCity(2).getCoordinates()).isNull();
+			assertThat(repository.getCity(3).getCoordinates()).isEqualTo(Coordinates.planar(3.5, -2));
+			assertThat(repository.getCity(4).getName()).isEqualTo("Odesa");
+			assertThat(repository.getCity(5).getCoordinates()).isEqualTo(Coordinates.planar(1, 2));
+			assertThat(repository.getCity(6)).isNull();
+		}
+	}
+
+	@Test
+	public void testLargeBatchIsSplitIntoRecords() throws Exception
+	{
+		final Path directory = temporaryFolder.newFolder().toPath();
+		final List<City> batch = new ArrayList<>();
+		for (int id = 0; id < 10; id++)
+		{
+			batch.add(new City(id, "city" + id));
+		}
+		try (DurableCityRepository repository = DurableCityRepository.open(directory, 0, 100))
+		{
+			// id, name of 5 characters and the coordinate marker take 12 bytes, so a record holds five cities
+			repository.setMaxRecordBytes(64);
+			repository.saveCities(batch);
+
+			assertThat(repository.getCity(9).getName()).isEqualTo("city9");
+		}
+
+		assertThat(Files.size(directory.resolve("cities-0.log"))).isEqualTo(2 * 8 + 10 * 12);
+		try (DurableCityRepository repository = DurableCityRepository.open(directory))
+		{
+			for (int id = 0; id < 10; id++)
+			{
+				assertThat(repository.getCity(id).getName()).isEqualTo("city" + id);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCityWithoutNameIsRejected() throws Exception
+	{
+		try (DurableCityRepository repository = DurableCityRepository.open(temporaryFolder.newFolder().toPath()))
+		{
+			repository.saveCity(new City(1, null));
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DurableDistanceRepositoryUnitTest
+{
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final City city1 = new City(10, "city10");
+	private final City city2 = new City(3, "city3");
+	private final City city3 = new City(7, "city7");
+	private final List<City> cities = Arrays.asList(city1, city2, city3);
+
+	@Test
+	public void testReplaysLogAfterReopen() throws Exception
+	{
+		final Path directory = temporaryFolder.newFolder().toPath();
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory))
+		{
+			repository.saveCostBetween(new CityPair(city1, city2, null), 12.5);
+			repository.saveCostMatrix(cities, new double[] { Double.NaN, 1, 2, 3, Double.NaN, 5, 6, 7, Double.NaN });
+			repository.saveCostBetween(new CityPair(city3, city1, null), 4.0);
+			repository.saveCosts(Arrays.asList(city2, city1), Arrays.asList(city3, city3), new double[] { 9, Double.NaN });
+		}
+
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory))
+		{
+			assertThat(repository.getCostMatrix(cities)).containsExactly(Double.NaN, 1, 2, 3, Double.NaN, 9, 4, 7, Double.NaN);
+			assertThat(repository.getCostBetweeen(new CityPair(city2, city2, null))).isNull();
+		}
+	}
+
+	@Test
+	public void testLargeBatchIsSplitIntoRecords() throws Exception
+	{
+		final Path directory = temporaryFolder.newFolder().toPath();
+		final List<City> fromCities = new ArrayList<>();
+		final double[] costs = new double[10];
+		for (int id = 0; id < costs.length; id++)
+		{
+			fromCities.add(new City(100 + id, ""));
+			costs[id] = id;
+		}
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory, 0, 100))
+		{
+			repository.setMaxRecordEntries(4);
+			repository.saveCosts(fromCities, Collections.nCopies(costs.length, city1), costs);
+
+			assertThat(repository.getCostBetweeen(new CityPair(fromCities.get(9), city1, null))).isEqualTo(9.0);
+		}
+
+		// three records of at most four entries, each behind an 8 byte header
+		assertThat(Files.size(directory.resolve("costs-0.log"))).isEqualTo(3 * 8 + costs.length * 16);
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory))
+		{
+			for (int id = 0; id < costs.length; id++)
+			{
+				assertThat(repository.getCostBetweeen(new CityPair(fromCities.get(id), city1, null))).isEqualTo((double) id);
+			}
+		}
+	}
+
+	@Test
+	public void testSnapshotReplacesOlderLogs() throws Exception
+	{
+		final Path directory = temporaryFolder.newFolder().toPath();
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory))
+		{
+			repository.saveCostBetween(new CityPair(city1, city2, null), 1.0);
+			repository.snapshot();
+			repository.saveCostBetween(new CityPair(city2, city3, null), 2.0);
+		}
+
+		assertThat(Files.exists(directory.resolve("costs.snapshot"))).isTrue();
+		assertThat(Files.exists(directory.resolve("costs-0.log"))).isFalse();
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory))
+		{
+			assertThat(repository.getCostBetweeen(new CityPair(city1, city2, null))).isEqualTo(1.0);
+			assertThat(repository.getCostBetweeen(new CityPair(city2, city3, null))).isEqualTo(2.0);
+		}
+	}
+
+	@Test
+	public void testSnapshotIsTakenAfterConfiguredRecords() throws Exception
+	{
+		final Path directory = temporaryFolder.newFolder().toPath();
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory, 0, 3))
+		{
+			for (int id = 0; id < 10; id++)
+			{
+				repository.saveCostBetween(new CityPair(new City(id, ""), city1, null), (double) id);
+			}
+		}
+
+		assertThat(Files.exists(directory.resolve("costs.snapshot"))).isTrue();
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory))
+		{
+			for (int id = 0; id < 10; id++)
+			{
+				assertThat(repository.getCostBetweeen(new CityPair(new City(id, ""), city1, null))).isEqualTo((double) id);
+			}
+		}
+	}
+
+	@Test
+	public void testTornRecordIsCutOff() throws Exception
+	{
+		final Path directory = temporaryFolder.newFolder().toPath();
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory, 0, 100))
+		{
+			repository.saveCostBetween(new CityPair(city1, city2, null), 1.0);
+		}
+		final Path log = directory.resolve("costs-0.log");
+		final long intactBytes = Files.size(log);
+		// a record header promising more bytes than were written before the crash
+		Files.write(log, new byte[] { 0, 0, 0, 16, 1, 2, 3, 4, 5 }, StandardOpenOption.APPEND);
+
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory, 0, 100))
+		{
+			assertThat(Files.size(log)).isEqualTo(intactBytes);
+			repository.saveCostBetween(new CityPair(city2, city1, null), 2.0);
+		}
+		try (DurableDistanceRepository repository = DurableDistanceRepository.open(directory))
+		{
+			assertThat(repository.getCostBetweeen(new CityPair(city1, city2, null))).isEqualTo(1.0);
+			assertThat(repository.getCostBetweeen(new CityPair(city2, city1, null))).isEqualTo(2.0);
+		}
+	}
+}
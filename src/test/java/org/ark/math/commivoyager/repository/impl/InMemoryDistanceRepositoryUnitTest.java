@@ -0,0 +1,98 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.junit.Test;
+
+public class InMemoryDistanceRepositoryUnitTest
+{
+	private static final double NaN = Double.NaN;
+
+	private final InMemoryDistanceRepository repository = new InMemoryDistanceRepository();
+	private final City city1 = new City(1, "city1");
+	private final City city2 = new City(2, "city2");
+	private final City city3 = new City(3, "city3");
+	private final List<City> cities = Arrays.asList(city1, city2, city3);
+
+	@Test
+	public void testSaveAndGetCostBetween()
+	{
+		repository.saveCostBetween(new CityPair(city1, city2, null), 5.0);
+		assertThat(repository.getCostBetweeen(new CityPair(city1, city2, null))).isEqualTo(5.0);
+		assertThat(repository.getCostBetweeen(new CityPair(city2, city1, null))).isNull();
+	}
+
+	@Test
+	public void testSaveCostMatrix()
+	{
+		repository.saveCostMatrix(cities, new double[] { NaN, 1, 2, 3, NaN, 4, 5, 6, NaN });
+
+		assertThat(repository.getCostBetweeen(new CityPair(city3, city2, null))).isEqualTo(6.0);
+		assertThat(repository.getCostBetweeen(new CityPair(city1, city1, null))).isNull();
+		assertThat(repository.getCostMatrix(Arrays.asList(city3, city1))).containsExactly(NaN, 5, 2, NaN);
+	}
+
+	@Test
+	public void testRowAndColumn()
+	{
+		repository.saveRow(city2, cities, new double[] { 7, NaN, 8 });
+		repository.saveCostBetween(new CityPair(city3, city1, null), 9.0);
+
+		final double[] row = new double[3];
+		repository.getRow(city2, cities, row);
+		assertThat(row).containsExactly(7, NaN, 8);
+
+		final double[] column = new double[3];
+		repository.getColumn(cities, city1, column);
+		assertThat(column).containsExactly(NaN, 7, 9);
+	}
+
+	@Test
+	public void testManyCostsWithExtremeIds()
+	{
+		final int[] ids = { Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE };
+		for (int from = 0; from < ids.length; from++)
+		{
+			for (int to = 0; to < ids.length; to++)
+			{
+				repository.saveCostBetween(new CityPair(new City(ids[from], ""), new City(ids[to], ""), null), from * 10.0 + to);
+			}
+		}
+		for (int id = 2; id < 3000; id++)
+		{
+			repository.saveCostBetween(new CityPair(new City(id, ""), new City(id + 1, ""), null), (double) id);
+		}
+
+		for (int from = 0; from < ids.length; from++)
+		{
+			for (int to = 0; to < ids.length; to++)
+			{
+				assertThat(repository.getCost(new City(ids[from], ""), new City(ids[to], ""))).isEqualTo(from * 10.0 + to);
+			}
+		}
+		assertThat(repository.getCost(new City(2999, ""), new City(3000, ""))).isEqualTo(2999.0);
+		assertThat(repository.getCost(new City(3000, ""), new City(2999, ""))).isNaN();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetRowIntoShortArray()
+	{
+		repository.getRow(city1, cities, new double[2]);
+	}
+}
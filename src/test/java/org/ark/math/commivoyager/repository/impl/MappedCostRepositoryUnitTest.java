@@ -0,0 +1,111 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedCostRepositoryUnitTest
+{
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final City city1 = new City(10, "city10");
+	private final City city2 = new City(3, "city3");
+	private final City city3 = new City(7, "city7");
+	private final List<City> cities = Arrays.asList(city1, city2, city3);
+
+	@Test
+	public void testSaveAndReopen() throws Exception
+	{
+		final Path file = temporaryFolder.newFile().toPath();
+		try (MappedCostRepository repository = MappedCostRepository.create(file, cities))
+		{
+			assertThat(repository.getCityCount()).isEqualTo(3);
+			assertThat(repository.getCostBetweeen(new CityPair(city1, city2, null))).isNull();
+			repository.saveCostBetween(new CityPair(city1, city2, null), 12.5);
+			repository.saveCostBetween(new CityPair(city3, city1, null), 4.0);
+		}
+
+		try (MappedCostRepository repository = MappedCostRepository.open(file, false))
+		{
+			assertThat(repository.getCostBetweeen(new CityPair(city1, city2, null))).isEqualTo(12.5);
+			assertThat(repository.getCostBetweeen(new CityPair(city3, city1, null))).isEqualTo(4.0);
+			assertThat(repository.getCostBetweeen(new CityPair(city2, city1, null))).isNull();
+			assertThat(repository.getCostBetweeen(new CityPair(new City(99, ""), city1, null))).isNull();
+			assertThat(repository.getCityId(0)).isEqualTo(3);
+		}
+	}
+
+	@Test
+	public void testRowsSpreadOverSegments() throws Exception
+	{
+		final Path file = temporaryFolder.newFile().toPath();
+		// one row (3 floats) per segment
+		try (MappedCostRepository repository = MappedCostRepository.create(file, cities, 12))
+		{
+			repository.saveCostBetween(new CityPair(city1, city3, null), 1.0);
+			repository.saveCostBetween(new CityPair(city3, city2, null), 2.0);
+			repository.saveCostBetween(new CityPair(city2, city1, null), 3.0);
+		}
+		try (MappedCostRepository repository = MappedCostRepository.open(file, false))
+		{
+			assertThat(repository.getCostBetweeen(new CityPair(city1, city3, null))).isEqualTo(1.0);
+			assertThat(repository.getCostBetweeen(new CityPair(city3, city2, null))).isEqualTo(2.0);
+			assertThat(repository.getCostBetweeen(new CityPair(city2, city1, null))).isEqualTo(3.0);
+		}
+	}
+
+	@Test
+	public void testBulkOperations() throws Exception
+	{
+		final Path file = temporaryFolder.newFile().toPath();
+		try (MappedCostRepository repository = MappedCostRepository.create(file, cities))
+		{
+			repository.saveCostMatrix(cities, new double[] { Double.NaN, 1, 2, 3, Double.NaN, 4, 5, 6, Double.NaN });
+
+			assertThat(repository.getCostMatrix(Arrays.asList(city3, city1))).containsExactly(Double.NaN, 5, 2, Double.NaN);
+			final double[] column = new double[3];
+			repository.getColumn(cities, city1, column);
+			assertThat(column).containsExactly(Double.NaN, 3, 5);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReadOnlySave() throws Exception
+	{
+		final Path file = temporaryFolder.newFile().toPath();
+		MappedCostRepository.create(file, cities).close();
+		try (MappedCostRepository repository = MappedCostRepository.open(file, false))
+		{
+			repository.saveCostBetween(new CityPair(city1, city2, null), 1.0);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOpenForeignFile() throws Exception
+	{
+		final Path file = temporaryFolder.newFile().toPath();
+		Files.write(file, new byte[32]);
+		MappedCostRepository.open(file, false);
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * [y] hybris Platform
+ *
+ * Copyright (c) 2000-2013 hybris AG
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of hybris
+ * ("Confidential Information"). You shall not disclose such Confidential
+ * Information and shall use it only in accordance with the terms of the
+ * license agreement you entered into with hybris.
+ */
+package org.ark.math.commivoyager.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.ark.math.commivoyager.model.City;
+import org.ark.math.commivoyager.model.CityPair;
+import org.ark.math.commivoyager.model.Coordinates;
+import org.ark.math.commivoyager.repository.impl.MetricCostRepository.Metric;
+import org.junit.Test;
+
+public class MetricCostRepositoryUnitTest
+{
+	private final City origin = new City(1, "origin", Coordinates.planar(0, 0));
+	private final City corner = new City(2, "corner", Coordinates.planar(3, 4));
+	private final City nowhere = new City(3, "nowhere");
+
+	@Test
+	public void testEuclideanCosts()
+	{
+		final MetricCostRepository repository = new MetricCostRepository(Metric.EUCLIDEAN);
+
+		assertThat(repository.getCostBetweeen(new CityPair(origin, corner, null))).isEqualTo(5.0);
+		assertThat(repository.getCostBetweeen(new CityPair(corner, nowhere, null))).isNull();
+		assertThat(repository.getCostMatrix(Arrays.asList(origin, corner, nowhere))).containsExactly(0, 5, Double.NaN, 5, 0,
+				Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+	}
+
+	@Test
+	public void testHaversineCosts()
+	{
+		final MetricCostRepository repository = new MetricCostRepository(Metric.HAVERSINE);
+		final City paris = new City(10, "Paris", Coordinates.geographic(48.8566, 2.3522));
+		final City london = new City(11, "London", Coordinates.geographic(51.5074, -0.1278));
+		final City sydney = new City(12, "Sydney", Coordinates.geographic(-33.8688, 151.2093));
+
+		assertThat(repository.getCost(paris, london)).isCloseTo(343500, within(1000.0));
+		assertThat(repository.getCost(london, sydney)).isCloseTo(16990000, within(20000.0));
+
+		final List<City> cities = Arrays.asList(paris, london, sydney);
+		final double[] matrix = repository.getCostMatrix(cities);
+		final double[] row = new double[3];
+		repository.getRow(london, cities, row);
+		final double[] column = new double[3];
+		repository.getColumn(cities, london, column);
+		for (int city = 0; city < 3; city++)
+		{
+			assertThat(row[city]).isCloseTo(matrix[3 + city], within(1e-6));
+			assertThat(column[city]).isCloseTo(matrix[city * 3 + 1], within(1e-6));
+			assertThat(row[city]).isCloseTo(repository.getCost(london, cities.get(city)), within(1e-6));
+		}
+	}
+
+	@Test
+	public void testCoordinatesFromCityRepository()
+	{
+		final InMemoryCityRepository cityRepository = new InMemoryCityRepository();
+		cityRepository.saveCity(corner);
+		final MetricCostRepository repository = new MetricCostRepository(Metric.EUCLIDEAN, cityRepository);
+
+		assertThat(repository.getCost(origin, new City(2, ""))).isEqualTo(5.0);
+		assertThat(repository.getCost(origin, nowhere)).isNaN();
+	}
+
+	@Test
+	public void testWithCoordinatesResolvesStoredPositions()
+	{
+		final InMemoryCityRepository cityRepository = new InMemoryCityRepository();
+		cityRepository.saveCity(corner);
+		final MetricCostRepository repository = new MetricCostRepository(Metric.EUCLIDEAN, cityRepository);
+
+		final List<City> located = repository.withCoordinates(Arrays.asList(origin, new City(2, "")));
+
+		assertThat(located).containsExactly(origin, corner);
+		assertThat(located.get(1).getCoordinates()).isEqualTo(corner.getCoordinates());
+		assertThat(repository.withCoordinates(Arrays.asList(origin, nowhere))).isNull();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSaveIsNotSupported()
+	{
+		new MetricCostRepository(Metric.EUCLIDEAN).saveCostBetween(new CityPair(origin, corner, null), 1.0);
+	}
+}